@@ -16,19 +16,25 @@
 
 package cd.go.jrepresenter.apt.models;
 
+import cd.go.jrepresenter.Fingerprint;
 import cd.go.jrepresenter.JsonParseException;
+import cd.go.jrepresenter.JsonToken;
+import cd.go.jrepresenter.JsonView;
 import cd.go.jrepresenter.apt.util.DebugStatement;
 import cd.go.jrepresenter.util.FalseFunction;
 import cd.go.jrepresenter.util.NullBiConsumer;
 import cd.go.jrepresenter.util.NullFunction;
+import cd.go.jrepresenter.util.Primitives;
 import cd.go.jrepresenter.util.TrueFunction;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 
-import static cd.go.jrepresenter.apt.models.MapperJavaConstantsFile.SKIP_PARSE_BUILDER;
-import static cd.go.jrepresenter.apt.models.MapperJavaConstantsFile.SKIP_RENDER_BUILDER;
+import java.util.function.Supplier;
+
+import static cd.go.jrepresenter.apt.models.MapperConstants.SKIP_PARSE_BUILDER;
+import static cd.go.jrepresenter.apt.models.MapperConstants.SKIP_RENDER_BUILDER;
 import static cd.go.jrepresenter.apt.models.MapperJavaSourceFile.*;
 import static cd.go.jrepresenter.apt.util.TypeUtil.listOf;
 
@@ -66,24 +72,116 @@ public abstract class BaseAnnotation {
     }
 
     public final CodeBlock getSerializeCodeBlock(ClassToAnnotationMap classToAnnotationMap, String jsonVariableName) {
+        return unlessSkipRender(() -> doSetSerializeCodeBlock(classToAnnotationMap, jsonVariableName));
+    }
+
+    public final CodeBlock getSinkSerializeCodeBlock(ClassToAnnotationMap classToAnnotationMap) {
+        return unlessSkipRender(() -> doSinkSerializeCodeBlock(classToAnnotationMap));
+    }
+
+    /**
+     * Like {@link #getSerializeCodeBlock}, but only when the {@code FieldSelection} in scope includes this property,
+     * which is checked before anything else. Nested representers are rendered with the nested selection.
+     */
+    public final CodeBlock getSelectedSerializeCodeBlock(ClassToAnnotationMap classToAnnotationMap, String jsonVariableName) {
+        if (skipRender.equals(TRUE_FUNCTION)) {
+            return CodeBlock.builder().build();
+        }
+        return CodeBlock.builder()
+                .beginControlFlow("if ($N.includes($S))", FIELD_SELECTION_VAR_NAME, jsonAttribute.nameAsSnakeCase())
+                .add(unlessSkipRender(() -> unlessCollapsed(classToAnnotationMap,
+                        putInJson(jsonVariableName, applySelectedRenderRepresenter(classToAnnotationMap, applySerializer(applyGetter()))),
+                        () -> putInJson(jsonVariableName, applyLinksRepresenter(classToAnnotationMap, applySerializer(applyGetter()))))))
+                .endControlFlow()
+                .build();
+    }
+
+    public final CodeBlock getViewSerializeCodeBlock(ClassToAnnotationMap classToAnnotationMap) {
+        CodeBlock returnValue = unlessCollapsed(classToAnnotationMap,
+                CodeBlock.builder().addStatement("return $L", applyViewRepresenter(classToAnnotationMap, applySerializer(applyGetter()))).build(),
+                () -> CodeBlock.builder().addStatement("return $L", applyLinksRepresenter(classToAnnotationMap, applySerializer(applyGetter()))).build(),
+                CodeBlock.builder().addStatement("return $T.ABSENT", JsonView.class).build());
+        if (skipRender.equals(FALSE_FUNCTION)) {
+            return returnValue;
+        }
+        return CodeBlock.builder()
+                .add(unlessSkipRender(() -> returnValue))
+                .addStatement("return $T.ABSENT", JsonView.class)
+                .build();
+    }
+
+    /**
+     * Mixes the name and the rendered value of this property into the fingerprint in scope. Nested representers
+     * contribute their own fingerprint instead of being rendered, whether or not an embedded relation is expanded.
+     */
+    public final CodeBlock getFingerprintCodeBlock(ClassToAnnotationMap classToAnnotationMap) {
+        return unlessSkipRender(() -> CodeBlock.builder()
+                .add(mixInFingerprint(fingerprintOf(jsonAttribute.nameAsSnakeCase())))
+                .add(mixInFingerprint(applyFingerprintRepresenter(classToAnnotationMap, applySerializer(applyGetter()))))
+                .build());
+    }
+
+    private CodeBlock unlessSkipRender(Supplier<CodeBlock> serializeCodeBlock) {
         if (skipRender.equals(FALSE_FUNCTION)) {
-            return doSetSerializeCodeBlock(classToAnnotationMap, jsonVariableName);
+            return serializeCodeBlock.get();
         } else if (skipRender.equals(TRUE_FUNCTION)) {
             return CodeBlock.builder().build();
         } else {
             return CodeBlock.builder()
-                    .beginControlFlow("if (!$T.apply(value))", SKIP_RENDER_BUILDER.fieldName(skipRender))
-                    .add(doSetSerializeCodeBlock(classToAnnotationMap, jsonVariableName))
+                    .beginControlFlow("if (!$T.apply(value))", SKIP_RENDER_BUILDER.fieldName(parent, skipRender))
+                    .add(serializeCodeBlock.get())
                     .endControlFlow()
                     .build();
 
         }
     }
 
+    /**
+     * Embedded relations with a representer are only rendered by their representer if the request context expands
+     * them, otherwise they are collapsed to the {@code _links} of the representer, or omitted if it has none.
+     */
+    private CodeBlock unlessCollapsed(ClassToAnnotationMap context, CodeBlock expandedCodeBlock, Supplier<CodeBlock> collapsedCodeBlock) {
+        return unlessCollapsed(context, expandedCodeBlock, collapsedCodeBlock, CodeBlock.builder().build());
+    }
+
+    private CodeBlock unlessCollapsed(ClassToAnnotationMap context, CodeBlock expandedCodeBlock, Supplier<CodeBlock> collapsedCodeBlock, CodeBlock omittedCodeBlock) {
+        if (!isExpandable()) {
+            return expandedCodeBlock;
+        }
+        CodeBlock otherwise = context.findRepresenterAnnotation(representerClassName).hasLinksProvider() ? collapsedCodeBlock.get() : omittedCodeBlock;
+        CodeBlock.Builder builder = CodeBlock.builder()
+                .beginControlFlow("if (requestContext.expands($S))", jsonAttribute.nameAsSnakeCase())
+                .add(expandedCodeBlock);
+        if (!otherwise.isEmpty()) {
+            builder.nextControlFlow("else")
+                    .add(otherwise);
+        }
+        return builder.endControlFlow().build();
+    }
+
+    protected boolean isExpandable() {
+        return embedded && hasRepresenter();
+    }
+
+    private CodeBlock nestedRequestContext() {
+        if (isExpandable()) {
+            return CodeBlock.of("requestContext.expand($S)", jsonAttribute.nameAsSnakeCase());
+        }
+        return CodeBlock.of("requestContext");
+    }
+
     public final CodeBlock getDeserializeCodeBlock(ClassToAnnotationMap context) {
+        return unlessSkipParse(() -> doGetDeserializeCodeBlock(context));
+    }
+
+    public final CodeBlock getCollectingDeserializeCodeBlock(ClassToAnnotationMap context) {
+        return unlessSkipParse(() -> doGetCollectingDeserializeCodeBlock(context));
+    }
+
+    private CodeBlock unlessSkipParse(Supplier<CodeBlock> deserializeCodeBlock) {
         if (skipParse.equals(FALSE_FUNCTION)) {
             return CodeBlock.builder()
-                    .add(doGetDeserializeCodeBlock(context))
+                    .add(deserializeCodeBlock.get())
                     .build();
 
         }
@@ -91,16 +189,51 @@ public abstract class BaseAnnotation {
             return CodeBlock.builder().build();
         } else {
             return CodeBlock.builder()
-                    .beginControlFlow("if (!$T.apply(value))", SKIP_PARSE_BUILDER.fieldName(skipParse))
-                    .add(doGetDeserializeCodeBlock(context))
+                    .beginControlFlow("if (!$T.apply(value))", SKIP_PARSE_BUILDER.fieldName(parent, skipParse))
+                    .add(deserializeCodeBlock.get())
                     .endControlFlow()
                     .build();
 
         }
     }
 
+    public final CodeBlock getTokenStreamDeserializeCodeBlock(ClassToAnnotationMap context) {
+        if (skipParse.equals(TRUE_FUNCTION)) {
+            return CodeBlock.builder().build();
+        }
+        return CodeBlock.builder()
+                .beginControlFlow("case $S:", jsonAttribute.nameAsSnakeCase())
+                .add(applySetter(readFromTokenStream(context)))
+                .addStatement("break")
+                .endControlFlow()
+                .build();
+    }
+
+    public boolean canDeserializeFromTokenStream() {
+        return skipParse.equals(FALSE_FUNCTION) || skipParse.equals(TRUE_FUNCTION);
+    }
+
     protected CodeBlock doSetSerializeCodeBlock(ClassToAnnotationMap context, String jsonVariableName) {
-        return putInJson(jsonVariableName, applyRenderRepresenter(context, applySerializer(applyGetter())));
+        return unlessCollapsed(context,
+                putInJson(jsonVariableName, applyRenderRepresenter(context, applySerializer(applyGetter()))),
+                () -> putInJson(jsonVariableName, applyLinksRepresenter(context, applySerializer(applyGetter()))));
+    }
+
+    protected CodeBlock doSinkSerializeCodeBlock(ClassToAnnotationMap context) {
+        CodeBlock getterWithSerializer = applySerializer(applyGetter());
+        CodeBlock.Builder builder = CodeBlock.builder()
+                .addStatement("$N.name($S, $T)", JSON_SINK_VAR_NAME, jsonAttribute.nameAsSnakeCase(), MapperConstants.jsonNameField(parent, jsonAttribute.nameAsSnakeCase()));
+        if (hasRepresenter()) {
+            builder.addStatement("$T.toJSON($L, $L, $N)", context.findRepresenterAnnotation(representerClassName).mapperClassImplRelocated(), getterWithSerializer, nestedRequestContext(), JSON_SINK_VAR_NAME);
+        } else if (isCharFromGetter()) {
+            builder.addStatement("$N.value($T.valueOf($L))", JSON_SINK_VAR_NAME, String.class, getterWithSerializer);
+        } else {
+            builder.addStatement("$N.value($L)", JSON_SINK_VAR_NAME, getterWithSerializer);
+        }
+        return unlessCollapsed(context, builder.build(), () -> CodeBlock.builder()
+                .addStatement("$N.name($S, $T)", JSON_SINK_VAR_NAME, jsonAttribute.nameAsSnakeCase(), MapperConstants.jsonNameField(parent, jsonAttribute.nameAsSnakeCase()))
+                .addStatement("$T.toJSONLinks($L, requestContext, $N)", context.findRepresenterAnnotation(representerClassName).mapperClassImplRelocated(), getterWithSerializer, JSON_SINK_VAR_NAME)
+                .build());
     }
 
     protected abstract CodeBlock applySerializer(CodeBlock getterCodeBlock);
@@ -109,6 +242,11 @@ public abstract class BaseAnnotation {
         return !representerClassName.equals(VOID_CLASS);
     }
 
+    // a char would otherwise be widened to value(long), and rendered as a number instead of a string
+    private boolean isCharFromGetter() {
+        return !hasSerializer() && !hasGetterClass() && TypeName.CHAR.equals(modelAttribute.type);
+    }
+
     protected boolean hasGetterClass() {
         return !getterClassName.equals(NULL_FUNCTION);
     }
@@ -120,7 +258,7 @@ public abstract class BaseAnnotation {
     CodeBlock applyGetter() {
         CodeBlock.Builder builder = CodeBlock.builder();
         if (hasGetterClass()) {
-            return builder.add("$T.apply(value)", MapperJavaConstantsFile.GETTERS_BUILDER.fieldName(getterClassName)).build();
+            return builder.add("$T.apply(value)", MapperConstants.GETTERS_BUILDER.fieldName(parent, getterClassName)).build();
         } else {
             return builder.add("value.$N()", modelAttributeGetter()).build();
         }
@@ -131,13 +269,61 @@ public abstract class BaseAnnotation {
             return CodeBlock.builder()
                     .add("$T.toJSON(", context.findRepresenterAnnotation(representerClassName).mapperClassImplRelocated())
                     .add(getterWithSerializer)
-                    .add(", requestContext)")
+                    .add(", $L)", nestedRequestContext())
                     .build();
         } else {
             return getterWithSerializer;
         }
     }
 
+    CodeBlock applySelectedRenderRepresenter(ClassToAnnotationMap context, CodeBlock getterWithSerializer) {
+        if (hasRepresenter()) {
+            return CodeBlock.builder()
+                    .add("$T.toJSON(", context.findRepresenterAnnotation(representerClassName).mapperClassImplRelocated())
+                    .add(getterWithSerializer)
+                    .add(", $L, $N.nested($S))", nestedRequestContext(), FIELD_SELECTION_VAR_NAME, jsonAttribute.nameAsSnakeCase())
+                    .build();
+        } else {
+            return getterWithSerializer;
+        }
+    }
+
+    CodeBlock applyViewRepresenter(ClassToAnnotationMap context, CodeBlock getterWithSerializer) {
+        if (hasRepresenter()) {
+            return CodeBlock.builder()
+                    .add("$T.toJSONView(", context.findRepresenterAnnotation(representerClassName).mapperClassImplRelocated())
+                    .add(getterWithSerializer)
+                    .add(", $L)", nestedRequestContext())
+                    .build();
+        } else {
+            return getterWithSerializer;
+        }
+    }
+
+    CodeBlock applyFingerprintRepresenter(ClassToAnnotationMap context, CodeBlock getterWithSerializer) {
+        if (hasRepresenter()) {
+            return CodeBlock.builder()
+                    .add("$T.fingerprint(", context.findRepresenterAnnotation(representerClassName).mapperClassImplRelocated())
+                    .add(getterWithSerializer)
+                    .add(")")
+                    .build();
+        } else {
+            return CodeBlock.builder()
+                    .add("$T.of(", Fingerprint.class)
+                    .add(getterWithSerializer)
+                    .add(")")
+                    .build();
+        }
+    }
+
+    CodeBlock applyLinksRepresenter(ClassToAnnotationMap context, CodeBlock getterWithSerializer) {
+        return CodeBlock.builder()
+                .add("$T.toJSONLinks(", context.findRepresenterAnnotation(representerClassName).mapperClassImplRelocated())
+                .add(getterWithSerializer)
+                .add(", requestContext)")
+                .build();
+    }
+
     CodeBlock putInJson(String jsonVariableName, CodeBlock whatToPut) {
         return CodeBlock.builder()
                 .add("$[")
@@ -156,8 +342,31 @@ public abstract class BaseAnnotation {
                 .build();
     }
 
+    // records the errors in this property, and in any nested representation, and carries on with the next property
+    CodeBlock doGetCollectingDeserializeCodeBlock(ClassToAnnotationMap context) {
+        CodeBlock deserializeCodeBlock = applySetter(applyCollectingParseRepresenter(context, applyDeserializer(getValueFromJson())));
+        return CodeBlock.builder()
+                .beginControlFlow("if ($N.containsKey($S))", JSON_OBJECT_VAR_NAME, jsonAttribute.nameAsSnakeCase())
+                .beginControlFlow("try")
+                .add(deserializeCodeBlock)
+                .nextControlFlow("catch ($T e)", JsonParseException.class)
+                .addStatement("$N.add($S, e)", PARSE_ERRORS_VAR_NAME, jsonAttribute.nameAsSnakeCase())
+                .endControlFlow()
+                .endControlFlow()
+                .build();
+    }
+
     protected abstract CodeBlock applyDeserializer(CodeBlock valueFromJson);
 
+    // whether applyDeserializer declares the deserialized value with the type of the model attribute, so it needs no cast
+    protected boolean deserializesToModelAttributeType() {
+        return false;
+    }
+
+    String jsonAttributeName() {
+        return jsonAttribute.nameAsSnakeCase();
+    }
+
     protected String modelAttributeGetter() {
         return "get" + modelAttribute.name.substring(0, 1).toUpperCase() + modelAttribute.name.substring(1);
     }
@@ -192,7 +401,7 @@ public abstract class BaseAnnotation {
                 .add(DebugStatement.printDebug("begin applying setter"));
 
         if (hasSetterClass()) {
-            builder.addStatement("new $T().accept(model, $N)", setterClassName, MapperJavaSourceFile.MODEL_ATTRIBUTE_VARIABLE_NAME);
+            builder.addStatement("$T.accept(model, $N)", MapperConstants.SETTERS_BUILDER.fieldName(parent, setterClassName), MapperJavaSourceFile.MODEL_ATTRIBUTE_VARIABLE_NAME);
         } else {
             builder.addStatement("model.$N($N)", modelAttributeSetter(), MapperJavaSourceFile.MODEL_ATTRIBUTE_VARIABLE_NAME);
         }
@@ -206,16 +415,13 @@ public abstract class BaseAnnotation {
                 .add(deserializedCodeBlock)
                 .add(DebugStatement.printDebug("begin applying parse representation"));
 
-        TypeName targetType;
-        if (this instanceof CollectionAnnotation) {
-            targetType = listOf(modelAttribute.type);
-        } else {
-            targetType = modelAttribute.type;
-        }
+        TypeName targetType = modelAttributeTargetType();
 
         if (hasRepresenter()) {
             ClassName mapperClass = context.findRepresenterAnnotation(representerClassName).mapperClassImplRelocated();
             builder.addStatement("$T $N = $T.fromJSON(($T) $N)", targetType, MODEL_ATTRIBUTE_VARIABLE_NAME, mapperClass, jsonAttributeRawType(), DESERIALIZED_JSON_ATTRIBUTE_NAME);
+        } else if (deserializesToModelAttributeType()) {
+            builder.addStatement("$T $N = $N", targetType, MODEL_ATTRIBUTE_VARIABLE_NAME, DESERIALIZED_JSON_ATTRIBUTE_NAME);
         } else {
             builder.addStatement("$T $N = ($T) $N", targetType, MODEL_ATTRIBUTE_VARIABLE_NAME, targetType, DESERIALIZED_JSON_ATTRIBUTE_NAME);
         }
@@ -225,17 +431,103 @@ public abstract class BaseAnnotation {
         return builder.build();
     }
 
+    private CodeBlock applyCollectingParseRepresenter(ClassToAnnotationMap context, CodeBlock deserializedCodeBlock) {
+        if (!hasRepresenter()) {
+            return applyParseRepresenter(context, deserializedCodeBlock);
+        }
+
+        ClassName mapperClass = context.findRepresenterAnnotation(representerClassName).mapperClassImplRelocated();
+        CodeBlock.Builder builder = CodeBlock.builder()
+                .add(deserializedCodeBlock)
+                .add(DebugStatement.printDebug("begin applying parse representation"))
+                .addStatement("$N.push($S)", PARSE_ERRORS_VAR_NAME, jsonAttribute.nameAsSnakeCase());
+
+        if (this instanceof CollectionAnnotation) {
+            // the collecting mapper takes a typed list, the elements themselves are checked as each of them is parsed
+            TypeName listOfMaps = listOf(MAP_OF_STRING_TO_OBJECT);
+            builder.addStatement("@$T($S) $T $N = ($T) $N", SuppressWarnings.class, "unchecked", listOfMaps, NESTED_JSON_ARRAY_VAR_NAME, listOfMaps, DESERIALIZED_JSON_ATTRIBUTE_NAME)
+                    .addStatement("$T $N = $T.fromJSON($N, $N)", modelAttributeTargetType(), MODEL_ATTRIBUTE_VARIABLE_NAME, mapperClass, NESTED_JSON_ARRAY_VAR_NAME, PARSE_ERRORS_VAR_NAME);
+        } else {
+            builder.addStatement("$T $N = $T.fromJSON(($T) $N, $N)", modelAttributeTargetType(), MODEL_ATTRIBUTE_VARIABLE_NAME, mapperClass, jsonAttributeRawType(), DESERIALIZED_JSON_ATTRIBUTE_NAME, PARSE_ERRORS_VAR_NAME);
+        }
+
+        return builder
+                .addStatement("$N.pop()", PARSE_ERRORS_VAR_NAME)
+                .add(DebugStatement.printDebug("end applying parse representation"))
+                .build();
+    }
+
+    private TypeName modelAttributeTargetType() {
+        if (this instanceof CollectionAnnotation) {
+            return listOf(modelAttribute.type);
+        } else {
+            return modelAttribute.type;
+        }
+    }
+
+    private CodeBlock readFromTokenStream(ClassToAnnotationMap context) {
+        if (!hasRepresenter() || hasDeserializer()) {
+            return applyParseRepresenter(context, applyDeserializer(getValueFromTokenStream()));
+        }
+
+        boolean isCollection = this instanceof CollectionAnnotation;
+        ClassName mapperClass = context.findRepresenterAnnotation(representerClassName).mapperClassImplRelocated();
+        return CodeBlock.builder()
+                .add(DebugStatement.printDebug("begin to read the nested representation from the token stream"))
+                .beginControlFlow("if ($N.peek() != $T.$L)", JSON_SOURCE_VAR_NAME, JsonToken.class, isCollection ? JsonToken.BEGIN_ARRAY : JsonToken.BEGIN_OBJECT)
+                .addStatement("$T.throwBadJsonType($S, $T.class, $N.readValue())", JsonParseException.class, jsonAttribute.nameAsSnakeCase(), jsonAttributeRawType(), JSON_SOURCE_VAR_NAME)
+                .endControlFlow()
+                .addStatement("$T $N = $T.$N($N)", modelAttributeTargetType(), MODEL_ATTRIBUTE_VARIABLE_NAME, mapperClass, isCollection ? "fromJSONArray" : "fromJSON", JSON_SOURCE_VAR_NAME)
+                .add(DebugStatement.printDebug("end to read the nested representation from the token stream"))
+                .build();
+    }
+
+    private CodeBlock getValueFromTokenStream() {
+        if (isCoercedToPrimitive()) {
+            return CodeBlock.builder()
+                    .add(DebugStatement.printDebug("begin to read the value from the token stream"))
+                    .addStatement("$T $N = $T.$N($S, $N)", jsonAttribute.type, JSON_ATTRIBUTE_VARIABLE_NAME, Primitives.class, "read" + primitiveCoercionSuffix(), jsonAttribute.nameAsSnakeCase(), JSON_SOURCE_VAR_NAME)
+                    .add(DebugStatement.printDebug("end to read the value from the token stream"))
+                    .build();
+        }
+        return CodeBlock.builder()
+                .add(DebugStatement.printDebug("begin to read the value from the token stream"))
+                .addStatement("$T $N = $N.readValue()", Object.class, JSON_ATTRIBUTE_VARIABLE_NAME, JSON_SOURCE_VAR_NAME)
+                .beginControlFlow("if (!($N instanceof $T))", JSON_ATTRIBUTE_VARIABLE_NAME, jsonAttributeRawType())
+                .addStatement("$T.throwBadJsonType($S, $T.class, $N)", JsonParseException.class, jsonAttribute.nameAsSnakeCase(), jsonAttributeRawType(), JSON_ATTRIBUTE_VARIABLE_NAME)
+                .endControlFlow()
+                .add(DebugStatement.printDebug("end to read the value from the token stream"))
+                .build();
+    }
+
     private CodeBlock getValueFromJson() {
+        if (isCoercedToPrimitive()) {
+            return CodeBlock.builder()
+                    .add(DebugStatement.printDebug("begin to get the value from json"))
+                    .addStatement("$T $N = $T.$N($S, $N.get($S))", jsonAttribute.type, JSON_ATTRIBUTE_VARIABLE_NAME, Primitives.class, "to" + primitiveCoercionSuffix(), jsonAttribute.nameAsSnakeCase(), JSON_OBJECT_VAR_NAME, jsonAttribute.nameAsSnakeCase())
+                    .add(DebugStatement.printDebug("end to get the value from json"))
+                    .build();
+        }
         return CodeBlock.builder()
                 .add(DebugStatement.printDebug("begin to get the value from json"))
                 .addStatement("$T $N = $N.get($S)", Object.class, JSON_ATTRIBUTE_VARIABLE_NAME, JSON_OBJECT_VAR_NAME, jsonAttribute.nameAsSnakeCase())
                 .beginControlFlow("if (!($N instanceof $T))", JSON_ATTRIBUTE_VARIABLE_NAME, jsonAttributeRawType())
-                .addStatement("$T.throwBadJsonType($S, $T.class, $N)", JsonParseException.class, jsonAttribute.nameAsSnakeCase(), jsonAttributeRawType(), JSON_OBJECT_VAR_NAME)
+                .addStatement("$T.throwBadJsonType($S, $T.class, $N)", JsonParseException.class, jsonAttribute.nameAsSnakeCase(), jsonAttributeRawType(), JSON_ATTRIBUTE_VARIABLE_NAME)
                 .endControlFlow()
                 .add(DebugStatement.printDebug("end to get the value from json"))
                 .build();
     }
 
+    // numbers are parsed as Doubles, or not boxed at all from a token stream, so they can't just be cast
+    private boolean isCoercedToPrimitive() {
+        return jsonAttribute.type.isPrimitive() || jsonAttribute.type.isBoxedPrimitive();
+    }
+
+    private String primitiveCoercionSuffix() {
+        String primitive = jsonAttribute.type.unbox().toString();
+        return primitive.substring(0, 1).toUpperCase() + primitive.substring(1);
+    }
+
     TypeName jsonAttributeRawType() {
         TypeName type = jsonAttribute.type;
         if (type instanceof ParameterizedTypeName) {
@@ -25,30 +25,43 @@ import java.util.function.Consumer;
 
 public class ClassToAnnotationMap {
     private Map<RepresenterAnnotation, List<BaseAnnotation>> classToAnnotationMap = new LinkedHashMap<>();
-    private Set<TypeName> serializers = new LinkedHashSet<>();
-    private Set<TypeName> deserializers = new LinkedHashSet<>();
-
-    private Set<TypeName> getters = new LinkedHashSet<>();
-    private Set<TypeName> setters = new LinkedHashSet<>();
-    private Set<TypeName> skipParses = new LinkedHashSet<>();
-    private Set<TypeName> skipRenders = new LinkedHashSet<>();
-    private Set<TypeName> customRepresenters = new LinkedHashSet<>();
+    private Map<TypeName, RepresenterAnnotation> representersByClass = new HashMap<>();
 
     public void add(RepresenterAnnotation representerAnnotation) {
-        if (!classToAnnotationMap.containsKey(representerAnnotation)) {
+        if (representersByClass.putIfAbsent(representerAnnotation.getRepresenterClass(), representerAnnotation) == null) {
             classToAnnotationMap.put(representerAnnotation, new ArrayList<>());
-            if (representerAnnotation.hasDeserializerClass()) {
-                customRepresenters.add(representerAnnotation.getDeserializerClass());
-            }
         }
     }
 
 
     public RepresenterAnnotation findRepresenterAnnotation(TypeName representerClass) {
-        return classToAnnotationMap.keySet().stream()
-                .filter(representerAnnotation -> representerAnnotation.getRepresenterClass().equals(representerClass))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Could not find representer for class " + representerClass));
+        RepresenterAnnotation representerAnnotation = representersByClass.get(representerClass);
+        if (representerAnnotation == null) {
+            throw new RuntimeException("Could not find representer for class " + representerClass);
+        }
+        return representerAnnotation;
+    }
+
+    public boolean hasRepresenterAnnotation(TypeName representerClass) {
+        return representersByClass.containsKey(representerClass);
+    }
+
+    /**
+     * @return the representers that the annotated methods and subclasses of the representers in this map refer to,
+     * but which have not been added to it yet.
+     */
+    public Set<TypeName> missingReferencedRepresenters() {
+        Set<TypeName> referencedRepresenters = new LinkedHashSet<>();
+        classToAnnotationMap.forEach((representerAnnotation, baseAnnotations) -> {
+            baseAnnotations.stream()
+                    .filter(BaseAnnotation::hasRepresenter)
+                    .forEach(baseAnnotation -> referencedRepresenters.add(baseAnnotation.representerClassName));
+            representerAnnotation.getRepresentsSubClassesAnnotation()
+                    .ifPresent(subClassesAnnotation -> subClassesAnnotation.getSubClassInfos()
+                            .forEach(subClassInfo -> referencedRepresenters.add(subClassInfo.getRepresenterClass())));
+        });
+        referencedRepresenters.removeIf(this::hasRepresenterAnnotation);
+        return referencedRepresenters;
     }
 
     public void addAnnotatedMethod(String representerClass, BaseAnnotation propertyAnnotation) {
@@ -56,28 +69,11 @@ public class ClassToAnnotationMap {
     }
 
     public void addAnnotatedMethod(TypeName representerClass, BaseAnnotation annotation) {
-        if (annotation.hasSerializer()) {
-            serializers.add(annotation.serializerClassName);
+        RepresenterAnnotation representerAnnotation = representersByClass.get(representerClass);
+        if (representerAnnotation != null) {
+            annotation.setParent(representerAnnotation);
+            classToAnnotationMap.get(representerAnnotation).add(annotation);
         }
-        if (annotation.hasDeserializer()) {
-            deserializers.add(annotation.deserializerClassName);
-        }
-        if (annotation.hasGetterClass()) {
-            getters.add(annotation.getterClassName);
-        }
-        if (annotation.hasSetterClass()) {
-            setters.add(annotation.setterClassName);
-        }
-
-        skipParses.add(annotation.skipParse);
-        skipRenders.add(annotation.skipRender);
-
-        classToAnnotationMap.forEach((representerAnnotation, baseAnnotations) -> {
-            if (representerAnnotation.getRepresenterClass().equals(representerClass)) {
-                annotation.setParent(representerAnnotation);
-                baseAnnotations.add(annotation);
-            }
-        });
     }
 
     public void forEach(BiConsumer<? super RepresenterAnnotation, ? super List<BaseAnnotation>> action) {
@@ -92,35 +88,7 @@ public class ClassToAnnotationMap {
         return classToAnnotationMap.get(representerAnnotation);
     }
 
-    public Set<TypeName> serializers() {
-        return serializers;
-    }
-
-    public Set<TypeName> deserializers() {
-        return deserializers;
-    }
-
-    public Set<TypeName> getters() {
-        return getters;
-    }
-
-    public Set<TypeName> setters() {
-        return setters;
-    }
-
-    public Set<TypeName> skipParses() {
-        return skipParses;
-    }
-
-    public Set<TypeName> skipRenders() {
-        return skipRenders;
-    }
-
     public boolean isEmpty() {
         return classToAnnotationMap.isEmpty();
     }
-
-    public Set<TypeName> customRepresenters() {
-        return customRepresenters;
-    }
 }
@@ -17,11 +17,10 @@
 package cd.go.jrepresenter.apt.models;
 
 import cd.go.jrepresenter.apt.util.DebugStatement;
+import cd.go.jrepresenter.util.Lists;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.TypeName;
 
-import java.util.stream.Collectors;
-
 import static cd.go.jrepresenter.apt.models.MapperJavaSourceFile.JSON_ATTRIBUTE_VARIABLE_NAME;
 
 public class CollectionAnnotation extends BaseAnnotation {
@@ -36,12 +35,9 @@ public class CollectionAnnotation extends BaseAnnotation {
         if (hasSerializer()) {
             return CodeBlock.builder()
                     .add(DebugStatement.printDebug("foo"))
-                    .add("(")
+                    .add("$T.map(", Lists.class)
                     .add(valueFromGetter)
-                    .add(")")
-                    .add(".stream().map($T::apply).collect($T.toList())",
-                            MapperJavaConstantsFile.SERIALIZE_BUILDER.fieldName(serializerClassName),
-                            Collectors.class)
+                    .add(", $T)", MapperConstants.SERIALIZE_BUILDER.fieldName(parent, serializerClassName))
                     .build();
         } else {
             return valueFromGetter;
@@ -54,13 +50,13 @@ public class CollectionAnnotation extends BaseAnnotation {
                 .add(valueFromJson)
                 .add(DebugStatement.printDebug("begin to apply deserializer"));
         if (hasDeserializer()) {
-            builder.addStatement("$T $N = (($T) ($N)).stream().map($T::apply).collect($T.toList())",
+            builder.addStatement("$T $N = $T.map(($T) $N, $T)",
                     jsonAttributeRawType(),
                     MapperJavaSourceFile.DESERIALIZED_JSON_ATTRIBUTE_NAME,
+                    Lists.class,
                     jsonAttribute.type,
                     JSON_ATTRIBUTE_VARIABLE_NAME,
-                    MapperJavaConstantsFile.DESERIALIZER_BUILDER.fieldName(deserializerClassName),
-                    Collectors.class);
+                    MapperConstants.DESERIALIZER_BUILDER.fieldName(parent, deserializerClassName));
         } else {
             builder.addStatement(
                     "$T $N = ($T) $N",
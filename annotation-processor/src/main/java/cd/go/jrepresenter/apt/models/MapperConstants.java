@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.apt.models;
+
+import cd.go.jrepresenter.EnumCodec;
+import cd.go.jrepresenter.Utf8JsonSink;
+import com.google.common.base.CaseFormat;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.Modifier;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static cd.go.jrepresenter.apt.models.BaseAnnotation.FALSE_FUNCTION;
+import static cd.go.jrepresenter.apt.models.BaseAnnotation.TRUE_FUNCTION;
+
+/**
+ * The {@code Constants} type nested in each generated mapper, holding one shared instance of every serializer,
+ * getter, setter etc. that the mapper's representer refers to. Keeping these per mapper, rather than in one file for
+ * all representers, means that a mapper only depends on its own representer.
+ * <p>
+ * It also holds the names that the mapper renders, encoded once as the bytes that {@link Utf8JsonSink} writes for them,
+ * so that rendering a key is just a copy.
+ */
+public class MapperConstants {
+    public static final TypeSpecBuilder SETTERS_BUILDER = new TypeSpecBuilder("Setters", "Setter$");
+    public static final TypeSpecBuilder CUSTOM_REPRESENTER_BUILDER = new TypeSpecBuilder("ToJSONMappers", "(Deserializer|Mapper)$");
+    public static final TypeSpecBuilder GETTERS_BUILDER = new TypeSpecBuilder("Getters", "Getter$");
+    public static final TypeSpecBuilder SERIALIZE_BUILDER = new TypeSpecBuilder("Serializers", "Serializer$");
+    public static final TypeSpecBuilder DESERIALIZER_BUILDER = new TypeSpecBuilder("Deserializers", "Deserializer$");
+    public static final TypeSpecBuilder SKIP_PARSE_BUILDER = new TypeSpecBuilder("SkipParsers", "SkipParse$");
+    public static final TypeSpecBuilder SKIP_RENDER_BUILDER = new TypeSpecBuilder("SkipRenderers", "SkipRender");
+    public static final TypeSpecBuilder LINKS_PROVIDER_BUILDER = new TypeSpecBuilder("LinksProviders", "LinksProvider$");
+    public static final TypeSpecBuilder CACHE_KEYS_BUILDER = new TypeSpecBuilder("CacheKeys", "CacheKey$");
+    public static final TypeSpecBuilder ENUM_CODECS_BUILDER = new EnumCodecsBuilder("EnumCodecs", false);
+    public static final TypeSpecBuilder CASE_INSENSITIVE_ENUM_CODECS_BUILDER = new EnumCodecsBuilder("CaseInsensitiveEnumCodecs", true);
+
+    public static final String CONSTANTS_CLASS_SIMPLE_NAME = "Constants";
+    public static final String JSON_NAMES_CLASS_SIMPLE_NAME = "JsonNames";
+
+    private final Set<TypeName> serializers = new LinkedHashSet<>();
+    private final Set<TypeName> deserializers = new LinkedHashSet<>();
+    private final Set<TypeName> getters = new LinkedHashSet<>();
+    private final Set<TypeName> setters = new LinkedHashSet<>();
+    private final Set<TypeName> skipParses = new LinkedHashSet<>();
+    private final Set<TypeName> skipRenders = new LinkedHashSet<>();
+    private final Set<TypeName> customRepresenters = new LinkedHashSet<>();
+    private final Set<TypeName> linksProviders = new LinkedHashSet<>();
+    private final Set<TypeName> cacheKeys = new LinkedHashSet<>();
+    private final Set<TypeName> enumCodecs = new LinkedHashSet<>();
+    private final Set<TypeName> caseInsensitiveEnumCodecs = new LinkedHashSet<>();
+    private final Set<String> jsonNames = new LinkedHashSet<>();
+
+    public MapperConstants(RepresenterAnnotation representerAnnotation, List<BaseAnnotation> annotations) {
+        if (representerAnnotation.hasDeserializerClass()) {
+            customRepresenters.add(representerAnnotation.getDeserializerClass());
+        }
+        if (representerAnnotation.hasCacheKeyClass() && !representerAnnotation.shouldSkipSerialize()) {
+            cacheKeys.add(representerAnnotation.getCacheKeyClass());
+        }
+        representerAnnotation.getRepresentsSubClassesAnnotation().ifPresent(subClassesAnnotation -> subClassesAnnotation.getSubClassInfos().stream()
+                .filter(SubClassInfoAnnotation::hasLinksProvider)
+                .forEach(subClassInfo -> linksProviders.add(subClassInfo.getLinksProvider())));
+
+        annotations.forEach(annotation -> {
+            if (annotation.hasSerializer()) {
+                serializers.add(annotation.serializerClassName);
+            }
+            if (annotation.hasDeserializer()) {
+                deserializers.add(annotation.deserializerClassName);
+            }
+            if (annotation.hasGetterClass()) {
+                getters.add(annotation.getterClassName);
+            }
+            if (annotation.hasSetterClass()) {
+                setters.add(annotation.setterClassName);
+            }
+            if (isCustomFunction(annotation.skipParse)) {
+                skipParses.add(annotation.skipParse);
+            }
+            if (isCustomFunction(annotation.skipRender)) {
+                skipRenders.add(annotation.skipRender);
+            }
+            if (annotation instanceof PropertyAnnotation && ((PropertyAnnotation) annotation).usesEnumCodec()) {
+                PropertyAnnotation propertyAnnotation = (PropertyAnnotation) annotation;
+                (propertyAnnotation.ignoresCase() ? caseInsensitiveEnumCodecs : enumCodecs).add(propertyAnnotation.enumType());
+            }
+        });
+
+        if (!representerAnnotation.shouldSkipSerialize()) {
+            annotations.stream()
+                    .filter(annotation -> !annotation.skipRender.equals(TRUE_FUNCTION))
+                    .forEach(annotation -> jsonNames.add(annotation.jsonAttribute.nameAsSnakeCase()));
+            if (annotations.stream().anyMatch(BaseAnnotation::isEmbedded)) {
+                jsonNames.add("_embedded");
+            }
+            representerAnnotation.getRepresentsSubClassesAnnotation()
+                    .map(RepresentsSubClassesAnnotation::getNestedUnder)
+                    .filter(nestedUnder -> !nestedUnder.isEmpty())
+                    .ifPresent(jsonNames::add);
+        }
+    }
+
+    public boolean isEmpty() {
+        return serializers.isEmpty() && deserializers.isEmpty() && getters.isEmpty() && setters.isEmpty()
+                && skipParses.isEmpty() && skipRenders.isEmpty() && customRepresenters.isEmpty() && linksProviders.isEmpty() && cacheKeys.isEmpty()
+                && enumCodecs.isEmpty() && caseInsensitiveEnumCodecs.isEmpty() && jsonNames.isEmpty();
+    }
+
+    public TypeSpec toTypeSpec() {
+        TypeSpec.Builder classBuilder = TypeSpec.interfaceBuilder(CONSTANTS_CLASS_SIMPLE_NAME)
+                .addModifiers(Modifier.PRIVATE);
+
+        addIfNotEmpty(classBuilder, SERIALIZE_BUILDER, serializers);
+        addIfNotEmpty(classBuilder, DESERIALIZER_BUILDER, deserializers);
+        addIfNotEmpty(classBuilder, GETTERS_BUILDER, getters);
+        addIfNotEmpty(classBuilder, SETTERS_BUILDER, setters);
+        addIfNotEmpty(classBuilder, SKIP_PARSE_BUILDER, skipParses);
+        addIfNotEmpty(classBuilder, SKIP_RENDER_BUILDER, skipRenders);
+        addIfNotEmpty(classBuilder, CUSTOM_REPRESENTER_BUILDER, customRepresenters);
+        addIfNotEmpty(classBuilder, LINKS_PROVIDER_BUILDER, linksProviders);
+        addIfNotEmpty(classBuilder, CACHE_KEYS_BUILDER, cacheKeys);
+        addIfNotEmpty(classBuilder, ENUM_CODECS_BUILDER, enumCodecs);
+        addIfNotEmpty(classBuilder, CASE_INSENSITIVE_ENUM_CODECS_BUILDER, caseInsensitiveEnumCodecs);
+
+        if (!jsonNames.isEmpty()) {
+            TypeSpec.Builder jsonNamesBuilder = TypeSpec.interfaceBuilder(JSON_NAMES_CLASS_SIMPLE_NAME).addModifiers(Modifier.STATIC, Modifier.PUBLIC);
+            jsonNames.forEach(name -> jsonNamesBuilder.addField(FieldSpec.builder(byte[].class, jsonNameFieldName(name), Modifier.STATIC, Modifier.PUBLIC, Modifier.FINAL)
+                    .initializer("$T.encodeName($S)", Utf8JsonSink.class, name)
+                    .build()));
+            classBuilder.addType(jsonNamesBuilder.build());
+        }
+
+        return classBuilder.build();
+    }
+
+    /**
+     * The constant holding the encoded form of a name that the representer renders, for {@code JsonSink.name}.
+     */
+    public static TypeName jsonNameField(RepresenterAnnotation representerAnnotation, String name) {
+        return representerAnnotation.constantsClassRelocated().nestedClass(JSON_NAMES_CLASS_SIMPLE_NAME).nestedClass(jsonNameFieldName(name));
+    }
+
+    private static String jsonNameFieldName(String name) {
+        return CaseFormat.LOWER_UNDERSCORE.to(CaseFormat.UPPER_UNDERSCORE, name);
+    }
+
+    private void addIfNotEmpty(TypeSpec.Builder classBuilder, TypeSpecBuilder typeSpecBuilder, Set<TypeName> types) {
+        if (!types.isEmpty()) {
+            classBuilder.addType(typeSpecBuilder.build(types));
+        }
+    }
+
+    // TrueFunction and FalseFunction are inlined by the generated code, so they never need an instance
+    private static boolean isCustomFunction(TypeName skipFunction) {
+        return !skipFunction.equals(FALSE_FUNCTION) && !skipFunction.equals(TRUE_FUNCTION);
+    }
+
+    // one EnumCodec per enum, rather than an instance of the type itself
+    private static class EnumCodecsBuilder extends TypeSpecBuilder {
+        private final boolean ignoreCase;
+
+        EnumCodecsBuilder(String constName, boolean ignoreCase) {
+            super(constName, "^$");
+            this.ignoreCase = ignoreCase;
+        }
+
+        @Override
+        TypeName fieldType(TypeName enumType) {
+            return ParameterizedTypeName.get(ClassName.get(EnumCodec.class), enumType);
+        }
+
+        @Override
+        CodeBlock initializer(TypeName enumType) {
+            return CodeBlock.of("new $T<>($T.class, $L)", EnumCodec.class, enumType, ignoreCase);
+        }
+    }
+}
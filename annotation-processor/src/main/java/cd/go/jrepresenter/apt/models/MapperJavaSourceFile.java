@@ -16,22 +16,40 @@
 
 package cd.go.jrepresenter.apt.models;
 
+import cd.go.jrepresenter.FieldSelection;
+import cd.go.jrepresenter.Fingerprint;
+import cd.go.jrepresenter.JsonArrayIterator;
+import cd.go.jrepresenter.JsonParseException;
+import cd.go.jrepresenter.JsonSink;
+import cd.go.jrepresenter.JsonToken;
+import cd.go.jrepresenter.JsonTokenSource;
+import cd.go.jrepresenter.JsonView;
 import cd.go.jrepresenter.LinksMapper;
 import cd.go.jrepresenter.LinksProvider;
+import cd.go.jrepresenter.ParseErrors;
+import cd.go.jrepresenter.RenderCache;
 import cd.go.jrepresenter.RequestContext;
+import cd.go.jrepresenter.SharedKeyMap;
 import cd.go.jrepresenter.apt.util.TypeUtil;
+import cd.go.jrepresenter.metrics.RepresenterMetrics;
+import cd.go.jrepresenter.util.Lists;
 import com.squareup.javapoet.*;
 
 import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 public class MapperJavaSourceFile {
-    private static final ParameterizedTypeName MAP_OF_STRING_TO_OBJECT = TypeUtil.mapOf(Map.class, ClassName.get(String.class), ClassName.get(Object.class));
-    private static final ParameterizedTypeName LINKED_HASH_MAP_OF_STRING_TO_OBJECT = TypeUtil.mapOf(LinkedHashMap.class, ClassName.get(String.class), ClassName.get(Object.class));
+    static final ParameterizedTypeName MAP_OF_STRING_TO_OBJECT = TypeUtil.mapOf(Map.class, ClassName.get(String.class), ClassName.get(Object.class));
 
     public static final String JSON_ATTRIBUTE_VARIABLE_NAME = "jsonAttribute";
     public static final String MODEL_ATTRIBUTE_VARIABLE_NAME = "modelAttribute";
@@ -40,13 +58,36 @@ public class MapperJavaSourceFile {
     public static final String DESERIALIZED_JSON_ATTRIBUTE_NAME = "deserializedJsonAttribute";
     public static final String LINKS_PROVIDER_CONST_NAME = "LINKS_PROVIDER";
     public static final String JSON_ARRAY_VAR_NAME = "jsonArray";
+    public static final String NESTED_JSON_ARRAY_VAR_NAME = "nestedJsonArray";
+    public static final String JSON_SINK_VAR_NAME = "jsonSink";
+    public static final String FINGERPRINT_VAR_NAME = "fingerprint";
+    public static final String JSON_SOURCE_VAR_NAME = "jsonSource";
+    public static final String FIELD_SELECTION_VAR_NAME = "fields";
+    public static final String PARSE_ERRORS_VAR_NAME = "errors";
+    public static final String JSON_KEYS_CONST_NAME = "JSON_KEYS";
+    public static final String EMBEDDED_JSON_KEYS_CONST_NAME = "EMBEDDED_JSON_KEYS";
+    public static final String VIEW_RENDERER_CONST_NAME = "VIEW_RENDERER";
+    public static final String EMBEDDED_VIEW_RENDERER_CONST_NAME = "EMBEDDED_VIEW_RENDERER";
+    public static final String METRICS_CONST_NAME = "METRICS";
+    public static final String METRICS_ENABLED_CONST_NAME = "METRICS_ENABLED";
+
+    private static final String UNMEASURED_METHOD_SUFFIX = "Unmeasured";
 
     public final RepresenterAnnotation representerAnnotation;
     private final ClassToAnnotationMap context;
+    private final boolean measured;
 
     public MapperJavaSourceFile(RepresenterAnnotation representerAnnotation, ClassToAnnotationMap context) {
+        this(representerAnnotation, context, false);
+    }
+
+    /**
+     * @param measured whether the public {@code toJSON}/{@code fromJSON} methods report to {@link RepresenterMetrics}
+     */
+    public MapperJavaSourceFile(RepresenterAnnotation representerAnnotation, ClassToAnnotationMap context, boolean measured) {
         this.representerAnnotation = representerAnnotation;
         this.context = context;
+        this.measured = measured;
     }
 
     public String toSource() {
@@ -55,16 +96,71 @@ public class MapperJavaSourceFile {
                 .addJavadoc("Representer for {@link $T}.\n", representerAnnotation.getModelClass())
                 .addJavadoc("Generated using representer {@link $T}.\n", representerAnnotation.getRepresenterClass());
 
+        if (measured && !(representerAnnotation.shouldSkipSerialize() && representerAnnotation.shouldSkipDeserialize())) {
+            classBuilder
+                    .addField(metricsField())
+                    .addField(FieldSpec.builder(TypeName.BOOLEAN, METRICS_ENABLED_CONST_NAME, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                            .initializer("$N.isEnabled()", METRICS_CONST_NAME)
+                            .build());
+        }
+
         if (!representerAnnotation.shouldSkipSerialize()) {
+            addMeasuredMethod(classBuilder, toJsonMethod(), "recordSerialize", "1");
+            if (representerAnnotation.hasCacheKeyClass()) {
+                classBuilder.addMethod(renderJsonMethod("toJSONUncached", Modifier.PRIVATE));
+            }
+            addMeasuredMethod(classBuilder, toJsonCollectionMethod(), "recordSerialize", "values == null ? 0 : values.size()");
+            addMeasuredMethod(classBuilder, toJsonCollectionInParallelMethod(), "recordSerialize", "values == null ? 0 : values.size()");
+            addMeasuredMethod(classBuilder, toJsonSelectedMethod(), "recordSerialize", "1");
+            addMeasuredMethod(classBuilder, toJsonSelectedCollectionMethod(), "recordSerialize", "values == null ? 0 : values.size()");
+            addMeasuredMethod(classBuilder, toJsonSinkMethod(), "recordSerialize", "1");
+            classBuilder.addMethod(toJsonPropertiesSinkMethod());
+            addMeasuredMethod(classBuilder, toJsonCollectionSinkMethod(), "recordSerialize", "values == null ? 0 : values.size()");
+            classBuilder.addMethod(writeArrayMethod());
+            addMeasuredMethod(classBuilder, writeArrayWithFlushIntervalMethod(), "recordSerialize", "result");
             classBuilder
-                    .addMethod(toJsonMethod())
-                    .addMethod(toJsonCollectionMethod());
+                    .addMethod(toJsonViewMethod())
+                    .addMethod(toJsonViewCollectionMethod())
+                    .addMethod(fingerprintMethod())
+                    .addMethod(fingerprintCollectionMethod())
+                    .addField(jsonKeysField(JSON_KEYS_CONST_NAME, jsonKeys()));
+
+            List<BaseAnnotation> embeddedAnnotations = embeddedAnnotations();
+            if (!embeddedAnnotations.isEmpty()) {
+                classBuilder.addField(jsonKeysField(EMBEDDED_JSON_KEYS_CONST_NAME, jsonKeys(embeddedAnnotations)));
+            }
+
+            if (representerAnnotation.hasLinksProvider()) {
+                classBuilder
+                        .addMethod(toJsonLinksMethod())
+                        .addMethod(toJsonLinksCollectionMethod())
+                        .addMethod(toJsonLinksSinkMethod())
+                        .addMethod(toJsonLinksCollectionSinkMethod());
+            }
+
+            representerAnnotation.getRepresentsSubClassesAnnotation()
+                    .ifPresent(representsSubClassesAnnotation -> classBuilder.addField(representsSubClassesAnnotation.getSubClassIndexField(context)));
+
+            if (canRenderLazyView()) {
+                classBuilder
+                        .addField(viewRendererField(VIEW_RENDERER_CONST_NAME, "renderView"))
+                        .addMethod(renderViewMethod("renderView", new ArrayList<>(jsonKeys()), viewEntries()));
+                if (!embeddedAnnotations.isEmpty()) {
+                    classBuilder
+                            .addField(viewRendererField(EMBEDDED_VIEW_RENDERER_CONST_NAME, "renderEmbeddedView"))
+                            .addMethod(renderViewMethod("renderEmbeddedView", new ArrayList<>(jsonKeys(embeddedAnnotations)), viewEntries(embeddedAnnotations)));
+                }
+            }
         }
 
         if (!representerAnnotation.shouldSkipDeserialize()) {
-            classBuilder
-                    .addMethod(fromJsonMethod())
-                    .addMethod(fromJsonCollectionMethod());
+            addMeasuredMethod(classBuilder, fromJsonMethod(), "recordDeserialize", "1");
+            addMeasuredMethod(classBuilder, fromJsonCollectionMethod(), "recordDeserialize", JSON_ARRAY_VAR_NAME + " == null ? 0 : " + JSON_ARRAY_VAR_NAME + ".size()");
+            addMeasuredMethod(classBuilder, fromJsonCollectingMethod(), "recordDeserialize", "1");
+            addMeasuredMethod(classBuilder, fromJsonCollectionCollectingMethod(), "recordDeserialize", JSON_ARRAY_VAR_NAME + " == null ? 0 : " + JSON_ARRAY_VAR_NAME + ".size()");
+            addMeasuredMethod(classBuilder, fromJsonTokenSourceMethod(), "recordDeserialize", "1");
+            addMeasuredMethod(classBuilder, fromJsonArrayTokenSourceMethod(), "recordDeserialize", "result.size()");
+            classBuilder.addMethod(fromJsonStreamMethod());
         }
 
         if (representerAnnotation.hasLinksProvider()) {
@@ -73,6 +169,11 @@ public class MapperJavaSourceFile {
                     .initializer(CodeBlock.builder().add("new $T()", representerAnnotation.getLinksProviderClass()).build())
                     .build());
         }
+
+        MapperConstants constants = new MapperConstants(representerAnnotation, context.getAnnotationsOn(representerAnnotation));
+        if (!constants.isEmpty()) {
+            classBuilder.addType(constants.toTypeSpec());
+        }
         return JavaFile.builder(representerAnnotation.packageNameRelocated(), classBuilder.build())
                 .addFileComment("\n")
                 .addFileComment("This file was automatically generated by jrepresenter\n")
@@ -80,6 +181,196 @@ public class MapperJavaSourceFile {
                 .build().toString();
     }
 
+    private FieldSpec metricsField() {
+        return FieldSpec.builder(RepresenterMetrics.Recorder.class, METRICS_CONST_NAME, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.recorderFor($T.class)", RepresenterMetrics.class, representerAnnotation.getRepresenterClass())
+                .build();
+    }
+
+    /**
+     * When measured, adds a public method that times a private copy of {@code method} and reports it, otherwise adds
+     * {@code method} as is. The collection methods call the private copies, so each call is only reported once.
+     * The element count expression may refer to the method parameters, and to {@code result} if it returns a value.
+     */
+    private void addMeasuredMethod(TypeSpec.Builder classBuilder, MethodSpec method, String recordMethodName, String elementCount) {
+        if (!measured) {
+            classBuilder.addMethod(method);
+            return;
+        }
+
+        String unmeasuredName = unmeasured(method.name);
+        String arguments = method.parameters.stream().map(parameter -> parameter.name).collect(Collectors.joining(", "));
+        boolean returnsValue = !method.returnType.equals(TypeName.VOID);
+
+        CodeBlock.Builder body = CodeBlock.builder()
+                .beginControlFlow("if (!$N)", METRICS_ENABLED_CONST_NAME);
+        if (returnsValue) {
+            body.addStatement("return $N($L)", unmeasuredName, arguments);
+        } else {
+            body.addStatement("$N($L)", unmeasuredName, arguments)
+                    .addStatement("return");
+        }
+        body.endControlFlow()
+                .addStatement("long startNanos = $T.nanoTime()", System.class);
+        if (returnsValue) {
+            body.addStatement("$T result = $N($L)", method.returnType, unmeasuredName, arguments);
+        } else {
+            body.addStatement("$N($L)", unmeasuredName, arguments);
+        }
+        body.addStatement("$N.$N($L, $T.nanoTime() - startNanos)", METRICS_CONST_NAME, recordMethodName, elementCount, System.class);
+        if (returnsValue) {
+            body.addStatement("return result");
+        }
+
+        classBuilder
+                .addMethod(MethodSpec.methodBuilder(method.name)
+                        .addModifiers(method.modifiers)
+                        .addParameters(method.parameters)
+                        .returns(method.returnType)
+                        .addCode(body.build())
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(unmeasuredName)
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                        .addParameters(method.parameters)
+                        .returns(method.returnType)
+                        .addCode(method.code)
+                        .build());
+    }
+
+    private String unmeasured(String methodName) {
+        return measured ? methodName + UNMEASURED_METHOD_SUFFIX : methodName;
+    }
+
+    private FieldSpec jsonKeysField(String name, Set<String> keys) {
+        String keysFormat = String.join(", ", Collections.nCopies(keys.size(), "$S"));
+        return FieldSpec.builder(SharedKeyMap.Keys.class, name, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(CodeBlock.builder()
+                        .add("$T.keys(", SharedKeyMap.class)
+                        .add(keysFormat, keys.toArray())
+                        .add(")")
+                        .build())
+                .build();
+    }
+
+    private MethodSpec toJsonViewMethod() {
+        CodeBlock.Builder methodBody = CodeBlock.builder()
+                .add(maybeReturnEarlyIfNull("value"));
+        if (canRenderLazyView()) {
+            methodBody.addStatement("return new $T<>($N, $N, value, requestContext)", JsonView.class, JSON_KEYS_CONST_NAME, VIEW_RENDERER_CONST_NAME);
+        } else {
+            methodBody.addStatement("return $T.unmodifiableMap($T.toJSON(value, requestContext))", Collections.class, representerAnnotation.mapperClassImplRelocated());
+        }
+
+        return MethodSpec.methodBuilder("toJSONView")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(representerAnnotation.getModelClass(), "value")
+                .addParameter(RequestContext.class, "requestContext")
+                .returns(MAP_OF_STRING_TO_OBJECT)
+                .addCode(methodBody.build())
+                .build();
+    }
+
+    private MethodSpec toJsonViewCollectionMethod() {
+        ParameterizedTypeName listOfMaps = TypeUtil.listOf(MAP_OF_STRING_TO_OBJECT);
+        return MethodSpec.methodBuilder("toJSONView")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeUtil.listOf(representerAnnotation.getModelClass()), "values")
+                .addParameter(RequestContext.class, "requestContext")
+                .returns(listOfMaps)
+                .addCode(
+                        CodeBlock.builder()
+                                .add(maybeReturnEarlyIfNull("values"))
+                                .addStatement("$T $N = new $T<>(values.size())", listOfMaps, JSON_ARRAY_VAR_NAME, ArrayList.class)
+                                .beginControlFlow("for ($T eachItem : values)", representerAnnotation.getModelClass())
+                                .addStatement("$N.add($T.toJSONView(eachItem, requestContext))", JSON_ARRAY_VAR_NAME, representerAnnotation.mapperClassImplRelocated())
+                                .endControlFlow()
+                                .addStatement("return $N", JSON_ARRAY_VAR_NAME)
+                                .build()
+                )
+                .build();
+    }
+
+    // subclass representers decide which properties to render by looking at the runtime type, so their views are
+    // rendered eagerly
+    private boolean canRenderLazyView() {
+        return !representerAnnotation.getRepresentsSubClassesAnnotation().isPresent();
+    }
+
+    private FieldSpec viewRendererField(String name, String renderMethodName) {
+        return FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(JsonView.Renderer.class), representerAnnotation.getModelClass()), name, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T::$N", representerAnnotation.mapperClassImplRelocated(), renderMethodName)
+                .build();
+    }
+
+    private MethodSpec renderViewMethod(String name, List<String> keys, Map<String, CodeBlock> entries) {
+        CodeBlock.Builder switchBuilder = CodeBlock.builder()
+                .beginControlFlow("switch (index)");
+        for (int index = 0; index < keys.size(); index++) {
+            switchBuilder.beginControlFlow("case $L:", index)
+                    .add(entries.get(keys.get(index)))
+                    .endControlFlow();
+        }
+        switchBuilder.add("default:\n$>")
+                .addStatement("return $T.ABSENT", JsonView.class)
+                .add("$<")
+                .endControlFlow();
+
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(int.class, "index")
+                .addParameter(representerAnnotation.getModelClass(), "value")
+                .addParameter(RequestContext.class, "requestContext")
+                .returns(Object.class)
+                .addCode(switchBuilder.build())
+                .build();
+    }
+
+    // the code that renders each attribute of toJSONView, in the same order as jsonKeys()
+    private Map<String, CodeBlock> viewEntries() {
+        Map<String, CodeBlock> entries = new LinkedHashMap<>();
+        if (representerAnnotation.hasLinksProvider()) {
+            entries.put("_links", CodeBlock.builder()
+                    .addStatement("$T links = $T.linksToJSON($N, value, requestContext)", MAP_OF_STRING_TO_OBJECT, LinksMapper.class, LINKS_PROVIDER_CONST_NAME)
+                    .addStatement("return links == null ? $T.ABSENT : links", JsonView.class)
+                    .build());
+        }
+        entries.putAll(viewEntries(nonEmbeddedAnnotations()));
+        if (!embeddedAnnotations().isEmpty()) {
+            entries.put("_embedded", CodeBlock.builder()
+                    .addStatement("return new $T<>($N, $N, value, requestContext)", JsonView.class, EMBEDDED_JSON_KEYS_CONST_NAME, EMBEDDED_VIEW_RENDERER_CONST_NAME)
+                    .build());
+        }
+        return entries;
+    }
+
+    private Map<String, CodeBlock> viewEntries(List<BaseAnnotation> annotations) {
+        Map<String, CodeBlock> entries = new LinkedHashMap<>();
+        annotations.forEach(annotation -> entries.put(annotation.jsonAttributeName(), annotation.getViewSerializeCodeBlock(context)));
+        return entries;
+    }
+
+    // the keys toJSON puts into the json object, in the order serializeInternal puts them. The links of subclasses take
+    // the place of the links of the representer, which is where the sink writes them
+    private Set<String> jsonKeys() {
+        Set<String> keys = new LinkedHashSet<>();
+        if (representerAnnotation.hasLinksProvider() || representerAnnotation.getRepresentsSubClassesAnnotation().filter(RepresentsSubClassesAnnotation::hasLinksProviders).isPresent()) {
+            keys.add("_links");
+        }
+        keys.addAll(jsonKeys(nonEmbeddedAnnotations()));
+        if (!embeddedAnnotations().isEmpty()) {
+            keys.add("_embedded");
+        }
+        representerAnnotation.getRepresentsSubClassesAnnotation()
+                .map(RepresentsSubClassesAnnotation::getNestedUnder)
+                .filter(nestedUnder -> !nestedUnder.isEmpty())
+                .ifPresent(keys::add);
+        return keys;
+    }
+
+    private Set<String> jsonKeys(List<BaseAnnotation> annotations) {
+        return annotations.stream().map(BaseAnnotation::jsonAttributeName).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
     private MethodSpec toJsonCollectionMethod() {
         return MethodSpec.methodBuilder("toJSON")
                 .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
@@ -89,13 +380,189 @@ public class MapperJavaSourceFile {
                 .addCode(
                         CodeBlock.builder()
                                 .add(maybeReturnEarlyIfNull("values"))
-                                .addStatement("return values.stream().map(eachItem -> $T.toJSON(eachItem, requestContext)).collect($T.toList())", representerAnnotation.mapperClassImplRelocated(), Collectors.class)
+                                .addStatement("$T $N = new $T<>(values.size())", TypeUtil.listOf(MAP_OF_STRING_TO_OBJECT), JSON_ARRAY_VAR_NAME, ArrayList.class)
+                                .beginControlFlow("for ($T eachItem : values)", representerAnnotation.getModelClass())
+                                .addStatement("$N.add($T.$N(eachItem, requestContext))", JSON_ARRAY_VAR_NAME, representerAnnotation.mapperClassImplRelocated(), unmeasured("toJSON"))
+                                .endControlFlow()
+                                .addStatement("return $N", JSON_ARRAY_VAR_NAME)
                                 .build()
                 )
                 .build();
 
     }
 
+    private MethodSpec toJsonCollectionInParallelMethod() {
+        ClassName mapperClass = representerAnnotation.mapperClassImplRelocated();
+        return MethodSpec.methodBuilder("toJSON")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeUtil.listOf(representerAnnotation.getModelClass()), "values")
+                .addParameter(RequestContext.class, "requestContext")
+                .addParameter(Executor.class, "executor")
+                .returns(List.class)
+                .addCode(
+                        CodeBlock.builder()
+                                .beginControlFlow("if (values == null || values.size() < $L)", representerAnnotation.getParallelThreshold())
+                                .addStatement("return $T.$N(values, requestContext)", mapperClass, unmeasured("toJSON"))
+                                .endControlFlow()
+                                .addStatement("return $T.mapInParallel(values, eachItem -> $T.$N(eachItem, requestContext), executor)", Lists.class, mapperClass, unmeasured("toJSON"))
+                                .build()
+                )
+                .build();
+    }
+
+    private MethodSpec toJsonSelectedMethod() {
+        return MethodSpec.methodBuilder("toJSON")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(representerAnnotation.getModelClass(), "value")
+                .addParameter(RequestContext.class, "requestContext")
+                .addParameter(FieldSelection.class, FIELD_SELECTION_VAR_NAME)
+                .returns(MAP_OF_STRING_TO_OBJECT)
+                .addCode(
+                        CodeBlock.builder()
+                                .add(maybeReturnEarlyIfNull("value"))
+                                .beginControlFlow("if ($N.isAll())", FIELD_SELECTION_VAR_NAME)
+                                .addStatement("return $T.$N(value, requestContext)", representerAnnotation.mapperClassImplRelocated(), unmeasured("toJSON"))
+                                .endControlFlow()
+                                .addStatement("$T $N = new $T($N)", MAP_OF_STRING_TO_OBJECT, JSON_OBJECT_VAR_NAME, SharedKeyMap.class, JSON_KEYS_CONST_NAME)
+                                .add(serializeSelected())
+                                .add(serializeSelectedForSubClasses())
+                                .addStatement("return $N", JSON_OBJECT_VAR_NAME)
+                                .build()
+                )
+                .build();
+    }
+
+    private MethodSpec toJsonSelectedCollectionMethod() {
+        return MethodSpec.methodBuilder("toJSON")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeUtil.listOf(representerAnnotation.getModelClass()), "values")
+                .addParameter(RequestContext.class, "requestContext")
+                .addParameter(FieldSelection.class, FIELD_SELECTION_VAR_NAME)
+                .returns(List.class)
+                .addCode(
+                        CodeBlock.builder()
+                                .add(maybeReturnEarlyIfNull("values"))
+                                .addStatement("$T $N = new $T<>(values.size())", TypeUtil.listOf(MAP_OF_STRING_TO_OBJECT), JSON_ARRAY_VAR_NAME, ArrayList.class)
+                                .beginControlFlow("for ($T eachItem : values)", representerAnnotation.getModelClass())
+                                .addStatement("$N.add($T.$N(eachItem, requestContext, $N))", JSON_ARRAY_VAR_NAME, representerAnnotation.mapperClassImplRelocated(), unmeasured("toJSON"), FIELD_SELECTION_VAR_NAME)
+                                .endControlFlow()
+                                .addStatement("return $N", JSON_ARRAY_VAR_NAME)
+                                .build()
+                )
+                .build();
+    }
+
+    private MethodSpec fingerprintMethod() {
+        return MethodSpec.methodBuilder("fingerprint")
+                .addJavadoc("A stable hash of what {@code toJSON} renders for the value, other than its {@code _links}, computed without rendering it.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(representerAnnotation.getModelClass(), "value")
+                .returns(TypeName.LONG)
+                .addCode(
+                        CodeBlock.builder()
+                                .beginControlFlow("if (value == null)")
+                                .addStatement("return $T.NULL", Fingerprint.class)
+                                .endControlFlow()
+                                .addStatement("long $N = $T.SEED", FINGERPRINT_VAR_NAME, Fingerprint.class)
+                                .add(fingerprintInternal())
+                                .add(fingerprintForSubClasses())
+                                .addStatement("return $N", FINGERPRINT_VAR_NAME)
+                                .build()
+                )
+                .build();
+    }
+
+    private MethodSpec fingerprintCollectionMethod() {
+        return MethodSpec.methodBuilder("fingerprint")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeUtil.listOf(representerAnnotation.getModelClass()), "values")
+                .returns(TypeName.LONG)
+                .addCode(
+                        CodeBlock.builder()
+                                .beginControlFlow("if (values == null)")
+                                .addStatement("return $T.NULL", Fingerprint.class)
+                                .endControlFlow()
+                                .addStatement("long $N = $T.SEED", FINGERPRINT_VAR_NAME, Fingerprint.class)
+                                .beginControlFlow("for ($T eachItem : values)", representerAnnotation.getModelClass())
+                                .addStatement("$N = $T.mix($N, $T.fingerprint(eachItem))", FINGERPRINT_VAR_NAME, Fingerprint.class, FINGERPRINT_VAR_NAME, representerAnnotation.mapperClassImplRelocated())
+                                .endControlFlow()
+                                .addStatement("return $N", FINGERPRINT_VAR_NAME)
+                                .build()
+                )
+                .build();
+    }
+
+    private MethodSpec toJsonLinksMethod() {
+        return MethodSpec.methodBuilder("toJSONLinks")
+                .addJavadoc("Renders just the {@code _links}, in place of an embedded relation that is not expanded.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(representerAnnotation.getModelClass(), "value")
+                .addParameter(RequestContext.class, "requestContext")
+                .returns(MAP_OF_STRING_TO_OBJECT)
+                .addCode(
+                        CodeBlock.builder()
+                                .add(maybeReturnEarlyIfNull("value"))
+                                .addStatement("return $T.toJSON($N, value, requestContext)", LinksMapper.class, LINKS_PROVIDER_CONST_NAME)
+                                .build()
+                )
+                .build();
+    }
+
+    private MethodSpec toJsonLinksCollectionMethod() {
+        return MethodSpec.methodBuilder("toJSONLinks")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeUtil.listOf(representerAnnotation.getModelClass()), "values")
+                .addParameter(RequestContext.class, "requestContext")
+                .returns(List.class)
+                .addCode(
+                        CodeBlock.builder()
+                                .add(maybeReturnEarlyIfNull("values"))
+                                .addStatement("$T $N = new $T<>(values.size())", TypeUtil.listOf(MAP_OF_STRING_TO_OBJECT), JSON_ARRAY_VAR_NAME, ArrayList.class)
+                                .beginControlFlow("for ($T eachItem : values)", representerAnnotation.getModelClass())
+                                .addStatement("$N.add($T.toJSONLinks(eachItem, requestContext))", JSON_ARRAY_VAR_NAME, representerAnnotation.mapperClassImplRelocated())
+                                .endControlFlow()
+                                .addStatement("return $N", JSON_ARRAY_VAR_NAME)
+                                .build()
+                )
+                .build();
+    }
+
+    private MethodSpec toJsonLinksSinkMethod() {
+        return MethodSpec.methodBuilder("toJSONLinks")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(representerAnnotation.getModelClass(), "value")
+                .addParameter(RequestContext.class, "requestContext")
+                .addParameter(JsonSink.class, JSON_SINK_VAR_NAME)
+                .addCode(
+                        CodeBlock.builder()
+                                .add(writeNullAndReturnEarlyIfNull("value"))
+                                .addStatement("$N.beginObject()", JSON_SINK_VAR_NAME)
+                                .addStatement("$T.toJSON($N, value, requestContext, $N)", LinksMapper.class, LINKS_PROVIDER_CONST_NAME, JSON_SINK_VAR_NAME)
+                                .addStatement("$N.endObject()", JSON_SINK_VAR_NAME)
+                                .build()
+                )
+                .build();
+    }
+
+    private MethodSpec toJsonLinksCollectionSinkMethod() {
+        return MethodSpec.methodBuilder("toJSONLinks")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeUtil.listOf(representerAnnotation.getModelClass()), "values")
+                .addParameter(RequestContext.class, "requestContext")
+                .addParameter(JsonSink.class, JSON_SINK_VAR_NAME)
+                .addCode(
+                        CodeBlock.builder()
+                                .add(writeNullAndReturnEarlyIfNull("values"))
+                                .addStatement("$N.beginArray()", JSON_SINK_VAR_NAME)
+                                .beginControlFlow("for ($T eachItem : values)", representerAnnotation.getModelClass())
+                                .addStatement("$T.toJSONLinks(eachItem, requestContext, $N)", representerAnnotation.mapperClassImplRelocated(), JSON_SINK_VAR_NAME)
+                                .endControlFlow()
+                                .addStatement("$N.endArray()", JSON_SINK_VAR_NAME)
+                                .build()
+                )
+                .build();
+    }
+
     private MethodSpec fromJsonCollectionMethod() {
         ParameterizedTypeName listOfMaps = TypeUtil.listOf(Map.class);
         ParameterizedTypeName listOfModels = TypeUtil.listOf(representerAnnotation.getModelClass());
@@ -108,15 +575,47 @@ public class MapperJavaSourceFile {
                                 .beginControlFlow("if ($N == null)", JSON_ARRAY_VAR_NAME)
                                 .addStatement("return $T.emptyList()", Collections.class)
                                 .endControlFlow()
-                                .addStatement("return $N.stream().map(eachItem -> $T.fromJSON(eachItem)).collect($T.toList())", JSON_ARRAY_VAR_NAME, representerAnnotation.mapperClassImplRelocated(), Collectors.class)
+                                .addStatement("$T models = new $T<>($N.size())", listOfModels, ArrayList.class, JSON_ARRAY_VAR_NAME)
+                                .beginControlFlow("for ($T eachItem : $N)", Map.class, JSON_ARRAY_VAR_NAME)
+                                .addStatement("models.add($T.$N(eachItem))", representerAnnotation.mapperClassImplRelocated(), unmeasured("fromJSON"))
+                                .endControlFlow()
+                                .addStatement("return models")
                                 .build()
                 )
                 .build();
 
     }
 
+    private MethodSpec fromJsonCollectionCollectingMethod() {
+        ParameterizedTypeName listOfMaps = TypeUtil.listOf(MAP_OF_STRING_TO_OBJECT);
+        ParameterizedTypeName listOfModels = TypeUtil.listOf(representerAnnotation.getModelClass());
+        return MethodSpec.methodBuilder("fromJSON")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(listOfMaps, JSON_ARRAY_VAR_NAME)
+                .addParameter(ParseErrors.class, PARSE_ERRORS_VAR_NAME)
+                .returns(listOfModels)
+                .addCode(
+                        CodeBlock.builder()
+                                .beginControlFlow("if ($N == null)", JSON_ARRAY_VAR_NAME)
+                                .addStatement("return $T.emptyList()", Collections.class)
+                                .endControlFlow()
+                                .addStatement("$T models = new $T<>($N.size())", listOfModels, ArrayList.class, JSON_ARRAY_VAR_NAME)
+                                .addStatement("int index = 0")
+                                .beginControlFlow("for ($T eachItem : $N)", MAP_OF_STRING_TO_OBJECT, JSON_ARRAY_VAR_NAME)
+                                .addStatement("$N.push(index++)", PARSE_ERRORS_VAR_NAME)
+                                .addStatement("models.add($T.$N(eachItem, $N))", representerAnnotation.mapperClassImplRelocated(), unmeasured("fromJSON"), PARSE_ERRORS_VAR_NAME)
+                                .addStatement("$N.pop()", PARSE_ERRORS_VAR_NAME)
+                                .endControlFlow()
+                                .addStatement("return models")
+                                .build()
+                )
+                .build();
+    }
+
     private MethodSpec toJsonMethod() {
-        maybeReturnEarlyIfNull("value");
+        if (!representerAnnotation.hasCacheKeyClass()) {
+            return renderJsonMethod("toJSON", Modifier.PUBLIC);
+        }
         return MethodSpec.methodBuilder("toJSON")
                 .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
                 .addParameter(representerAnnotation.getModelClass(), "value")
@@ -125,7 +624,26 @@ public class MapperJavaSourceFile {
                 .addCode(
                         CodeBlock.builder()
                                 .add(maybeReturnEarlyIfNull("value"))
-                                .addStatement("$T $N = new $T()", MAP_OF_STRING_TO_OBJECT, JSON_OBJECT_VAR_NAME, LINKED_HASH_MAP_OF_STRING_TO_OBJECT)
+                                .addStatement("return $T.shared().get($T.class, $T.apply(value), requestContext, () -> $T.toJSONUncached(value, requestContext))",
+                                        RenderCache.class,
+                                        representerAnnotation.getRepresenterClass(),
+                                        MapperConstants.CACHE_KEYS_BUILDER.fieldName(representerAnnotation, representerAnnotation.getCacheKeyClass()),
+                                        representerAnnotation.mapperClassImplRelocated())
+                                .build()
+                )
+                .build();
+    }
+
+    private MethodSpec renderJsonMethod(String name, Modifier visibility) {
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(visibility, Modifier.STATIC)
+                .addParameter(representerAnnotation.getModelClass(), "value")
+                .addParameter(RequestContext.class, "requestContext")
+                .returns(MAP_OF_STRING_TO_OBJECT)
+                .addCode(
+                        CodeBlock.builder()
+                                .add(maybeReturnEarlyIfNull("value"))
+                                .addStatement("$T $N = new $T($N)", MAP_OF_STRING_TO_OBJECT, JSON_OBJECT_VAR_NAME, SharedKeyMap.class, JSON_KEYS_CONST_NAME)
                                 .add(serializeInternal())
                                 .add(serializeForSubClasses())
                                 .addStatement("return $N", JSON_OBJECT_VAR_NAME)
@@ -135,6 +653,124 @@ public class MapperJavaSourceFile {
 
     }
 
+    private MethodSpec toJsonSinkMethod() {
+        if (representerAnnotation.hasCacheKeyClass()) {
+            // cached representations are maps, so they are written out as such
+            return MethodSpec.methodBuilder("toJSON")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addParameter(representerAnnotation.getModelClass(), "value")
+                    .addParameter(RequestContext.class, "requestContext")
+                    .addParameter(JsonSink.class, JSON_SINK_VAR_NAME)
+                    .addCode(
+                            CodeBlock.builder()
+                                    .add(writeNullAndReturnEarlyIfNull("value"))
+                                    .addStatement("$N.value($T.$N(value, requestContext))", JSON_SINK_VAR_NAME, representerAnnotation.mapperClassImplRelocated(), unmeasured("toJSON"))
+                                    .build()
+                    )
+                    .build();
+        }
+        return MethodSpec.methodBuilder("toJSON")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(representerAnnotation.getModelClass(), "value")
+                .addParameter(RequestContext.class, "requestContext")
+                .addParameter(JsonSink.class, JSON_SINK_VAR_NAME)
+                .addCode(
+                        CodeBlock.builder()
+                                .add(writeNullAndReturnEarlyIfNull("value"))
+                                .addStatement("$N.beginObject()", JSON_SINK_VAR_NAME)
+                                .addStatement("$T.toJSONProperties(value, requestContext, $N)", representerAnnotation.mapperClassImplRelocated(), JSON_SINK_VAR_NAME)
+                                .addStatement("$N.endObject()", JSON_SINK_VAR_NAME)
+                                .build()
+                )
+                .build();
+    }
+
+    private MethodSpec toJsonPropertiesSinkMethod() {
+        return MethodSpec.methodBuilder("toJSONProperties")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(representerAnnotation.getModelClass(), "value")
+                .addParameter(RequestContext.class, "requestContext")
+                .addParameter(JsonSink.class, JSON_SINK_VAR_NAME)
+                .addCode(serializeInternalToSink())
+                .addCode(serializeForSubClassesToSink())
+                .build();
+    }
+
+    private MethodSpec toJsonCollectionSinkMethod() {
+        return MethodSpec.methodBuilder("toJSON")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeUtil.listOf(representerAnnotation.getModelClass()), "values")
+                .addParameter(RequestContext.class, "requestContext")
+                .addParameter(JsonSink.class, JSON_SINK_VAR_NAME)
+                .addCode(
+                        CodeBlock.builder()
+                                .add(writeNullAndReturnEarlyIfNull("values"))
+                                .addStatement("$N.beginArray()", JSON_SINK_VAR_NAME)
+                                .beginControlFlow("for ($T eachItem : values)", representerAnnotation.getModelClass())
+                                .addStatement("$T.$N(eachItem, requestContext, $N)", representerAnnotation.mapperClassImplRelocated(), unmeasured("toJSON"), JSON_SINK_VAR_NAME)
+                                .endControlFlow()
+                                .addStatement("$N.endArray()", JSON_SINK_VAR_NAME)
+                                .build()
+                )
+                .build();
+    }
+
+    private MethodSpec writeArrayMethod() {
+        return MethodSpec.methodBuilder("writeArray")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(iteratorOfModels(), "values")
+                .addParameter(RequestContext.class, "requestContext")
+                .addParameter(JsonSink.class, JSON_SINK_VAR_NAME)
+                .returns(TypeName.INT)
+                .addStatement("return writeArray(values, requestContext, $N, $L)", JSON_SINK_VAR_NAME, representerAnnotation.getFlushInterval())
+                .build();
+    }
+
+    // renders one element at a time, so that exporting a database cursor does not need all of it in memory. The first
+    // element is flushed right away, so that the client does not wait for a whole interval to start reading.
+    private MethodSpec writeArrayWithFlushIntervalMethod() {
+        return MethodSpec.methodBuilder("writeArray")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(iteratorOfModels(), "values")
+                .addParameter(RequestContext.class, "requestContext")
+                .addParameter(JsonSink.class, JSON_SINK_VAR_NAME)
+                .addParameter(TypeName.INT, "flushInterval")
+                .returns(TypeName.INT)
+                .addCode(
+                        CodeBlock.builder()
+                                .beginControlFlow("if (values == null)")
+                                .addStatement("$N.nullValue()", JSON_SINK_VAR_NAME)
+                                .addStatement("return 0")
+                                .endControlFlow()
+                                .addStatement("int count = 0")
+                                .addStatement("$N.beginArray()", JSON_SINK_VAR_NAME)
+                                .beginControlFlow("while (values.hasNext())")
+                                .addStatement("$T.$N(values.next(), requestContext, $N)", representerAnnotation.mapperClassImplRelocated(), unmeasured("toJSON"), JSON_SINK_VAR_NAME)
+                                .beginControlFlow("if (++count == 1 || flushInterval > 0 && count % flushInterval == 0)")
+                                .addStatement("$N.flush()", JSON_SINK_VAR_NAME)
+                                .endControlFlow()
+                                .endControlFlow()
+                                .addStatement("$N.endArray()", JSON_SINK_VAR_NAME)
+                                .addStatement("$N.flush()", JSON_SINK_VAR_NAME)
+                                .addStatement("return count")
+                                .build()
+                )
+                .build();
+    }
+
+    private ParameterizedTypeName iteratorOfModels() {
+        return ParameterizedTypeName.get(ClassName.get(Iterator.class), representerAnnotation.getModelClass());
+    }
+
+    private CodeBlock writeNullAndReturnEarlyIfNull(String variableName) {
+        return CodeBlock.builder()
+                .beginControlFlow("if ($N == null)", variableName)
+                .addStatement("$N.nullValue()", JSON_SINK_VAR_NAME)
+                .addStatement("return")
+                .endControlFlow()
+                .build();
+    }
+
     private CodeBlock maybeReturnEarlyIfNull(String variableName) {
         return CodeBlock.builder()
                 .beginControlFlow("if ($N == null)", variableName)
@@ -147,11 +783,11 @@ public class MapperJavaSourceFile {
         CodeBlock methodBody;
         if (representerAnnotation.hasDeserializerClass()) {
             methodBody = CodeBlock.builder()
-                    .addStatement("return $T.apply($N)", MapperJavaConstantsFile.CUSTOM_REPRESENTER_BUILDER.fieldName(representerAnnotation.getDeserializerClass()), JSON_OBJECT_VAR_NAME)
+                    .addStatement("return $T.apply($N)", MapperConstants.CUSTOM_REPRESENTER_BUILDER.fieldName(representerAnnotation, representerAnnotation.getDeserializerClass()), JSON_OBJECT_VAR_NAME)
                     .build();
         } else {
             methodBody = CodeBlock.builder()
-                    .add(createNewModelObject())
+                    .add(createNewModelObject(false))
                     .add(maybeReturnEarly(JSON_OBJECT_VAR_NAME, "model"))
                     .add(deserializeInternal())
                     .addStatement("return model")
@@ -166,6 +802,112 @@ public class MapperJavaSourceFile {
                 .build();
     }
 
+    private MethodSpec fromJsonCollectingMethod() {
+        CodeBlock methodBody;
+        if (representerAnnotation.hasDeserializerClass()) {
+            methodBody = CodeBlock.builder()
+                    .beginControlFlow("try")
+                    .addStatement("return $T.apply($N)", MapperConstants.CUSTOM_REPRESENTER_BUILDER.fieldName(representerAnnotation, representerAnnotation.getDeserializerClass()), JSON_OBJECT_VAR_NAME)
+                    .nextControlFlow("catch ($T e)", JsonParseException.class)
+                    .addStatement("$N.add(e)", PARSE_ERRORS_VAR_NAME)
+                    .addStatement("return null")
+                    .endControlFlow()
+                    .build();
+        } else {
+            methodBody = CodeBlock.builder()
+                    .add(createNewModelObject(true))
+                    .add(maybeReturnEarly(JSON_OBJECT_VAR_NAME, "model"))
+                    .add(collectingDeserializeInternal())
+                    .addStatement("return model")
+                    .build();
+        }
+
+        return MethodSpec.methodBuilder("fromJSON")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(Map.class, JSON_OBJECT_VAR_NAME)
+                .addParameter(ParseErrors.class, PARSE_ERRORS_VAR_NAME)
+                .returns(representerAnnotation.getModelClass())
+                .addCode(methodBody)
+                .build();
+    }
+
+    private MethodSpec fromJsonTokenSourceMethod() {
+        CodeBlock methodBody;
+        if (canDeserializeFromTokenStream()) {
+            methodBody = CodeBlock.builder()
+                    .add(createNewModelObject(false))
+                    .beginControlFlow("if ($N.peek() == $T.NULL)", JSON_SOURCE_VAR_NAME, JsonToken.class)
+                    .addStatement("$N.nextNull()", JSON_SOURCE_VAR_NAME)
+                    .addStatement("return model")
+                    .endControlFlow()
+                    .addStatement("$N.beginObject()", JSON_SOURCE_VAR_NAME)
+                    .beginControlFlow("while ($N.hasNext())", JSON_SOURCE_VAR_NAME)
+                    .beginControlFlow("switch ($N.nextName())", JSON_SOURCE_VAR_NAME)
+                    .add(deserializeInternalFromTokenStream())
+                    .add("default:\n$>")
+                    .addStatement("$N.skipValue()", JSON_SOURCE_VAR_NAME)
+                    .add("$<")
+                    .endControlFlow()
+                    .endControlFlow()
+                    .addStatement("$N.endObject()", JSON_SOURCE_VAR_NAME)
+                    .addStatement("return model")
+                    .build();
+        } else {
+            methodBody = CodeBlock.builder()
+                    .addStatement("return $T.$N(($T) $N.readValue())", representerAnnotation.mapperClassImplRelocated(), unmeasured("fromJSON"), Map.class, JSON_SOURCE_VAR_NAME)
+                    .build();
+        }
+
+        return MethodSpec.methodBuilder("fromJSON")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(JsonTokenSource.class, JSON_SOURCE_VAR_NAME)
+                .returns(representerAnnotation.getModelClass())
+                .addCode(methodBody)
+                .build();
+    }
+
+    private MethodSpec fromJsonArrayTokenSourceMethod() {
+        ParameterizedTypeName listOfModels = TypeUtil.listOf(representerAnnotation.getModelClass());
+        return MethodSpec.methodBuilder("fromJSONArray")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(JsonTokenSource.class, JSON_SOURCE_VAR_NAME)
+                .returns(listOfModels)
+                .addCode(
+                        CodeBlock.builder()
+                                .beginControlFlow("if ($N.peek() == $T.NULL)", JSON_SOURCE_VAR_NAME, JsonToken.class)
+                                .addStatement("$N.nextNull()", JSON_SOURCE_VAR_NAME)
+                                .addStatement("return $T.emptyList()", Collections.class)
+                                .endControlFlow()
+                                .addStatement("$T models = new $T<>()", listOfModels, ArrayList.class)
+                                .addStatement("$N.beginArray()", JSON_SOURCE_VAR_NAME)
+                                .beginControlFlow("while ($N.hasNext())", JSON_SOURCE_VAR_NAME)
+                                .addStatement("models.add($T.$N($N))", representerAnnotation.mapperClassImplRelocated(), unmeasured("fromJSON"), JSON_SOURCE_VAR_NAME)
+                                .endControlFlow()
+                                .addStatement("$N.endArray()", JSON_SOURCE_VAR_NAME)
+                                .addStatement("return models")
+                                .build()
+                )
+                .build();
+    }
+
+    // each element is read through the public fromJSON, so that metrics are recorded as the iterator is consumed
+    private MethodSpec fromJsonStreamMethod() {
+        return MethodSpec.methodBuilder("fromJSONStream")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(JsonTokenSource.class, JSON_SOURCE_VAR_NAME)
+                .returns(ParameterizedTypeName.get(ClassName.get(JsonArrayIterator.class), representerAnnotation.getModelClass()))
+                .addStatement("return new $T<>($N, $T::fromJSON)", JsonArrayIterator.class, JSON_SOURCE_VAR_NAME, representerAnnotation.mapperClassImplRelocated())
+                .build();
+    }
+
+    // representers that pick a subclass, use a custom deserializer or decide what to skip by looking at the whole
+    // object cannot be read field by field, so they read the object into a map and delegate to fromJSON(Map)
+    private boolean canDeserializeFromTokenStream() {
+        return !representerAnnotation.hasDeserializerClass()
+                && !representerAnnotation.getRepresentsSubClassesAnnotation().isPresent()
+                && context.getAnnotationsOn(representerAnnotation).stream().allMatch(BaseAnnotation::canDeserializeFromTokenStream);
+    }
+
     private CodeBlock maybeReturnEarly(String jsonObjectVarName, String model) {
         return CodeBlock.builder()
                 .beginControlFlow("if ($N == null)", jsonObjectVarName)
@@ -174,9 +916,9 @@ public class MapperJavaSourceFile {
                 .build();
     }
 
-    private CodeBlock createNewModelObject() {
+    private CodeBlock createNewModelObject(boolean collectErrors) {
         return representerAnnotation.getRepresentsSubClassesAnnotation()
-                .map(subClassesAnnotation -> subClassesAnnotation.getDeserializeCodeBlock(context, representerAnnotation))
+                .map(subClassesAnnotation -> subClassesAnnotation.getDeserializeCodeBlock(context, representerAnnotation, collectErrors))
                 .orElse(
                         CodeBlock.builder()
                                 .addStatement("$T model = new $T()", representerAnnotation.getModelClass(), representerAnnotation.getModelClass())
@@ -187,16 +929,16 @@ public class MapperJavaSourceFile {
         CodeBlock.Builder serializeInternalBuilder = CodeBlock.builder();
 
         if (representerAnnotation.hasLinksProvider()) {
-            serializeInternalBuilder.addStatement("$N.putAll($T.toJSON($N, $N, $N))", JSON_OBJECT_VAR_NAME, LinksMapper.class, "LINKS_PROVIDER", "value", "requestContext");
+            serializeInternalBuilder.addStatement("$T.putLinks($N, $N, $N, $N)", LinksMapper.class, JSON_OBJECT_VAR_NAME, LINKS_PROVIDER_CONST_NAME, "value", "requestContext");
         }
 
-        List<BaseAnnotation> nonEmbeddedAnnotations = context.getAnnotationsOn(representerAnnotation).stream().filter(baseAnnotation -> !baseAnnotation.isEmbedded()).collect(Collectors.toList());
-        List<BaseAnnotation> embeddedAnnotations = context.getAnnotationsOn(representerAnnotation).stream().filter(BaseAnnotation::isEmbedded).collect(Collectors.toList());
+        List<BaseAnnotation> nonEmbeddedAnnotations = nonEmbeddedAnnotations();
+        List<BaseAnnotation> embeddedAnnotations = embeddedAnnotations();
 
         nonEmbeddedAnnotations.forEach(baseAnnotation -> serializeInternalBuilder.add(baseAnnotation.getSerializeCodeBlock(context, JSON_OBJECT_VAR_NAME)));
 
         if (!embeddedAnnotations.isEmpty()) {
-            serializeInternalBuilder.addStatement("$T $N = new $T()", MAP_OF_STRING_TO_OBJECT, EMBEDDED_MAP_VARIABLE_NAME, LINKED_HASH_MAP_OF_STRING_TO_OBJECT);
+            serializeInternalBuilder.addStatement("$T $N = new $T($N)", MAP_OF_STRING_TO_OBJECT, EMBEDDED_MAP_VARIABLE_NAME, SharedKeyMap.class, EMBEDDED_JSON_KEYS_CONST_NAME);
 
             embeddedAnnotations.forEach(baseAnnotation -> serializeInternalBuilder.add(baseAnnotation.getSerializeCodeBlock(context, EMBEDDED_MAP_VARIABLE_NAME)));
 
@@ -206,9 +948,118 @@ public class MapperJavaSourceFile {
         return serializeInternalBuilder.build();
     }
 
+    /**
+     * Properties added by the representers of flattened subclasses are not part of the selection, and are always
+     * rendered.
+     */
+    private CodeBlock serializeSelected() {
+        CodeBlock.Builder serializeSelectedBuilder = CodeBlock.builder();
+
+        if (representerAnnotation.hasLinksProvider()) {
+            serializeSelectedBuilder
+                    .beginControlFlow("if ($N.includes($S))", FIELD_SELECTION_VAR_NAME, "_links")
+                    .addStatement("$T.putLinks($N, $N, $N, $N)", LinksMapper.class, JSON_OBJECT_VAR_NAME, LINKS_PROVIDER_CONST_NAME, "value", "requestContext")
+                    .endControlFlow();
+        }
+
+        nonEmbeddedAnnotations().forEach(baseAnnotation -> serializeSelectedBuilder.add(baseAnnotation.getSelectedSerializeCodeBlock(context, JSON_OBJECT_VAR_NAME)));
+
+        List<BaseAnnotation> embeddedAnnotations = embeddedAnnotations();
+        if (!embeddedAnnotations.isEmpty()) {
+            serializeSelectedBuilder.addStatement("$T $N = new $T($N)", MAP_OF_STRING_TO_OBJECT, EMBEDDED_MAP_VARIABLE_NAME, SharedKeyMap.class, EMBEDDED_JSON_KEYS_CONST_NAME);
+
+            embeddedAnnotations.forEach(baseAnnotation -> serializeSelectedBuilder.add(baseAnnotation.getSelectedSerializeCodeBlock(context, EMBEDDED_MAP_VARIABLE_NAME)));
+
+            serializeSelectedBuilder
+                    .beginControlFlow("if (!$N.isEmpty())", EMBEDDED_MAP_VARIABLE_NAME)
+                    .addStatement("$N.put($S, $N)", JSON_OBJECT_VAR_NAME, "_embedded", EMBEDDED_MAP_VARIABLE_NAME)
+                    .endControlFlow();
+        }
+
+        return serializeSelectedBuilder.build();
+    }
+
+    private CodeBlock fingerprintInternal() {
+        CodeBlock.Builder fingerprintBuilder = CodeBlock.builder();
+
+        nonEmbeddedAnnotations().forEach(baseAnnotation -> fingerprintBuilder.add(baseAnnotation.getFingerprintCodeBlock(context)));
+
+        List<BaseAnnotation> embeddedAnnotations = embeddedAnnotations();
+        if (!embeddedAnnotations.isEmpty()) {
+            fingerprintBuilder.add(mixInFingerprint(fingerprintOf("_embedded")));
+            embeddedAnnotations.forEach(baseAnnotation -> fingerprintBuilder.add(baseAnnotation.getFingerprintCodeBlock(context)));
+        }
+
+        return fingerprintBuilder.build();
+    }
+
+    private CodeBlock fingerprintForSubClasses() {
+        CodeBlock.Builder builder = CodeBlock.builder();
+        representerAnnotation.getRepresentsSubClassesAnnotation().ifPresent(representsSubClassesAnnotation -> builder.add(representsSubClassesAnnotation.getFingerprintCodeBlock(context)));
+        return builder.build();
+    }
+
+    static CodeBlock mixInFingerprint(CodeBlock hash) {
+        return CodeBlock.builder()
+                .addStatement("$N = $T.mix($N, $L)", FINGERPRINT_VAR_NAME, Fingerprint.class, FINGERPRINT_VAR_NAME, hash)
+                .build();
+    }
+
+    // hashes of names are known when the mapper is generated, so only the values are hashed at runtime
+    static CodeBlock fingerprintOf(String name) {
+        return CodeBlock.of("$L", String.format("0x%016xL", Fingerprint.of(name)));
+    }
+
+    private CodeBlock serializeInternalToSink() {
+        CodeBlock.Builder serializeInternalBuilder = CodeBlock.builder();
+
+        Optional<RepresentsSubClassesAnnotation> subClassesWithLinks = representerAnnotation.getRepresentsSubClassesAnnotation()
+                .filter(RepresentsSubClassesAnnotation::hasLinksProviders);
+        if (subClassesWithLinks.isPresent()) {
+            serializeInternalBuilder.add(subClassesWithLinks.get().getSinkLinksCodeBlock(context, representerAnnotation));
+        } else if (representerAnnotation.hasLinksProvider()) {
+            serializeInternalBuilder.addStatement("$T.toJSON($N, $N, $N, $N)", LinksMapper.class, LINKS_PROVIDER_CONST_NAME, "value", "requestContext", JSON_SINK_VAR_NAME);
+        }
+
+        nonEmbeddedAnnotations().forEach(baseAnnotation -> serializeInternalBuilder.add(baseAnnotation.getSinkSerializeCodeBlock(context)));
+
+        List<BaseAnnotation> embeddedAnnotations = embeddedAnnotations();
+        if (!embeddedAnnotations.isEmpty()) {
+            serializeInternalBuilder
+                    .addStatement("$N.name($S, $T)", JSON_SINK_VAR_NAME, "_embedded", MapperConstants.jsonNameField(representerAnnotation, "_embedded"))
+                    .addStatement("$N.beginObject()", JSON_SINK_VAR_NAME);
+
+            embeddedAnnotations.forEach(baseAnnotation -> serializeInternalBuilder.add(baseAnnotation.getSinkSerializeCodeBlock(context)));
+
+            serializeInternalBuilder.addStatement("$N.endObject()", JSON_SINK_VAR_NAME);
+        }
+
+        return serializeInternalBuilder.build();
+    }
+
+    private List<BaseAnnotation> nonEmbeddedAnnotations() {
+        return context.getAnnotationsOn(representerAnnotation).stream().filter(baseAnnotation -> !baseAnnotation.isEmbedded()).collect(Collectors.toList());
+    }
+
+    private List<BaseAnnotation> embeddedAnnotations() {
+        return context.getAnnotationsOn(representerAnnotation).stream().filter(BaseAnnotation::isEmbedded).collect(Collectors.toList());
+    }
+
+    private CodeBlock serializeForSubClassesToSink() {
+        CodeBlock.Builder builder = CodeBlock.builder();
+        representerAnnotation.getRepresentsSubClassesAnnotation().ifPresent(representsSubClassesAnnotation -> builder.add(representsSubClassesAnnotation.getSinkSerializeCodeBlock(context, representerAnnotation)));
+        return builder.build();
+    }
+
+    private CodeBlock serializeSelectedForSubClasses() {
+        CodeBlock.Builder builder = CodeBlock.builder();
+        representerAnnotation.getRepresentsSubClassesAnnotation().ifPresent(representsSubClassesAnnotation -> builder.add(representsSubClassesAnnotation.getSelectedSerializeCodeBlock(context, representerAnnotation)));
+        return builder.build();
+    }
+
     private CodeBlock serializeForSubClasses() {
         CodeBlock.Builder builder = CodeBlock.builder();
-        representerAnnotation.getRepresentsSubClassesAnnotation().ifPresent(representsSubClassesAnnotation -> builder.add(representsSubClassesAnnotation.getSerializeCodeBlock(context)));
+        representerAnnotation.getRepresentsSubClassesAnnotation().ifPresent(representsSubClassesAnnotation -> builder.add(representsSubClassesAnnotation.getSerializeCodeBlock(context, representerAnnotation)));
         return builder.build();
     }
 
@@ -218,4 +1069,16 @@ public class MapperJavaSourceFile {
         return deserializeInternalBuilder.build();
     }
 
+    private CodeBlock collectingDeserializeInternal() {
+        CodeBlock.Builder deserializeInternalBuilder = CodeBlock.builder();
+        context.getAnnotationsOn(representerAnnotation).forEach(baseAnnotation -> deserializeInternalBuilder.add(baseAnnotation.getCollectingDeserializeCodeBlock(context)));
+        return deserializeInternalBuilder.build();
+    }
+
+    private CodeBlock deserializeInternalFromTokenStream() {
+        CodeBlock.Builder deserializeInternalBuilder = CodeBlock.builder();
+        context.getAnnotationsOn(representerAnnotation).forEach(baseAnnotation -> deserializeInternalBuilder.add(baseAnnotation.getTokenStreamDeserializeCodeBlock(context)));
+        return deserializeInternalBuilder.build();
+    }
+
 }
@@ -16,15 +16,34 @@
 
 package cd.go.jrepresenter.apt.models;
 
+import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.TypeName;
 
 public class PropertyAnnotation extends BaseAnnotation {
+    private final boolean enumModelAttribute;
+    private final boolean ignoreCase;
+
     public PropertyAnnotation(Attribute modelAttribute, Attribute jsonAttribute,
                               TypeName serializerClassName, TypeName deserializerClassName, TypeName representerClassName,
                               TypeName getterClassName, TypeName setterClassName, TypeName skipParse, TypeName skipRender) {
+        this(modelAttribute, jsonAttribute, serializerClassName, deserializerClassName, representerClassName,
+                getterClassName, setterClassName, skipParse, skipRender, false, false);
+    }
+
+    /**
+     * @param enumModelAttribute whether the model attribute is an enum, which is rendered and parsed by an
+     *                           {@code EnumCodec} unless the property has its own serializer and deserializer
+     * @param ignoreCase         whether that codec parses names ignoring case
+     */
+    public PropertyAnnotation(Attribute modelAttribute, Attribute jsonAttribute,
+                              TypeName serializerClassName, TypeName deserializerClassName, TypeName representerClassName,
+                              TypeName getterClassName, TypeName setterClassName, TypeName skipParse, TypeName skipRender,
+                              boolean enumModelAttribute, boolean ignoreCase) {
         super(modelAttribute, jsonAttribute, representerClassName, serializerClassName, deserializerClassName,
                 getterClassName, setterClassName, skipParse, skipRender);
+        this.enumModelAttribute = enumModelAttribute;
+        this.ignoreCase = ignoreCase;
     }
 
 
@@ -32,7 +51,13 @@ public class PropertyAnnotation extends BaseAnnotation {
     protected CodeBlock applySerializer(CodeBlock valueFromGetter) {
         if (hasSerializer()) {
             return CodeBlock.builder()
-                    .add("$T.apply(", MapperJavaConstantsFile.SERIALIZE_BUILDER.fieldName(serializerClassName))
+                    .add("$T.apply(", MapperConstants.SERIALIZE_BUILDER.fieldName(parent, serializerClassName))
+                    .add(valueFromGetter)
+                    .add(")")
+                    .build();
+        } else if (rendersWithEnumCodec()) {
+            return CodeBlock.builder()
+                    .add("$T.name(", enumCodecFieldName())
                     .add(valueFromGetter)
                     .add(")")
                     .build();
@@ -51,8 +76,16 @@ public class PropertyAnnotation extends BaseAnnotation {
                     "$T $N = $T.apply(($T) jsonAttribute)",
                     modelAttribute.type,
                     MapperJavaSourceFile.DESERIALIZED_JSON_ATTRIBUTE_NAME,
-                    MapperJavaConstantsFile.DESERIALIZER_BUILDER.fieldName(deserializerClassName),
+                    MapperConstants.DESERIALIZER_BUILDER.fieldName(parent, deserializerClassName),
                     jsonAttribute.type);
+        } else if (parsesWithEnumCodec()) {
+            builder.addStatement(
+                    "$T $N = $T.parse($S, ($T) jsonAttribute)",
+                    modelAttribute.type,
+                    MapperJavaSourceFile.DESERIALIZED_JSON_ATTRIBUTE_NAME,
+                    enumCodecFieldName(),
+                    jsonAttribute.nameAsSnakeCase(),
+                    String.class);
         } else {
             builder.addStatement(
                     "$T $N = ($T) jsonAttribute",
@@ -63,4 +96,42 @@ public class PropertyAnnotation extends BaseAnnotation {
 
         return builder.build();
     }
+
+    @Override
+    protected boolean deserializesToModelAttributeType() {
+        return true;
+    }
+
+    // an enum is parsed from its name, even if the representer declares the enum itself as the type of the property
+    @Override
+    TypeName jsonAttributeRawType() {
+        if (parsesWithEnumCodec()) {
+            return ClassName.get(String.class);
+        }
+        return super.jsonAttributeRawType();
+    }
+
+    boolean usesEnumCodec() {
+        return rendersWithEnumCodec() || parsesWithEnumCodec();
+    }
+
+    boolean ignoresCase() {
+        return ignoreCase;
+    }
+
+    TypeName enumType() {
+        return modelAttribute.type;
+    }
+
+    private boolean rendersWithEnumCodec() {
+        return enumModelAttribute && !hasSerializer() && !hasRepresenter();
+    }
+
+    private boolean parsesWithEnumCodec() {
+        return enumModelAttribute && !hasDeserializer() && !hasRepresenter();
+    }
+
+    private TypeName enumCodecFieldName() {
+        return (ignoreCase ? MapperConstants.CASE_INSENSITIVE_ENUM_CODECS_BUILDER : MapperConstants.ENUM_CODECS_BUILDER).fieldName(parent, modelAttribute.type);
+    }
 }
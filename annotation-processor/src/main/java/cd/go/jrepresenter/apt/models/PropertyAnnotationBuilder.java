@@ -30,6 +30,8 @@ public final class PropertyAnnotationBuilder {
     protected TypeName setterClassName;
     protected TypeName skipParse;
     protected TypeName skipRender;
+    protected boolean enumModelAttribute;
+    protected boolean ignoreCase;
 
     private PropertyAnnotationBuilder() {
     }
@@ -93,8 +95,18 @@ public final class PropertyAnnotationBuilder {
         return this;
     }
 
+    public PropertyAnnotationBuilder withEnumModelAttribute(boolean enumModelAttribute) {
+        this.enumModelAttribute = enumModelAttribute;
+        return this;
+    }
+
+    public PropertyAnnotationBuilder withIgnoreCase(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        return this;
+    }
+
     public PropertyAnnotation build() {
-        PropertyAnnotation propertyAnnotation = new PropertyAnnotation(modelAttribute, jsonAttribute, serializerClassName, deserializerClassName, representerClassName, getterClassName, setterClassName, skipParse, skipRender);
+        PropertyAnnotation propertyAnnotation = new PropertyAnnotation(modelAttribute, jsonAttribute, serializerClassName, deserializerClassName, representerClassName, getterClassName, setterClassName, skipParse, skipRender, enumModelAttribute, ignoreCase);
         propertyAnnotation.setParent(parent);
         propertyAnnotation.setEmbedded(embedded);
         return propertyAnnotation;
@@ -32,11 +32,14 @@ public class RepresenterAnnotation {
     private final ClassName linksProviderClass;
     private final boolean skipSerialize;
     private final boolean skipDeserialize;
+    private final int parallelThreshold;
+    private final int flushInterval;
     private final Optional<RepresentsSubClassesAnnotation> subClassInfo;
 
     private final ClassName deserializerClass;
+    private final ClassName cacheKeyClass;
 
-    RepresenterAnnotation(ClassName representerClass, ClassName modelClass, ClassName linksProviderClass, boolean skipSerialize, boolean skipDeserialize, ClassName deserializerClass, Optional<RepresentsSubClassesAnnotation> subClassInfo) {
+    RepresenterAnnotation(ClassName representerClass, ClassName modelClass, ClassName linksProviderClass, boolean skipSerialize, boolean skipDeserialize, ClassName deserializerClass, Optional<RepresentsSubClassesAnnotation> subClassInfo, int parallelThreshold, int flushInterval, ClassName cacheKeyClass) {
         this.representerClass = representerClass;
         this.modelClass = modelClass;
         this.linksProviderClass = linksProviderClass == null ? ClassName.get(EmptyLinksProvider.class) : linksProviderClass;
@@ -44,6 +47,9 @@ public class RepresenterAnnotation {
         this.skipDeserialize = skipDeserialize;
         this.subClassInfo = subClassInfo == null ? Optional.empty() : subClassInfo;
         this.deserializerClass = deserializerClass == null ? NULL_FUNCTION : deserializerClass;
+        this.parallelThreshold = parallelThreshold;
+        this.flushInterval = flushInterval;
+        this.cacheKeyClass = cacheKeyClass == null ? NULL_FUNCTION : cacheKeyClass;
     }
 
     public ClassName getDeserializerClass() {
@@ -54,6 +60,14 @@ public class RepresenterAnnotation {
         return !deserializerClass.equals(NULL_FUNCTION);
     }
 
+    public ClassName getCacheKeyClass() {
+        return cacheKeyClass;
+    }
+
+    public boolean hasCacheKeyClass() {
+        return !cacheKeyClass.equals(NULL_FUNCTION);
+    }
+
     public ClassName getRepresenterClass() {
         return representerClass;
     }
@@ -74,6 +88,14 @@ public class RepresenterAnnotation {
         return skipDeserialize;
     }
 
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
     public Optional<RepresentsSubClassesAnnotation> getRepresentsSubClassesAnnotation() {
         return subClassInfo;
     }
@@ -90,6 +112,10 @@ public class RepresenterAnnotation {
         return ClassName.bestGuess(packageNameRelocated() + "." + getRepresenterClass().simpleName().replaceAll("Representer$", "") + MAPPER_CLASS_SUFFIX);
     }
 
+    public ClassName constantsClassRelocated() {
+        return mapperClassImplRelocated().nestedClass(MapperConstants.CONSTANTS_CLASS_SIMPLE_NAME);
+    }
+
     public boolean hasLinksProvider() {
         return !getLinksProviderClass().equals(ClassName.get(EmptyLinksProvider.class));
     }
@@ -16,6 +16,7 @@
 
 package cd.go.jrepresenter.apt.models;
 
+import cd.go.jrepresenter.annotations.Represents;
 import com.squareup.javapoet.ClassName;
 
 import java.util.Optional;
@@ -28,6 +29,9 @@ public final class RepresenterAnnotationBuilder {
     private boolean skipDeserialize;
     private ClassName deserializerClass;
     private Optional<RepresentsSubClassesAnnotation> subClassInfo;
+    private int parallelThreshold = Represents.DEFAULT_PARALLEL_THRESHOLD;
+    private int flushInterval = Represents.DEFAULT_FLUSH_INTERVAL;
+    private ClassName cacheKeyClass;
 
     private RepresenterAnnotationBuilder() {
     }
@@ -71,7 +75,22 @@ public final class RepresenterAnnotationBuilder {
         return this;
     }
 
+    public RepresenterAnnotationBuilder withParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+        return this;
+    }
+
+    public RepresenterAnnotationBuilder withFlushInterval(int flushInterval) {
+        this.flushInterval = flushInterval;
+        return this;
+    }
+
+    public RepresenterAnnotationBuilder withCacheKeyClass(ClassName cacheKeyClass) {
+        this.cacheKeyClass = cacheKeyClass;
+        return this;
+    }
+
     public RepresenterAnnotation build() {
-        return new RepresenterAnnotation(representerClass, modelClass, linksProviderClass, skipSerialize, skipDeserialize, deserializerClass, subClassInfo);
+        return new RepresenterAnnotation(representerClass, modelClass, linksProviderClass, skipSerialize, skipDeserialize, deserializerClass, subClassInfo, parallelThreshold, flushInterval, cacheKeyClass);
     }
 }
@@ -16,15 +16,22 @@
 
 package cd.go.jrepresenter.apt.models;
 
-import cd.go.jrepresenter.apt.util.IfElseBuilder;
+import cd.go.jrepresenter.LinksMapper;
+import cd.go.jrepresenter.util.SubClassIndex;
 import com.squareup.javapoet.CodeBlock;
-import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.FieldSpec;
 
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class RepresentsSubClassesAnnotation {
+    public static final String SUB_CLASS_INDEX_CONST_NAME = "SUB_CLASS_INDEX";
 
     private final String property;
     private final String nestedUnder;
@@ -48,17 +55,30 @@ public class RepresentsSubClassesAnnotation {
         return nestedUnder;
     }
 
-    public CodeBlock getSerializeCodeBlock(ClassToAnnotationMap context) {
+    // looks up the position of the runtime class of a model in getSubClassInfos(), so serialization can switch on it
+    // instead of testing each subclass in turn
+    public FieldSpec getSubClassIndexField(ClassToAnnotationMap context) {
+        List<Object> args = new ArrayList<>();
+        args.add(SubClassIndex.class);
+        getSubClassInfos().forEach(subClassInfo -> args.add(context.findRepresenterAnnotation(subClassInfo.getRepresenterClass()).getModelClass()));
+        return FieldSpec.builder(SubClassIndex.class, SUB_CLASS_INDEX_CONST_NAME, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T(" + String.join(", ", Collections.nCopies(getSubClassInfos().size(), "$T.class")) + ")", args.toArray())
+                .build();
+    }
+
+    public CodeBlock getSerializeCodeBlock(ClassToAnnotationMap context, RepresenterAnnotation representerAnnotation) {
         CodeBlock.Builder builder = CodeBlock.builder();
         builder.addStatement("$T subClassProperties = null", Map.class);
-        IfElseBuilder ifElseBuilder = new IfElseBuilder(builder);
-        this.getSubClassInfos().forEach(subClassInfo -> {
+        builder.beginControlFlow("switch ($N.indexOf(value))", SUB_CLASS_INDEX_CONST_NAME);
+        for (int index = 0; index < getSubClassInfos().size(); index++) {
+            SubClassInfoAnnotation subClassInfo = getSubClassInfos().get(index);
             RepresenterAnnotation subClassRepresenter = context.findRepresenterAnnotation(subClassInfo.getRepresenterClass());
-            TypeName subClass = subClassRepresenter.getModelClass();
-            ifElseBuilder.addIf("value instanceof $T", subClass)
-                    .withBody(subClassInfo.getSerializeCodeBlock(subClassRepresenter));
-
-        });
+            builder.beginControlFlow("case $L:", index)
+                    .add(subClassInfo.getSerializeCodeBlock(representerAnnotation, subClassRepresenter))
+                    .addStatement("break")
+                    .endControlFlow();
+        }
+        builder.endControlFlow();
         String nestedUnder = this.getNestedUnder();
         if (nestedUnder.isEmpty()) {
             builder.addStatement("$N.putAll(subClassProperties)", MapperJavaSourceFile.JSON_OBJECT_VAR_NAME);
@@ -68,7 +88,111 @@ public class RepresentsSubClassesAnnotation {
         return builder.build();
     }
 
+    /**
+     * Selects the properties nested under {@link #getNestedUnder()} like those of any other nested representer. The
+     * properties of a flattened subclass are not part of the selection, and are always rendered.
+     */
+    public CodeBlock getSelectedSerializeCodeBlock(ClassToAnnotationMap context, RepresenterAnnotation representerAnnotation) {
+        String nestedUnder = this.getNestedUnder();
+        CodeBlock.Builder builder = CodeBlock.builder();
+        if (!nestedUnder.isEmpty()) {
+            builder.beginControlFlow("if ($N.includes($S))", MapperJavaSourceFile.FIELD_SELECTION_VAR_NAME, nestedUnder);
+        }
+        builder.addStatement("$T subClassProperties = null", Map.class);
+        builder.beginControlFlow("switch ($N.indexOf(value))", SUB_CLASS_INDEX_CONST_NAME);
+        for (int index = 0; index < getSubClassInfos().size(); index++) {
+            SubClassInfoAnnotation subClassInfo = getSubClassInfos().get(index);
+            RepresenterAnnotation subClassRepresenter = context.findRepresenterAnnotation(subClassInfo.getRepresenterClass());
+            builder.beginControlFlow("case $L:", index)
+                    .add(subClassInfo.getSelectedSerializeCodeBlock(representerAnnotation, subClassRepresenter, nestedUnder))
+                    .addStatement("break")
+                    .endControlFlow();
+        }
+        builder.endControlFlow();
+        if (nestedUnder.isEmpty()) {
+            builder.addStatement("$N.putAll(subClassProperties)", MapperJavaSourceFile.JSON_OBJECT_VAR_NAME);
+        } else {
+            builder.addStatement("$N.put($S, subClassProperties)", MapperJavaSourceFile.JSON_OBJECT_VAR_NAME, nestedUnder)
+                    .endControlFlow();
+        }
+        return builder.build();
+    }
+
+    public boolean hasLinksProviders() {
+        return getSubClassInfos().stream().anyMatch(SubClassInfoAnnotation::hasLinksProvider);
+    }
+
+    /**
+     * The links of a subclass replace the links of its parent representer, as they do when they are put into the
+     * rendered map one after the other.
+     */
+    public CodeBlock getSinkLinksCodeBlock(ClassToAnnotationMap context, RepresenterAnnotation representerAnnotation) {
+        CodeBlock.Builder builder = CodeBlock.builder();
+        builder.beginControlFlow("switch ($N.indexOf(value))", SUB_CLASS_INDEX_CONST_NAME);
+        for (int index = 0; index < getSubClassInfos().size(); index++) {
+            SubClassInfoAnnotation subClassInfo = getSubClassInfos().get(index);
+            if (!subClassInfo.hasLinksProvider()) {
+                continue;
+            }
+            RepresenterAnnotation subClassRepresenter = context.findRepresenterAnnotation(subClassInfo.getRepresenterClass());
+            builder.beginControlFlow("case $L:", index)
+                    .add(subClassInfo.getSinkLinksCodeBlock(representerAnnotation, subClassRepresenter))
+                    .addStatement("break")
+                    .endControlFlow();
+        }
+        builder.add("default:\n$>");
+        if (representerAnnotation.hasLinksProvider()) {
+            builder.addStatement("$T.toJSON($N, value, requestContext, $N)", LinksMapper.class, MapperJavaSourceFile.LINKS_PROVIDER_CONST_NAME, MapperJavaSourceFile.JSON_SINK_VAR_NAME);
+        }
+        return builder.add("$<")
+                .endControlFlow()
+                .build();
+    }
+
+    public CodeBlock getSinkSerializeCodeBlock(ClassToAnnotationMap context, RepresenterAnnotation representerAnnotation) {
+        CodeBlock.Builder builder = CodeBlock.builder();
+        builder.beginControlFlow("switch ($N.indexOf(value))", SUB_CLASS_INDEX_CONST_NAME);
+        for (int index = 0; index < getSubClassInfos().size(); index++) {
+            SubClassInfoAnnotation subClassInfo = getSubClassInfos().get(index);
+            RepresenterAnnotation subClassRepresenter = context.findRepresenterAnnotation(subClassInfo.getRepresenterClass());
+            builder.beginControlFlow("case $L:", index)
+                    .add(subClassInfo.getSinkSerializeCodeBlock(representerAnnotation, subClassRepresenter, this.getNestedUnder()))
+                    .addStatement("break")
+                    .endControlFlow();
+        }
+        // the map rendered by toJSON has a null value under nestedUnder for a subclass without a representer
+        if (!getNestedUnder().isEmpty()) {
+            builder.add("default:\n$>")
+                    .addStatement("$N.name($S, $T)", MapperJavaSourceFile.JSON_SINK_VAR_NAME, getNestedUnder(), MapperConstants.jsonNameField(representerAnnotation, getNestedUnder()))
+                    .addStatement("$N.nullValue()", MapperJavaSourceFile.JSON_SINK_VAR_NAME)
+                    .add("$<");
+        }
+        return builder.endControlFlow().build();
+    }
+
+    public CodeBlock getFingerprintCodeBlock(ClassToAnnotationMap context) {
+        CodeBlock.Builder builder = CodeBlock.builder();
+        if (!getNestedUnder().isEmpty()) {
+            builder.add(MapperJavaSourceFile.mixInFingerprint(MapperJavaSourceFile.fingerprintOf(getNestedUnder())));
+        }
+        builder.beginControlFlow("switch ($N.indexOf(value))", SUB_CLASS_INDEX_CONST_NAME);
+        for (int index = 0; index < getSubClassInfos().size(); index++) {
+            SubClassInfoAnnotation subClassInfo = getSubClassInfos().get(index);
+            RepresenterAnnotation subClassRepresenter = context.findRepresenterAnnotation(subClassInfo.getRepresenterClass());
+            builder.beginControlFlow("case $L:", index)
+                    .add(MapperJavaSourceFile.mixInFingerprint(MapperJavaSourceFile.fingerprintOf(subClassInfo.getValue())))
+                    .add(MapperJavaSourceFile.mixInFingerprint(CodeBlock.of("$T.fingerprint(($T) value)", subClassRepresenter.mapperClassImplRelocated(), subClassRepresenter.getModelClass())))
+                    .addStatement("break")
+                    .endControlFlow();
+        }
+        return builder.endControlFlow().build();
+    }
+
     public CodeBlock getDeserializeCodeBlock(ClassToAnnotationMap context, RepresenterAnnotation representerAnnotation) {
+        return getDeserializeCodeBlock(context, representerAnnotation, false);
+    }
+
+    public CodeBlock getDeserializeCodeBlock(ClassToAnnotationMap context, RepresenterAnnotation representerAnnotation, boolean collectErrors) {
         CodeBlock.Builder builder = CodeBlock.builder();
 
         builder.addStatement("$T model = null", representerAnnotation.getModelClass());
@@ -76,24 +200,47 @@ public class RepresentsSubClassesAnnotation {
         //TODO: Enhancement: get the right type instead of String.class?
         builder.addStatement("$T $N = ($T) $N.get($S)", String.class, getProperty(), String.class, MapperJavaSourceFile.JSON_OBJECT_VAR_NAME, getProperty());
 
-        IfElseBuilder ifElseBuilder = new IfElseBuilder(builder);
+        String noSubClassFound = String.format("Could not find any subclass for specified %s. Possible values are: %s", getProperty(),
+                getAllPossiblePropertyValues());
+
+        builder.beginControlFlow("if ($N == null)", getProperty())
+                .addStatement("throw new $T($S)", RuntimeException.class, noSubClassFound)
+                .endControlFlow();
 
-        getSubClassInfos().forEach(subType -> ifElseBuilder
-                .addIf("$S.equals($N)", subType.getValue(), getProperty())
-                .withBody(modelFromSubClass(context, subType)));
-        ifElseBuilder
-                .addElse("throw new $T($S)", RuntimeException.class,
-                        String.format("Could not find any subclass for specified %s. Possible values are: %s", getProperty(),
-                                getAllPossiblePropertyValues()));
+        // the first subclass declared for a value wins, as it did with the equals() chain this switch replaces
+        Set<String> values = new HashSet<>();
+        builder.beginControlFlow("switch ($N)", getProperty());
+        getSubClassInfos().stream()
+                .filter(subType -> values.add(subType.getValue()))
+                .forEach(subType -> builder.beginControlFlow("case $S:", subType.getValue())
+                        .add(modelFromSubClass(context, subType, collectErrors))
+                        .addStatement("break")
+                        .endControlFlow());
+        builder.add("default:\n$>")
+                .addStatement("throw new $T($S)", RuntimeException.class, noSubClassFound)
+                .add("$<")
+                .endControlFlow();
         return builder.build();
     }
 
-    private CodeBlock modelFromSubClass(ClassToAnnotationMap context, SubClassInfoAnnotation subType) {
+    private CodeBlock modelFromSubClass(ClassToAnnotationMap context, SubClassInfoAnnotation subType, boolean collectErrors) {
         RepresenterAnnotation subTypeRepresenterAnnotation = context.findRepresenterAnnotation(subType.getRepresenterClass());
         String nestedUnder = this.getNestedUnder();
+        CodeBlock errors = collectErrors ? CodeBlock.of(", $N", MapperJavaSourceFile.PARSE_ERRORS_VAR_NAME) : CodeBlock.of("");
         if (nestedUnder.isEmpty()) {
             return CodeBlock.builder()
-                    .addStatement("model = $T.fromJSON($N)", subTypeRepresenterAnnotation.mapperClassImplRelocated(), MapperJavaSourceFile.JSON_OBJECT_VAR_NAME)
+                    .addStatement("model = $T.fromJSON($N$L)", subTypeRepresenterAnnotation.mapperClassImplRelocated(), MapperJavaSourceFile.JSON_OBJECT_VAR_NAME, errors)
+                    .build();
+        } else if (collectErrors) {
+            return CodeBlock.builder()
+                    .addStatement("$N.push($S)", MapperJavaSourceFile.PARSE_ERRORS_VAR_NAME, nestedUnder)
+                    .addStatement("model = $T.fromJSON(($T) $N.get($S)$L)",
+                            subTypeRepresenterAnnotation.mapperClassImplRelocated(),
+                            Map.class,
+                            MapperJavaSourceFile.JSON_OBJECT_VAR_NAME,
+                            nestedUnder,
+                            errors)
+                    .addStatement("$N.pop()", MapperJavaSourceFile.PARSE_ERRORS_VAR_NAME)
                     .build();
         } else {
             return CodeBlock.builder()
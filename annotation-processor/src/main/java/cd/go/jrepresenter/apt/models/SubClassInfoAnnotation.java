@@ -41,18 +41,66 @@ public class SubClassInfoAnnotation {
         return value;
     }
 
-    public CodeBlock getSerializeCodeBlock(RepresenterAnnotation subClassRepresenterAnnotation) {
+    public TypeName getLinksProvider() {
+        return linksProvider;
+    }
+
+    public CodeBlock getSerializeCodeBlock(RepresenterAnnotation representerAnnotation, RepresenterAnnotation subClassRepresenterAnnotation) {
         ClassName subClassModel = subClassRepresenterAnnotation.getModelClass();
         CodeBlock.Builder builder = CodeBlock.builder();
         if (this.hasLinksProvider()) {
-            builder.addStatement("$N.putAll($T.toJSON(new $T(), ($T) value, requestContext))", MapperJavaSourceFile.JSON_OBJECT_VAR_NAME, LinksMapper.class, linksProvider, subClassModel);
+            builder.addStatement("$T.putLinks($N, $T, ($T) value, requestContext)", LinksMapper.class, MapperJavaSourceFile.JSON_OBJECT_VAR_NAME, MapperConstants.LINKS_PROVIDER_BUILDER.fieldName(representerAnnotation, linksProvider), subClassModel);
         }
         return builder
                 .addStatement("subClassProperties = $T.toJSON(($T) value, requestContext)", subClassRepresenterAnnotation.mapperClassImplRelocated(), subClassModel)
                 .build();
     }
 
-    private boolean hasLinksProvider() {
+    public CodeBlock getSelectedSerializeCodeBlock(RepresenterAnnotation representerAnnotation, RepresenterAnnotation subClassRepresenterAnnotation, String nestedUnder) {
+        ClassName subClassModel = subClassRepresenterAnnotation.getModelClass();
+        CodeBlock.Builder builder = CodeBlock.builder();
+        if (this.hasLinksProvider()) {
+            builder.beginControlFlow("if ($N.includes($S))", MapperJavaSourceFile.FIELD_SELECTION_VAR_NAME, "_links")
+                    .addStatement("$T.putLinks($N, $T, ($T) value, requestContext)", LinksMapper.class, MapperJavaSourceFile.JSON_OBJECT_VAR_NAME, MapperConstants.LINKS_PROVIDER_BUILDER.fieldName(representerAnnotation, linksProvider), subClassModel)
+                    .endControlFlow();
+        }
+        if (nestedUnder.isEmpty()) {
+            return builder
+                    .addStatement("subClassProperties = $T.toJSON(($T) value, requestContext)", subClassRepresenterAnnotation.mapperClassImplRelocated(), subClassModel)
+                    .build();
+        }
+        return builder
+                .addStatement("subClassProperties = $T.toJSON(($T) value, requestContext, $N.nested($S))", subClassRepresenterAnnotation.mapperClassImplRelocated(), subClassModel, MapperJavaSourceFile.FIELD_SELECTION_VAR_NAME, nestedUnder)
+                .build();
+    }
+
+    // a sink cannot replace the links of the parent once they are written, so they are written once, up front
+    public CodeBlock getSinkLinksCodeBlock(RepresenterAnnotation representerAnnotation, RepresenterAnnotation subClassRepresenterAnnotation) {
+        ClassName subClassModel = subClassRepresenterAnnotation.getModelClass();
+        TypeName subClassLinksProvider = MapperConstants.LINKS_PROVIDER_BUILDER.fieldName(representerAnnotation, linksProvider);
+        if (representerAnnotation.hasLinksProvider()) {
+            return CodeBlock.builder()
+                    .addStatement("$T.toJSON($N, $T, ($T) value, requestContext, $N)", LinksMapper.class, MapperJavaSourceFile.LINKS_PROVIDER_CONST_NAME, subClassLinksProvider, subClassModel, MapperJavaSourceFile.JSON_SINK_VAR_NAME)
+                    .build();
+        }
+        return CodeBlock.builder()
+                .addStatement("$T.toJSON($T, ($T) value, requestContext, $N)", LinksMapper.class, subClassLinksProvider, subClassModel, MapperJavaSourceFile.JSON_SINK_VAR_NAME)
+                .build();
+    }
+
+    public CodeBlock getSinkSerializeCodeBlock(RepresenterAnnotation representerAnnotation, RepresenterAnnotation subClassRepresenterAnnotation, String nestedUnder) {
+        ClassName subClassModel = subClassRepresenterAnnotation.getModelClass();
+        CodeBlock.Builder builder = CodeBlock.builder();
+        if (nestedUnder.isEmpty()) {
+            builder.addStatement("$T.toJSONProperties(($T) value, requestContext, $N)", subClassRepresenterAnnotation.mapperClassImplRelocated(), subClassModel, MapperJavaSourceFile.JSON_SINK_VAR_NAME);
+        } else {
+            builder.addStatement("$N.name($S, $T)", MapperJavaSourceFile.JSON_SINK_VAR_NAME, nestedUnder, MapperConstants.jsonNameField(representerAnnotation, nestedUnder))
+                    .addStatement("$T.toJSON(($T) value, requestContext, $N)", subClassRepresenterAnnotation.mapperClassImplRelocated(), subClassModel, MapperJavaSourceFile.JSON_SINK_VAR_NAME);
+        }
+        return builder.build();
+    }
+
+    boolean hasLinksProvider() {
         return !linksProvider.equals(ClassName.get(EmptyLinksProvider.class));
     }
 }
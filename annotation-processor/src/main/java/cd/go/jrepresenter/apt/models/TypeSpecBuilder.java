@@ -22,8 +22,6 @@ import com.squareup.javapoet.*;
 import javax.lang.model.element.Modifier;
 import java.util.Set;
 
-import static cd.go.jrepresenter.apt.models.MapperJavaConstantsFile.CONSTANTS_CLASS_NAME;
-
 public class TypeSpecBuilder {
     final String constName;
     private final String replacePrefix;
@@ -36,17 +34,24 @@ public class TypeSpecBuilder {
     public TypeSpec build(Set<TypeName> types) {
         TypeSpec.Builder builder = TypeSpec.interfaceBuilder(constName).addModifiers(Modifier.STATIC, Modifier.PUBLIC);
         types.forEach(typeName -> {
-            FieldSpec.Builder fieldSpec = FieldSpec.builder(typeName, internalFieldName(typeName))
+            FieldSpec.Builder fieldSpec = FieldSpec.builder(fieldType(typeName), internalFieldName(typeName))
                     .addModifiers(Modifier.STATIC, Modifier.PUBLIC, Modifier.FINAL)
-                    .initializer(CodeBlock.builder().add("new $T()", typeName).build());
+                    .initializer(initializer(typeName));
             builder.addField(fieldSpec.build());
         });
         return builder.build();
     }
 
+    TypeName fieldType(TypeName typeName) {
+        return typeName;
+    }
+
+    CodeBlock initializer(TypeName typeName) {
+        return CodeBlock.builder().add("new $T()", typeName).build();
+    }
 
-    public TypeName fieldName(TypeName typeName) {
-        return CONSTANTS_CLASS_NAME.nestedClass(constName).nestedClass(internalFieldName(typeName));
+    public TypeName fieldName(RepresenterAnnotation representerAnnotation, TypeName typeName) {
+        return representerAnnotation.constantsClassRelocated().nestedClass(constName).nestedClass(internalFieldName(typeName));
     }
 
     private String internalFieldName(TypeName typeName) {
@@ -29,10 +29,12 @@ import com.squareup.javapoet.TypeName;
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
-import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.util.ElementFilter;
 import javax.tools.JavaFileObject;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -47,8 +49,9 @@ import static javax.tools.Diagnostic.Kind.NOTE;
 
 @AutoService(Processor.class)
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
-@SupportedOptions("jrepresenterDebug")
+@SupportedOptions({"jrepresenterDebug", "jrepresenterMetrics"})
 public class RepresenterAnnotationProcessor extends AbstractProcessor {
+    private boolean measured;
 
     @Override
     public Set<String> getSupportedAnnotationTypes() {
@@ -61,87 +64,125 @@ public class RepresenterAnnotationProcessor extends AbstractProcessor {
         if (processingEnv.getOptions().getOrDefault("jrepresenterDebug", "false").equals("true")) {
             DebugStatement.enable();
         }
+        measured = processingEnv.getOptions().getOrDefault("jrepresenterMetrics", "false").equals("true");
     }
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        ClassToAnnotationMap classToAnnotationMap = new ClassToAnnotationMap();
-
-        roundEnv.getElementsAnnotatedWith(Represents.class).forEach(representerClass -> {
-            Represents represents = representerClass.getAnnotation(Represents.class);
-            ClassName modelClassName = (ClassName) getClassNameFromAnnotationMethod(represents, "value");
-            ClassName linksBuilderClassName = (ClassName) getClassNameFromAnnotationMethod(represents, "linksProvider");
-            ClassName deserializerClassName = (ClassName) getClassNameFromAnnotationMethod(represents, "deserializer");
-            ClassName representerClassName = ClassName.bestGuess(((TypeElement) representerClass).getQualifiedName().toString());
-            RepresentsSubClasses annotation = representerClass.getAnnotation(RepresentsSubClasses.class);
-            Optional<RepresentsSubClassesAnnotation> representsSubClassesAnnotation = extractSubClassInfo(annotation);
-
-            classToAnnotationMap.add(RepresenterAnnotationBuilder.aRepresenterAnnotation()
-                    .withRepresenterClass(representerClassName)
-                    .withModelClass(modelClassName)
-                    .withLinksProviderClass(linksBuilderClassName)
-                    .withSkipDeserialize(represents.skipDeserialize())
-                    .withSkipSerialize(represents.skipSerialize())
-                    .withSubClassInfo(representsSubClassesAnnotation)
-                    .withDeserializerClass(deserializerClassName)
-                    .build());
-        });
+        // every mapper is generated from its own representer, and the representers it refers to, alone. This keeps the
+        // processor isolating, so an incremental build only regenerates the mappers whose representers changed.
+        ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(Represents.class)).forEach(representerClass -> {
+            ClassToAnnotationMap classToAnnotationMap = new ClassToAnnotationMap();
+            RepresenterAnnotation representerAnnotation = toRepresenterAnnotation(representerClass);
+            classToAnnotationMap.add(representerAnnotation);
+
+            List<ExecutableElement> methods = ElementFilter.methodsIn(representerClass.getEnclosedElements());
+            methods.stream()
+                    .filter(method -> method.getAnnotation(Property.class) != null)
+                    .forEach(method -> classToAnnotationMap.addAnnotatedMethod(representerAnnotation.getRepresenterClass(), toPropertyAnnotation(method)));
+            methods.stream()
+                    .filter(method -> method.getAnnotation(Collection.class) != null)
+                    .forEach(method -> classToAnnotationMap.addAnnotatedMethod(representerAnnotation.getRepresenterClass(), toCollectionAnnotation(method)));
+
+            addReferencedRepresenters(classToAnnotationMap);
 
-        roundEnv.getElementsAnnotatedWith(Property.class).forEach(method -> {
-            Property annotation = method.getAnnotation(Property.class);
-
-            String jsonAttributeName = getJsonAttributeName(method);
-            String modelAttributeName = getModelAttributeName(method, annotation);
-
-            TypeName modelAttributeType = getClassNameFromAnnotationMethod(annotation, "modelAttributeType");
-            TypeName jsonAttributeType = ClassName.get(((ExecutableType) method.asType()).getReturnType());
-
-            PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
-                    .withModelAttribute(new Attribute(modelAttributeName, modelAttributeType))
-                    .withJsonAttribute(new Attribute(jsonAttributeName, jsonAttributeType))
-                    .withEmbedded(annotation.embedded())
-                    .withSerializerClassName(getClassNameFromAnnotationMethod(annotation, "serializer"))
-                    .withDeserializerClassName(getClassNameFromAnnotationMethod(annotation, "deserializer"))
-                    .withRepresenterClassName(getClassNameFromAnnotationMethod(annotation, "representer"))
-                    .withGetterClassName(getClassNameFromAnnotationMethod(annotation, "getter"))
-                    .withSetterClassName(getClassNameFromAnnotationMethod(annotation, "setter"))
-                    .withSkipParse(getClassNameFromAnnotationMethod(annotation, "skipParse"))
-                    .withSkipRender(getClassNameFromAnnotationMethod(annotation, "skipRender"))
-                    .build();
-
-            classToAnnotationMap.addAnnotatedMethod(ClassName.get(method.getEnclosingElement().asType()), propertyAnnotation);
+            try {
+                writeMapperFile(classToAnnotationMap, representerAnnotation, representerClass);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         });
 
-        roundEnv.getElementsAnnotatedWith(Collection.class).forEach(method -> {
-            Collection annotation = method.getAnnotation(Collection.class);
-
-            String jsonAttributeName = getJsonAttributeName(method);
-            String modelAttributeName = getModelAttributeName(method, annotation);
-
-            TypeName modelAttributeType = getClassNameFromAnnotationMethod(annotation, "modelAttributeType");
-            TypeName jsonAttributeType = ClassName.get(((ExecutableType) method.asType()).getReturnType());
+        return true;
+    }
 
-            CollectionAnnotation propertyAnnotation = CollectionAnnotationBuilder.aCollectionAnnotation()
-                    .withRepresenterClassName(getClassNameFromAnnotationMethod(annotation, "representer"))
-                    .withModelAttribute(new Attribute(modelAttributeName, modelAttributeType))
-                    .withJsonAttribute(new Attribute(jsonAttributeName, jsonAttributeType))
-                    .withEmbedded(annotation.embedded())
-                    .withSerializerClassName(getClassNameFromAnnotationMethod(annotation, "serializer"))
-                    .withDeserializerClassName(getClassNameFromAnnotationMethod(annotation, "deserializer"))
-                    .withGetterClassName(getClassNameFromAnnotationMethod(annotation, "getter"))
-                    .withSetterClassName(getClassNameFromAnnotationMethod(annotation, "setter"))
-                    .withSkipParse(getClassNameFromAnnotationMethod(annotation, "skipParse"))
-                    .withSkipRender(getClassNameFromAnnotationMethod(annotation, "skipRender"))
-                    .build();
+    private void addReferencedRepresenters(ClassToAnnotationMap classToAnnotationMap) {
+        classToAnnotationMap.missingReferencedRepresenters().forEach(representerClassName -> {
+            TypeElement representerClass = processingEnv.getElementUtils().getTypeElement(representerClassName.toString());
+            if (representerClass != null && representerClass.getAnnotation(Represents.class) != null) {
+                classToAnnotationMap.add(toRepresenterAnnotation(representerClass));
+            }
+        });
+    }
 
-            ClassName representerClass = ClassName.bestGuess(method.getEnclosingElement().toString());
+    private RepresenterAnnotation toRepresenterAnnotation(TypeElement representerClass) {
+        Represents represents = representerClass.getAnnotation(Represents.class);
+        ClassName modelClassName = (ClassName) getClassNameFromAnnotationMethod(represents, "value");
+        ClassName linksBuilderClassName = (ClassName) getClassNameFromAnnotationMethod(represents, "linksProvider");
+        ClassName deserializerClassName = (ClassName) getClassNameFromAnnotationMethod(represents, "deserializer");
+        ClassName cacheKeyClassName = (ClassName) getClassNameFromAnnotationMethod(represents, "cacheKey");
+        ClassName representerClassName = ClassName.get(representerClass);
+        RepresentsSubClasses annotation = representerClass.getAnnotation(RepresentsSubClasses.class);
+        Optional<RepresentsSubClassesAnnotation> representsSubClassesAnnotation = extractSubClassInfo(annotation);
+
+        return RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(representerClassName)
+                .withModelClass(modelClassName)
+                .withLinksProviderClass(linksBuilderClassName)
+                .withSkipDeserialize(represents.skipDeserialize())
+                .withSkipSerialize(represents.skipSerialize())
+                .withSubClassInfo(representsSubClassesAnnotation)
+                .withDeserializerClass(deserializerClassName)
+                .withParallelThreshold(represents.parallelThreshold())
+                .withFlushInterval(represents.flushInterval())
+                .withCacheKeyClass(cacheKeyClassName)
+                .build();
+    }
 
-            classToAnnotationMap.addAnnotatedMethod(representerClass, propertyAnnotation);
-        });
+    private PropertyAnnotation toPropertyAnnotation(ExecutableElement method) {
+        Property annotation = method.getAnnotation(Property.class);
+
+        String jsonAttributeName = getJsonAttributeName(method);
+        String modelAttributeName = getModelAttributeName(method, annotation);
+
+        TypeName modelAttributeType = getClassNameFromAnnotationMethod(annotation, "modelAttributeType");
+        TypeName jsonAttributeType = ClassName.get(((ExecutableType) method.asType()).getReturnType());
+
+        return PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(new Attribute(modelAttributeName, modelAttributeType))
+                .withJsonAttribute(new Attribute(jsonAttributeName, jsonAttributeType))
+                .withEmbedded(annotation.embedded())
+                .withSerializerClassName(getClassNameFromAnnotationMethod(annotation, "serializer"))
+                .withDeserializerClassName(getClassNameFromAnnotationMethod(annotation, "deserializer"))
+                .withRepresenterClassName(getClassNameFromAnnotationMethod(annotation, "representer"))
+                .withGetterClassName(getClassNameFromAnnotationMethod(annotation, "getter"))
+                .withSetterClassName(getClassNameFromAnnotationMethod(annotation, "setter"))
+                .withSkipParse(getClassNameFromAnnotationMethod(annotation, "skipParse"))
+                .withSkipRender(getClassNameFromAnnotationMethod(annotation, "skipRender"))
+                .withEnumModelAttribute(isEnum(modelAttributeType))
+                .withIgnoreCase(annotation.ignoreCase())
+                .build();
+    }
 
-        writeFiles(classToAnnotationMap);
+    private boolean isEnum(TypeName typeName) {
+        if (!(typeName instanceof ClassName)) {
+            return false;
+        }
+        TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(typeName.toString());
+        return typeElement != null && typeElement.getKind() == ElementKind.ENUM;
+    }
 
-        return true;
+    private CollectionAnnotation toCollectionAnnotation(ExecutableElement method) {
+        Collection annotation = method.getAnnotation(Collection.class);
+
+        String jsonAttributeName = getJsonAttributeName(method);
+        String modelAttributeName = getModelAttributeName(method, annotation);
+
+        TypeName modelAttributeType = getClassNameFromAnnotationMethod(annotation, "modelAttributeType");
+        TypeName jsonAttributeType = ClassName.get(((ExecutableType) method.asType()).getReturnType());
+
+        return CollectionAnnotationBuilder.aCollectionAnnotation()
+                .withRepresenterClassName(getClassNameFromAnnotationMethod(annotation, "representer"))
+                .withModelAttribute(new Attribute(modelAttributeName, modelAttributeType))
+                .withJsonAttribute(new Attribute(jsonAttributeName, jsonAttributeType))
+                .withEmbedded(annotation.embedded())
+                .withSerializerClassName(getClassNameFromAnnotationMethod(annotation, "serializer"))
+                .withDeserializerClassName(getClassNameFromAnnotationMethod(annotation, "deserializer"))
+                .withGetterClassName(getClassNameFromAnnotationMethod(annotation, "getter"))
+                .withSetterClassName(getClassNameFromAnnotationMethod(annotation, "setter"))
+                .withSkipParse(getClassNameFromAnnotationMethod(annotation, "skipParse"))
+                .withSkipRender(getClassNameFromAnnotationMethod(annotation, "skipRender"))
+                .build();
     }
 
     private Optional<RepresentsSubClassesAnnotation> extractSubClassInfo(RepresentsSubClasses annotation) {
@@ -165,12 +206,11 @@ public class RepresenterAnnotationProcessor extends AbstractProcessor {
             Class<?> type = (Class<?>) method.invoke(annotation);
             return TypeName.get(type);
         } catch (MirroredTypeException mte) {
-            DeclaredType classTypeMirror = (DeclaredType) mte.getTypeMirror();
-            return TypeName.get(classTypeMirror);
+            return TypeName.get(mte.getTypeMirror());
         } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
             if (e.getCause() instanceof MirroredTypeException) {
-                DeclaredType classTypeMirror = (DeclaredType) ((MirroredTypeException) e.getCause()).getTypeMirror();
-                return TypeName.get(classTypeMirror);
+                // not necessarily a DeclaredType, e.g. modelAttributeType = int.class
+                return TypeName.get(((MirroredTypeException) e.getCause()).getTypeMirror());
             } else {
                 throw new RuntimeException(e);
             }
@@ -199,41 +239,10 @@ public class RepresenterAnnotationProcessor extends AbstractProcessor {
         return modelAttributeName;
     }
 
-    private void writeFiles(ClassToAnnotationMap classToAnnotationMap) {
-        if (classToAnnotationMap.isEmpty()) {
-            return;
-        }
-
-        try {
-            writeConstantsFile(classToAnnotationMap);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-
-        classToAnnotationMap.forEach((representerAnnotation) -> {
-            try {
-                writeMapperFile(classToAnnotationMap, representerAnnotation);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        });
-    }
-
-    private void writeConstantsFile(ClassToAnnotationMap context) throws IOException {
-        MapperJavaConstantsFile javaSourceFile = new MapperJavaConstantsFile(context);
-        processingEnv.getMessager().printMessage(NOTE, "Generating representer for " + javaSourceFile.getModelClass());
-        JavaFileObject builderFile = processingEnv.getFiler().createSourceFile(javaSourceFile.getModelClass().toString());
-
-        try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
-            out.append(javaSourceFile.toSource());
-        }
-
-    }
-
-    private void writeMapperFile(ClassToAnnotationMap context, RepresenterAnnotation representerAnnotation) throws IOException {
-        MapperJavaSourceFile javaSourceFile = new MapperJavaSourceFile(representerAnnotation, context);
+    private void writeMapperFile(ClassToAnnotationMap context, RepresenterAnnotation representerAnnotation, TypeElement representerClass) throws IOException {
+        MapperJavaSourceFile javaSourceFile = new MapperJavaSourceFile(representerAnnotation, context, measured);
         processingEnv.getMessager().printMessage(NOTE, "Generating representer for " + javaSourceFile.representerAnnotation.getModelClass() + " into " + javaSourceFile.representerAnnotation.mapperClassImplRelocated());
-        JavaFileObject builderFile = processingEnv.getFiler().createSourceFile(javaSourceFile.representerAnnotation.mapperClassImplRelocated().toString());
+        JavaFileObject builderFile = processingEnv.getFiler().createSourceFile(javaSourceFile.representerAnnotation.mapperClassImplRelocated().toString(), representerClass);
 
         try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
             out.append(javaSourceFile.toSource());
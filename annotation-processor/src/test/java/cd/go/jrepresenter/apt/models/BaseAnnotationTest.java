@@ -21,6 +21,7 @@ import org.assertj.core.api.Assertions;
 import org.junit.Test;
 
 import static cd.go.jrepresenter.apt.models.TestConstants.STRING_CLASS;
+import static cd.go.jrepresenter.apt.models.TestConstants.USER_REPRESENTER;
 
 public class BaseAnnotationTest {
 
@@ -63,15 +64,16 @@ public class BaseAnnotationTest {
                 .withJsonAttribute(jsonAttribute)
                 .withSkipParse(ClassName.bestGuess("com.tw.SkipFooParse"))
                 .withSkipRender(ClassName.bestGuess("com.tw.SkipFooRender"))
+                .withParent(USER_REPRESENTER)
                 .build();
 
         Assertions.assertThat(baseAnnotation.getSerializeCodeBlock(null, "jsonObject").toString()).isEqualTo("" +
-                "if (!gen.cd.go.jrepresenter.Constants.SkipRenderers.SKIP_FOO_RENDER.apply(value)) {\n" +
+                "if (!gen.com.tw.UserMapper.Constants.SkipRenderers.SKIP_FOO_RENDER.apply(value)) {\n" +
                 "  jsonObject.put(\"first_name\", /* apply some serializer here */);\n" +
                 "}\n");
 
         Assertions.assertThat(baseAnnotation.getDeserializeCodeBlock(null).toString()).isEqualTo("" +
-                "if (!gen.cd.go.jrepresenter.Constants.SkipParsers.SKIP_FOO_PARSE.apply(value)) {\n" +
+                "if (!gen.com.tw.UserMapper.Constants.SkipParsers.SKIP_FOO_PARSE.apply(value)) {\n" +
                 "  if (jsonObject.containsKey(\"first_name\")) {\n" +
                 "    /* apply some deserializer here */java.lang.String modelAttribute = (java.lang.String) deserializedJsonAttribute;\n" +
                 "    model.setFname(modelAttribute);\n" +
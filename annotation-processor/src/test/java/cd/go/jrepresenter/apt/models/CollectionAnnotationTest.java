@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 
 import static cd.go.jrepresenter.apt.models.TestConstants.USER_MODEL;
+import static cd.go.jrepresenter.apt.models.TestConstants.USER_REPRESENTER;
 import static cd.go.jrepresenter.apt.models.TestConstants.USER_REPRESENTER_CLASS;
 import static cd.go.jrepresenter.apt.util.TypeUtil.listOf;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -85,7 +86,7 @@ public class CollectionAnnotationTest {
                 "if (jsonObject.containsKey(\"users\")) {\n" +
                 "  java.lang.Object jsonAttribute = jsonObject.get(\"users\");\n" +
                 "  if (!(jsonAttribute instanceof java.util.List)) {\n" +
-                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"users\", java.util.List.class, jsonObject);\n" +
+                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"users\", java.util.List.class, jsonAttribute);\n" +
                 "  }\n" +
                 "  java.util.List deserializedJsonAttribute = (java.util.List) jsonAttribute;\n" +
                 "  java.util.List<java.util.List<com.tw.User>> modelAttribute = gen.com.tw.UserMapper.fromJSON((java.util.List) deserializedJsonAttribute);\n" +
@@ -94,6 +95,83 @@ public class CollectionAnnotationTest {
         assertThat(codeBlock.toString()).isEqualTo(expectedCode);
     }
 
+    @Test
+    public void shouldGenerateCodeToDeserializeCollectingErrors() {
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(null)
+                .withSkipDeserialize(false)
+                .withSkipSerialize(false)
+                .build();
+        Attribute modelAttribute = new Attribute("users", USER_MODEL);
+        Attribute jsonAttribute = new Attribute("users", listOf(Map.class));
+        CollectionAnnotation annotation = CollectionAnnotationBuilder.aCollectionAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .withRepresenterClassName(USER_REPRESENTER_CLASS)
+                .build();
+
+        ClassToAnnotationMap context = new ClassToAnnotationMap();
+        context.add(representerAnnotation);
+        context.addAnnotatedMethod("com.foo.representers.UserRepresenter", annotation);
+
+        CodeBlock codeBlock = annotation.doGetCollectingDeserializeCodeBlock(context);
+
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "if (jsonObject.containsKey(\"users\")) {\n" +
+                "  try {\n" +
+                "    java.lang.Object jsonAttribute = jsonObject.get(\"users\");\n" +
+                "    if (!(jsonAttribute instanceof java.util.List)) {\n" +
+                "      cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"users\", java.util.List.class, jsonAttribute);\n" +
+                "    }\n" +
+                "    java.util.List deserializedJsonAttribute = (java.util.List) jsonAttribute;\n" +
+                "    errors.push(\"users\");\n" +
+                "    @java.lang.SuppressWarnings(\"unchecked\") java.util.List<java.util.Map<java.lang.String, java.lang.Object>> nestedJsonArray = (java.util.List<java.util.Map<java.lang.String, java.lang.Object>>) deserializedJsonAttribute;\n" +
+                "    java.util.List<com.tw.User> modelAttribute = gen.com.tw.UserMapper.fromJSON(nestedJsonArray, errors);\n" +
+                "    errors.pop();\n" +
+                "    model.setUsers(modelAttribute);\n" +
+                "  } catch (cd.go.jrepresenter.JsonParseException e) {\n" +
+                "    errors.add(\"users\", e);\n" +
+                "  }\n" +
+                "}\n");
+    }
+
+    @Test
+    public void shouldGenerateCodeToDeserializeFromTokenStream() {
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(null)
+                .withSkipDeserialize(false)
+                .withSkipSerialize(false)
+                .build();
+        Attribute modelAttribute = new Attribute("usersInternal", USER_MODEL);
+        Attribute jsonAttribute = new Attribute("users", listOf(Map.class));
+        CollectionAnnotation annotation = CollectionAnnotationBuilder.aCollectionAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .withRepresenterClassName(USER_REPRESENTER_CLASS)
+                .build();
+
+        ClassToAnnotationMap context = new ClassToAnnotationMap();
+        context.add(representerAnnotation);
+        context.addAnnotatedMethod("com.foo.representers.UserRepresenter", annotation);
+
+        CodeBlock codeBlock = annotation.getTokenStreamDeserializeCodeBlock(context);
+
+        String expectedCode = "" +
+                "case \"users\": {\n" +
+                "  if (jsonSource.peek() != cd.go.jrepresenter.JsonToken.BEGIN_ARRAY) {\n" +
+                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"users\", java.util.List.class, jsonSource.readValue());\n" +
+                "  }\n" +
+                "  java.util.List<com.tw.User> modelAttribute = gen.com.tw.UserMapper.fromJSONArray(jsonSource);\n" +
+                "  model.setUsersInternal(modelAttribute);\n" +
+                "  break;\n" +
+                "}\n";
+        assertThat(codeBlock.toString()).isEqualTo(expectedCode);
+    }
+
     @Test
     public void shouldGenerateCodeToDeserializeUsingDeserializer() {
 
@@ -111,6 +189,7 @@ public class CollectionAnnotationTest {
                 .withJsonAttribute(jsonAttribute)
                 .withDeserializerClassName(ClassName.bestGuess("com.tw.deserializers.UserDeserializer"))
                 .withRepresenterClassName(USER_REPRESENTER_CLASS)
+                .withParent(USER_REPRESENTER)
                 .build();
 
         ClassToAnnotationMap context = new ClassToAnnotationMap();
@@ -123,9 +202,9 @@ public class CollectionAnnotationTest {
                 "if (jsonObject.containsKey(\"users\")) {\n" +
                 "  java.lang.Object jsonAttribute = jsonObject.get(\"users\");\n" +
                 "  if (!(jsonAttribute instanceof java.util.List)) {\n" +
-                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"users\", java.util.List.class, jsonObject);\n" +
+                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"users\", java.util.List.class, jsonAttribute);\n" +
                 "  }\n" +
-                "  java.util.List deserializedJsonAttribute = ((java.util.List<java.util.Map>) (jsonAttribute)).stream().map(gen.cd.go.jrepresenter.Constants.Deserializers.USER::apply).collect(java.util.stream.Collectors.toList());\n" +
+                "  java.util.List deserializedJsonAttribute = cd.go.jrepresenter.util.Lists.map((java.util.List<java.util.Map>) jsonAttribute, gen.com.tw.UserMapper.Constants.Deserializers.USER);\n" +
                 "  java.util.List<java.util.List<com.tw.User>> modelAttribute = gen.com.tw.UserMapper.fromJSON((java.util.List) deserializedJsonAttribute);\n" +
                 "  model.setUsersInternal(modelAttribute);\n" +
                 "}\n";
@@ -149,6 +228,7 @@ public class CollectionAnnotationTest {
                 .withModelAttribute(modelAttribute)
                 .withJsonAttribute(jsonAttribute)
                 .withSerializerClassName(ClassName.bestGuess("com.foo.serializers.UserSerializer"))
+                .withParent(USER_REPRESENTER)
                 .build();
 
         ClassToAnnotationMap context = new ClassToAnnotationMap();
@@ -157,7 +237,7 @@ public class CollectionAnnotationTest {
 
         CodeBlock codeBlock = annotation.getSerializeCodeBlock(context, "json");
 
-        String expectedCode = "json.put(\"users\", (value.getUsersInternal()).stream().map(gen.cd.go.jrepresenter.Constants.Serializers.USER::apply).collect(java.util.stream.Collectors.toList()));\n";
+        String expectedCode = "json.put(\"users\", cd.go.jrepresenter.util.Lists.map(value.getUsersInternal(), gen.com.tw.UserMapper.Constants.Serializers.USER));\n";
         assertThat(codeBlock.toString()).isEqualTo(expectedCode);
     }
 
@@ -177,6 +257,7 @@ public class CollectionAnnotationTest {
                 .withModelAttribute(modelAttribute)
                 .withJsonAttribute(jsonAttribute)
                 .withGetterClassName(ClassName.bestGuess("com.tw.UsersGetter"))
+                .withParent(USER_REPRESENTER)
                 .build();
 
         ClassToAnnotationMap context = new ClassToAnnotationMap();
@@ -185,7 +266,7 @@ public class CollectionAnnotationTest {
 
         CodeBlock codeBlock = annotation.getSerializeCodeBlock(context, "json");
 
-        String expectedCode = "json.put(\"users\", gen.cd.go.jrepresenter.Constants.Getters.USERS.apply(value));\n";
+        String expectedCode = "json.put(\"users\", gen.com.tw.UserMapper.Constants.Getters.USERS.apply(value));\n";
         assertThat(codeBlock.toString()).isEqualTo(expectedCode);
     }
 
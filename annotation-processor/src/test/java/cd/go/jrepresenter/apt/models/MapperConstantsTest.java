@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.apt.models;
+
+import com.squareup.javapoet.ClassName;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static cd.go.jrepresenter.apt.models.TestConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MapperConstantsTest {
+
+    @Test
+    public void shouldGenerateAConstantsType() {
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(EMPTY_LINKS_PROVIDER)
+                .withSkipDeserialize(true)
+                .withSkipSerialize(false)
+                .withDeserializerClass(ClassName.bestGuess("com.example.CustomMapper"))
+                .build();
+
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withSerializerClassName(CASE_INSENSITIVE_STRING_SERIALIZER)
+                .withDeserializerClassName(CASE_INSENSITIVE_STRING_DESERIALIZER)
+                .withSkipParse(ClassName.bestGuess("com.tw.SkipFooParse"))
+                .withSkipRender(ClassName.bestGuess("com.tw.SkipFooRender"))
+                .withSetterClassName(TRIGGERED_BY_SETTER)
+                .withGetterClassName(FNAME_GETTER)
+                .withJsonAttribute(new Attribute("first_name", STRING_CLASS))
+                .build();
+        MapperConstants constants = new MapperConstants(representerAnnotation, Collections.singletonList(propertyAnnotation));
+        assertThat(constants.toTypeSpec().toString()).isEqualTo("" +
+                "private interface Constants {\n" +
+                "  interface Serializers {\n" +
+                "    com.tw.CaseInsensitiveStringSerializer CASE_INSENSITIVE_STRING = new com.tw.CaseInsensitiveStringSerializer();\n" +
+                "  }\n" +
+                "\n" +
+                "  interface Deserializers {\n" +
+                "    com.tw.CaseInsensitiveStringDeserializer CASE_INSENSITIVE_STRING = new com.tw.CaseInsensitiveStringDeserializer();\n" +
+                "  }\n" +
+                "\n" +
+                "  interface Getters {\n" +
+                "    com.tw.FNameGetter F_NAME = new com.tw.FNameGetter();\n" +
+                "  }\n" +
+                "\n" +
+                "  interface Setters {\n" +
+                "    com.tw.TriggeredBySetter TRIGGERED_BY = new com.tw.TriggeredBySetter();\n" +
+                "  }\n" +
+                "\n" +
+                "  interface SkipParsers {\n" +
+                "    com.tw.SkipFooParse SKIP_FOO_PARSE = new com.tw.SkipFooParse();\n" +
+                "  }\n" +
+                "\n" +
+                "  interface SkipRenderers {\n" +
+                "    com.tw.SkipFooRender SKIP_FOO_RENDER = new com.tw.SkipFooRender();\n" +
+                "  }\n" +
+                "\n" +
+                "  interface ToJSONMappers {\n" +
+                "    com.example.CustomMapper CUSTOM = new com.example.CustomMapper();\n" +
+                "  }\n" +
+                "\n" +
+                "  interface JsonNames {\n" +
+                "    byte[] FIRST_NAME = cd.go.jrepresenter.Utf8JsonSink.encodeName(\"first_name\");\n" +
+                "  }\n" +
+                "}\n");
+    }
+
+    @Test
+    public void shouldGenerateAnEnumCodecForEnumPropertiesWithoutSerializers() {
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(new Attribute("role", USER_ROLE))
+                .withJsonAttribute(new Attribute("role", STRING_CLASS))
+                .withEnumModelAttribute(true)
+                .build();
+        PropertyAnnotation caseInsensitivePropertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(new Attribute("previousRole", USER_ROLE))
+                .withJsonAttribute(new Attribute("previousRole", STRING_CLASS))
+                .withEnumModelAttribute(true)
+                .withIgnoreCase(true)
+                .build();
+
+        MapperConstants constants = new MapperConstants(USER_REPRESENTER, Arrays.asList(propertyAnnotation, caseInsensitivePropertyAnnotation));
+        assertThat(constants.toTypeSpec().toString()).isEqualTo("" +
+                "private interface Constants {\n" +
+                "  interface EnumCodecs {\n" +
+                "    cd.go.jrepresenter.EnumCodec<com.tw.UserRole> USER_ROLE = new cd.go.jrepresenter.EnumCodec<>(com.tw.UserRole.class, false);\n" +
+                "  }\n" +
+                "\n" +
+                "  interface CaseInsensitiveEnumCodecs {\n" +
+                "    cd.go.jrepresenter.EnumCodec<com.tw.UserRole> USER_ROLE = new cd.go.jrepresenter.EnumCodec<>(com.tw.UserRole.class, true);\n" +
+                "  }\n" +
+                "\n" +
+                "  interface JsonNames {\n" +
+                "    byte[] ROLE = cd.go.jrepresenter.Utf8JsonSink.encodeName(\"role\");\n" +
+                "\n" +
+                "    byte[] PREVIOUS_ROLE = cd.go.jrepresenter.Utf8JsonSink.encodeName(\"previous_role\");\n" +
+                "  }\n" +
+                "}\n");
+    }
+
+    @Test
+    public void shouldEncodeTheNameThePropertiesOfSubClassesAreNestedUnder() {
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(EMPTY_LINKS_PROVIDER)
+                .withSubClassInfo(Optional.of(new RepresentsSubClassesAnnotation("type", "attributes", Collections.emptyList())))
+                .build();
+
+        MapperConstants constants = new MapperConstants(representerAnnotation, Collections.emptyList());
+        assertThat(constants.toTypeSpec().toString()).isEqualTo("" +
+                "private interface Constants {\n" +
+                "  interface JsonNames {\n" +
+                "    byte[] ATTRIBUTES = cd.go.jrepresenter.Utf8JsonSink.encodeName(\"attributes\");\n" +
+                "  }\n" +
+                "}\n");
+    }
+
+    @Test
+    public void shouldBeEmptyWhenTheRepresenterNeedsNoConstants() {
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(new Attribute("fname", STRING_CLASS))
+                .withJsonAttribute(new Attribute("first_name", STRING_CLASS))
+                .withSkipRender(BaseAnnotation.TRUE_FUNCTION)
+                .build();
+
+        MapperConstants constants = new MapperConstants(USER_REPRESENTER, Collections.singletonList(propertyAnnotation));
+        assertThat(constants.isEmpty()).isTrue();
+    }
+}
@@ -55,25 +55,37 @@ public class MapperJavaSourceFileTest {
                 "//\n" +
                 "package gen.com.tw;\n" +
                 "\n" +
+                "import cd.go.jrepresenter.FieldSelection;\n" +
+                "import cd.go.jrepresenter.Fingerprint;\n" +
+                "import cd.go.jrepresenter.JsonSink;\n" +
+                "import cd.go.jrepresenter.JsonView;\n" +
                 "import cd.go.jrepresenter.RequestContext;\n" +
+                "import cd.go.jrepresenter.SharedKeyMap;\n" +
+                "import cd.go.jrepresenter.Utf8JsonSink;\n" +
+                "import cd.go.jrepresenter.util.Lists;\n" +
                 "import com.tw.User;\n" +
                 "import java.lang.Object;\n" +
                 "import java.lang.String;\n" +
-                "import java.util.LinkedHashMap;\n" +
+                "import java.util.ArrayList;\n" +
+                "import java.util.Iterator;\n" +
                 "import java.util.List;\n" +
                 "import java.util.Map;\n" +
-                "import java.util.stream.Collectors;\n" +
+                "import java.util.concurrent.Executor;\n" +
                 "\n" +
                 "/**\n" +
                 " * Representer for {@link User}.\n" +
                 " * Generated using representer {@link com.tw.UserRepresenter}.\n" +
                 " */\n" +
                 "public class UserMapper {\n" +
+                "  private static final SharedKeyMap.Keys JSON_KEYS = SharedKeyMap.keys(\"first_name\");\n" +
+                "\n" +
+                "  private static final JsonView.Renderer<User> VIEW_RENDERER = UserMapper::renderView;\n" +
+                "\n" +
                 "  public static Map<String, Object> toJSON(User value, RequestContext requestContext) {\n" +
                 "    if (value == null) {\n" +
                 "      return null;\n" +
                 "    }\n" +
-                "    Map<String, Object> jsonObject = new LinkedHashMap<String, Object>();\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
                 "    jsonObject.put(\"first_name\", value.getFname());\n" +
                 "    return jsonObject;\n" +
                 "  }\n" +
@@ -82,7 +94,156 @@ public class MapperJavaSourceFileTest {
                 "    if (values == null) {\n" +
                 "      return null;\n" +
                 "    }\n" +
-                "    return values.stream().map(eachItem -> UserMapper.toJSON(eachItem, requestContext)).collect(Collectors.toList());\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSON(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<User> values, RequestContext requestContext, Executor executor) {\n" +
+                "    if (values == null || values.size() < 1000) {\n" +
+                "      return UserMapper.toJSON(values, requestContext);\n" +
+                "    }\n" +
+                "    return Lists.mapInParallel(values, eachItem -> UserMapper.toJSON(eachItem, requestContext), executor);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSON(User value, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    if (fields.isAll()) {\n" +
+                "      return UserMapper.toJSON(value, requestContext);\n" +
+                "    }\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
+                "    if (fields.includes(\"first_name\")) {\n" +
+                "      jsonObject.put(\"first_name\", value.getFname());\n" +
+                "    }\n" +
+                "    return jsonObject;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<User> values, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSON(eachItem, requestContext, fields));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(User value, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (value == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginObject();\n" +
+                "    UserMapper.toJSONProperties(value, requestContext, jsonSink);\n" +
+                "    jsonSink.endObject();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSONProperties(User value, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    jsonSink.name(\"first_name\", Constants.JsonNames.FIRST_NAME);\n" +
+                "    jsonSink.value(value.getFname());\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(List<User> values, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginArray();\n" +
+                "    for (User eachItem : values) {\n" +
+                "      UserMapper.toJSON(eachItem, requestContext, jsonSink);\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<User> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    return writeArray(values, requestContext, jsonSink, 100);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<User> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink, int flushInterval) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return 0;\n" +
+                "    }\n" +
+                "    int count = 0;\n" +
+                "    jsonSink.beginArray();\n" +
+                "    while (values.hasNext()) {\n" +
+                "      UserMapper.toJSON(values.next(), requestContext, jsonSink);\n" +
+                "      if (++count == 1 || flushInterval > 0 && count % flushInterval == 0) {\n" +
+                "        jsonSink.flush();\n" +
+                "      }\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "    jsonSink.flush();\n" +
+                "    return count;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSONView(User value, RequestContext requestContext) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    return new JsonView<>(JSON_KEYS, VIEW_RENDERER, value, requestContext);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<Map<String, Object>> toJSONView(List<User> values,\n" +
+                "      RequestContext requestContext) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSONView(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  /**\n" +
+                "   * A stable hash of what {@code toJSON} renders for the value, other than its {@code _links}, computed without rendering it.\n" +
+                "   */\n" +
+                "  public static long fingerprint(User value) {\n" +
+                "    if (value == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, 0x21db8f66170b5e96L);\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, Fingerprint.of(value.getFname()));\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static long fingerprint(List<User> values) {\n" +
+                "    if (values == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    for (User eachItem : values) {\n" +
+                "      fingerprint = Fingerprint.mix(fingerprint, UserMapper.fingerprint(eachItem));\n" +
+                "    }\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static Object renderView(int index, User value, RequestContext requestContext) {\n" +
+                "    switch (index) {\n" +
+                "      case 0: {\n" +
+                "        return value.getFname();\n" +
+                "      }\n" +
+                "      default:\n" +
+                "        return JsonView.ABSENT;\n" +
+                "    }\n" +
+                "  }\n" +
+                "\n" +
+                "  private interface Constants {\n" +
+                "    interface JsonNames {\n" +
+                "      byte[] FIRST_NAME = Utf8JsonSink.encodeName(\"first_name\");\n" +
+                "    }\n" +
                 "  }\n" +
                 "}\n");
     }
@@ -116,26 +277,42 @@ public class MapperJavaSourceFileTest {
                 "//\n" +
                 "package gen.com.tw;\n" +
                 "\n" +
+                "import cd.go.jrepresenter.FieldSelection;\n" +
+                "import cd.go.jrepresenter.Fingerprint;\n" +
+                "import cd.go.jrepresenter.JsonSink;\n" +
+                "import cd.go.jrepresenter.JsonView;\n" +
                 "import cd.go.jrepresenter.RequestContext;\n" +
+                "import cd.go.jrepresenter.SharedKeyMap;\n" +
+                "import cd.go.jrepresenter.Utf8JsonSink;\n" +
+                "import cd.go.jrepresenter.util.Lists;\n" +
                 "import com.tw.User;\n" +
                 "import java.lang.Object;\n" +
                 "import java.lang.String;\n" +
-                "import java.util.LinkedHashMap;\n" +
+                "import java.util.ArrayList;\n" +
+                "import java.util.Iterator;\n" +
                 "import java.util.List;\n" +
                 "import java.util.Map;\n" +
-                "import java.util.stream.Collectors;\n" +
+                "import java.util.concurrent.Executor;\n" +
                 "\n" +
                 "/**\n" +
                 " * Representer for {@link User}.\n" +
                 " * Generated using representer {@link com.tw.UserRepresenter}.\n" +
                 " */\n" +
                 "public class UserMapper {\n" +
+                "  private static final SharedKeyMap.Keys JSON_KEYS = SharedKeyMap.keys(\"_embedded\");\n" +
+                "\n" +
+                "  private static final SharedKeyMap.Keys EMBEDDED_JSON_KEYS = SharedKeyMap.keys(\"first_name\");\n" +
+                "\n" +
+                "  private static final JsonView.Renderer<User> VIEW_RENDERER = UserMapper::renderView;\n" +
+                "\n" +
+                "  private static final JsonView.Renderer<User> EMBEDDED_VIEW_RENDERER = UserMapper::renderEmbeddedView;\n" +
+                "\n" +
                 "  public static Map<String, Object> toJSON(User value, RequestContext requestContext) {\n" +
                 "    if (value == null) {\n" +
                 "      return null;\n" +
                 "    }\n" +
-                "    Map<String, Object> jsonObject = new LinkedHashMap<String, Object>();\n" +
-                "    Map<String, Object> embeddedMap = new LinkedHashMap<String, Object>();\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
+                "    Map<String, Object> embeddedMap = new SharedKeyMap(EMBEDDED_JSON_KEYS);\n" +
                 "    embeddedMap.put(\"first_name\", value.getFname());\n" +
                 "    jsonObject.put(\"_embedded\", embeddedMap);\n" +
                 "    return jsonObject;\n" +
@@ -145,7 +322,176 @@ public class MapperJavaSourceFileTest {
                 "    if (values == null) {\n" +
                 "      return null;\n" +
                 "    }\n" +
-                "    return values.stream().map(eachItem -> UserMapper.toJSON(eachItem, requestContext)).collect(Collectors.toList());\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSON(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<User> values, RequestContext requestContext, Executor executor) {\n" +
+                "    if (values == null || values.size() < 1000) {\n" +
+                "      return UserMapper.toJSON(values, requestContext);\n" +
+                "    }\n" +
+                "    return Lists.mapInParallel(values, eachItem -> UserMapper.toJSON(eachItem, requestContext), executor);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSON(User value, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    if (fields.isAll()) {\n" +
+                "      return UserMapper.toJSON(value, requestContext);\n" +
+                "    }\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
+                "    Map<String, Object> embeddedMap = new SharedKeyMap(EMBEDDED_JSON_KEYS);\n" +
+                "    if (fields.includes(\"first_name\")) {\n" +
+                "      embeddedMap.put(\"first_name\", value.getFname());\n" +
+                "    }\n" +
+                "    if (!embeddedMap.isEmpty()) {\n" +
+                "      jsonObject.put(\"_embedded\", embeddedMap);\n" +
+                "    }\n" +
+                "    return jsonObject;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<User> values, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSON(eachItem, requestContext, fields));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(User value, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (value == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginObject();\n" +
+                "    UserMapper.toJSONProperties(value, requestContext, jsonSink);\n" +
+                "    jsonSink.endObject();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSONProperties(User value, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    jsonSink.name(\"_embedded\", Constants.JsonNames._EMBEDDED);\n" +
+                "    jsonSink.beginObject();\n" +
+                "    jsonSink.name(\"first_name\", Constants.JsonNames.FIRST_NAME);\n" +
+                "    jsonSink.value(value.getFname());\n" +
+                "    jsonSink.endObject();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(List<User> values, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginArray();\n" +
+                "    for (User eachItem : values) {\n" +
+                "      UserMapper.toJSON(eachItem, requestContext, jsonSink);\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<User> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    return writeArray(values, requestContext, jsonSink, 100);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<User> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink, int flushInterval) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return 0;\n" +
+                "    }\n" +
+                "    int count = 0;\n" +
+                "    jsonSink.beginArray();\n" +
+                "    while (values.hasNext()) {\n" +
+                "      UserMapper.toJSON(values.next(), requestContext, jsonSink);\n" +
+                "      if (++count == 1 || flushInterval > 0 && count % flushInterval == 0) {\n" +
+                "        jsonSink.flush();\n" +
+                "      }\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "    jsonSink.flush();\n" +
+                "    return count;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSONView(User value, RequestContext requestContext) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    return new JsonView<>(JSON_KEYS, VIEW_RENDERER, value, requestContext);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<Map<String, Object>> toJSONView(List<User> values,\n" +
+                "      RequestContext requestContext) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSONView(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  /**\n" +
+                "   * A stable hash of what {@code toJSON} renders for the value, other than its {@code _links}, computed without rendering it.\n" +
+                "   */\n" +
+                "  public static long fingerprint(User value) {\n" +
+                "    if (value == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, 0x5ad04cc54bd6dee3L);\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, 0x21db8f66170b5e96L);\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, Fingerprint.of(value.getFname()));\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static long fingerprint(List<User> values) {\n" +
+                "    if (values == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    for (User eachItem : values) {\n" +
+                "      fingerprint = Fingerprint.mix(fingerprint, UserMapper.fingerprint(eachItem));\n" +
+                "    }\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static Object renderView(int index, User value, RequestContext requestContext) {\n" +
+                "    switch (index) {\n" +
+                "      case 0: {\n" +
+                "        return new JsonView<>(EMBEDDED_JSON_KEYS, EMBEDDED_VIEW_RENDERER, value, requestContext);\n" +
+                "      }\n" +
+                "      default:\n" +
+                "        return JsonView.ABSENT;\n" +
+                "    }\n" +
+                "  }\n" +
+                "\n" +
+                "  private static Object renderEmbeddedView(int index, User value, RequestContext requestContext) {\n" +
+                "    switch (index) {\n" +
+                "      case 0: {\n" +
+                "        return value.getFname();\n" +
+                "      }\n" +
+                "      default:\n" +
+                "        return JsonView.ABSENT;\n" +
+                "    }\n" +
+                "  }\n" +
+                "\n" +
+                "  private interface Constants {\n" +
+                "    interface JsonNames {\n" +
+                "      byte[] FIRST_NAME = Utf8JsonSink.encodeName(\"first_name\");\n" +
+                "\n" +
+                "      byte[] _EMBEDDED = Utf8JsonSink.encodeName(\"_embedded\");\n" +
+                "    }\n" +
                 "  }\n" +
                 "}\n");
     }
@@ -191,28 +537,46 @@ public class MapperJavaSourceFileTest {
                 "//\n" +
                 "package gen.com.foo.representers;\n" +
                 "\n" +
+                "import cd.go.jrepresenter.FieldSelection;\n" +
+                "import cd.go.jrepresenter.Fingerprint;\n" +
+                "import cd.go.jrepresenter.JsonSink;\n" +
+                "import cd.go.jrepresenter.JsonView;\n" +
                 "import cd.go.jrepresenter.RequestContext;\n" +
+                "import cd.go.jrepresenter.SharedKeyMap;\n" +
+                "import cd.go.jrepresenter.Utf8JsonSink;\n" +
+                "import cd.go.jrepresenter.util.Lists;\n" +
                 "import com.foo.Backup;\n" +
                 "import gen.com.tw.UserMapper;\n" +
                 "import java.lang.Object;\n" +
                 "import java.lang.String;\n" +
-                "import java.util.LinkedHashMap;\n" +
+                "import java.util.ArrayList;\n" +
+                "import java.util.Iterator;\n" +
                 "import java.util.List;\n" +
                 "import java.util.Map;\n" +
-                "import java.util.stream.Collectors;\n" +
+                "import java.util.concurrent.Executor;\n" +
                 "\n" +
                 "/**\n" +
                 " * Representer for {@link Backup}.\n" +
                 " * Generated using representer {@link com.foo.representers.BackupRepresenter}.\n" +
                 " */\n" +
                 "public class BackupMapper {\n" +
+                "  private static final SharedKeyMap.Keys JSON_KEYS = SharedKeyMap.keys(\"_embedded\");\n" +
+                "\n" +
+                "  private static final SharedKeyMap.Keys EMBEDDED_JSON_KEYS = SharedKeyMap.keys(\"user\");\n" +
+                "\n" +
+                "  private static final JsonView.Renderer<Backup> VIEW_RENDERER = BackupMapper::renderView;\n" +
+                "\n" +
+                "  private static final JsonView.Renderer<Backup> EMBEDDED_VIEW_RENDERER = BackupMapper::renderEmbeddedView;\n" +
+                "\n" +
                 "  public static Map<String, Object> toJSON(Backup value, RequestContext requestContext) {\n" +
                 "    if (value == null) {\n" +
                 "      return null;\n" +
                 "    }\n" +
-                "    Map<String, Object> jsonObject = new LinkedHashMap<String, Object>();\n" +
-                "    Map<String, Object> embeddedMap = new LinkedHashMap<String, Object>();\n" +
-                "    embeddedMap.put(\"user\", UserMapper.toJSON(value.getBackedUpBy(), requestContext));\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
+                "    Map<String, Object> embeddedMap = new SharedKeyMap(EMBEDDED_JSON_KEYS);\n" +
+                "    if (requestContext.expands(\"user\")) {\n" +
+                "      embeddedMap.put(\"user\", UserMapper.toJSON(value.getBackedUpBy(), requestContext.expand(\"user\")));\n" +
+                "    }\n" +
                 "    jsonObject.put(\"_embedded\", embeddedMap);\n" +
                 "    return jsonObject;\n" +
                 "  }\n" +
@@ -221,7 +585,184 @@ public class MapperJavaSourceFileTest {
                 "    if (values == null) {\n" +
                 "      return null;\n" +
                 "    }\n" +
-                "    return values.stream().map(eachItem -> BackupMapper.toJSON(eachItem, requestContext)).collect(Collectors.toList());\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (Backup eachItem : values) {\n" +
+                "      jsonArray.add(BackupMapper.toJSON(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<Backup> values, RequestContext requestContext, Executor executor) {\n" +
+                "    if (values == null || values.size() < 1000) {\n" +
+                "      return BackupMapper.toJSON(values, requestContext);\n" +
+                "    }\n" +
+                "    return Lists.mapInParallel(values, eachItem -> BackupMapper.toJSON(eachItem, requestContext), executor);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSON(Backup value, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    if (fields.isAll()) {\n" +
+                "      return BackupMapper.toJSON(value, requestContext);\n" +
+                "    }\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
+                "    Map<String, Object> embeddedMap = new SharedKeyMap(EMBEDDED_JSON_KEYS);\n" +
+                "    if (fields.includes(\"user\")) {\n" +
+                "      if (requestContext.expands(\"user\")) {\n" +
+                "        embeddedMap.put(\"user\", UserMapper.toJSON(value.getBackedUpBy(), requestContext.expand(\"user\"), fields.nested(\"user\")));\n" +
+                "      }\n" +
+                "    }\n" +
+                "    if (!embeddedMap.isEmpty()) {\n" +
+                "      jsonObject.put(\"_embedded\", embeddedMap);\n" +
+                "    }\n" +
+                "    return jsonObject;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<Backup> values, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (Backup eachItem : values) {\n" +
+                "      jsonArray.add(BackupMapper.toJSON(eachItem, requestContext, fields));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(Backup value, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (value == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginObject();\n" +
+                "    BackupMapper.toJSONProperties(value, requestContext, jsonSink);\n" +
+                "    jsonSink.endObject();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSONProperties(Backup value, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    jsonSink.name(\"_embedded\", Constants.JsonNames._EMBEDDED);\n" +
+                "    jsonSink.beginObject();\n" +
+                "    if (requestContext.expands(\"user\")) {\n" +
+                "      jsonSink.name(\"user\", Constants.JsonNames.USER);\n" +
+                "      UserMapper.toJSON(value.getBackedUpBy(), requestContext.expand(\"user\"), jsonSink);\n" +
+                "    }\n" +
+                "    jsonSink.endObject();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(List<Backup> values, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginArray();\n" +
+                "    for (Backup eachItem : values) {\n" +
+                "      BackupMapper.toJSON(eachItem, requestContext, jsonSink);\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<Backup> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    return writeArray(values, requestContext, jsonSink, 100);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<Backup> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink, int flushInterval) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return 0;\n" +
+                "    }\n" +
+                "    int count = 0;\n" +
+                "    jsonSink.beginArray();\n" +
+                "    while (values.hasNext()) {\n" +
+                "      BackupMapper.toJSON(values.next(), requestContext, jsonSink);\n" +
+                "      if (++count == 1 || flushInterval > 0 && count % flushInterval == 0) {\n" +
+                "        jsonSink.flush();\n" +
+                "      }\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "    jsonSink.flush();\n" +
+                "    return count;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSONView(Backup value, RequestContext requestContext) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    return new JsonView<>(JSON_KEYS, VIEW_RENDERER, value, requestContext);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<Map<String, Object>> toJSONView(List<Backup> values,\n" +
+                "      RequestContext requestContext) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (Backup eachItem : values) {\n" +
+                "      jsonArray.add(BackupMapper.toJSONView(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  /**\n" +
+                "   * A stable hash of what {@code toJSON} renders for the value, other than its {@code _links}, computed without rendering it.\n" +
+                "   */\n" +
+                "  public static long fingerprint(Backup value) {\n" +
+                "    if (value == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, 0x5ad04cc54bd6dee3L);\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, 0xbd99fab445ab60e8L);\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, UserMapper.fingerprint(value.getBackedUpBy()));\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static long fingerprint(List<Backup> values) {\n" +
+                "    if (values == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    for (Backup eachItem : values) {\n" +
+                "      fingerprint = Fingerprint.mix(fingerprint, BackupMapper.fingerprint(eachItem));\n" +
+                "    }\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static Object renderView(int index, Backup value, RequestContext requestContext) {\n" +
+                "    switch (index) {\n" +
+                "      case 0: {\n" +
+                "        return new JsonView<>(EMBEDDED_JSON_KEYS, EMBEDDED_VIEW_RENDERER, value, requestContext);\n" +
+                "      }\n" +
+                "      default:\n" +
+                "        return JsonView.ABSENT;\n" +
+                "    }\n" +
+                "  }\n" +
+                "\n" +
+                "  private static Object renderEmbeddedView(int index, Backup value, RequestContext requestContext) {\n" +
+                "    switch (index) {\n" +
+                "      case 0: {\n" +
+                "        if (requestContext.expands(\"user\")) {\n" +
+                "          return UserMapper.toJSONView(value.getBackedUpBy(), requestContext.expand(\"user\"));\n" +
+                "        } else {\n" +
+                "          return JsonView.ABSENT;\n" +
+                "        }\n" +
+                "      }\n" +
+                "      default:\n" +
+                "        return JsonView.ABSENT;\n" +
+                "    }\n" +
+                "  }\n" +
+                "\n" +
+                "  private interface Constants {\n" +
+                "    interface JsonNames {\n" +
+                "      byte[] USER = Utf8JsonSink.encodeName(\"user\");\n" +
+                "\n" +
+                "      byte[] _EMBEDDED = Utf8JsonSink.encodeName(\"_embedded\");\n" +
+                "    }\n" +
                 "  }\n" +
                 "}\n");
     }
@@ -255,14 +796,18 @@ public class MapperJavaSourceFileTest {
                 "//\n" +
                 "package gen.com.tw;\n" +
                 "\n" +
+                "import cd.go.jrepresenter.JsonArrayIterator;\n" +
                 "import cd.go.jrepresenter.JsonParseException;\n" +
+                "import cd.go.jrepresenter.JsonToken;\n" +
+                "import cd.go.jrepresenter.JsonTokenSource;\n" +
+                "import cd.go.jrepresenter.ParseErrors;\n" +
                 "import com.tw.User;\n" +
                 "import java.lang.Object;\n" +
                 "import java.lang.String;\n" +
+                "import java.util.ArrayList;\n" +
                 "import java.util.Collections;\n" +
                 "import java.util.List;\n" +
                 "import java.util.Map;\n" +
-                "import java.util.stream.Collectors;\n" +
                 "\n" +
                 "/**\n" +
                 " * Representer for {@link User}.\n" +
@@ -277,10 +822,10 @@ public class MapperJavaSourceFileTest {
                 "    if (jsonObject.containsKey(\"first_name\")) {\n" +
                 "      Object jsonAttribute = jsonObject.get(\"first_name\");\n" +
                 "      if (!(jsonAttribute instanceof String)) {\n" +
-                "        JsonParseException.throwBadJsonType(\"first_name\", String.class, jsonObject);\n" +
+                "        JsonParseException.throwBadJsonType(\"first_name\", String.class, jsonAttribute);\n" +
                 "      }\n" +
                 "      String deserializedJsonAttribute = (String) jsonAttribute;\n" +
-                "      String modelAttribute = (String) deserializedJsonAttribute;\n" +
+                "      String modelAttribute = deserializedJsonAttribute;\n" +
                 "      model.setFname(modelAttribute);\n" +
                 "    }\n" +
                 "    return model;\n" +
@@ -290,20 +835,564 @@ public class MapperJavaSourceFileTest {
                 "    if (jsonArray == null) {\n" +
                 "      return Collections.emptyList();\n" +
                 "    }\n" +
-                "    return jsonArray.stream().map(eachItem -> UserMapper.fromJSON(eachItem)).collect(Collectors.toList());\n" +
+                "    List<User> models = new ArrayList<>(jsonArray.size());\n" +
+                "    for (Map eachItem : jsonArray) {\n" +
+                "      models.add(UserMapper.fromJSON(eachItem));\n" +
+                "    }\n" +
+                "    return models;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static User fromJSON(Map jsonObject, ParseErrors errors) {\n" +
+                "    User model = new User();\n" +
+                "    if (jsonObject == null) {\n" +
+                "      return model;\n" +
+                "    }\n" +
+                "    if (jsonObject.containsKey(\"first_name\")) {\n" +
+                "      try {\n" +
+                "        Object jsonAttribute = jsonObject.get(\"first_name\");\n" +
+                "        if (!(jsonAttribute instanceof String)) {\n" +
+                "          JsonParseException.throwBadJsonType(\"first_name\", String.class, jsonAttribute);\n" +
+                "        }\n" +
+                "        String deserializedJsonAttribute = (String) jsonAttribute;\n" +
+                "        String modelAttribute = deserializedJsonAttribute;\n" +
+                "        model.setFname(modelAttribute);\n" +
+                "      } catch (JsonParseException e) {\n" +
+                "        errors.add(\"first_name\", e);\n" +
+                "      }\n" +
+                "    }\n" +
+                "    return model;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<User> fromJSON(List<Map<String, Object>> jsonArray, ParseErrors errors) {\n" +
+                "    if (jsonArray == null) {\n" +
+                "      return Collections.emptyList();\n" +
+                "    }\n" +
+                "    List<User> models = new ArrayList<>(jsonArray.size());\n" +
+                "    int index = 0;\n" +
+                "    for (Map<String, Object> eachItem : jsonArray) {\n" +
+                "      errors.push(index++);\n" +
+                "      models.add(UserMapper.fromJSON(eachItem, errors));\n" +
+                "      errors.pop();\n" +
+                "    }\n" +
+                "    return models;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static User fromJSON(JsonTokenSource jsonSource) {\n" +
+                "    User model = new User();\n" +
+                "    if (jsonSource.peek() == JsonToken.NULL) {\n" +
+                "      jsonSource.nextNull();\n" +
+                "      return model;\n" +
+                "    }\n" +
+                "    jsonSource.beginObject();\n" +
+                "    while (jsonSource.hasNext()) {\n" +
+                "      switch (jsonSource.nextName()) {\n" +
+                "        case \"first_name\": {\n" +
+                "          Object jsonAttribute = jsonSource.readValue();\n" +
+                "          if (!(jsonAttribute instanceof String)) {\n" +
+                "            JsonParseException.throwBadJsonType(\"first_name\", String.class, jsonAttribute);\n" +
+                "          }\n" +
+                "          String deserializedJsonAttribute = (String) jsonAttribute;\n" +
+                "          String modelAttribute = deserializedJsonAttribute;\n" +
+                "          model.setFname(modelAttribute);\n" +
+                "          break;\n" +
+                "        }\n" +
+                "        default:\n" +
+                "          jsonSource.skipValue();\n" +
+                "      }\n" +
+                "    }\n" +
+                "    jsonSource.endObject();\n" +
+                "    return model;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<User> fromJSONArray(JsonTokenSource jsonSource) {\n" +
+                "    if (jsonSource.peek() == JsonToken.NULL) {\n" +
+                "      jsonSource.nextNull();\n" +
+                "      return Collections.emptyList();\n" +
+                "    }\n" +
+                "    List<User> models = new ArrayList<>();\n" +
+                "    jsonSource.beginArray();\n" +
+                "    while (jsonSource.hasNext()) {\n" +
+                "      models.add(UserMapper.fromJSON(jsonSource));\n" +
+                "    }\n" +
+                "    jsonSource.endArray();\n" +
+                "    return models;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static JsonArrayIterator<User> fromJSONStream(JsonTokenSource jsonSource) {\n" +
+                "    return new JsonArrayIterator<>(jsonSource, UserMapper::fromJSON);\n" +
                 "  }\n" +
                 "}\n");
     }
 
     @Test
-    public void shouldGenerateALinksProviderConstantFieldAlongWithSerializationCode() {
+    public void shouldReportToMetricsIfMeasured() {
 
         RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
                 .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
                 .withModelClass(USER_MODEL)
-                .withLinksProviderClass(ClassName.bestGuess("com.example.UserLinksProvider"))
-                .withSkipDeserialize(true)
-                .withSkipSerialize(false)
+                .withLinksProviderClass(EMPTY_LINKS_PROVIDER)
+                .withSkipDeserialize(false)
+                .withSkipSerialize(true)
+                .build();
+
+        Attribute modelAttribute = new Attribute("fname", TypeName.get(String.class));
+        Attribute jsonAttribute = new Attribute("firstName", TypeName.get(String.class));
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .build();
+        ClassToAnnotationMap context = new ClassToAnnotationMap();
+        context.add(representerAnnotation);
+        context.addAnnotatedMethod(TestConstants.USER_REPRESENTER_CLASS, propertyAnnotation);
+        MapperJavaSourceFile mapperJavaSourceFile = new MapperJavaSourceFile(representerAnnotation, context, true);
+
+        assertThat(mapperJavaSourceFile.toSource()).isEqualTo("" +
+                "//\n" +
+                "// This file was automatically generated by jrepresenter\n" +
+                "// Any changes may be lost!\n" +
+                "//\n" +
+                "package gen.com.tw;\n" +
+                "\n" +
+                "import cd.go.jrepresenter.JsonArrayIterator;\n" +
+                "import cd.go.jrepresenter.JsonParseException;\n" +
+                "import cd.go.jrepresenter.JsonToken;\n" +
+                "import cd.go.jrepresenter.JsonTokenSource;\n" +
+                "import cd.go.jrepresenter.ParseErrors;\n" +
+                "import cd.go.jrepresenter.metrics.RepresenterMetrics;\n" +
+                "import com.tw.User;\n" +
+                "import com.tw.UserRepresenter;\n" +
+                "import java.lang.Object;\n" +
+                "import java.lang.String;\n" +
+                "import java.lang.System;\n" +
+                "import java.util.ArrayList;\n" +
+                "import java.util.Collections;\n" +
+                "import java.util.List;\n" +
+                "import java.util.Map;\n" +
+                "\n" +
+                "/**\n" +
+                " * Representer for {@link User}.\n" +
+                " * Generated using representer {@link UserRepresenter}.\n" +
+                " */\n" +
+                "public class UserMapper {\n" +
+                "  private static final RepresenterMetrics.Recorder METRICS = RepresenterMetrics.recorderFor(UserRepresenter.class);\n" +
+                "\n" +
+                "  private static final boolean METRICS_ENABLED = METRICS.isEnabled();\n" +
+                "\n" +
+                "  public static User fromJSON(Map jsonObject) {\n" +
+                "    if (!METRICS_ENABLED) {\n" +
+                "      return fromJSONUnmeasured(jsonObject);\n" +
+                "    }\n" +
+                "    long startNanos = System.nanoTime();\n" +
+                "    User result = fromJSONUnmeasured(jsonObject);\n" +
+                "    METRICS.recordDeserialize(1, System.nanoTime() - startNanos);\n" +
+                "    return result;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static User fromJSONUnmeasured(Map jsonObject) {\n" +
+                "    User model = new User();\n" +
+                "    if (jsonObject == null) {\n" +
+                "      return model;\n" +
+                "    }\n" +
+                "    if (jsonObject.containsKey(\"first_name\")) {\n" +
+                "      Object jsonAttribute = jsonObject.get(\"first_name\");\n" +
+                "      if (!(jsonAttribute instanceof String)) {\n" +
+                "        JsonParseException.throwBadJsonType(\"first_name\", String.class, jsonAttribute);\n" +
+                "      }\n" +
+                "      String deserializedJsonAttribute = (String) jsonAttribute;\n" +
+                "      String modelAttribute = deserializedJsonAttribute;\n" +
+                "      model.setFname(modelAttribute);\n" +
+                "    }\n" +
+                "    return model;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<User> fromJSON(List<Map> jsonArray) {\n" +
+                "    if (!METRICS_ENABLED) {\n" +
+                "      return fromJSONUnmeasured(jsonArray);\n" +
+                "    }\n" +
+                "    long startNanos = System.nanoTime();\n" +
+                "    List<User> result = fromJSONUnmeasured(jsonArray);\n" +
+                "    METRICS.recordDeserialize(jsonArray == null ? 0 : jsonArray.size(), System.nanoTime() - startNanos);\n" +
+                "    return result;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static List<User> fromJSONUnmeasured(List<Map> jsonArray) {\n" +
+                "    if (jsonArray == null) {\n" +
+                "      return Collections.emptyList();\n" +
+                "    }\n" +
+                "    List<User> models = new ArrayList<>(jsonArray.size());\n" +
+                "    for (Map eachItem : jsonArray) {\n" +
+                "      models.add(UserMapper.fromJSONUnmeasured(eachItem));\n" +
+                "    }\n" +
+                "    return models;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static User fromJSON(Map jsonObject, ParseErrors errors) {\n" +
+                "    if (!METRICS_ENABLED) {\n" +
+                "      return fromJSONUnmeasured(jsonObject, errors);\n" +
+                "    }\n" +
+                "    long startNanos = System.nanoTime();\n" +
+                "    User result = fromJSONUnmeasured(jsonObject, errors);\n" +
+                "    METRICS.recordDeserialize(1, System.nanoTime() - startNanos);\n" +
+                "    return result;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static User fromJSONUnmeasured(Map jsonObject, ParseErrors errors) {\n" +
+                "    User model = new User();\n" +
+                "    if (jsonObject == null) {\n" +
+                "      return model;\n" +
+                "    }\n" +
+                "    if (jsonObject.containsKey(\"first_name\")) {\n" +
+                "      try {\n" +
+                "        Object jsonAttribute = jsonObject.get(\"first_name\");\n" +
+                "        if (!(jsonAttribute instanceof String)) {\n" +
+                "          JsonParseException.throwBadJsonType(\"first_name\", String.class, jsonAttribute);\n" +
+                "        }\n" +
+                "        String deserializedJsonAttribute = (String) jsonAttribute;\n" +
+                "        String modelAttribute = deserializedJsonAttribute;\n" +
+                "        model.setFname(modelAttribute);\n" +
+                "      } catch (JsonParseException e) {\n" +
+                "        errors.add(\"first_name\", e);\n" +
+                "      }\n" +
+                "    }\n" +
+                "    return model;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<User> fromJSON(List<Map<String, Object>> jsonArray, ParseErrors errors) {\n" +
+                "    if (!METRICS_ENABLED) {\n" +
+                "      return fromJSONUnmeasured(jsonArray, errors);\n" +
+                "    }\n" +
+                "    long startNanos = System.nanoTime();\n" +
+                "    List<User> result = fromJSONUnmeasured(jsonArray, errors);\n" +
+                "    METRICS.recordDeserialize(jsonArray == null ? 0 : jsonArray.size(), System.nanoTime() - startNanos);\n" +
+                "    return result;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static List<User> fromJSONUnmeasured(List<Map<String, Object>> jsonArray,\n" +
+                "      ParseErrors errors) {\n" +
+                "    if (jsonArray == null) {\n" +
+                "      return Collections.emptyList();\n" +
+                "    }\n" +
+                "    List<User> models = new ArrayList<>(jsonArray.size());\n" +
+                "    int index = 0;\n" +
+                "    for (Map<String, Object> eachItem : jsonArray) {\n" +
+                "      errors.push(index++);\n" +
+                "      models.add(UserMapper.fromJSONUnmeasured(eachItem, errors));\n" +
+                "      errors.pop();\n" +
+                "    }\n" +
+                "    return models;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static User fromJSON(JsonTokenSource jsonSource) {\n" +
+                "    if (!METRICS_ENABLED) {\n" +
+                "      return fromJSONUnmeasured(jsonSource);\n" +
+                "    }\n" +
+                "    long startNanos = System.nanoTime();\n" +
+                "    User result = fromJSONUnmeasured(jsonSource);\n" +
+                "    METRICS.recordDeserialize(1, System.nanoTime() - startNanos);\n" +
+                "    return result;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static User fromJSONUnmeasured(JsonTokenSource jsonSource) {\n" +
+                "    User model = new User();\n" +
+                "    if (jsonSource.peek() == JsonToken.NULL) {\n" +
+                "      jsonSource.nextNull();\n" +
+                "      return model;\n" +
+                "    }\n" +
+                "    jsonSource.beginObject();\n" +
+                "    while (jsonSource.hasNext()) {\n" +
+                "      switch (jsonSource.nextName()) {\n" +
+                "        case \"first_name\": {\n" +
+                "          Object jsonAttribute = jsonSource.readValue();\n" +
+                "          if (!(jsonAttribute instanceof String)) {\n" +
+                "            JsonParseException.throwBadJsonType(\"first_name\", String.class, jsonAttribute);\n" +
+                "          }\n" +
+                "          String deserializedJsonAttribute = (String) jsonAttribute;\n" +
+                "          String modelAttribute = deserializedJsonAttribute;\n" +
+                "          model.setFname(modelAttribute);\n" +
+                "          break;\n" +
+                "        }\n" +
+                "        default:\n" +
+                "          jsonSource.skipValue();\n" +
+                "      }\n" +
+                "    }\n" +
+                "    jsonSource.endObject();\n" +
+                "    return model;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<User> fromJSONArray(JsonTokenSource jsonSource) {\n" +
+                "    if (!METRICS_ENABLED) {\n" +
+                "      return fromJSONArrayUnmeasured(jsonSource);\n" +
+                "    }\n" +
+                "    long startNanos = System.nanoTime();\n" +
+                "    List<User> result = fromJSONArrayUnmeasured(jsonSource);\n" +
+                "    METRICS.recordDeserialize(result.size(), System.nanoTime() - startNanos);\n" +
+                "    return result;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static List<User> fromJSONArrayUnmeasured(JsonTokenSource jsonSource) {\n" +
+                "    if (jsonSource.peek() == JsonToken.NULL) {\n" +
+                "      jsonSource.nextNull();\n" +
+                "      return Collections.emptyList();\n" +
+                "    }\n" +
+                "    List<User> models = new ArrayList<>();\n" +
+                "    jsonSource.beginArray();\n" +
+                "    while (jsonSource.hasNext()) {\n" +
+                "      models.add(UserMapper.fromJSONUnmeasured(jsonSource));\n" +
+                "    }\n" +
+                "    jsonSource.endArray();\n" +
+                "    return models;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static JsonArrayIterator<User> fromJSONStream(JsonTokenSource jsonSource) {\n" +
+                "    return new JsonArrayIterator<>(jsonSource, UserMapper::fromJSON);\n" +
+                "  }\n" +
+                "}\n");
+    }
+
+    @Test
+    public void shouldServeRenderedRepresentationsFromTheCacheIfACacheKeyIsSpecified() {
+
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(EMPTY_LINKS_PROVIDER)
+                .withSkipDeserialize(true)
+                .withSkipSerialize(false)
+                .withCacheKeyClass(ClassName.bestGuess("com.example.UserCacheKey"))
+                .build();
+
+        Attribute modelAttribute = new Attribute("fname", TypeName.get(String.class));
+        Attribute jsonAttribute = new Attribute("firstName", TypeName.get(String.class));
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .build();
+        ClassToAnnotationMap context = new ClassToAnnotationMap();
+        context.add(representerAnnotation);
+        context.addAnnotatedMethod(TestConstants.USER_REPRESENTER_CLASS, propertyAnnotation);
+        MapperJavaSourceFile mapperJavaSourceFile = new MapperJavaSourceFile(representerAnnotation, context);
+
+        assertThat(mapperJavaSourceFile.toSource()).isEqualTo("" +
+                "//\n" +
+                "// This file was automatically generated by jrepresenter\n" +
+                "// Any changes may be lost!\n" +
+                "//\n" +
+                "package gen.com.tw;\n" +
+                "\n" +
+                "import cd.go.jrepresenter.FieldSelection;\n" +
+                "import cd.go.jrepresenter.Fingerprint;\n" +
+                "import cd.go.jrepresenter.JsonSink;\n" +
+                "import cd.go.jrepresenter.JsonView;\n" +
+                "import cd.go.jrepresenter.RenderCache;\n" +
+                "import cd.go.jrepresenter.RequestContext;\n" +
+                "import cd.go.jrepresenter.SharedKeyMap;\n" +
+                "import cd.go.jrepresenter.Utf8JsonSink;\n" +
+                "import cd.go.jrepresenter.util.Lists;\n" +
+                "import com.example.UserCacheKey;\n" +
+                "import com.tw.User;\n" +
+                "import com.tw.UserRepresenter;\n" +
+                "import java.lang.Object;\n" +
+                "import java.lang.String;\n" +
+                "import java.util.ArrayList;\n" +
+                "import java.util.Iterator;\n" +
+                "import java.util.List;\n" +
+                "import java.util.Map;\n" +
+                "import java.util.concurrent.Executor;\n" +
+                "\n" +
+                "/**\n" +
+                " * Representer for {@link User}.\n" +
+                " * Generated using representer {@link UserRepresenter}.\n" +
+                " */\n" +
+                "public class UserMapper {\n" +
+                "  private static final SharedKeyMap.Keys JSON_KEYS = SharedKeyMap.keys(\"first_name\");\n" +
+                "\n" +
+                "  private static final JsonView.Renderer<User> VIEW_RENDERER = UserMapper::renderView;\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSON(User value, RequestContext requestContext) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    return RenderCache.shared().get(UserRepresenter.class, Constants.CacheKeys.USER.apply(value), requestContext, () -> UserMapper.toJSONUncached(value, requestContext));\n" +
+                "  }\n" +
+                "\n" +
+                "  private static Map<String, Object> toJSONUncached(User value, RequestContext requestContext) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
+                "    jsonObject.put(\"first_name\", value.getFname());\n" +
+                "    return jsonObject;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<User> values, RequestContext requestContext) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSON(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<User> values, RequestContext requestContext, Executor executor) {\n" +
+                "    if (values == null || values.size() < 1000) {\n" +
+                "      return UserMapper.toJSON(values, requestContext);\n" +
+                "    }\n" +
+                "    return Lists.mapInParallel(values, eachItem -> UserMapper.toJSON(eachItem, requestContext), executor);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSON(User value, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    if (fields.isAll()) {\n" +
+                "      return UserMapper.toJSON(value, requestContext);\n" +
+                "    }\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
+                "    if (fields.includes(\"first_name\")) {\n" +
+                "      jsonObject.put(\"first_name\", value.getFname());\n" +
+                "    }\n" +
+                "    return jsonObject;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<User> values, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSON(eachItem, requestContext, fields));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(User value, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (value == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.value(UserMapper.toJSON(value, requestContext));\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSONProperties(User value, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    jsonSink.name(\"first_name\", Constants.JsonNames.FIRST_NAME);\n" +
+                "    jsonSink.value(value.getFname());\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(List<User> values, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginArray();\n" +
+                "    for (User eachItem : values) {\n" +
+                "      UserMapper.toJSON(eachItem, requestContext, jsonSink);\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<User> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    return writeArray(values, requestContext, jsonSink, 100);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<User> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink, int flushInterval) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return 0;\n" +
+                "    }\n" +
+                "    int count = 0;\n" +
+                "    jsonSink.beginArray();\n" +
+                "    while (values.hasNext()) {\n" +
+                "      UserMapper.toJSON(values.next(), requestContext, jsonSink);\n" +
+                "      if (++count == 1 || flushInterval > 0 && count % flushInterval == 0) {\n" +
+                "        jsonSink.flush();\n" +
+                "      }\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "    jsonSink.flush();\n" +
+                "    return count;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSONView(User value, RequestContext requestContext) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    return new JsonView<>(JSON_KEYS, VIEW_RENDERER, value, requestContext);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<Map<String, Object>> toJSONView(List<User> values,\n" +
+                "      RequestContext requestContext) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSONView(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  /**\n" +
+                "   * A stable hash of what {@code toJSON} renders for the value, other than its {@code _links}, computed without rendering it.\n" +
+                "   */\n" +
+                "  public static long fingerprint(User value) {\n" +
+                "    if (value == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, 0x21db8f66170b5e96L);\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, Fingerprint.of(value.getFname()));\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static long fingerprint(List<User> values) {\n" +
+                "    if (values == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    for (User eachItem : values) {\n" +
+                "      fingerprint = Fingerprint.mix(fingerprint, UserMapper.fingerprint(eachItem));\n" +
+                "    }\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static Object renderView(int index, User value, RequestContext requestContext) {\n" +
+                "    switch (index) {\n" +
+                "      case 0: {\n" +
+                "        return value.getFname();\n" +
+                "      }\n" +
+                "      default:\n" +
+                "        return JsonView.ABSENT;\n" +
+                "    }\n" +
+                "  }\n" +
+                "\n" +
+                "  private interface Constants {\n" +
+                "    interface CacheKeys {\n" +
+                "      UserCacheKey USER = new UserCacheKey();\n" +
+                "    }\n" +
+                "\n" +
+                "    interface JsonNames {\n" +
+                "      byte[] FIRST_NAME = Utf8JsonSink.encodeName(\"first_name\");\n" +
+                "    }\n" +
+                "  }\n" +
+                "}\n");
+    }
+
+    @Test
+    public void shouldGenerateALinksProviderConstantFieldAlongWithSerializationCode() {
+
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(ClassName.bestGuess("com.example.UserLinksProvider"))
+                .withSkipDeserialize(true)
+                .withSkipSerialize(false)
                 .build();
 
         Attribute modelAttribute = new Attribute("fname", TypeName.get(String.class));
@@ -325,32 +1414,48 @@ public class MapperJavaSourceFileTest {
                 "//\n" +
                 "package gen.com.tw;\n" +
                 "\n" +
+                "import cd.go.jrepresenter.FieldSelection;\n" +
+                "import cd.go.jrepresenter.Fingerprint;\n" +
+                "import cd.go.jrepresenter.JsonSink;\n" +
+                "import cd.go.jrepresenter.JsonView;\n" +
                 "import cd.go.jrepresenter.LinksMapper;\n" +
                 "import cd.go.jrepresenter.LinksProvider;\n" +
                 "import cd.go.jrepresenter.RequestContext;\n" +
+                "import cd.go.jrepresenter.SharedKeyMap;\n" +
+                "import cd.go.jrepresenter.Utf8JsonSink;\n" +
+                "import cd.go.jrepresenter.util.Lists;\n" +
                 "import com.example.UserLinksProvider;\n" +
                 "import com.tw.User;\n" +
                 "import java.lang.Object;\n" +
                 "import java.lang.String;\n" +
-                "import java.util.LinkedHashMap;\n" +
+                "import java.util.ArrayList;\n" +
+                "import java.util.Iterator;\n" +
                 "import java.util.List;\n" +
                 "import java.util.Map;\n" +
-                "import java.util.stream.Collectors;\n" +
+                "import java.util.concurrent.Executor;\n" +
                 "\n" +
                 "/**\n" +
                 " * Representer for {@link User}.\n" +
                 " * Generated using representer {@link com.tw.UserRepresenter}.\n" +
                 " */\n" +
                 "public class UserMapper {\n" +
+                "  private static final SharedKeyMap.Keys JSON_KEYS = SharedKeyMap.keys(\"_links\", \"_embedded\");\n" +
+                "\n" +
+                "  private static final SharedKeyMap.Keys EMBEDDED_JSON_KEYS = SharedKeyMap.keys(\"first_name\");\n" +
+                "\n" +
+                "  private static final JsonView.Renderer<User> VIEW_RENDERER = UserMapper::renderView;\n" +
+                "\n" +
+                "  private static final JsonView.Renderer<User> EMBEDDED_VIEW_RENDERER = UserMapper::renderEmbeddedView;\n" +
+                "\n" +
                 "  private static LinksProvider<User> LINKS_PROVIDER = new UserLinksProvider();\n" +
                 "\n" +
                 "  public static Map<String, Object> toJSON(User value, RequestContext requestContext) {\n" +
                 "    if (value == null) {\n" +
                 "      return null;\n" +
                 "    }\n" +
-                "    Map<String, Object> jsonObject = new LinkedHashMap<String, Object>();\n" +
-                "    jsonObject.putAll(LinksMapper.toJSON(LINKS_PROVIDER, value, requestContext));\n" +
-                "    Map<String, Object> embeddedMap = new LinkedHashMap<String, Object>();\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
+                "    LinksMapper.putLinks(jsonObject, LINKS_PROVIDER, value, requestContext);\n" +
+                "    Map<String, Object> embeddedMap = new SharedKeyMap(EMBEDDED_JSON_KEYS);\n" +
                 "    embeddedMap.put(\"first_name\", value.getFname());\n" +
                 "    jsonObject.put(\"_embedded\", embeddedMap);\n" +
                 "    return jsonObject;\n" +
@@ -360,7 +1465,228 @@ public class MapperJavaSourceFileTest {
                 "    if (values == null) {\n" +
                 "      return null;\n" +
                 "    }\n" +
-                "    return values.stream().map(eachItem -> UserMapper.toJSON(eachItem, requestContext)).collect(Collectors.toList());\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSON(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<User> values, RequestContext requestContext, Executor executor) {\n" +
+                "    if (values == null || values.size() < 1000) {\n" +
+                "      return UserMapper.toJSON(values, requestContext);\n" +
+                "    }\n" +
+                "    return Lists.mapInParallel(values, eachItem -> UserMapper.toJSON(eachItem, requestContext), executor);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSON(User value, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    if (fields.isAll()) {\n" +
+                "      return UserMapper.toJSON(value, requestContext);\n" +
+                "    }\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
+                "    if (fields.includes(\"_links\")) {\n" +
+                "      LinksMapper.putLinks(jsonObject, LINKS_PROVIDER, value, requestContext);\n" +
+                "    }\n" +
+                "    Map<String, Object> embeddedMap = new SharedKeyMap(EMBEDDED_JSON_KEYS);\n" +
+                "    if (fields.includes(\"first_name\")) {\n" +
+                "      embeddedMap.put(\"first_name\", value.getFname());\n" +
+                "    }\n" +
+                "    if (!embeddedMap.isEmpty()) {\n" +
+                "      jsonObject.put(\"_embedded\", embeddedMap);\n" +
+                "    }\n" +
+                "    return jsonObject;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<User> values, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSON(eachItem, requestContext, fields));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(User value, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (value == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginObject();\n" +
+                "    UserMapper.toJSONProperties(value, requestContext, jsonSink);\n" +
+                "    jsonSink.endObject();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSONProperties(User value, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    LinksMapper.toJSON(LINKS_PROVIDER, value, requestContext, jsonSink);\n" +
+                "    jsonSink.name(\"_embedded\", Constants.JsonNames._EMBEDDED);\n" +
+                "    jsonSink.beginObject();\n" +
+                "    jsonSink.name(\"first_name\", Constants.JsonNames.FIRST_NAME);\n" +
+                "    jsonSink.value(value.getFname());\n" +
+                "    jsonSink.endObject();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(List<User> values, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginArray();\n" +
+                "    for (User eachItem : values) {\n" +
+                "      UserMapper.toJSON(eachItem, requestContext, jsonSink);\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<User> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    return writeArray(values, requestContext, jsonSink, 100);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<User> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink, int flushInterval) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return 0;\n" +
+                "    }\n" +
+                "    int count = 0;\n" +
+                "    jsonSink.beginArray();\n" +
+                "    while (values.hasNext()) {\n" +
+                "      UserMapper.toJSON(values.next(), requestContext, jsonSink);\n" +
+                "      if (++count == 1 || flushInterval > 0 && count % flushInterval == 0) {\n" +
+                "        jsonSink.flush();\n" +
+                "      }\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "    jsonSink.flush();\n" +
+                "    return count;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSONView(User value, RequestContext requestContext) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    return new JsonView<>(JSON_KEYS, VIEW_RENDERER, value, requestContext);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<Map<String, Object>> toJSONView(List<User> values,\n" +
+                "      RequestContext requestContext) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSONView(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  /**\n" +
+                "   * A stable hash of what {@code toJSON} renders for the value, other than its {@code _links}, computed without rendering it.\n" +
+                "   */\n" +
+                "  public static long fingerprint(User value) {\n" +
+                "    if (value == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, 0x5ad04cc54bd6dee3L);\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, 0x21db8f66170b5e96L);\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, Fingerprint.of(value.getFname()));\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static long fingerprint(List<User> values) {\n" +
+                "    if (values == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    for (User eachItem : values) {\n" +
+                "      fingerprint = Fingerprint.mix(fingerprint, UserMapper.fingerprint(eachItem));\n" +
+                "    }\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  /**\n" +
+                "   * Renders just the {@code _links}, in place of an embedded relation that is not expanded.\n" +
+                "   */\n" +
+                "  public static Map<String, Object> toJSONLinks(User value, RequestContext requestContext) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    return LinksMapper.toJSON(LINKS_PROVIDER, value, requestContext);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSONLinks(List<User> values, RequestContext requestContext) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSONLinks(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSONLinks(User value, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (value == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginObject();\n" +
+                "    LinksMapper.toJSON(LINKS_PROVIDER, value, requestContext, jsonSink);\n" +
+                "    jsonSink.endObject();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSONLinks(List<User> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginArray();\n" +
+                "    for (User eachItem : values) {\n" +
+                "      UserMapper.toJSONLinks(eachItem, requestContext, jsonSink);\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "  }\n" +
+                "\n" +
+                "  private static Object renderView(int index, User value, RequestContext requestContext) {\n" +
+                "    switch (index) {\n" +
+                "      case 0: {\n" +
+                "        Map<String, Object> links = LinksMapper.linksToJSON(LINKS_PROVIDER, value, requestContext);\n" +
+                "        return links == null ? JsonView.ABSENT : links;\n" +
+                "      }\n" +
+                "      case 1: {\n" +
+                "        return new JsonView<>(EMBEDDED_JSON_KEYS, EMBEDDED_VIEW_RENDERER, value, requestContext);\n" +
+                "      }\n" +
+                "      default:\n" +
+                "        return JsonView.ABSENT;\n" +
+                "    }\n" +
+                "  }\n" +
+                "\n" +
+                "  private static Object renderEmbeddedView(int index, User value, RequestContext requestContext) {\n" +
+                "    switch (index) {\n" +
+                "      case 0: {\n" +
+                "        return value.getFname();\n" +
+                "      }\n" +
+                "      default:\n" +
+                "        return JsonView.ABSENT;\n" +
+                "    }\n" +
+                "  }\n" +
+                "\n" +
+                "  private interface Constants {\n" +
+                "    interface JsonNames {\n" +
+                "      byte[] FIRST_NAME = Utf8JsonSink.encodeName(\"first_name\");\n" +
+                "\n" +
+                "      byte[] _EMBEDDED = Utf8JsonSink.encodeName(\"_embedded\");\n" +
+                "    }\n" +
                 "  }\n" +
                 "}\n");
     }
@@ -394,25 +1720,37 @@ public class MapperJavaSourceFileTest {
                 "//\n" +
                 "package gen.com.tw;\n" +
                 "\n" +
+                "import cd.go.jrepresenter.FieldSelection;\n" +
+                "import cd.go.jrepresenter.Fingerprint;\n" +
+                "import cd.go.jrepresenter.JsonSink;\n" +
+                "import cd.go.jrepresenter.JsonView;\n" +
                 "import cd.go.jrepresenter.RequestContext;\n" +
+                "import cd.go.jrepresenter.SharedKeyMap;\n" +
+                "import cd.go.jrepresenter.Utf8JsonSink;\n" +
+                "import cd.go.jrepresenter.util.Lists;\n" +
                 "import com.tw.User;\n" +
                 "import java.lang.Object;\n" +
                 "import java.lang.String;\n" +
-                "import java.util.LinkedHashMap;\n" +
+                "import java.util.ArrayList;\n" +
+                "import java.util.Iterator;\n" +
                 "import java.util.List;\n" +
                 "import java.util.Map;\n" +
-                "import java.util.stream.Collectors;\n" +
+                "import java.util.concurrent.Executor;\n" +
                 "\n" +
                 "/**\n" +
                 " * Representer for {@link User}.\n" +
                 " * Generated using representer {@link com.tw.UserRepresenter}.\n" +
                 " */\n" +
                 "public class UserMapper {\n" +
+                "  private static final SharedKeyMap.Keys JSON_KEYS = SharedKeyMap.keys(\"first_name\");\n" +
+                "\n" +
+                "  private static final JsonView.Renderer<User> VIEW_RENDERER = UserMapper::renderView;\n" +
+                "\n" +
                 "  public static Map<String, Object> toJSON(User value, RequestContext requestContext) {\n" +
                 "    if (value == null) {\n" +
                 "      return null;\n" +
                 "    }\n" +
-                "    Map<String, Object> jsonObject = new LinkedHashMap<String, Object>();\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
                 "    jsonObject.put(\"first_name\", value.getFname());\n" +
                 "    return jsonObject;\n" +
                 "  }\n" +
@@ -421,7 +1759,156 @@ public class MapperJavaSourceFileTest {
                 "    if (values == null) {\n" +
                 "      return null;\n" +
                 "    }\n" +
-                "    return values.stream().map(eachItem -> UserMapper.toJSON(eachItem, requestContext)).collect(Collectors.toList());\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSON(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<User> values, RequestContext requestContext, Executor executor) {\n" +
+                "    if (values == null || values.size() < 1000) {\n" +
+                "      return UserMapper.toJSON(values, requestContext);\n" +
+                "    }\n" +
+                "    return Lists.mapInParallel(values, eachItem -> UserMapper.toJSON(eachItem, requestContext), executor);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSON(User value, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    if (fields.isAll()) {\n" +
+                "      return UserMapper.toJSON(value, requestContext);\n" +
+                "    }\n" +
+                "    Map<String, Object> jsonObject = new SharedKeyMap(JSON_KEYS);\n" +
+                "    if (fields.includes(\"first_name\")) {\n" +
+                "      jsonObject.put(\"first_name\", value.getFname());\n" +
+                "    }\n" +
+                "    return jsonObject;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List toJSON(List<User> values, RequestContext requestContext,\n" +
+                "      FieldSelection fields) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSON(eachItem, requestContext, fields));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(User value, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (value == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginObject();\n" +
+                "    UserMapper.toJSONProperties(value, requestContext, jsonSink);\n" +
+                "    jsonSink.endObject();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSONProperties(User value, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    jsonSink.name(\"first_name\", Constants.JsonNames.FIRST_NAME);\n" +
+                "    jsonSink.value(value.getFname());\n" +
+                "  }\n" +
+                "\n" +
+                "  public static void toJSON(List<User> values, RequestContext requestContext, JsonSink jsonSink) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return;\n" +
+                "    }\n" +
+                "    jsonSink.beginArray();\n" +
+                "    for (User eachItem : values) {\n" +
+                "      UserMapper.toJSON(eachItem, requestContext, jsonSink);\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<User> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink) {\n" +
+                "    return writeArray(values, requestContext, jsonSink, 100);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static int writeArray(Iterator<User> values, RequestContext requestContext,\n" +
+                "      JsonSink jsonSink, int flushInterval) {\n" +
+                "    if (values == null) {\n" +
+                "      jsonSink.nullValue();\n" +
+                "      return 0;\n" +
+                "    }\n" +
+                "    int count = 0;\n" +
+                "    jsonSink.beginArray();\n" +
+                "    while (values.hasNext()) {\n" +
+                "      UserMapper.toJSON(values.next(), requestContext, jsonSink);\n" +
+                "      if (++count == 1 || flushInterval > 0 && count % flushInterval == 0) {\n" +
+                "        jsonSink.flush();\n" +
+                "      }\n" +
+                "    }\n" +
+                "    jsonSink.endArray();\n" +
+                "    jsonSink.flush();\n" +
+                "    return count;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static Map<String, Object> toJSONView(User value, RequestContext requestContext) {\n" +
+                "    if (value == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    return new JsonView<>(JSON_KEYS, VIEW_RENDERER, value, requestContext);\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<Map<String, Object>> toJSONView(List<User> values,\n" +
+                "      RequestContext requestContext) {\n" +
+                "    if (values == null) {\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "    List<Map<String, Object>> jsonArray = new ArrayList<>(values.size());\n" +
+                "    for (User eachItem : values) {\n" +
+                "      jsonArray.add(UserMapper.toJSONView(eachItem, requestContext));\n" +
+                "    }\n" +
+                "    return jsonArray;\n" +
+                "  }\n" +
+                "\n" +
+                "  /**\n" +
+                "   * A stable hash of what {@code toJSON} renders for the value, other than its {@code _links}, computed without rendering it.\n" +
+                "   */\n" +
+                "  public static long fingerprint(User value) {\n" +
+                "    if (value == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, 0x21db8f66170b5e96L);\n" +
+                "    fingerprint = Fingerprint.mix(fingerprint, Fingerprint.of(value.getFname()));\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static long fingerprint(List<User> values) {\n" +
+                "    if (values == null) {\n" +
+                "      return Fingerprint.NULL;\n" +
+                "    }\n" +
+                "    long fingerprint = Fingerprint.SEED;\n" +
+                "    for (User eachItem : values) {\n" +
+                "      fingerprint = Fingerprint.mix(fingerprint, UserMapper.fingerprint(eachItem));\n" +
+                "    }\n" +
+                "    return fingerprint;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static Object renderView(int index, User value, RequestContext requestContext) {\n" +
+                "    switch (index) {\n" +
+                "      case 0: {\n" +
+                "        return value.getFname();\n" +
+                "      }\n" +
+                "      default:\n" +
+                "        return JsonView.ABSENT;\n" +
+                "    }\n" +
+                "  }\n" +
+                "\n" +
+                "  private interface Constants {\n" +
+                "    interface JsonNames {\n" +
+                "      byte[] FIRST_NAME = Utf8JsonSink.encodeName(\"first_name\");\n" +
+                "    }\n" +
                 "  }\n" +
                 "}\n");
     }
@@ -454,12 +1941,19 @@ public class MapperJavaSourceFileTest {
                 "//\n" +
                 "package gen.com.tw;\n" +
                 "\n" +
+                "import cd.go.jrepresenter.JsonArrayIterator;\n" +
+                "import cd.go.jrepresenter.JsonParseException;\n" +
+                "import cd.go.jrepresenter.JsonToken;\n" +
+                "import cd.go.jrepresenter.JsonTokenSource;\n" +
+                "import cd.go.jrepresenter.ParseErrors;\n" +
+                "import com.tw.CustomMapper;\n" +
                 "import com.tw.User;\n" +
-                "import gen.cd.go.jrepresenter.Constants;\n" +
+                "import java.lang.Object;\n" +
+                "import java.lang.String;\n" +
+                "import java.util.ArrayList;\n" +
                 "import java.util.Collections;\n" +
                 "import java.util.List;\n" +
                 "import java.util.Map;\n" +
-                "import java.util.stream.Collectors;\n" +
                 "\n" +
                 "/**\n" +
                 " * Representer for {@link User}.\n" +
@@ -474,7 +1968,62 @@ public class MapperJavaSourceFileTest {
                 "    if (jsonArray == null) {\n" +
                 "      return Collections.emptyList();\n" +
                 "    }\n" +
-                "    return jsonArray.stream().map(eachItem -> UserMapper.fromJSON(eachItem)).collect(Collectors.toList());\n" +
+                "    List<User> models = new ArrayList<>(jsonArray.size());\n" +
+                "    for (Map eachItem : jsonArray) {\n" +
+                "      models.add(UserMapper.fromJSON(eachItem));\n" +
+                "    }\n" +
+                "    return models;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static User fromJSON(Map jsonObject, ParseErrors errors) {\n" +
+                "    try {\n" +
+                "      return Constants.ToJSONMappers.CUSTOM.apply(jsonObject);\n" +
+                "    } catch (JsonParseException e) {\n" +
+                "      errors.add(e);\n" +
+                "      return null;\n" +
+                "    }\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<User> fromJSON(List<Map<String, Object>> jsonArray, ParseErrors errors) {\n" +
+                "    if (jsonArray == null) {\n" +
+                "      return Collections.emptyList();\n" +
+                "    }\n" +
+                "    List<User> models = new ArrayList<>(jsonArray.size());\n" +
+                "    int index = 0;\n" +
+                "    for (Map<String, Object> eachItem : jsonArray) {\n" +
+                "      errors.push(index++);\n" +
+                "      models.add(UserMapper.fromJSON(eachItem, errors));\n" +
+                "      errors.pop();\n" +
+                "    }\n" +
+                "    return models;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static User fromJSON(JsonTokenSource jsonSource) {\n" +
+                "    return UserMapper.fromJSON((Map) jsonSource.readValue());\n" +
+                "  }\n" +
+                "\n" +
+                "  public static List<User> fromJSONArray(JsonTokenSource jsonSource) {\n" +
+                "    if (jsonSource.peek() == JsonToken.NULL) {\n" +
+                "      jsonSource.nextNull();\n" +
+                "      return Collections.emptyList();\n" +
+                "    }\n" +
+                "    List<User> models = new ArrayList<>();\n" +
+                "    jsonSource.beginArray();\n" +
+                "    while (jsonSource.hasNext()) {\n" +
+                "      models.add(UserMapper.fromJSON(jsonSource));\n" +
+                "    }\n" +
+                "    jsonSource.endArray();\n" +
+                "    return models;\n" +
+                "  }\n" +
+                "\n" +
+                "  public static JsonArrayIterator<User> fromJSONStream(JsonTokenSource jsonSource) {\n" +
+                "    return new JsonArrayIterator<>(jsonSource, UserMapper::fromJSON);\n" +
+                "  }\n" +
+                "\n" +
+                "  private interface Constants {\n" +
+                "    interface ToJSONMappers {\n" +
+                "      CustomMapper CUSTOM = new CustomMapper();\n" +
+                "    }\n" +
                 "  }\n" +
                 "}\n");
     }
@@ -48,9 +48,27 @@ public class PropertyAnnotationTest {
                 .withModelAttribute(modelAttribute)
                 .withJsonAttribute(jsonAttribute)
                 .withSerializerClassName(CASE_INSENSITIVE_STRING_SERIALIZER)
+                .withParent(USER_REPRESENTER)
                 .build();
         CodeBlock codeBlock = propertyAnnotation.getSerializeCodeBlock(null, "json");
-        assertThat(codeBlock.toString()).isEqualTo("json.put(\"first_name\", gen.cd.go.jrepresenter.Constants.Serializers.CASE_INSENSITIVE_STRING.apply(value.getFname()));\n");
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "json.put(\"first_name\", gen.com.tw.UserMapper.Constants.Serializers.CASE_INSENSITIVE_STRING.apply(value.getFname()));\n");
+    }
+
+    @Test
+    public void shouldGenerateCodeToSerializeIntoSinkWithSerializer() throws Exception {
+        Attribute modelAttribute = new Attribute("fname", CASE_INSENSITIVE_STRING);
+        Attribute jsonAttribute = new Attribute("firstName", STRING_CLASS);
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .withSerializerClassName(CASE_INSENSITIVE_STRING_SERIALIZER)
+                .withParent(USER_REPRESENTER)
+                .build();
+        CodeBlock codeBlock = propertyAnnotation.getSinkSerializeCodeBlock(null);
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "jsonSink.name(\"first_name\", gen.com.tw.UserMapper.Constants.JsonNames.FIRST_NAME);\n" +
+                "jsonSink.value(gen.com.tw.UserMapper.Constants.Serializers.CASE_INSENSITIVE_STRING.apply(value.getFname()));\n");
     }
 
     @Test
@@ -66,10 +84,10 @@ public class PropertyAnnotationTest {
                 "if (jsonObject.containsKey(\"first_name\")) {\n" +
                 "  java.lang.Object jsonAttribute = jsonObject.get(\"first_name\");\n" +
                 "  if (!(jsonAttribute instanceof java.lang.String)) {\n" +
-                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"first_name\", java.lang.String.class, jsonObject);\n" +
+                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"first_name\", java.lang.String.class, jsonAttribute);\n" +
                 "  }\n" +
                 "  java.lang.String deserializedJsonAttribute = (java.lang.String) jsonAttribute;\n" +
-                "  java.lang.String modelAttribute = (java.lang.String) deserializedJsonAttribute;\n" +
+                "  java.lang.String modelAttribute = deserializedJsonAttribute;\n" +
                 "  model.setFname(modelAttribute);\n" +
                 "}\n";
         assertThat(codeBlock.toString()).isEqualTo(expectedCode);
@@ -86,17 +104,72 @@ public class PropertyAnnotationTest {
         CodeBlock codeBlock = propertyAnnotation.doGetDeserializeCodeBlock(null);
         String expectedCodeBlock = "" +
                 "if (jsonObject.containsKey(\"age\")) {\n" +
-                "  java.lang.Object jsonAttribute = jsonObject.get(\"age\");\n" +
-                "  if (!(jsonAttribute instanceof int)) {\n" +
-                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"age\", int.class, jsonObject);\n" +
-                "  }\n" +
+                "  int jsonAttribute = cd.go.jrepresenter.util.Primitives.toInt(\"age\", jsonObject.get(\"age\"));\n" +
                 "  int deserializedJsonAttribute = (int) jsonAttribute;\n" +
-                "  int modelAttribute = (int) deserializedJsonAttribute;\n" +
+                "  int modelAttribute = deserializedJsonAttribute;\n" +
                 "  model.setAge(modelAttribute);\n" +
                 "}\n";
         assertThat(codeBlock.toString()).isEqualTo(expectedCodeBlock);
     }
 
+    @Test
+    public void shouldGenerateCodeToDeserializeFromTokenStreamWithPrimitiveType() {
+        Attribute modelAttribute = new Attribute("age", INT_TYPE);
+        Attribute jsonAttribute = new Attribute("age", INT_TYPE);
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .build();
+
+        CodeBlock codeBlock = propertyAnnotation.getTokenStreamDeserializeCodeBlock(null);
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "case \"age\": {\n" +
+                "  int jsonAttribute = cd.go.jrepresenter.util.Primitives.readInt(\"age\", jsonSource);\n" +
+                "  int deserializedJsonAttribute = (int) jsonAttribute;\n" +
+                "  int modelAttribute = deserializedJsonAttribute;\n" +
+                "  model.setAge(modelAttribute);\n" +
+                "  break;\n" +
+                "}\n");
+    }
+
+    @Test
+    public void shouldGenerateCodeToSerializeEnumWithEnumCodec() throws Exception {
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(new Attribute("role", USER_ROLE))
+                .withJsonAttribute(new Attribute("role", STRING_CLASS))
+                .withEnumModelAttribute(true)
+                .withParent(USER_REPRESENTER)
+                .build();
+
+        CodeBlock codeBlock = propertyAnnotation.getSinkSerializeCodeBlock(null);
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "jsonSink.name(\"role\", gen.com.tw.UserMapper.Constants.JsonNames.ROLE);\n" +
+                "jsonSink.value(gen.com.tw.UserMapper.Constants.EnumCodecs.USER_ROLE.name(value.getRole()));\n");
+    }
+
+    @Test
+    public void shouldGenerateCodeToDeserializeEnumWithEnumCodec() {
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(new Attribute("role", USER_ROLE))
+                .withJsonAttribute(new Attribute("role", USER_ROLE))
+                .withEnumModelAttribute(true)
+                .withIgnoreCase(true)
+                .withParent(USER_REPRESENTER)
+                .build();
+
+        CodeBlock codeBlock = propertyAnnotation.doGetDeserializeCodeBlock(null);
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "if (jsonObject.containsKey(\"role\")) {\n" +
+                "  java.lang.Object jsonAttribute = jsonObject.get(\"role\");\n" +
+                "  if (!(jsonAttribute instanceof java.lang.String)) {\n" +
+                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"role\", java.lang.String.class, jsonAttribute);\n" +
+                "  }\n" +
+                "  com.tw.UserRole deserializedJsonAttribute = gen.com.tw.UserMapper.Constants.CaseInsensitiveEnumCodecs.USER_ROLE.parse(\"role\", (java.lang.String) jsonAttribute);\n" +
+                "  com.tw.UserRole modelAttribute = deserializedJsonAttribute;\n" +
+                "  model.setRole(modelAttribute);\n" +
+                "}\n");
+    }
+
     @Test
     public void shouldGenerateCodeToDeserializeWithDeserializerClass() {
         Attribute modelAttribute = new Attribute("fname", CASE_INSENSITIVE_STRING);
@@ -105,6 +178,7 @@ public class PropertyAnnotationTest {
                 .withModelAttribute(modelAttribute)
                 .withJsonAttribute(jsonAttribute)
                 .withDeserializerClassName(CASE_INSENSITIVE_STRING_DESERIALIZER)
+                .withParent(USER_REPRESENTER)
                 .build();
 
         CodeBlock codeBlock = propertyAnnotation.doGetDeserializeCodeBlock(null);
@@ -112,11 +186,36 @@ public class PropertyAnnotationTest {
                 "if (jsonObject.containsKey(\"first_name\")) {\n" +
                 "  java.lang.Object jsonAttribute = jsonObject.get(\"first_name\");\n" +
                 "  if (!(jsonAttribute instanceof java.lang.String)) {\n" +
-                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"first_name\", java.lang.String.class, jsonObject);\n" +
+                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"first_name\", java.lang.String.class, jsonAttribute);\n" +
+                "  }\n" +
+                "  com.tw.CaseInsensitiveString deserializedJsonAttribute = gen.com.tw.UserMapper.Constants.Deserializers.CASE_INSENSITIVE_STRING.apply((java.lang.String) jsonAttribute);\n" +
+                "  com.tw.CaseInsensitiveString modelAttribute = deserializedJsonAttribute;\n" +
+                "  model.setFname(modelAttribute);\n" +
+                "}\n");
+    }
+
+    @Test
+    public void shouldGenerateCodeToDeserializeFromTokenStreamWithDeserializerClass() {
+        Attribute modelAttribute = new Attribute("fname", CASE_INSENSITIVE_STRING);
+        Attribute jsonAttribute = new Attribute("firstName", STRING_CLASS);
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .withDeserializerClassName(CASE_INSENSITIVE_STRING_DESERIALIZER)
+                .withParent(USER_REPRESENTER)
+                .build();
+
+        CodeBlock codeBlock = propertyAnnotation.getTokenStreamDeserializeCodeBlock(null);
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "case \"first_name\": {\n" +
+                "  java.lang.Object jsonAttribute = jsonSource.readValue();\n" +
+                "  if (!(jsonAttribute instanceof java.lang.String)) {\n" +
+                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"first_name\", java.lang.String.class, jsonAttribute);\n" +
                 "  }\n" +
-                "  com.tw.CaseInsensitiveString deserializedJsonAttribute = gen.cd.go.jrepresenter.Constants.Deserializers.CASE_INSENSITIVE_STRING.apply((java.lang.String) jsonAttribute);\n" +
-                "  com.tw.CaseInsensitiveString modelAttribute = (com.tw.CaseInsensitiveString) deserializedJsonAttribute;\n" +
+                "  com.tw.CaseInsensitiveString deserializedJsonAttribute = gen.com.tw.UserMapper.Constants.Deserializers.CASE_INSENSITIVE_STRING.apply((java.lang.String) jsonAttribute);\n" +
+                "  com.tw.CaseInsensitiveString modelAttribute = deserializedJsonAttribute;\n" +
                 "  model.setFname(modelAttribute);\n" +
+                "  break;\n" +
                 "}\n");
     }
 
@@ -145,6 +244,145 @@ public class PropertyAnnotationTest {
         assertThat(codeBlock.toString()).isEqualTo("json.put(\"user\", gen.com.tw.UserMapper.toJSON(value.getTriggeredBy(), requestContext));\n");
     }
 
+    @Test
+    public void shouldGenerateCodeToSerializePropertyIntoSinkUsingRepresenter() {
+        Attribute modelAttribute = new Attribute("triggeredBy", USER_MODEL);
+        Attribute jsonAttribute = new Attribute("user", null);
+
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(EMPTY_LINKS_PROVIDER)
+                .withSkipDeserialize(false)
+                .withSkipSerialize(false)
+                .build();
+        ClassToAnnotationMap context = new ClassToAnnotationMap();
+        context.add(representerAnnotation);
+
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .withRepresenterClassName(TestConstants.USER_REPRESENTER_CLASS)
+                .withParent(representerAnnotation)
+                .build();
+
+        CodeBlock codeBlock = propertyAnnotation.getSinkSerializeCodeBlock(context);
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "jsonSink.name(\"user\", gen.com.tw.UserMapper.Constants.JsonNames.USER);\n" +
+                "gen.com.tw.UserMapper.toJSON(value.getTriggeredBy(), requestContext, jsonSink);\n");
+    }
+
+    @Test
+    public void shouldGenerateCodeToRenderPropertyViewUsingRepresenter() {
+        Attribute modelAttribute = new Attribute("triggeredBy", USER_MODEL);
+        Attribute jsonAttribute = new Attribute("user", null);
+
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(EMPTY_LINKS_PROVIDER)
+                .withSkipDeserialize(false)
+                .withSkipSerialize(false)
+                .build();
+        ClassToAnnotationMap context = new ClassToAnnotationMap();
+        context.add(representerAnnotation);
+
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .withRepresenterClassName(TestConstants.USER_REPRESENTER_CLASS)
+                .build();
+
+        CodeBlock codeBlock = propertyAnnotation.getViewSerializeCodeBlock(context);
+        assertThat(codeBlock.toString()).isEqualTo("return gen.com.tw.UserMapper.toJSONView(value.getTriggeredBy(), requestContext);\n");
+    }
+
+    @Test
+    public void shouldGenerateCodeToFingerprintPropertyUsingRepresenter() {
+        Attribute modelAttribute = new Attribute("triggeredBy", USER_MODEL);
+        Attribute jsonAttribute = new Attribute("user", null);
+
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(EMPTY_LINKS_PROVIDER)
+                .withSkipDeserialize(false)
+                .withSkipSerialize(false)
+                .build();
+        ClassToAnnotationMap context = new ClassToAnnotationMap();
+        context.add(representerAnnotation);
+
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .withRepresenterClassName(TestConstants.USER_REPRESENTER_CLASS)
+                .build();
+
+        CodeBlock codeBlock = propertyAnnotation.getFingerprintCodeBlock(context);
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "fingerprint = cd.go.jrepresenter.Fingerprint.mix(fingerprint, 0xbd99fab445ab60e8L);\n" +
+                "fingerprint = cd.go.jrepresenter.Fingerprint.mix(fingerprint, gen.com.tw.UserMapper.fingerprint(value.getTriggeredBy()));\n");
+    }
+
+    @Test
+    public void shouldGenerateCodeToRenderSelectedPropertyUsingRepresenter() {
+        Attribute modelAttribute = new Attribute("triggeredBy", USER_MODEL);
+        Attribute jsonAttribute = new Attribute("user", null);
+
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(EMPTY_LINKS_PROVIDER)
+                .withSkipDeserialize(false)
+                .withSkipSerialize(false)
+                .build();
+        ClassToAnnotationMap context = new ClassToAnnotationMap();
+        context.add(representerAnnotation);
+
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .withRepresenterClassName(TestConstants.USER_REPRESENTER_CLASS)
+                .build();
+
+        CodeBlock codeBlock = propertyAnnotation.getSelectedSerializeCodeBlock(context, "jsonObject");
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "if (fields.includes(\"user\")) {\n" +
+                "  jsonObject.put(\"user\", gen.com.tw.UserMapper.toJSON(value.getTriggeredBy(), requestContext, fields.nested(\"user\")));\n" +
+                "}\n");
+    }
+
+    @Test
+    public void shouldGenerateCodeToCollapseEmbeddedPropertyToLinksUnlessExpanded() {
+        Attribute modelAttribute = new Attribute("triggeredBy", USER_MODEL);
+        Attribute jsonAttribute = new Attribute("user", null);
+
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(ClassName.bestGuess("com.example.UserLinksProvider"))
+                .withSkipDeserialize(false)
+                .withSkipSerialize(false)
+                .build();
+        ClassToAnnotationMap context = new ClassToAnnotationMap();
+        context.add(representerAnnotation);
+
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .withRepresenterClassName(TestConstants.USER_REPRESENTER_CLASS)
+                .withEmbedded(true)
+                .build();
+
+        CodeBlock codeBlock = propertyAnnotation.getSerializeCodeBlock(context, "embeddedMap");
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "if (requestContext.expands(\"user\")) {\n" +
+                "  embeddedMap.put(\"user\", gen.com.tw.UserMapper.toJSON(value.getTriggeredBy(), requestContext.expand(\"user\")));\n" +
+                "} else {\n" +
+                "  embeddedMap.put(\"user\", gen.com.tw.UserMapper.toJSONLinks(value.getTriggeredBy(), requestContext));\n" +
+                "}\n");
+    }
+
     @Test
     public void shouldGenerateCodeToDeserializePropertyUsingRepresenter() {
         Attribute modelAttribute = new Attribute("triggeredBy", USER_MODEL);
@@ -171,7 +409,7 @@ public class PropertyAnnotationTest {
                 "if (jsonObject.containsKey(\"user\")) {\n" +
                 "  java.lang.Object jsonAttribute = jsonObject.get(\"user\");\n" +
                 "  if (!(jsonAttribute instanceof java.util.Map)) {\n" +
-                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"user\", java.util.Map.class, jsonObject);\n" +
+                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"user\", java.util.Map.class, jsonAttribute);\n" +
                 "  }\n" +
                 "  com.tw.User deserializedJsonAttribute = (java.util.Map) jsonAttribute;\n" +
                 "  com.tw.User modelAttribute = gen.com.tw.UserMapper.fromJSON((java.util.Map) deserializedJsonAttribute);\n" +
@@ -180,6 +418,80 @@ public class PropertyAnnotationTest {
         assertThat(codeBlock.toString()).isEqualTo(expectedCode);
     }
 
+    @Test
+    public void shouldGenerateCodeToDeserializePropertyUsingRepresenterCollectingErrors() {
+        Attribute modelAttribute = new Attribute("triggeredBy", USER_MODEL);
+        Attribute jsonAttribute = new Attribute("user", ClassName.get(Map.class));
+
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(EMPTY_LINKS_PROVIDER)
+                .withSkipDeserialize(false)
+                .withSkipSerialize(false)
+                .build();
+        ClassToAnnotationMap context = new ClassToAnnotationMap();
+        context.add(representerAnnotation);
+
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .withRepresenterClassName(TestConstants.USER_REPRESENTER_CLASS)
+                .build();
+
+        CodeBlock codeBlock = propertyAnnotation.doGetCollectingDeserializeCodeBlock(context);
+        String expectedCode = "" +
+                "if (jsonObject.containsKey(\"user\")) {\n" +
+                "  try {\n" +
+                "    java.lang.Object jsonAttribute = jsonObject.get(\"user\");\n" +
+                "    if (!(jsonAttribute instanceof java.util.Map)) {\n" +
+                "      cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"user\", java.util.Map.class, jsonAttribute);\n" +
+                "    }\n" +
+                "    com.tw.User deserializedJsonAttribute = (java.util.Map) jsonAttribute;\n" +
+                "    errors.push(\"user\");\n" +
+                "    com.tw.User modelAttribute = gen.com.tw.UserMapper.fromJSON((java.util.Map) deserializedJsonAttribute, errors);\n" +
+                "    errors.pop();\n" +
+                "    model.setTriggeredBy(modelAttribute);\n" +
+                "  } catch (cd.go.jrepresenter.JsonParseException e) {\n" +
+                "    errors.add(\"user\", e);\n" +
+                "  }\n" +
+                "}\n";
+        assertThat(codeBlock.toString()).isEqualTo(expectedCode);
+    }
+
+    @Test
+    public void shouldGenerateCodeToDeserializePropertyFromTokenStreamUsingRepresenter() {
+        Attribute modelAttribute = new Attribute("triggeredBy", USER_MODEL);
+        Attribute jsonAttribute = new Attribute("user", ClassName.get(Map.class));
+
+        RepresenterAnnotation representerAnnotation = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(USER_MODEL)
+                .withLinksProviderClass(EMPTY_LINKS_PROVIDER)
+                .withSkipDeserialize(false)
+                .withSkipSerialize(false)
+                .build();
+        ClassToAnnotationMap context = new ClassToAnnotationMap();
+        context.add(representerAnnotation);
+
+        PropertyAnnotation propertyAnnotation = PropertyAnnotationBuilder.aPropertyAnnotation()
+                .withModelAttribute(modelAttribute)
+                .withJsonAttribute(jsonAttribute)
+                .withRepresenterClassName(TestConstants.USER_REPRESENTER_CLASS)
+                .build();
+
+        CodeBlock codeBlock = propertyAnnotation.getTokenStreamDeserializeCodeBlock(context);
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "case \"user\": {\n" +
+                "  if (jsonSource.peek() != cd.go.jrepresenter.JsonToken.BEGIN_OBJECT) {\n" +
+                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"user\", java.util.Map.class, jsonSource.readValue());\n" +
+                "  }\n" +
+                "  com.tw.User modelAttribute = gen.com.tw.UserMapper.fromJSON(jsonSource);\n" +
+                "  model.setTriggeredBy(modelAttribute);\n" +
+                "  break;\n" +
+                "}\n");
+    }
+
     @Test
     public void shouldGenerateCodeToSerializeWithTargetWithGetter() throws Exception {
         Attribute modelAttribute = new Attribute("fname", STRING_CLASS);
@@ -188,10 +500,12 @@ public class PropertyAnnotationTest {
                 .withModelAttribute(modelAttribute)
                 .withJsonAttribute(jsonAttribute)
                 .withGetterClassName(FNAME_GETTER)
+                .withParent(USER_REPRESENTER)
                 .build();
 
         CodeBlock codeBlock = propertyAnnotation.getSerializeCodeBlock(null, "json");
-        assertThat(codeBlock.toString()).isEqualTo("json.put(\"first_name\", gen.cd.go.jrepresenter.Constants.Getters.F_NAME.apply(value));\n");
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "json.put(\"first_name\", gen.com.tw.UserMapper.Constants.Getters.F_NAME.apply(value));\n");
     }
 
     @Test
@@ -203,10 +517,12 @@ public class PropertyAnnotationTest {
                 .withJsonAttribute(jsonAttribute)
                 .withSerializerClassName(CASE_INSENSITIVE_STRING_SERIALIZER)
                 .withGetterClassName(FNAME_GETTER)
+                .withParent(USER_REPRESENTER)
                 .build();
 
         CodeBlock codeBlock = propertyAnnotation.getSerializeCodeBlock(null, "json");
-        assertThat(codeBlock.toString()).isEqualTo("json.put(\"first_name\", gen.cd.go.jrepresenter.Constants.Serializers.CASE_INSENSITIVE_STRING.apply(gen.cd.go.jrepresenter.Constants.Getters.F_NAME.apply(value)));\n");
+        assertThat(codeBlock.toString()).isEqualTo("" +
+                "json.put(\"first_name\", gen.com.tw.UserMapper.Constants.Serializers.CASE_INSENSITIVE_STRING.apply(gen.com.tw.UserMapper.Constants.Getters.F_NAME.apply(value)));\n");
     }
 
     @Test
@@ -217,6 +533,7 @@ public class PropertyAnnotationTest {
                 .withModelAttribute(modelAttribute)
                 .withJsonAttribute(jsonAttribute)
                 .withSetterClassName(TRIGGERED_BY_SETTER)
+                .withParent(USER_REPRESENTER)
                 .build();
 
         CodeBlock codeBlock = propertyAnnotation.doGetDeserializeCodeBlock(null);
@@ -224,11 +541,11 @@ public class PropertyAnnotationTest {
                 "if (jsonObject.containsKey(\"user\")) {\n" +
                 "  java.lang.Object jsonAttribute = jsonObject.get(\"user\");\n" +
                 "  if (!(jsonAttribute instanceof java.lang.String)) {\n" +
-                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"user\", java.lang.String.class, jsonObject);\n" +
+                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"user\", java.lang.String.class, jsonAttribute);\n" +
                 "  }\n" +
                 "  com.tw.User deserializedJsonAttribute = (java.lang.String) jsonAttribute;\n" +
-                "  com.tw.User modelAttribute = (com.tw.User) deserializedJsonAttribute;\n" +
-                "  new com.tw.TriggeredBySetter().accept(model, modelAttribute);\n" +
+                "  com.tw.User modelAttribute = deserializedJsonAttribute;\n" +
+                "  gen.com.tw.UserMapper.Constants.Setters.TRIGGERED_BY.accept(model, modelAttribute);\n" +
                 "}\n";
         assertThat(codeBlock.toString()).isEqualTo(expectedCode);
     }
@@ -242,6 +559,7 @@ public class PropertyAnnotationTest {
                 .withJsonAttribute(jsonAttribute)
                 .withDeserializerClassName(CASE_INSENSITIVE_STRING_DESERIALIZER)
                 .withSetterClassName(TRIGGERED_BY_SETTER)
+                .withParent(USER_REPRESENTER)
                 .build();
 
         CodeBlock codeBlock = propertyAnnotation.doGetDeserializeCodeBlock(null);
@@ -249,11 +567,11 @@ public class PropertyAnnotationTest {
                 "if (jsonObject.containsKey(\"user\")) {\n" +
                 "  java.lang.Object jsonAttribute = jsonObject.get(\"user\");\n" +
                 "  if (!(jsonAttribute instanceof java.lang.String)) {\n" +
-                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"user\", java.lang.String.class, jsonObject);\n" +
+                "    cd.go.jrepresenter.JsonParseException.throwBadJsonType(\"user\", java.lang.String.class, jsonAttribute);\n" +
                 "  }\n" +
-                "  com.tw.User deserializedJsonAttribute = gen.cd.go.jrepresenter.Constants.Deserializers.CASE_INSENSITIVE_STRING.apply((java.lang.String) jsonAttribute);\n" +
-                "  com.tw.User modelAttribute = (com.tw.User) deserializedJsonAttribute;\n" +
-                "  new com.tw.TriggeredBySetter().accept(model, modelAttribute);\n" +
+                "  com.tw.User deserializedJsonAttribute = gen.com.tw.UserMapper.Constants.Deserializers.CASE_INSENSITIVE_STRING.apply((java.lang.String) jsonAttribute);\n" +
+                "  com.tw.User modelAttribute = deserializedJsonAttribute;\n" +
+                "  gen.com.tw.UserMapper.Constants.Setters.TRIGGERED_BY.accept(model, modelAttribute);\n" +
                 "}\n";
 
         assertThat(codeBlock.toString()).isEqualTo(expectedCode);
@@ -18,6 +18,7 @@ package cd.go.jrepresenter.apt.models;
 
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -68,20 +69,34 @@ public class RepresentsSubClassesAnnotationTest {
         adminSubClassInfo = new SubClassInfoAnnotation(adminUserRepresenterClass, "admin", null);
     }
 
+    @Test
+    public void shouldGetSubClassIndexFieldInDeclarationOrder() {
+        RepresentsSubClassesAnnotation representsSubClassesAnnotation = new RepresentsSubClassesAnnotation("type",
+                "", Arrays.asList(guestSubClassInfo, adminSubClassInfo));
+
+        FieldSpec subClassIndexField = representsSubClassesAnnotation.getSubClassIndexField(context);
+
+        assertThat(subClassIndexField.toString()).isEqualTo("private static final cd.go.jrepresenter.util.SubClassIndex SUB_CLASS_INDEX = new cd.go.jrepresenter.util.SubClassIndex(com.tw.GuestUser.class, com.tw.AdminUser.class);\n");
+    }
+
     @Test
     public void shouldGetSerializeCodeBlockWhenNestedUnderAttribute() {
         RepresentsSubClassesAnnotation representsSubClassesAnnotation = new RepresentsSubClassesAnnotation("type",
                 "attributes", Arrays.asList(guestSubClassInfo, adminSubClassInfo));
 
-        CodeBlock serializeCodeBlock = representsSubClassesAnnotation.getSerializeCodeBlock(context);
+        CodeBlock serializeCodeBlock = representsSubClassesAnnotation.getSerializeCodeBlock(context, userRepresenterAnnotation);
 
         String expectedCode = "" +
                 "java.util.Map subClassProperties = null;\n" +
-                "if (value instanceof com.tw.GuestUser) {\n" +
-                "  subClassProperties = gen.com.tw.representers.GuestUserMapper.toJSON((com.tw.GuestUser) value, requestContext);\n" +
-                "}\n" +
-                "else if (value instanceof com.tw.AdminUser) {\n" +
-                "  subClassProperties = gen.com.tw.representers.AdminUserMapper.toJSON((com.tw.AdminUser) value, requestContext);\n" +
+                "switch (SUB_CLASS_INDEX.indexOf(value)) {\n" +
+                "  case 0: {\n" +
+                "    subClassProperties = gen.com.tw.representers.GuestUserMapper.toJSON((com.tw.GuestUser) value, requestContext);\n" +
+                "    break;\n" +
+                "  }\n" +
+                "  case 1: {\n" +
+                "    subClassProperties = gen.com.tw.representers.AdminUserMapper.toJSON((com.tw.AdminUser) value, requestContext);\n" +
+                "    break;\n" +
+                "  }\n" +
                 "}\n" +
                 "jsonObject.put(\"attributes\", subClassProperties);\n";
         assertThat(serializeCodeBlock.toString()).isEqualTo(expectedCode);
@@ -92,20 +107,111 @@ public class RepresentsSubClassesAnnotationTest {
         RepresentsSubClassesAnnotation representsSubClassesAnnotation = new RepresentsSubClassesAnnotation("type",
                 "", Arrays.asList(guestSubClassInfo, adminSubClassInfo));
 
-        CodeBlock serializeCodeBlock = representsSubClassesAnnotation.getSerializeCodeBlock(context);
+        CodeBlock serializeCodeBlock = representsSubClassesAnnotation.getSerializeCodeBlock(context, userRepresenterAnnotation);
 
         String expectedCode = "" +
                 "java.util.Map subClassProperties = null;\n" +
-                "if (value instanceof com.tw.GuestUser) {\n" +
-                "  subClassProperties = gen.com.tw.representers.GuestUserMapper.toJSON((com.tw.GuestUser) value, requestContext);\n" +
-                "}\n" +
-                "else if (value instanceof com.tw.AdminUser) {\n" +
-                "  subClassProperties = gen.com.tw.representers.AdminUserMapper.toJSON((com.tw.AdminUser) value, requestContext);\n" +
+                "switch (SUB_CLASS_INDEX.indexOf(value)) {\n" +
+                "  case 0: {\n" +
+                "    subClassProperties = gen.com.tw.representers.GuestUserMapper.toJSON((com.tw.GuestUser) value, requestContext);\n" +
+                "    break;\n" +
+                "  }\n" +
+                "  case 1: {\n" +
+                "    subClassProperties = gen.com.tw.representers.AdminUserMapper.toJSON((com.tw.AdminUser) value, requestContext);\n" +
+                "    break;\n" +
+                "  }\n" +
                 "}\n" +
                 "jsonObject.putAll(subClassProperties);\n";
         assertThat(serializeCodeBlock.toString()).isEqualTo(expectedCode);
     }
 
+    @Test
+    public void shouldGetSinkSerializeCodeBlockWhenNotNestedUnderAttribute() {
+        RepresentsSubClassesAnnotation representsSubClassesAnnotation = new RepresentsSubClassesAnnotation("type",
+                "", Arrays.asList(guestSubClassInfo, adminSubClassInfo));
+
+        CodeBlock serializeCodeBlock = representsSubClassesAnnotation.getSinkSerializeCodeBlock(context, userRepresenterAnnotation);
+
+        String expectedCode = "" +
+                "switch (SUB_CLASS_INDEX.indexOf(value)) {\n" +
+                "  case 0: {\n" +
+                "    gen.com.tw.representers.GuestUserMapper.toJSONProperties((com.tw.GuestUser) value, requestContext, jsonSink);\n" +
+                "    break;\n" +
+                "  }\n" +
+                "  case 1: {\n" +
+                "    gen.com.tw.representers.AdminUserMapper.toJSONProperties((com.tw.AdminUser) value, requestContext, jsonSink);\n" +
+                "    break;\n" +
+                "  }\n" +
+                "}\n";
+        assertThat(serializeCodeBlock.toString()).isEqualTo(expectedCode);
+    }
+
+    @Test
+    public void shouldGetSinkSerializeCodeBlockThatWritesNullForAnUnknownSubClassWhenNestedUnderAttribute() {
+        RepresentsSubClassesAnnotation representsSubClassesAnnotation = new RepresentsSubClassesAnnotation("type",
+                "attributes", Arrays.asList(guestSubClassInfo, adminSubClassInfo));
+
+        CodeBlock serializeCodeBlock = representsSubClassesAnnotation.getSinkSerializeCodeBlock(context, userRepresenterAnnotation);
+
+        assertThat(serializeCodeBlock.toString()).isEqualTo("" +
+                "switch (SUB_CLASS_INDEX.indexOf(value)) {\n" +
+                "  case 0: {\n" +
+                "    jsonSink.name(\"attributes\", gen.com.tw.UserMapper.Constants.JsonNames.ATTRIBUTES);\n" +
+                "    gen.com.tw.representers.GuestUserMapper.toJSON((com.tw.GuestUser) value, requestContext, jsonSink);\n" +
+                "    break;\n" +
+                "  }\n" +
+                "  case 1: {\n" +
+                "    jsonSink.name(\"attributes\", gen.com.tw.UserMapper.Constants.JsonNames.ATTRIBUTES);\n" +
+                "    gen.com.tw.representers.AdminUserMapper.toJSON((com.tw.AdminUser) value, requestContext, jsonSink);\n" +
+                "    break;\n" +
+                "  }\n" +
+                "  default:\n" +
+                "    jsonSink.name(\"attributes\", gen.com.tw.UserMapper.Constants.JsonNames.ATTRIBUTES);\n" +
+                "    jsonSink.nullValue();\n" +
+                "}\n");
+    }
+
+    @Test
+    public void shouldGetSinkLinksCodeBlockForTheSubClassesWithLinks() {
+        SubClassInfoAnnotation guestWithLinks = new SubClassInfoAnnotation(guestUserRepresenterClass, "guest", ClassName.bestGuess("com.tw.GuestUserLinksProvider"));
+        RepresentsSubClassesAnnotation representsSubClassesAnnotation = new RepresentsSubClassesAnnotation("type",
+                "", Arrays.asList(adminSubClassInfo, guestWithLinks));
+
+        assertThat(representsSubClassesAnnotation.hasLinksProviders()).isTrue();
+        assertThat(representsSubClassesAnnotation.getSinkLinksCodeBlock(context, userRepresenterAnnotation).toString()).isEqualTo("" +
+                "switch (SUB_CLASS_INDEX.indexOf(value)) {\n" +
+                "  case 1: {\n" +
+                "    cd.go.jrepresenter.LinksMapper.toJSON(gen.com.tw.UserMapper.Constants.LinksProviders.GUEST_USER, (com.tw.GuestUser) value, requestContext, jsonSink);\n" +
+                "    break;\n" +
+                "  }\n" +
+                "  default:\n" +
+                "}\n");
+    }
+
+    @Test
+    public void shouldGetSelectedSerializeCodeBlockThatSelectsThePropertiesNestedUnderAttribute() {
+        RepresentsSubClassesAnnotation representsSubClassesAnnotation = new RepresentsSubClassesAnnotation("type",
+                "attributes", Arrays.asList(guestSubClassInfo, adminSubClassInfo));
+
+        CodeBlock serializeCodeBlock = representsSubClassesAnnotation.getSelectedSerializeCodeBlock(context, userRepresenterAnnotation);
+
+        assertThat(serializeCodeBlock.toString()).isEqualTo("" +
+                "if (fields.includes(\"attributes\")) {\n" +
+                "  java.util.Map subClassProperties = null;\n" +
+                "  switch (SUB_CLASS_INDEX.indexOf(value)) {\n" +
+                "    case 0: {\n" +
+                "      subClassProperties = gen.com.tw.representers.GuestUserMapper.toJSON((com.tw.GuestUser) value, requestContext, fields.nested(\"attributes\"));\n" +
+                "      break;\n" +
+                "    }\n" +
+                "    case 1: {\n" +
+                "      subClassProperties = gen.com.tw.representers.AdminUserMapper.toJSON((com.tw.AdminUser) value, requestContext, fields.nested(\"attributes\"));\n" +
+                "      break;\n" +
+                "    }\n" +
+                "  }\n" +
+                "  jsonObject.put(\"attributes\", subClassProperties);\n" +
+                "}\n");
+    }
+
     @Test
     public void shouldGetDeserializeCodeBlockWhenNestedUnderAttribute() {
         RepresentsSubClassesAnnotation representsSubClassesAnnotation = new RepresentsSubClassesAnnotation("type",
@@ -116,14 +222,20 @@ public class RepresentsSubClassesAnnotationTest {
         String expectedCode = "" +
                 "com.tw.User model = null;\n" +
                 "java.lang.String type = (java.lang.String) jsonObject.get(\"type\");\n" +
-                "if (\"guest\".equals(type)) {\n" +
-                "  model = gen.com.tw.representers.GuestUserMapper.fromJSON((java.util.Map) jsonObject.get(\"attributes\"));\n" +
-                "}\n" +
-                "else if (\"admin\".equals(type)) {\n" +
-                "  model = gen.com.tw.representers.AdminUserMapper.fromJSON((java.util.Map) jsonObject.get(\"attributes\"));\n" +
-                "}\n" +
-                "else {\n" +
+                "if (type == null) {\n" +
                 "  throw new java.lang.RuntimeException(\"Could not find any subclass for specified type. Possible values are: guest,admin\");\n" +
+                "}\n" +
+                "switch (type) {\n" +
+                "  case \"guest\": {\n" +
+                "    model = gen.com.tw.representers.GuestUserMapper.fromJSON((java.util.Map) jsonObject.get(\"attributes\"));\n" +
+                "    break;\n" +
+                "  }\n" +
+                "  case \"admin\": {\n" +
+                "    model = gen.com.tw.representers.AdminUserMapper.fromJSON((java.util.Map) jsonObject.get(\"attributes\"));\n" +
+                "    break;\n" +
+                "  }\n" +
+                "  default:\n" +
+                "    throw new java.lang.RuntimeException(\"Could not find any subclass for specified type. Possible values are: guest,admin\");\n" +
                 "}\n";
         assertThat(deserializeCodeBlock.toString()).isEqualTo(expectedCode);
     }
@@ -138,14 +250,20 @@ public class RepresentsSubClassesAnnotationTest {
         String expectedCode = "" +
                 "com.tw.User model = null;\n" +
                 "java.lang.String type = (java.lang.String) jsonObject.get(\"type\");\n" +
-                "if (\"guest\".equals(type)) {\n" +
-                "  model = gen.com.tw.representers.GuestUserMapper.fromJSON(jsonObject);\n" +
-                "}\n" +
-                "else if (\"admin\".equals(type)) {\n" +
-                "  model = gen.com.tw.representers.AdminUserMapper.fromJSON(jsonObject);\n" +
-                "}\n" +
-                "else {\n" +
+                "if (type == null) {\n" +
                 "  throw new java.lang.RuntimeException(\"Could not find any subclass for specified type. Possible values are: guest,admin\");\n" +
+                "}\n" +
+                "switch (type) {\n" +
+                "  case \"guest\": {\n" +
+                "    model = gen.com.tw.representers.GuestUserMapper.fromJSON(jsonObject);\n" +
+                "    break;\n" +
+                "  }\n" +
+                "  case \"admin\": {\n" +
+                "    model = gen.com.tw.representers.AdminUserMapper.fromJSON(jsonObject);\n" +
+                "    break;\n" +
+                "  }\n" +
+                "  default:\n" +
+                "    throw new java.lang.RuntimeException(\"Could not find any subclass for specified type. Possible values are: guest,admin\");\n" +
                 "}\n";
         assertThat(deserializeCodeBlock.toString()).isEqualTo(expectedCode);
     }
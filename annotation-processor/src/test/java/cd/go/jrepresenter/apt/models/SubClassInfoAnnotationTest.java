@@ -49,12 +49,11 @@ public class SubClassInfoAnnotationTest {
     public void shouldGetSerializeCodeBlockWithLinks() {
         SubClassInfoAnnotation subClassInfoAnnotation = new SubClassInfoAnnotation(representerClass, "guest", linksProvider);
 
-        CodeBlock serializeCodeBlock = subClassInfoAnnotation.getSerializeCodeBlock(subClassRepresenterAnnotation);
+        CodeBlock serializeCodeBlock = subClassInfoAnnotation.getSerializeCodeBlock(TestConstants.USER_REPRESENTER, subClassRepresenterAnnotation);
 
         String expectedCodeBlock = "" +
-                "jsonObject.putAll(cd.go.jrepresenter.LinksMapper.toJSON(new com.tw.GuestUserLinksProvider(), (com.tw.GuestUser) value, requestContext));\n" +
-                "subClassProperties = gen.com.tw.GuestUserMapper.toJSON((com.tw.GuestUser) value, requestContext);" +
-                "\n";
+                "cd.go.jrepresenter.LinksMapper.putLinks(jsonObject, gen.com.tw.UserMapper.Constants.LinksProviders.GUEST_USER, (com.tw.GuestUser) value, requestContext);\n" +
+                "subClassProperties = gen.com.tw.GuestUserMapper.toJSON((com.tw.GuestUser) value, requestContext);\n";
         assertThat(serializeCodeBlock.toString()).isEqualTo(expectedCodeBlock);
     }
 
@@ -62,11 +61,47 @@ public class SubClassInfoAnnotationTest {
     public void shouldGetSerializeCodeBlockWithoutLinks() {
         SubClassInfoAnnotation subClassInfoAnnotation = new SubClassInfoAnnotation(representerClass, "guest", null);
 
-        CodeBlock serializeCodeBlock = subClassInfoAnnotation.getSerializeCodeBlock(subClassRepresenterAnnotation);
+        CodeBlock serializeCodeBlock = subClassInfoAnnotation.getSerializeCodeBlock(TestConstants.USER_REPRESENTER, subClassRepresenterAnnotation);
 
         assertThat(serializeCodeBlock.toString()).isEqualTo("" +
                 "subClassProperties = gen.com.tw.GuestUserMapper.toJSON((com.tw.GuestUser) value, requestContext);" +
                 "\n");
     }
 
+    @Test
+    public void shouldGetSinkSerializeCodeBlockWithoutTheLinks() {
+        SubClassInfoAnnotation subClassInfoAnnotation = new SubClassInfoAnnotation(representerClass, "guest", linksProvider);
+
+        CodeBlock serializeCodeBlock = subClassInfoAnnotation.getSinkSerializeCodeBlock(TestConstants.USER_REPRESENTER, subClassRepresenterAnnotation, "");
+
+        assertThat(serializeCodeBlock.toString()).isEqualTo("" +
+                "gen.com.tw.GuestUserMapper.toJSONProperties((com.tw.GuestUser) value, requestContext, jsonSink);\n");
+    }
+
+    @Test
+    public void shouldGetSinkLinksCodeBlockInPlaceOfTheLinksOfTheParent() {
+        SubClassInfoAnnotation subClassInfoAnnotation = new SubClassInfoAnnotation(representerClass, "guest", linksProvider);
+        RepresenterAnnotation userRepresenterWithLinks = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+                .withRepresenterClass(TestConstants.USER_REPRESENTER_CLASS)
+                .withModelClass(TestConstants.USER_MODEL)
+                .withLinksProviderClass(ClassName.bestGuess("com.tw.UserLinksProvider"))
+                .build();
+
+        assertThat(subClassInfoAnnotation.getSinkLinksCodeBlock(userRepresenterWithLinks, subClassRepresenterAnnotation).toString()).isEqualTo("" +
+                "cd.go.jrepresenter.LinksMapper.toJSON(LINKS_PROVIDER, gen.com.tw.UserMapper.Constants.LinksProviders.GUEST_USER, (com.tw.GuestUser) value, requestContext, jsonSink);\n");
+        assertThat(subClassInfoAnnotation.getSinkLinksCodeBlock(TestConstants.USER_REPRESENTER, subClassRepresenterAnnotation).toString()).isEqualTo("" +
+                "cd.go.jrepresenter.LinksMapper.toJSON(gen.com.tw.UserMapper.Constants.LinksProviders.GUEST_USER, (com.tw.GuestUser) value, requestContext, jsonSink);\n");
+    }
+
+    @Test
+    public void shouldGetSinkSerializeCodeBlockWhenNestedUnderAttribute() {
+        SubClassInfoAnnotation subClassInfoAnnotation = new SubClassInfoAnnotation(representerClass, "guest", null);
+
+        CodeBlock serializeCodeBlock = subClassInfoAnnotation.getSinkSerializeCodeBlock(TestConstants.USER_REPRESENTER, subClassRepresenterAnnotation, "attributes");
+
+        assertThat(serializeCodeBlock.toString()).isEqualTo("" +
+                "jsonSink.name(\"attributes\", gen.com.tw.UserMapper.Constants.JsonNames.ATTRIBUTES);\n" +
+                "gen.com.tw.GuestUserMapper.toJSON((com.tw.GuestUser) value, requestContext, jsonSink);\n");
+    }
+
 }
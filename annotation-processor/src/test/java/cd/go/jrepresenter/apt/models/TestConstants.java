@@ -29,6 +29,7 @@ public class TestConstants {
 
     static final ClassName STRING_CLASS = ClassName.get(String.class);
     static final TypeName INT_TYPE = TypeName.get(int.class);
+    static final ClassName USER_ROLE = ClassName.bestGuess("com.tw.UserRole");
     
 
     static final ClassName CASE_INSENSITIVE_STRING_SERIALIZER = ClassName.bestGuess("com.tw.CaseInsensitiveStringSerializer");
@@ -37,4 +38,12 @@ public class TestConstants {
 
     static final ClassName FNAME_GETTER = ClassName.bestGuess("com.tw.FNameGetter");
     static final ClassName TRIGGERED_BY_SETTER = ClassName.bestGuess("com.tw.TriggeredBySetter");
+
+    static final RepresenterAnnotation USER_REPRESENTER = RepresenterAnnotationBuilder.aRepresenterAnnotation()
+            .withRepresenterClass(USER_REPRESENTER_CLASS)
+            .withModelClass(USER_MODEL)
+            .withLinksProviderClass(EMPTY_LINKS_PROVIDER)
+            .withSkipDeserialize(false)
+            .withSkipSerialize(false)
+            .build();
 }
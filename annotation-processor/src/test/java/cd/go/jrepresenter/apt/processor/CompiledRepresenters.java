@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.apt.processor;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles models and representers through {@link RepresenterAnnotationProcessor} with the in-process compiler, and
+ * loads the generated mappers, so that tests can check what they render rather than the code that renders it.
+ */
+class CompiledRepresenters implements AutoCloseable {
+    private final Path outputDir;
+    private final URLClassLoader classLoader;
+
+    private CompiledRepresenters(Path outputDir, URLClassLoader classLoader) {
+        this.outputDir = outputDir;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @param sources the source of each class, by its fully qualified name
+     */
+    static CompiledRepresenters compile(Map<String, String> sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The in-process compiler is only available when running on a JDK");
+        }
+
+        Path outputDir = Files.createTempDirectory("jrepresenter-compiled");
+        Path classesDir = Files.createDirectories(outputDir.resolve("classes"));
+        Path generatedDir = Files.createDirectories(outputDir.resolve("generated"));
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", classesDir.toString(),
+                "-s", generatedDir.toString()
+        );
+
+        List<JavaFileObject> files = new ArrayList<>();
+        sources.forEach((className, code) -> files.add(source(className, code)));
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, files);
+            task.setProcessors(Collections.singletonList(new RepresenterAnnotationProcessor()));
+            if (!task.call()) {
+                delete(outputDir);
+                throw new IllegalStateException("Compilation failed:\n" + diagnostics.getDiagnostics().stream()
+                        .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                        .map(Object::toString)
+                        .collect(Collectors.joining("\n")));
+            }
+        }
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDir.toUri().toURL()}, CompiledRepresenters.class.getClassLoader());
+        return new CompiledRepresenters(outputDir, classLoader);
+    }
+
+    /**
+     * Calls the public constructor of the class that takes exactly the given number of arguments, and whose
+     * parameters are of the types of the given arguments.
+     */
+    Object newInstance(String className, Object... args) throws ReflectiveOperationException {
+        for (Constructor<?> constructor : classLoader.loadClass(className).getConstructors()) {
+            if (accepts(constructor.getParameterTypes(), args)) {
+                return constructor.newInstance(args);
+            }
+        }
+        throw new NoSuchMethodException(className + ".<init>");
+    }
+
+    /**
+     * Calls the public static method of the class that takes exactly the given number of arguments, and whose
+     * parameters are of the types of the given arguments.
+     */
+    Object invoke(String className, String methodName, Object... args) throws ReflectiveOperationException {
+        for (Method method : classLoader.loadClass(className).getMethods()) {
+            if (method.getName().equals(methodName) && accepts(method.getParameterTypes(), args)) {
+                try {
+                    return method.invoke(null, args);
+                } catch (InvocationTargetException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        }
+        throw new NoSuchMethodException(className + "." + methodName);
+    }
+
+    @Override
+    public void close() throws IOException {
+        classLoader.close();
+        delete(outputDir);
+    }
+
+    private static boolean accepts(Class<?>[] parameterTypes, Object[] args) {
+        if (parameterTypes.length != args.length) {
+            return false;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] != null && !parameterTypes[i].isInstance(args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private static void delete(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.apt.processor;
+
+import cd.go.jrepresenter.AppendableJsonSink;
+import cd.go.jrepresenter.ExpansionPolicy;
+import cd.go.jrepresenter.RequestContext;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpandedRelationRenderingTest {
+    private static CompiledRepresenters compiled;
+
+    @BeforeClass
+    public static void compileRepresenters() throws Exception {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("shop.TenantContext", "" +
+                "package shop;\n" +
+                "import cd.go.jrepresenter.*;\n" +
+                "public class TenantContext extends RequestContext {\n" +
+                "    private final String tenant;\n" +
+                "    public TenantContext(String tenant) { super(\"https\", \"shop.example.com\", 443); this.tenant = tenant; }\n" +
+                "    private TenantContext(TenantContext context, ExpansionPolicy expansionPolicy) { super(context, expansionPolicy); this.tenant = context.tenant; }\n" +
+                "    public String getTenant() { return tenant; }\n" +
+                "    @Override\n" +
+                "    protected RequestContext copyWith(ExpansionPolicy expansionPolicy) { return new TenantContext(this, expansionPolicy); }\n" +
+                "}\n");
+        sources.put("shop.Customer", "" +
+                "package shop;\n" +
+                "public class Customer {\n" +
+                "    private String name = \"ada\";\n" +
+                "    public String getName() { return name; }\n" +
+                "    public void setName(String name) { this.name = name; }\n" +
+                "}\n");
+        sources.put("shop.Order", "" +
+                "package shop;\n" +
+                "public class Order {\n" +
+                "    private java.util.List<Customer> customers = java.util.Collections.singletonList(new Customer());\n" +
+                "    public java.util.List<Customer> getCustomers() { return customers; }\n" +
+                "    public void setCustomers(java.util.List<Customer> customers) { this.customers = customers; }\n" +
+                "}\n");
+        sources.put("shop.CustomerLinks", "" +
+                "package shop;\n" +
+                "import cd.go.jrepresenter.*;\n" +
+                "public class CustomerLinks implements LinksProvider<Customer> {\n" +
+                "    public java.util.List<Link> getLinks(Customer customer, RequestContext requestContext) {\n" +
+                "        return java.util.Collections.singletonList(requestContext.build(\"self\", \"/%s/customers/%s\", ((TenantContext) requestContext).getTenant(), customer.getName()));\n" +
+                "    }\n" +
+                "}\n");
+        sources.put("shop.CustomerRepresenter", "" +
+                "package shop;\n" +
+                "import cd.go.jrepresenter.annotations.*;\n" +
+                "@Represents(value = Customer.class, linksProvider = CustomerLinks.class)\n" +
+                "public interface CustomerRepresenter {\n" +
+                "    @Property(modelAttributeType = String.class)\n" +
+                "    String name();\n" +
+                "}\n");
+        sources.put("shop.OrderRepresenter", "" +
+                "package shop;\n" +
+                "import cd.go.jrepresenter.annotations.*;\n" +
+                "@Represents(Order.class)\n" +
+                "public interface OrderRepresenter {\n" +
+                "    @Collection(representer = CustomerRepresenter.class, embedded = true, modelAttributeType = Customer.class)\n" +
+                "    java.util.List<java.util.Map> customers();\n" +
+                "}\n");
+        compiled = CompiledRepresenters.compile(sources);
+    }
+
+    @AfterClass
+    public static void deleteCompiledRepresenters() throws Exception {
+        compiled.close();
+    }
+
+    @Test
+    public void shouldRenderAnExpandedRelationWithTheSubClassOfTheRequestContext() throws Exception {
+        RequestContext requestContext = ((RequestContext) compiled.newInstance("shop.TenantContext", "acme"))
+                .withExpansionPolicy(ExpansionPolicy.relations("customers"));
+
+        assertThat(requestContext.expand("customers")).isInstanceOf(requestContext.getClass()).isNotSameAs(requestContext);
+
+        StringBuilder json = new StringBuilder();
+        compiled.invoke("gen.shop.OrderMapper", "toJSON", compiled.newInstance("shop.Order"), requestContext, new AppendableJsonSink(json));
+        assertThat(json.toString()).isEqualTo("{\"_embedded\":{\"customers\":[{\"_links\":{\"self\":{\"href\":\"https://shop.example.com/acme/customers/ada\"}},\"name\":\"ada\"}]}}");
+
+        StringBuilder map = new StringBuilder();
+        new AppendableJsonSink(map).value(compiled.invoke("gen.shop.OrderMapper", "toJSON", compiled.newInstance("shop.Order"), requestContext));
+        assertThat(map.toString()).isEqualTo(json.toString());
+    }
+}
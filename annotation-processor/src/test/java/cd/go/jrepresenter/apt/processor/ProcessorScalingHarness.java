@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.apt.processor;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link RepresenterAnnotationProcessor} over N synthetic representers through the in-process compiler and reports
+ * the wall time and peak heap of the compilation. Each representer refers to the one before it, so representer lookups
+ * are exercised as well as code generation.
+ * <p>
+ * Run with {@code ./gradlew :annotation-processor:processorScaling -PrepresenterCounts=100,1000,10000}.
+ */
+public class ProcessorScalingHarness {
+    private static final String PACKAGE_NAME = "scaling";
+
+    public static void main(String[] args) throws IOException {
+        List<Integer> counts = args.length == 0 ? Arrays.asList(100, 1000, 10000) : Arrays.stream(args)
+                .flatMap(arg -> Arrays.stream(arg.split(",")))
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+
+        for (Integer count : counts) {
+            Result result = run(count);
+            if (!result.isSuccess()) {
+                result.getErrors().forEach(System.err::println);
+                System.exit(1);
+            }
+            System.out.println(result);
+        }
+    }
+
+    public static Result run(int representerCount) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The in-process compiler is only available when running on a JDK");
+        }
+
+        Path outputDir = Files.createTempDirectory("jrepresenter-scaling");
+        try {
+            Path classesDir = Files.createDirectories(outputDir.resolve("classes"));
+            Path generatedDir = Files.createDirectories(outputDir.resolve("generated"));
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            List<String> options = Arrays.asList(
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-d", classesDir.toString(),
+                    "-s", generatedDir.toString()
+            );
+
+            try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+                JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, sources(representerCount));
+                task.setProcessors(Collections.singletonList(new RepresenterAnnotationProcessor()));
+
+                List<MemoryPoolMXBean> heapPools = heapPools();
+                System.gc();
+                heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+                long start = System.nanoTime();
+                boolean success = task.call();
+                long wallTimeNanos = System.nanoTime() - start;
+                long peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+                return new Result(representerCount, success, wallTimeNanos, peakHeapBytes, countMappers(generatedDir), diagnostics.getDiagnostics());
+            }
+        } finally {
+            delete(outputDir);
+        }
+    }
+
+    private static List<JavaFileObject> sources(int representerCount) {
+        List<JavaFileObject> sources = new ArrayList<>();
+        for (int i = 0; i < representerCount; i++) {
+            sources.add(source("Model" + i, model(i)));
+            sources.add(source("Representer" + i, representer(i)));
+        }
+        return sources;
+    }
+
+    private static String model(int i) {
+        String childType = i == 0 ? "Object" : "Model" + (i - 1);
+        return "package " + PACKAGE_NAME + ";\n" +
+                "\n" +
+                "public class Model" + i + " {\n" +
+                "    private String name;\n" +
+                "    private String description;\n" +
+                "    private java.util.List<" + childType + "> children;\n" +
+                "\n" +
+                "    public String getName() { return name; }\n" +
+                "    public void setName(String name) { this.name = name; }\n" +
+                "    public String getDescription() { return description; }\n" +
+                "    public void setDescription(String description) { this.description = description; }\n" +
+                "    public java.util.List<" + childType + "> getChildren() { return children; }\n" +
+                "    public void setChildren(java.util.List<" + childType + "> children) { this.children = children; }\n" +
+                "}\n";
+    }
+
+    private static String representer(int i) {
+        StringBuilder source = new StringBuilder()
+                .append("package ").append(PACKAGE_NAME).append(";\n")
+                .append("\n")
+                .append("import cd.go.jrepresenter.annotations.*;\n")
+                .append("\n")
+                .append("@Represents(Model").append(i).append(".class)\n")
+                .append("public interface Representer").append(i).append(" {\n")
+                .append("    @Property(modelAttributeType = String.class)\n")
+                .append("    String name();\n")
+                .append("\n")
+                .append("    @Property(modelAttributeName = \"description\", modelAttributeType = String.class)\n")
+                .append("    String summary();\n");
+        if (i > 0) {
+            source.append("\n")
+                    .append("    @Collection(representer = Representer").append(i - 1).append(".class, embedded = true, modelAttributeType = Model").append(i - 1).append(".class)\n")
+                    .append("    java.util.List<java.util.Map> children();\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + PACKAGE_NAME + "/" + className + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .collect(Collectors.toList());
+    }
+
+    private static long countMappers(Path generatedDir) throws IOException {
+        try (Stream<Path> files = Files.walk(generatedDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith("Mapper.java")).count();
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    public static class Result {
+        private final int representerCount;
+        private final boolean success;
+        private final long wallTimeNanos;
+        private final long peakHeapBytes;
+        private final long generatedMapperCount;
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+
+        Result(int representerCount, boolean success, long wallTimeNanos, long peakHeapBytes, long generatedMapperCount, List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+            this.representerCount = representerCount;
+            this.success = success;
+            this.wallTimeNanos = wallTimeNanos;
+            this.peakHeapBytes = peakHeapBytes;
+            this.generatedMapperCount = generatedMapperCount;
+            this.diagnostics = diagnostics;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public long getWallTimeNanos() {
+            return wallTimeNanos;
+        }
+
+        public long getPeakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        public long getGeneratedMapperCount() {
+            return generatedMapperCount;
+        }
+
+        public List<Diagnostic<? extends JavaFileObject>> getErrors() {
+            return diagnostics.stream()
+                    .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("representers=%d mappers=%d wallTime=%dms peakHeap=%dMB",
+                    representerCount, generatedMapperCount, wallTimeNanos / 1_000_000, peakHeapBytes / (1024 * 1024));
+        }
+    }
+}
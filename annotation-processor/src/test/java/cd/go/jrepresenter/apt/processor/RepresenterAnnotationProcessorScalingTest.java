@@ -0,0 +1,33 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.apt.processor;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepresenterAnnotationProcessorScalingTest {
+
+    @Test
+    public void shouldGenerateAMapperForEveryRepresenter() throws Exception {
+        ProcessorScalingHarness.Result result = ProcessorScalingHarness.run(100);
+
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getGeneratedMapperCount()).isEqualTo(100);
+    }
+}
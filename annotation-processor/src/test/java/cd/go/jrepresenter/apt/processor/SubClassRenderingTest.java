@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.apt.processor;
+
+import cd.go.jrepresenter.AppendableJsonSink;
+import cd.go.jrepresenter.FieldSelection;
+import cd.go.jrepresenter.RequestContext;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SubClassRenderingTest {
+    private static final RequestContext REQUEST_CONTEXT = new RequestContext("https", "zoo.example.com", 443);
+
+    private static CompiledRepresenters compiled;
+
+    @BeforeClass
+    public static void compileRepresenters() throws Exception {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("zoo.Animal", "" +
+                "package zoo;\n" +
+                "public class Animal {\n" +
+                "    private String type;\n" +
+                "    private String name;\n" +
+                "    public String getType() { return type; }\n" +
+                "    public void setType(String type) { this.type = type; }\n" +
+                "    public String getName() { return name; }\n" +
+                "    public void setName(String name) { this.name = name; }\n" +
+                "}\n");
+        sources.put("zoo.Dog", "" +
+                "package zoo;\n" +
+                "public class Dog extends Animal {\n" +
+                "    private String breed;\n" +
+                "    public Dog() { setType(\"dog\"); setName(\"rex\"); breed = \"collie\"; }\n" +
+                "    public String getBreed() { return breed; }\n" +
+                "    public void setBreed(String breed) { this.breed = breed; }\n" +
+                "}\n");
+        sources.put("zoo.Fish", "" +
+                "package zoo;\n" +
+                "public class Fish extends Animal {\n" +
+                "    private String water;\n" +
+                "    public Fish() { setType(\"fish\"); setName(\"wanda\"); water = \"salt\"; }\n" +
+                "    public String getWater() { return water; }\n" +
+                "    public void setWater(String water) { this.water = water; }\n" +
+                "}\n");
+        sources.put("zoo.Cat", "" +
+                "package zoo;\n" +
+                "public class Cat extends Animal {\n" +
+                "    public Cat() { setType(\"cat\"); setName(\"nemo\"); }\n" +
+                "}\n");
+        sources.put("zoo.AnimalLinks", "" +
+                "package zoo;\n" +
+                "import cd.go.jrepresenter.*;\n" +
+                "public class AnimalLinks implements LinksProvider<Animal> {\n" +
+                "    public java.util.List<Link> getLinks(Animal animal, RequestContext requestContext) {\n" +
+                "        return java.util.Collections.singletonList(requestContext.build(\"self\", \"/animals/%s\", animal.getName()));\n" +
+                "    }\n" +
+                "}\n");
+        sources.put("zoo.DogLinks", "" +
+                "package zoo;\n" +
+                "import cd.go.jrepresenter.*;\n" +
+                "public class DogLinks implements LinksProvider<Dog> {\n" +
+                "    public java.util.List<Link> getLinks(Dog dog, RequestContext requestContext) {\n" +
+                "        return java.util.Collections.singletonList(requestContext.build(\"doc\", \"/breeds/%s\", dog.getBreed()));\n" +
+                "    }\n" +
+                "}\n");
+        sources.put("zoo.DogRepresenter", "" +
+                "package zoo;\n" +
+                "import cd.go.jrepresenter.annotations.*;\n" +
+                "@Represents(Dog.class)\n" +
+                "public interface DogRepresenter {\n" +
+                "    @Property(modelAttributeType = String.class)\n" +
+                "    String breed();\n" +
+                "}\n");
+        sources.put("zoo.FishRepresenter", "" +
+                "package zoo;\n" +
+                "import cd.go.jrepresenter.annotations.*;\n" +
+                "@Represents(Fish.class)\n" +
+                "public interface FishRepresenter {\n" +
+                "    @Property(modelAttributeType = String.class)\n" +
+                "    String water();\n" +
+                "}\n");
+        sources.put("zoo.AnimalRepresenter", "" +
+                "package zoo;\n" +
+                "import cd.go.jrepresenter.annotations.*;\n" +
+                "@Represents(value = Animal.class, linksProvider = AnimalLinks.class)\n" +
+                "@RepresentsSubClasses(property = \"type\", nestedUnder = \"attributes\", subClasses = {\n" +
+                "        @RepresentsSubClasses.SubClassInfo(value = \"dog\", representer = DogRepresenter.class, linksProvider = DogLinks.class),\n" +
+                "        @RepresentsSubClasses.SubClassInfo(value = \"fish\", representer = FishRepresenter.class)\n" +
+                "})\n" +
+                "public interface AnimalRepresenter {\n" +
+                "    @Property(modelAttributeType = String.class)\n" +
+                "    String type();\n" +
+                "    @Property(modelAttributeType = String.class)\n" +
+                "    String name();\n" +
+                "}\n");
+        sources.put("zoo.PetRepresenter", "" +
+                "package zoo;\n" +
+                "import cd.go.jrepresenter.annotations.*;\n" +
+                "@Represents(Animal.class)\n" +
+                "@RepresentsSubClasses(property = \"type\", subClasses = {\n" +
+                "        @RepresentsSubClasses.SubClassInfo(value = \"dog\", representer = DogRepresenter.class, linksProvider = DogLinks.class),\n" +
+                "        @RepresentsSubClasses.SubClassInfo(value = \"fish\", representer = FishRepresenter.class)\n" +
+                "})\n" +
+                "public interface PetRepresenter {\n" +
+                "    @Property(modelAttributeType = String.class)\n" +
+                "    String name();\n" +
+                "}\n");
+        compiled = CompiledRepresenters.compile(sources);
+    }
+
+    @AfterClass
+    public static void deleteCompiledRepresenters() throws Exception {
+        compiled.close();
+    }
+
+    @Test
+    public void shouldRenderTheLinksOfASubClassInPlaceOfTheLinksOfItsParent() throws Exception {
+        String json = renderToSink("gen.zoo.AnimalMapper", "zoo.Dog");
+
+        assertThat(json).isEqualTo("{\"_links\":{\"doc\":{\"href\":\"https://zoo.example.com/breeds/collie\"}},\"type\":\"dog\",\"name\":\"rex\",\"attributes\":{\"breed\":\"collie\"}}");
+        assertThat(json).isEqualTo(renderToMap("gen.zoo.AnimalMapper", "zoo.Dog"));
+    }
+
+    @Test
+    public void shouldRenderTheLinksOfTheParentForASubClassWithoutLinks() throws Exception {
+        String json = renderToSink("gen.zoo.AnimalMapper", "zoo.Fish");
+
+        assertThat(json).isEqualTo("{\"_links\":{\"self\":{\"href\":\"https://zoo.example.com/animals/wanda\"}},\"type\":\"fish\",\"name\":\"wanda\",\"attributes\":{\"water\":\"salt\"}}");
+        assertThat(json).isEqualTo(renderToMap("gen.zoo.AnimalMapper", "zoo.Fish"));
+    }
+
+    @Test
+    public void shouldRenderNullAttributesForAnUnknownSubClass() throws Exception {
+        String json = renderToSink("gen.zoo.AnimalMapper", "zoo.Cat");
+
+        assertThat(json).isEqualTo("{\"_links\":{\"self\":{\"href\":\"https://zoo.example.com/animals/nemo\"}},\"type\":\"cat\",\"name\":\"nemo\",\"attributes\":null}");
+        assertThat(json).isEqualTo(renderToMap("gen.zoo.AnimalMapper", "zoo.Cat"));
+    }
+
+    @Test
+    public void shouldRenderTheLinksOfAFlattenedSubClassWhenItsParentHasNone() throws Exception {
+        String json = renderToSink("gen.zoo.PetMapper", "zoo.Dog");
+
+        assertThat(json).isEqualTo("{\"_links\":{\"doc\":{\"href\":\"https://zoo.example.com/breeds/collie\"}},\"name\":\"rex\",\"breed\":\"collie\"}");
+        assertThat(json).isEqualTo(renderToMap("gen.zoo.PetMapper", "zoo.Dog"));
+        assertThat(renderToSink("gen.zoo.PetMapper", "zoo.Fish")).isEqualTo(renderToMap("gen.zoo.PetMapper", "zoo.Fish"));
+    }
+
+    @Test
+    public void shouldSelectThePropertiesNestedUnderAttributes() throws Exception {
+        assertThat(renderSelected("gen.zoo.AnimalMapper", "zoo.Dog", "name")).isEqualTo("{\"name\":\"rex\"}");
+        assertThat(renderSelected("gen.zoo.AnimalMapper", "zoo.Dog", "-attributes,-_links")).isEqualTo("{\"type\":\"dog\",\"name\":\"rex\"}");
+        assertThat(renderSelected("gen.zoo.AnimalMapper", "zoo.Dog", "name,attributes(breed)")).isEqualTo("{\"name\":\"rex\",\"attributes\":{\"breed\":\"collie\"}}");
+        assertThat(renderSelected("gen.zoo.AnimalMapper", "zoo.Fish", "attributes(-water)")).isEqualTo("{\"attributes\":{}}");
+    }
+
+    @Test
+    public void shouldAlwaysRenderThePropertiesOfAFlattenedSubClass() throws Exception {
+        assertThat(renderSelected("gen.zoo.PetMapper", "zoo.Dog", "name,-_links")).isEqualTo("{\"name\":\"rex\",\"breed\":\"collie\"}");
+    }
+
+    private static String renderToSink(String mapperClassName, String modelClassName) throws Exception {
+        StringBuilder json = new StringBuilder();
+        compiled.invoke(mapperClassName, "toJSON", compiled.newInstance(modelClassName), REQUEST_CONTEXT, new AppendableJsonSink(json));
+        return json.toString();
+    }
+
+    private static String renderToMap(String mapperClassName, String modelClassName) throws Exception {
+        StringBuilder json = new StringBuilder();
+        new AppendableJsonSink(json).value(compiled.invoke(mapperClassName, "toJSON", compiled.newInstance(modelClassName), REQUEST_CONTEXT));
+        return json.toString();
+    }
+
+    private static String renderSelected(String mapperClassName, String modelClassName, String fields) throws Exception {
+        StringBuilder json = new StringBuilder();
+        new AppendableJsonSink(json).value(compiled.invoke(mapperClassName, "toJSON", compiled.newInstance(modelClassName), REQUEST_CONTEXT, FieldSelection.parse(fields)));
+        return json.toString();
+    }
+}
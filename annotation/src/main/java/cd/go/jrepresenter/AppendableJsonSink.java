@@ -0,0 +1,232 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * A {@link JsonSink} that writes compact JSON text to any {@link Appendable}, such as a {@link StringBuilder}
+ * or a {@link java.io.Writer}.
+ */
+public class AppendableJsonSink implements JsonSink {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Appendable out;
+    private boolean[] hasMembers = new boolean[16];
+    private int depth;
+    private boolean afterName;
+
+    public AppendableJsonSink(Appendable out) {
+        this.out = out;
+    }
+
+    @Override
+    public void beginObject() {
+        beforeValue();
+        push();
+        write('{');
+    }
+
+    @Override
+    public void endObject() {
+        depth--;
+        write('}');
+    }
+
+    @Override
+    public void beginArray() {
+        beforeValue();
+        push();
+        write('[');
+    }
+
+    @Override
+    public void endArray() {
+        depth--;
+        write(']');
+    }
+
+    @Override
+    public void name(String name) {
+        separate();
+        writeString(name);
+        write(':');
+        afterName = true;
+    }
+
+    @Override
+    public void nullValue() {
+        beforeValue();
+        write("null");
+    }
+
+    @Override
+    public void value(String value) {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        beforeValue();
+        writeString(value);
+    }
+
+    @Override
+    public void value(Number value) {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            value(value.doubleValue());
+            return;
+        }
+        beforeValue();
+        write(value.toString());
+    }
+
+    @Override
+    public void value(boolean value) {
+        beforeValue();
+        write(value ? "true" : "false");
+    }
+
+    @Override
+    public void value(long value) {
+        beforeValue();
+        write(Long.toString(value));
+    }
+
+    @Override
+    public void value(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON does not allow the numeric value " + value);
+        }
+        beforeValue();
+        write(Double.toString(value));
+    }
+
+    @Override
+    public void flush() {
+        if (out instanceof Flushable) {
+            try {
+                ((Flushable) out).flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+        } else {
+            separate();
+        }
+    }
+
+    private void separate() {
+        if (depth > 0) {
+            if (hasMembers[depth]) {
+                write(',');
+            }
+            hasMembers[depth] = true;
+        }
+    }
+
+    private void push() {
+        depth++;
+        if (depth == hasMembers.length) {
+            hasMembers = Arrays.copyOf(hasMembers, depth * 2);
+        }
+        hasMembers[depth] = false;
+    }
+
+    private void writeString(String value) {
+        write('"');
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            write(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    write("\\\"");
+                    break;
+                case '\\':
+                    write("\\\\");
+                    break;
+                case '\n':
+                    write("\\n");
+                    break;
+                case '\r':
+                    write("\\r");
+                    break;
+                case '\t':
+                    write("\\t");
+                    break;
+                case '\b':
+                    write("\\b");
+                    break;
+                case '\f':
+                    write("\\f");
+                    break;
+                default:
+                    write("\\u");
+                    write(HEX_DIGITS[(c >> 12) & 0xf]);
+                    write(HEX_DIGITS[(c >> 8) & 0xf]);
+                    write(HEX_DIGITS[(c >> 4) & 0xf]);
+                    write(HEX_DIGITS[c & 0xf]);
+            }
+        }
+        write(value, start, length);
+        write('"');
+    }
+
+    private void write(char c) {
+        try {
+            out.append(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(CharSequence text) {
+        try {
+            out.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(CharSequence text, int start, int end) {
+        if (start == end) {
+            return;
+        }
+        try {
+            out.append(text, start, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out {@link PooledBuffer}s to render responses into, and keeps one per thread once it is returned, so that
+ * rendering a response does not allocate a fresh buffer and grow it by doubling on every request.
+ * <p>
+ * Buffers that grew beyond the maximum retained capacity while rendering an unusually large response are dropped
+ * when they are returned, so that the pool holds on to at most one buffer of that size per thread.
+ * <pre>
+ * try (PooledBuffer buffer = BufferPool.getDefault().borrow()) {
+ *     PipelineMapper.toJSON(pipeline, requestContext, new Utf8JsonSink(buffer));
+ *     buffer.writeTo(response.getOutputStream());
+ * }
+ * </pre>
+ */
+public class BufferPool {
+    public static final int DEFAULT_INITIAL_CAPACITY = 8 * 1024;
+    public static final int DEFAULT_MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private static final BufferPool DEFAULT = new BufferPool(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_RETAINED_CAPACITY);
+
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+    private final ThreadLocal<PooledBuffer> cached = new ThreadLocal<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder oversizeDiscards = new LongAdder();
+
+    public BufferPool(int initialCapacity, int maxRetainedCapacity) {
+        if (initialCapacity <= 0 || maxRetainedCapacity < initialCapacity) {
+            throw new IllegalArgumentException("Expected 0 < initialCapacity <= maxRetainedCapacity, but was " + initialCapacity + " and " + maxRetainedCapacity);
+        }
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    public static BufferPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return an empty buffer, which is returned to the pool when it is closed
+     */
+    public PooledBuffer borrow() {
+        PooledBuffer buffer = cached.get();
+        if (buffer == null) {
+            misses.increment();
+            buffer = new PooledBuffer(this, initialCapacity);
+        } else {
+            hits.increment();
+            cached.set(null);
+        }
+        buffer.borrow();
+        return buffer;
+    }
+
+    // a buffer returned on another thread than it was borrowed on is kept by that thread instead
+    void release(PooledBuffer buffer) {
+        if (buffer.capacity() > maxRetainedCapacity) {
+            oversizeDiscards.increment();
+        } else if (cached.get() == null) {
+            cached.set(buffer);
+        }
+    }
+
+    /**
+     * @return the number of borrowed buffers that were reused
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of borrowed buffers that had to be allocated
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of returned buffers that were dropped for being larger than the maximum retained capacity
+     */
+    public long getOversizeDiscards() {
+        return oversizeDiscards.sum();
+    }
+
+    public void resetCounters() {
+        hits.reset();
+        misses.reset();
+        oversizeDiscards.reset();
+    }
+}
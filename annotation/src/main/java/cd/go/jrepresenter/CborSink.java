@@ -0,0 +1,356 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A {@link JsonSink} that writes <a href="https://tools.ietf.org/html/rfc7049">CBOR</a> instead of JSON text, for
+ * callers that do not need a text format. Objects and arrays are written with indefinite lengths, so nothing needs
+ * to be buffered to count members; numbers are written in binary and never formatted as text.
+ * <p>
+ * Numbers are written exactly: {@link BigInteger}s that do not fit in 64 bits as bignums (tags 2 and 3),
+ * {@link BigDecimal}s as decimal fractions (tag 4), and doubles as integers only if that keeps their value, so
+ * {@code -0.0} stays a float.
+ * <p>
+ * Output is buffered, and written to the stream each time a top level value is complete.
+ */
+public class CborSink implements JsonSink {
+    static final int MAJOR_UNSIGNED = 0;
+    static final int MAJOR_NEGATIVE = 1;
+    static final int MAJOR_BYTES = 2;
+    static final int MAJOR_TEXT = 3;
+    static final int MAJOR_ARRAY = 4;
+    static final int MAJOR_MAP = 5;
+    static final int MAJOR_TAG = 6;
+    static final int MAJOR_SIMPLE = 7;
+
+    static final int INDEFINITE_LENGTH = 31;
+    static final int FALSE = 0xf4;
+    static final int TRUE = 0xf5;
+    static final int NULL = 0xf6;
+    static final int UNDEFINED = 0xf7;
+    static final int HALF_FLOAT = 0xf9;
+    static final int SINGLE_FLOAT = 0xfa;
+    static final int DOUBLE_FLOAT = 0xfb;
+    static final int BREAK = 0xff;
+
+    static final int TAG_POSITIVE_BIGNUM = 2;
+    static final int TAG_NEGATIVE_BIGNUM = 3;
+    static final int TAG_DECIMAL_FRACTION = 4;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[8192];
+    private int count;
+    private int depth;
+
+    public CborSink(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void beginObject() {
+        depth++;
+        writeByte(MAJOR_MAP << 5 | INDEFINITE_LENGTH);
+    }
+
+    @Override
+    public void endObject() {
+        depth--;
+        writeByte(BREAK);
+        afterValue();
+    }
+
+    @Override
+    public void beginArray() {
+        depth++;
+        writeByte(MAJOR_ARRAY << 5 | INDEFINITE_LENGTH);
+    }
+
+    @Override
+    public void endArray() {
+        depth--;
+        writeByte(BREAK);
+        afterValue();
+    }
+
+    @Override
+    public void name(String name) {
+        writeText(name);
+    }
+
+    @Override
+    public void nullValue() {
+        writeByte(NULL);
+        afterValue();
+    }
+
+    @Override
+    public void value(String value) {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        writeText(value);
+        afterValue();
+    }
+
+    @Override
+    public void value(Number value) {
+        if (value == null) {
+            nullValue();
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            value(value.longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            value(value.doubleValue());
+        } else if (value instanceof BigInteger) {
+            writeInteger((BigInteger) value);
+            afterValue();
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            // [exponent, mantissa], for mantissa * 10^exponent
+            writeHeader(MAJOR_TAG, TAG_DECIMAL_FRACTION);
+            writeHeader(MAJOR_ARRAY, 2);
+            writeInteger(-(long) decimal.scale());
+            writeInteger(decimal.unscaledValue());
+            afterValue();
+        } else {
+            value(exactValueOf(value));
+        }
+    }
+
+    @Override
+    public void value(boolean value) {
+        writeByte(value ? TRUE : FALSE);
+        afterValue();
+    }
+
+    @Override
+    public void value(long value) {
+        writeInteger(value);
+        afterValue();
+    }
+
+    @Override
+    public void value(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON does not allow the numeric value " + value);
+        }
+        // (long) saturates, and 2^63 is the closest double to Long.MAX_VALUE
+        if ((long) value == value && value < 0x1p63 && !isNegativeZero(value)) {
+            value((long) value);
+            return;
+        }
+        float asFloat = (float) value;
+        if (asFloat == value) {
+            ensureCapacity(5);
+            buffer[count++] = (byte) SINGLE_FLOAT;
+            writeInt(Float.floatToIntBits(asFloat));
+        } else {
+            ensureCapacity(9);
+            buffer[count++] = (byte) DOUBLE_FLOAT;
+            writeLong(Double.doubleToLongBits(value));
+        }
+        afterValue();
+    }
+
+    @Override
+    public void flush() {
+        flushBuffer();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // any other Number, e.g. an AtomicLong, by the decimal number it prints as
+    private static BigDecimal exactValueOf(Number value) {
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cannot write a number of type " + value.getClass().getName() + " exactly, `" + value + "' is not a decimal number", e);
+        }
+    }
+
+    private static boolean isNegativeZero(double value) {
+        return value == 0 && Double.doubleToRawLongBits(value) != 0;
+    }
+
+    private void writeInteger(long value) {
+        if (value < 0) {
+            writeHeader(MAJOR_NEGATIVE, -1 - value);
+        } else {
+            writeHeader(MAJOR_UNSIGNED, value);
+        }
+    }
+
+    private void writeInteger(BigInteger value) {
+        if (value.bitLength() < Long.SIZE) {
+            writeInteger(value.longValue());
+            return;
+        }
+        // a negative bignum holds -1 - value, like a negative integer does, which is ~value
+        writeHeader(MAJOR_TAG, value.signum() < 0 ? TAG_NEGATIVE_BIGNUM : TAG_POSITIVE_BIGNUM);
+        byte[] bytes = (value.signum() < 0 ? value.not() : value).toByteArray();
+        // toByteArray() adds a leading zero byte when the top bit of the magnitude is set, to keep the sign
+        int offset = bytes[0] == 0 ? 1 : 0;
+        writeHeader(MAJOR_BYTES, bytes.length - offset);
+        while (offset < bytes.length) {
+            ensureCapacity(1);
+            int chunk = Math.min(bytes.length - offset, buffer.length - count);
+            System.arraycopy(bytes, offset, buffer, count, chunk);
+            count += chunk;
+            offset += chunk;
+        }
+    }
+
+    private void writeText(String value) {
+        int length = value.length();
+        int utf8Length = utf8Length(value);
+        writeHeader(MAJOR_TEXT, utf8Length);
+        if (utf8Length == length) {
+            writeAscii(value);
+        } else {
+            writeUtf8(value);
+        }
+    }
+
+    private void writeAscii(String value) {
+        int length = value.length();
+        int start = 0;
+        while (start < length) {
+            ensureCapacity(1);
+            int end = Math.min(length, start + buffer.length - count);
+            for (int i = start; i < end; i++) {
+                char c = value.charAt(i);
+                // an unpaired surrogate takes one byte too, and is the only kind of char >= 0x80 that can get here
+                buffer[count++] = c < 0x80 ? (byte) c : (byte) '?';
+            }
+            start = end;
+        }
+    }
+
+    private void writeUtf8(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            ensureCapacity(4);
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xc0 | c >> 6);
+                buffer[count++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[count++] = (byte) (0xf0 | codePoint >> 18);
+                buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                buffer[count++] = (byte) (0x80 | codePoint & 0x3f);
+            } else if (Character.isSurrogate(c)) {
+                buffer[count++] = '?';
+            } else {
+                buffer[count++] = (byte) (0xe0 | c >> 12);
+                buffer[count++] = (byte) (0x80 | c >> 6 & 0x3f);
+                buffer[count++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+    }
+
+    // the number of bytes writeUtf8 writes, unpaired surrogates are replaced by '?' like String.getBytes() does
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int utf8Length = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    utf8Length += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    utf8Length += 2;
+                }
+            } else if (c >= 0x80) {
+                utf8Length++;
+            }
+        }
+        return utf8Length;
+    }
+
+    private void writeHeader(int majorType, long argument) {
+        ensureCapacity(9);
+        int major = majorType << 5;
+        if (argument < 24) {
+            buffer[count++] = (byte) (major | argument);
+        } else if (argument < 0x100) {
+            buffer[count++] = (byte) (major | 24);
+            buffer[count++] = (byte) argument;
+        } else if (argument < 0x10000) {
+            buffer[count++] = (byte) (major | 25);
+            buffer[count++] = (byte) (argument >> 8);
+            buffer[count++] = (byte) argument;
+        } else if (argument < 0x100000000L) {
+            buffer[count++] = (byte) (major | 26);
+            writeInt((int) argument);
+        } else {
+            buffer[count++] = (byte) (major | 27);
+            writeLong(argument);
+        }
+    }
+
+    private void writeInt(int value) {
+        buffer[count++] = (byte) (value >> 24);
+        buffer[count++] = (byte) (value >> 16);
+        buffer[count++] = (byte) (value >> 8);
+        buffer[count++] = (byte) value;
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >> 32));
+        writeInt((int) value);
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[count++] = (byte) b;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (count + bytes > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void afterValue() {
+        if (depth == 0) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() {
+        try {
+            out.write(buffer, 0, count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,537 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static cd.go.jrepresenter.CborSink.*;
+
+/**
+ * A {@link JsonTokenSource} that reads <a href="https://tools.ietf.org/html/rfc7049">CBOR</a>, such as the output
+ * of a {@link CborSink}, so that generated mappers parse it the same way they parse JSON text. Both definite and
+ * indefinite length items are accepted, and all map keys must be text strings. Bignums (tags 2 and 3) and decimal
+ * fractions (tag 4) are read as numbers, and {@link #nextString()} returns their exact value; other tags are ignored.
+ * Byte strings have no JSON equivalent and are rejected.
+ */
+public class CborTokenSource implements JsonTokenSource {
+    private static final int NOT_A_CONTAINER = -2;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[8192];
+    private int pos;
+    private int limit;
+    private long bufferOffset;
+
+    private long[] remaining = new long[16];
+    private boolean[] isObject = new boolean[16];
+    private boolean[] expectingName = new boolean[16];
+    private int stackSize;
+    private boolean documentStarted;
+
+    private JsonToken peeked;
+    private String peekedText;
+    private boolean peekedBoolean;
+    private boolean peekedIntegral;
+    private long peekedLong;
+    private double peekedDouble;
+    // the exact value of a number that is not a long, if it was encoded as a bignum or decimal fraction
+    private BigDecimal peekedDecimal;
+    private long peekedLength = NOT_A_CONTAINER;
+
+    public CborTokenSource(InputStream in) {
+        this.in = in;
+    }
+
+    public CborTokenSource(byte[] cbor) {
+        this(new ByteArrayInputStream(cbor));
+    }
+
+    @Override
+    public JsonToken peek() {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    @Override
+    public void beginObject() {
+        expect(JsonToken.BEGIN_OBJECT);
+        push(true, peekedLength < 0 ? peekedLength : peekedLength * 2);
+    }
+
+    @Override
+    public void endObject() {
+        expect(JsonToken.END_OBJECT);
+        stackSize--;
+    }
+
+    @Override
+    public void beginArray() {
+        expect(JsonToken.BEGIN_ARRAY);
+        push(false, peekedLength);
+    }
+
+    @Override
+    public void endArray() {
+        expect(JsonToken.END_ARRAY);
+        stackSize--;
+    }
+
+    @Override
+    public boolean hasNext() {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() {
+        expect(JsonToken.NAME);
+        return peekedText;
+    }
+
+    @Override
+    public String nextString() {
+        JsonToken token = peek();
+        if (token == JsonToken.NUMBER) {
+            peeked = null;
+            if (peekedIntegral) {
+                return Long.toString(peekedLong);
+            }
+            return peekedDecimal != null ? peekedDecimal.toString() : Double.toString(peekedDouble);
+        }
+        expect(JsonToken.STRING);
+        return peekedText;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        expect(JsonToken.BOOLEAN);
+        return peekedBoolean;
+    }
+
+    @Override
+    public double nextDouble() {
+        expect(JsonToken.NUMBER);
+        return peekedIntegral ? peekedLong : peekedDouble;
+    }
+
+    @Override
+    public long nextLong() {
+        expect(JsonToken.NUMBER);
+        if (peekedIntegral) {
+            return peekedLong;
+        }
+        long asLong = (long) peekedDouble;
+        // (long) saturates, and 2^63 is the closest double to Long.MAX_VALUE
+        if (peekedDecimal != null || asLong != peekedDouble || peekedDouble >= 0x1p63) {
+            throw new JsonParseException("Expected a long but was " + (peekedDecimal != null ? peekedDecimal : peekedDouble) + location());
+        }
+        return asLong;
+    }
+
+    @Override
+    public void nextNull() {
+        expect(JsonToken.NULL);
+    }
+
+    @Override
+    public void skipValue() {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_DOCUMENT:
+                    throw new JsonParseException("Expected a value but reached the end of the document" + location());
+                default:
+                    peeked = null;
+            }
+        } while (depth > 0);
+    }
+
+    private void expect(JsonToken expected) {
+        if (peek() != expected) {
+            throw new JsonParseException("Expected " + expected + " but was " + peeked + location());
+        }
+        peeked = null;
+    }
+
+    private void push(boolean object, long length) {
+        if (stackSize == remaining.length) {
+            remaining = Arrays.copyOf(remaining, stackSize * 2);
+            isObject = Arrays.copyOf(isObject, stackSize * 2);
+            expectingName = Arrays.copyOf(expectingName, stackSize * 2);
+        }
+        remaining[stackSize] = length;
+        isObject[stackSize] = object;
+        expectingName[stackSize] = object;
+        stackSize++;
+    }
+
+    private JsonToken doPeek() {
+        if (stackSize == 0) {
+            if (!documentStarted) {
+                documentStarted = true;
+                return readValueToken();
+            }
+            if (peekByte() != -1) {
+                throw syntaxError("Expected the end of the document");
+            }
+            return JsonToken.END_DOCUMENT;
+        }
+        int top = stackSize - 1;
+        if (remaining[top] == 0) {
+            return endOf(top);
+        }
+        if (remaining[top] < 0 && peekByte() == BREAK) {
+            pos++;
+            return endOf(top);
+        }
+        if (remaining[top] > 0) {
+            remaining[top]--;
+        }
+        if (isObject[top]) {
+            expectingName[top] = !expectingName[top];
+            if (!expectingName[top]) {
+                int initialByte = readInitialByte();
+                if (initialByte >>> 5 != MAJOR_TEXT) {
+                    throw syntaxError("Expected a text string as name");
+                }
+                peekedText = readText(initialByte);
+                return JsonToken.NAME;
+            }
+        }
+        return readValueToken();
+    }
+
+    private JsonToken endOf(int top) {
+        if (isObject[top] && !expectingName[top]) {
+            throw syntaxError("Expected a value for name");
+        }
+        return isObject[top] ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+    }
+
+    private JsonToken readValueToken() {
+        peekedDecimal = null;
+        int initialByte = readRequiredByte();
+        while (initialByte >>> 5 == MAJOR_TAG) {
+            long tag = readArgument(initialByte & 0x1f);
+            if (tag == TAG_POSITIVE_BIGNUM || tag == TAG_NEGATIVE_BIGNUM) {
+                return readNumber(new BigDecimal(readBignum(tag)));
+            }
+            if (tag == TAG_DECIMAL_FRACTION) {
+                return readNumber(readDecimalFraction());
+            }
+            initialByte = readRequiredByte();
+        }
+        int additionalInfo = initialByte & 0x1f;
+        switch (initialByte >>> 5) {
+            case MAJOR_UNSIGNED:
+                return readInteger(readArgument(additionalInfo), false);
+            case MAJOR_NEGATIVE:
+                return readInteger(readArgument(additionalInfo), true);
+            case MAJOR_BYTES:
+                throw syntaxError("Byte strings are not supported");
+            case MAJOR_TEXT:
+                peekedText = readText(initialByte);
+                return JsonToken.STRING;
+            case MAJOR_ARRAY:
+                peekedLength = additionalInfo == INDEFINITE_LENGTH ? -1 : readLength(additionalInfo);
+                return JsonToken.BEGIN_ARRAY;
+            case MAJOR_MAP:
+                peekedLength = additionalInfo == INDEFINITE_LENGTH ? -1 : readLength(additionalInfo);
+                return JsonToken.BEGIN_OBJECT;
+            default:
+                return readSimpleValue(initialByte);
+        }
+    }
+
+    private JsonToken readInteger(long argument, boolean negative) {
+        if (argument < 0) {
+            // does not fit in a signed long
+            return readNumber(new BigDecimal(negative ? unsigned(argument).not() : unsigned(argument)));
+        }
+        peekedIntegral = true;
+        peekedLong = negative ? -1 - argument : argument;
+        return JsonToken.NUMBER;
+    }
+
+    // numbers that fit in a long are read as integers, anything else keeps its exact value for nextString()
+    private JsonToken readNumber(BigDecimal value) {
+        try {
+            peekedLong = value.longValueExact();
+            peekedIntegral = true;
+        } catch (ArithmeticException e) {
+            peekedIntegral = false;
+            peekedDecimal = value;
+            peekedDouble = value.doubleValue();
+        }
+        return JsonToken.NUMBER;
+    }
+
+    private BigInteger readBignum(long tag) {
+        int initialByte = readInitialByte();
+        if (initialByte >>> 5 != MAJOR_BYTES) {
+            throw syntaxError("Expected a byte string in a bignum");
+        }
+        BigInteger magnitude = new BigInteger(1, readBytes(initialByte));
+        // a negative bignum holds -1 - value, which is ~value
+        return tag == TAG_NEGATIVE_BIGNUM ? magnitude.not() : magnitude;
+    }
+
+    private BigDecimal readDecimalFraction() {
+        if (readInitialByte() != (MAJOR_ARRAY << 5 | 2)) {
+            throw syntaxError("Expected an array of exponent and mantissa in a decimal fraction");
+        }
+        BigInteger exponent = readIntegerItem();
+        BigInteger mantissa = readIntegerItem();
+        // the scale is the negated exponent, and must be an int
+        if (exponent.bitLength() >= Integer.SIZE - 1) {
+            throw syntaxError("Decimal fraction exponent " + exponent + " is too large");
+        }
+        return new BigDecimal(mantissa, -exponent.intValue());
+    }
+
+    private BigInteger readIntegerItem() {
+        int initialByte = readRequiredByte();
+        switch (initialByte >>> 5) {
+            case MAJOR_UNSIGNED:
+                return unsigned(readArgument(initialByte & 0x1f));
+            case MAJOR_NEGATIVE:
+                return unsigned(readArgument(initialByte & 0x1f)).not();
+            case MAJOR_TAG:
+                long tag = readArgument(initialByte & 0x1f);
+                if (tag == TAG_POSITIVE_BIGNUM || tag == TAG_NEGATIVE_BIGNUM) {
+                    return readBignum(tag);
+                }
+                break;
+        }
+        throw syntaxError("Expected an integer in a decimal fraction");
+    }
+
+    private static BigInteger unsigned(long argument) {
+        return argument >= 0 ? BigInteger.valueOf(argument) : new BigInteger(Long.toUnsignedString(argument));
+    }
+
+    private JsonToken readSimpleValue(int initialByte) {
+        peekedIntegral = false;
+        switch (initialByte) {
+            case FALSE:
+                peekedBoolean = false;
+                return JsonToken.BOOLEAN;
+            case TRUE:
+                peekedBoolean = true;
+                return JsonToken.BOOLEAN;
+            case NULL:
+            case UNDEFINED:
+                return JsonToken.NULL;
+            case HALF_FLOAT:
+                peekedDouble = halfToDouble((int) readArgument(25));
+                return JsonToken.NUMBER;
+            case SINGLE_FLOAT:
+                peekedDouble = Float.intBitsToFloat((int) readArgument(26));
+                return JsonToken.NUMBER;
+            case DOUBLE_FLOAT:
+                peekedDouble = Double.longBitsToDouble(readArgument(27));
+                return JsonToken.NUMBER;
+            case BREAK:
+                throw syntaxError("Unexpected break");
+            default:
+                throw syntaxError("Unsupported simple value " + (initialByte & 0x1f));
+        }
+    }
+
+    private static double halfToDouble(int half) {
+        int exponent = half >> 10 & 0x1f;
+        int mantissa = half & 0x3ff;
+        double value;
+        if (exponent == 0) {
+            value = Math.scalb((double) mantissa, -24);
+        } else if (exponent != 31) {
+            value = Math.scalb((double) (mantissa + 1024), exponent - 25);
+        } else {
+            value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+        }
+        return (half & 0x8000) == 0 ? value : -value;
+    }
+
+    private String readText(int initialByte) {
+        int additionalInfo = initialByte & 0x1f;
+        if (additionalInfo != INDEFINITE_LENGTH) {
+            return readUtf8(readLength(additionalInfo));
+        }
+        StringBuilder text = new StringBuilder();
+        int chunk;
+        while ((chunk = readRequiredByte()) != BREAK) {
+            if (chunk >>> 5 != MAJOR_TEXT || (chunk & 0x1f) == INDEFINITE_LENGTH) {
+                throw syntaxError("Expected a definite length text string chunk");
+            }
+            text.append(readUtf8(readLength(chunk & 0x1f)));
+        }
+        return text.toString();
+    }
+
+    private byte[] readBytes(int initialByte) {
+        int additionalInfo = initialByte & 0x1f;
+        if (additionalInfo != INDEFINITE_LENGTH) {
+            return readRaw(readLength(additionalInfo));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int chunk;
+        while ((chunk = readRequiredByte()) != BREAK) {
+            if (chunk >>> 5 != MAJOR_BYTES || (chunk & 0x1f) == INDEFINITE_LENGTH) {
+                throw syntaxError("Expected a definite length byte string chunk");
+            }
+            byte[] chunkBytes = readRaw(readLength(chunk & 0x1f));
+            bytes.write(chunkBytes, 0, chunkBytes.length);
+        }
+        return bytes.toByteArray();
+    }
+
+    private String readUtf8(int length) {
+        if (limit - pos >= length) {
+            String text = new String(buffer, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return text;
+        }
+        return new String(readRaw(length), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readRaw(int length) {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            if (pos == limit && !fill()) {
+                throw syntaxError("Unexpected end of the document");
+            }
+            int chunk = Math.min(length - copied, limit - pos);
+            System.arraycopy(buffer, pos, bytes, copied, chunk);
+            pos += chunk;
+            copied += chunk;
+        }
+        return bytes;
+    }
+
+    private int readLength(int additionalInfo) {
+        long length = readArgument(additionalInfo);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw syntaxError("Length " + Long.toUnsignedString(length) + " is too large");
+        }
+        return (int) length;
+    }
+
+    private long readArgument(int additionalInfo) {
+        if (additionalInfo < 24) {
+            return additionalInfo;
+        }
+        int bytes;
+        switch (additionalInfo) {
+            case 24:
+                bytes = 1;
+                break;
+            case 25:
+                bytes = 2;
+                break;
+            case 26:
+                bytes = 4;
+                break;
+            case 27:
+                bytes = 8;
+                break;
+            default:
+                throw syntaxError("Malformed argument " + additionalInfo);
+        }
+        long argument = 0;
+        for (int i = 0; i < bytes; i++) {
+            argument = argument << 8 | readRequiredByte();
+        }
+        return argument;
+    }
+
+    private int readInitialByte() {
+        int initialByte = readRequiredByte();
+        while (initialByte >>> 5 == MAJOR_TAG) {
+            readArgument(initialByte & 0x1f);
+            initialByte = readRequiredByte();
+        }
+        return initialByte;
+    }
+
+    private int readRequiredByte() {
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unexpected end of the document");
+        }
+        return buffer[pos++] & 0xff;
+    }
+
+    private int peekByte() {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos] & 0xff;
+    }
+
+    private boolean fill() {
+        bufferOffset += pos;
+        pos = 0;
+        limit = 0;
+        try {
+            int read;
+            do {
+                read = in.read(buffer, 0, buffer.length);
+            } while (read == 0);
+            if (read < 0) {
+                return false;
+            }
+            limit = read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JsonParseException syntaxError(String message) {
+        return new JsonParseException(message + location());
+    }
+
+    private String location() {
+        return " at byte " + (bufferOffset + pos);
+    }
+}
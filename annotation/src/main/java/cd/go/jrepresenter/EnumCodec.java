@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.Arrays;
+
+/**
+ * Renders and parses the constants of an enum by name. Generated mappers use one for enum properties that have no
+ * serializer and deserializer of their own.
+ * <p>
+ * The names are looked up in an open addressing table built once per enum, so parsing a name neither allocates nor
+ * throws and catches an exception the way {@link Enum#valueOf} does for unknown names. Parsing can optionally ignore
+ * case, with the same rules as {@link String#equalsIgnoreCase}.
+ */
+public final class EnumCodec<E extends Enum<E>> {
+    private final Class<E> type;
+    private final E[] constants;
+    private final String[] names;
+    private final boolean ignoreCase;
+    private final int[] table;
+    private final int mask;
+
+    public EnumCodec(Class<E> type) {
+        this(type, false);
+    }
+
+    public EnumCodec(Class<E> type, boolean ignoreCase) {
+        this.type = type;
+        this.constants = type.getEnumConstants();
+        this.names = new String[constants.length];
+        this.ignoreCase = ignoreCase;
+        this.table = new int[Integer.highestOneBit(Math.max(1, constants.length) * 2) * 2];
+        this.mask = table.length - 1;
+        for (E constant : constants) {
+            String name = constant.name();
+            names[constant.ordinal()] = name;
+            if (ignoreCase && find(name) != null) {
+                throw new IllegalArgumentException("The constants of " + type.getName() + " are not unique ignoring case");
+            }
+            int slot = hash(name) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = constant.ordinal() + 1;
+        }
+    }
+
+    public String name(E value) {
+        return value == null ? null : names[value.ordinal()];
+    }
+
+    /**
+     * @return the constant with the given name, or {@code null} if there is none
+     */
+    public E find(String name) {
+        for (int slot = hash(name) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            E constant = constants[table[slot] - 1];
+            String candidate = names[constant.ordinal()];
+            if (ignoreCase ? candidate.equalsIgnoreCase(name) : candidate.equals(name)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @throws JsonParseException if there is no constant with the given name
+     */
+    public E parse(String propertyName, String name) {
+        if (name == null) {
+            return null;
+        }
+        E constant = find(name);
+        if (constant == null) {
+            throw JsonParseException.lazilyFormatted("Could not property attribute `%s': Expected one of %s, but was `%s'.", propertyName, Arrays.asList(names), name);
+        }
+        return constant;
+    }
+
+    private int hash(String name) {
+        if (!ignoreCase) {
+            int hash = name.hashCode();
+            return hash ^ (hash >>> 16);
+        }
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "EnumCodec{" + type.getName() + (ignoreCase ? ", ignoring case" : "") + "}";
+    }
+}
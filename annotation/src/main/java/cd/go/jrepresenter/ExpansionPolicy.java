@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Decides which embedded relations (properties declared with {@code embedded = true} and a representer) are expanded
+ * by running their representer. A relation that is not expanded is collapsed to its {@code _links} if its
+ * representer has a links provider, and is omitted otherwise.
+ * <p>
+ * A policy either expands every relation up to a depth, or only the relations on a set of dotted paths such as
+ * {@code pipelines.stages}, optionally also limited in depth. Policies are immutable and reusable across requests.
+ * Policies that expand the same relations are equal, however they were built, so that a policy built per request
+ * still finds what was rendered with an equal one in the {@link RenderCache}.
+ */
+public final class ExpansionPolicy {
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    public static final ExpansionPolicy ALL = new ExpansionPolicy(UNLIMITED);
+    public static final ExpansionPolicy NONE = new ExpansionPolicy(0);
+
+    private final int depth;
+    // null when every relation is expanded
+    private final Map<String, ExpansionPolicy> relations;
+    private final ExpansionPolicy child;
+    private final int hashCode;
+
+    private ExpansionPolicy(int depth) {
+        this.depth = depth;
+        this.relations = null;
+        this.child = depth == UNLIMITED || depth == 0 ? this : depth == 1 ? NONE : new ExpansionPolicy(depth - 1);
+        this.hashCode = depth;
+    }
+
+    private ExpansionPolicy(int depth, Map<String, ExpansionPolicy> relations) {
+        this.depth = depth;
+        this.relations = relations;
+        this.child = NONE;
+        this.hashCode = 31 * depth + relations.hashCode();
+    }
+
+    /**
+     * @param depth the number of levels of embedded relations to expand, {@code 0} expands none
+     */
+    public static ExpansionPolicy depth(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Expansion depth must not be negative, but was " + depth);
+        }
+        return depth == 0 ? NONE : new ExpansionPolicy(depth);
+    }
+
+    /**
+     * @param paths the relations to expand, by their JSON names, nested relations separated by {@code .}
+     */
+    public static ExpansionPolicy relations(String... paths) {
+        RelationTree tree = new RelationTree();
+        for (String path : paths) {
+            RelationTree node = tree;
+            for (String relation : path.split("\\.")) {
+                if (relation.trim().isEmpty()) {
+                    throw new IllegalArgumentException("Invalid relation path `" + path + "'");
+                }
+                node = node.nested.computeIfAbsent(relation.trim(), key -> new RelationTree());
+            }
+        }
+        return fromTree(tree, UNLIMITED);
+    }
+
+    /**
+     * @return this policy, but not expanding relations deeper than {@code maxDepth}
+     */
+    public ExpansionPolicy limitDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Expansion depth must not be negative, but was " + maxDepth);
+        }
+        if (maxDepth >= depth) {
+            return this;
+        }
+        if (relations == null) {
+            return depth(maxDepth);
+        }
+        if (maxDepth == 0) {
+            return NONE;
+        }
+        Map<String, ExpansionPolicy> limited = new HashMap<>();
+        relations.forEach((relation, nested) -> limited.put(relation, nested.limitDepth(maxDepth - 1)));
+        return new ExpansionPolicy(maxDepth, Collections.unmodifiableMap(limited));
+    }
+
+    public boolean expands(String relation) {
+        return depth > 0 && (relations == null || relations.containsKey(relation));
+    }
+
+    /**
+     * @return the policy for the embedded relations of {@code relation}
+     */
+    public ExpansionPolicy nested(String relation) {
+        if (relations == null) {
+            return child;
+        }
+        return relations.getOrDefault(relation, NONE);
+    }
+
+    // child is derived from depth, and the policies of nested relations compare the same way
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ExpansionPolicy that = (ExpansionPolicy) o;
+        return depth == that.depth &&
+                hashCode == that.hashCode &&
+                Objects.equals(relations, that.relations);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    private static ExpansionPolicy fromTree(RelationTree tree, int depth) {
+        if (tree.nested.isEmpty()) {
+            return NONE;
+        }
+        Map<String, ExpansionPolicy> relations = new HashMap<>();
+        tree.nested.forEach((relation, subTree) -> relations.put(relation, fromTree(subTree, depth)));
+        return new ExpansionPolicy(depth, Collections.unmodifiableMap(relations));
+    }
+
+    // the relation paths given to relations(...), merged by their common prefixes
+    private static class RelationTree {
+        private final Map<String, RelationTree> nested = new HashMap<>();
+    }
+}
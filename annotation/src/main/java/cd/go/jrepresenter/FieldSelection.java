@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compiled, nested selection of the JSON properties to render, such as {@code name,_links,stages(name,state)}.
+ * <p>
+ * Properties are selected by their JSON names. If any property is listed, only the listed properties are rendered,
+ * otherwise all of them are. A property prefixed with {@code -} is never rendered. A list in parentheses selects
+ * the properties of a nested representer, which is otherwise rendered in full.
+ * <p>
+ * Selections are immutable, so parse one per distinct request parameter and reuse it across requests and threads.
+ */
+public final class FieldSelection {
+    public static final FieldSelection ALL = new FieldSelection(Collections.emptyMap(), Collections.emptySet());
+
+    // selections usually come from a request parameter, so bound the recursion of the parser
+    static final int MAX_NESTING = 32;
+
+    private final Map<String, FieldSelection> included;
+    private final Set<String> excluded;
+
+    private FieldSelection(Map<String, FieldSelection> included, Set<String> excluded) {
+        this.included = included;
+        this.excluded = excluded;
+    }
+
+    public static FieldSelection parse(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            return ALL;
+        }
+        Parser parser = new Parser(expression);
+        FieldSelection selection = parser.selection();
+        if (parser.position != expression.length()) {
+            throw parser.error("Unexpected `" + expression.charAt(parser.position) + "'");
+        }
+        return selection;
+    }
+
+    public boolean isAll() {
+        return included.isEmpty() && excluded.isEmpty();
+    }
+
+    public boolean includes(String name) {
+        if (excluded.contains(name)) {
+            return false;
+        }
+        return included.isEmpty() || included.containsKey(name);
+    }
+
+    /**
+     * @return the selection for the properties of the nested representer rendered as {@code name}
+     */
+    public FieldSelection nested(String name) {
+        return included.getOrDefault(name, ALL);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        included.forEach((name, nested) -> {
+            builder.append(builder.length() == 0 ? "" : ",").append(name);
+            if (!nested.isAll()) {
+                builder.append('(').append(nested).append(')');
+            }
+        });
+        excluded.forEach(name -> builder.append(builder.length() == 0 ? "" : ",").append('-').append(name));
+        return builder.toString();
+    }
+
+    private static class Parser {
+        private final String expression;
+        private int position;
+        private int nesting;
+
+        Parser(String expression) {
+            this.expression = expression;
+        }
+
+        FieldSelection selection() {
+            Map<String, FieldSelection> included = new HashMap<>();
+            Set<String> excluded = new HashSet<>();
+            do {
+                skipWhitespace();
+                boolean exclude = consume('-');
+                String name = name();
+                if (exclude) {
+                    excluded.add(name);
+                } else if (consume('(')) {
+                    if (++nesting > MAX_NESTING) {
+                        throw error("Nested more than " + MAX_NESTING + " levels deep");
+                    }
+                    included.put(name, selection());
+                    if (!consume(')')) {
+                        throw error("Expected `)'");
+                    }
+                    nesting--;
+                } else {
+                    included.putIfAbsent(name, ALL);
+                }
+                skipWhitespace();
+            } while (consume(','));
+
+            if (included.isEmpty() && excluded.isEmpty()) {
+                return ALL;
+            }
+            return new FieldSelection(included, excluded);
+        }
+
+        private String name() {
+            int start = position;
+            while (position < expression.length() && "(),".indexOf(expression.charAt(position)) < 0) {
+                position++;
+            }
+            String name = expression.substring(start, position).trim();
+            if (name.isEmpty()) {
+                throw error("Expected a property name");
+            }
+            return name;
+        }
+
+        private boolean consume(char c) {
+            skipWhitespace();
+            if (position < expression.length() && expression.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position + " of field selection `" + expression + "'");
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Stable 64-bit hashes of the values that generated mappers render, for the {@code fingerprint} methods that let a
+ * conditional GET be answered without rendering the response. A fingerprint only depends on the values themselves,
+ * never on identity hash codes, so it is the same across JVMs and restarts.
+ */
+public final class Fingerprint {
+    public static final long SEED = 0x6a09e667f3bcc908L;
+    public static final long NULL = 0x3c6ef372fe94f82bL;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final long STRING_TAG = 0x1L;
+    private static final long NUMBER_TAG = 0x2L;
+    private static final long BOOLEAN_TAG = 0x3L;
+    private static final long OBJECT_TAG = 0x4L;
+    private static final long ARRAY_TAG = 0x5L;
+
+    private Fingerprint() {
+    }
+
+    /**
+     * The hash of a string. Generated mappers call this at compile time for property names.
+     */
+    public static long of(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return finish(hash ^ STRING_TAG);
+    }
+
+    public static long of(char value) {
+        return finish((FNV_OFFSET_BASIS ^ value) * FNV_PRIME ^ STRING_TAG);
+    }
+
+    public static long of(long value) {
+        return finish(value ^ NUMBER_TAG);
+    }
+
+    public static long of(double value) {
+        if (value == (long) value) {
+            return of((long) value);
+        }
+        return finish(Double.doubleToLongBits(value) ^ NUMBER_TAG);
+    }
+
+    public static long of(boolean value) {
+        return finish(BOOLEAN_TAG + (value ? 1 : 0));
+    }
+
+    /**
+     * The hash of a value as it would be rendered: strings, numbers, booleans, enums, maps, iterables and arrays
+     * are hashed by their content; anything else by its {@code toString()}.
+     */
+    public static long of(Object value) {
+        if (value == null) {
+            return NULL;
+        } else if (value instanceof String) {
+            return of((String) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return of(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            return of(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return finish(of(value.toString()) ^ NUMBER_TAG);
+        } else if (value instanceof Boolean) {
+            return of(((Boolean) value).booleanValue());
+        } else if (value instanceof Character) {
+            return of(value.toString());
+        } else if (value instanceof Enum) {
+            return of(((Enum<?>) value).name());
+        } else if (value instanceof Map) {
+            long hash = OBJECT_TAG;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                hash = mix(mix(hash, of(String.valueOf(entry.getKey()))), of(entry.getValue()));
+            }
+            return hash;
+        } else if (value instanceof Iterable) {
+            long hash = ARRAY_TAG;
+            for (Object element : (Iterable<?>) value) {
+                hash = mix(hash, of(element));
+            }
+            return hash;
+        } else if (value instanceof Object[]) {
+            long hash = ARRAY_TAG;
+            for (Object element : (Object[]) value) {
+                hash = mix(hash, of(element));
+            }
+            return hash;
+        } else {
+            return of(value.toString());
+        }
+    }
+
+    /**
+     * Combines a fingerprint with the hash of the next value, or with the fingerprint of a nested representation.
+     * The result depends on the order in which hashes are mixed in.
+     */
+    public static long mix(long fingerprint, long hash) {
+        return finish(fingerprint * FNV_PRIME ^ hash);
+    }
+
+    /**
+     * @return the fingerprint as a quoted entity tag, for an {@code ETag} header
+     */
+    public static String toETag(long fingerprint) {
+        return "\"" + Long.toHexString(fingerprint) + "\"";
+    }
+
+    // the SplitMix64 finalizer, so that every input bit affects every output bit
+    private static long finish(long hash) {
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the elements of a JSON array from a {@link JsonTokenSource} one at a time, as they are asked for, so that an
+ * array far larger than the heap can be processed element by element. A {@code null} array has no elements.
+ * <p>
+ * Reading an element consumes it from the source, so the iterator can only be traversed once, and errors in an
+ * element are only thrown when that element is reached.
+ */
+public class JsonArrayIterator<T> implements Iterator<T> {
+    private final JsonTokenSource source;
+    private final Function<JsonTokenSource, T> elementReader;
+    private boolean started;
+    private boolean finished;
+
+    public JsonArrayIterator(JsonTokenSource source, Function<JsonTokenSource, T> elementReader) {
+        this.source = source;
+        this.elementReader = elementReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (finished) {
+            return false;
+        }
+        if (!started) {
+            started = true;
+            if (source.peek() == JsonToken.NULL) {
+                source.nextNull();
+                finished = true;
+                return false;
+            }
+            source.beginArray();
+        }
+        if (source.hasNext()) {
+            return true;
+        }
+        source.endArray();
+        finished = true;
+        return false;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return elementReader.apply(source);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false);
+    }
+}
@@ -17,6 +17,10 @@
 package cd.go.jrepresenter;
 
 public class JsonParseException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private String format;
+    private Object[] formatArgs;
 
     public JsonParseException() {
     }
@@ -37,7 +41,44 @@ public class JsonParseException extends RuntimeException {
         super(message, cause, enableSuppression, writableStackTrace);
     }
 
-    public static void throwBadJsonType(String propertyName, Class expected, Object actualValue) {
-        throw new JsonParseException(String.format("Could not property attribute `%s': Expected type `%s', but was `%s'.", propertyName, expected, actualValue.getClass()));
+    // malformed input is common enough that filling in stack traces and formatting messages up front shows up in profiles
+    private JsonParseException(String format, Object[] formatArgs, Throwable cause) {
+        super(null, cause, false, false);
+        this.format = format;
+        this.formatArgs = formatArgs;
+    }
+
+    /**
+     * Creates an exception without a stack trace, whose message is only formatted if it is asked for.
+     */
+    public static JsonParseException lazilyFormatted(String format, Object... args) {
+        return new JsonParseException(format, args, null);
+    }
+
+    /**
+     * Like {@link #lazilyFormatted(String, Object...)}, for an exception caused by {@code cause}.
+     */
+    public static JsonParseException lazilyFormatted(Throwable cause, String format, Object... args) {
+        return new JsonParseException(format, args, cause);
+    }
+
+    @Override
+    public String getMessage() {
+        if (format == null) {
+            return super.getMessage();
+        }
+        return String.format(format, formatArgs);
+    }
+
+    public static void throwBadJsonType(String propertyName, Class<?> expected, Object actualValue) {
+        throw badJsonType(propertyName, expected, actualValue);
+    }
+
+    public static JsonParseException badJsonType(String propertyName, Class<?> expected, Object actualValue) {
+        return lazilyFormatted("Could not property attribute `%s': Expected type `%s', but was `%s'.", propertyName, expected, actualValue == null ? null : actualValue.getClass());
+    }
+
+    public static JsonParseException outOfRange(String propertyName, Class<?> expected, Object actualValue) {
+        return lazilyFormatted("Could not property attribute `%s': Value `%s' is out of range for type `%s'.", propertyName, actualValue, expected);
     }
 }
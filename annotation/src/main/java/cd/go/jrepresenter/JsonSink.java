@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.Map;
+
+/**
+ * A streaming JSON writer that generated mappers render into directly, without building intermediate maps.
+ * Implementations are responsible for separators between members and elements.
+ */
+public interface JsonSink {
+
+    void beginObject();
+
+    void endObject();
+
+    void beginArray();
+
+    void endArray();
+
+    void name(String name);
+
+    /**
+     * Writes a name together with its encoded form from {@link Utf8JsonSink#encodeName}, which generated mappers
+     * prepare once for each of their keys. Sinks that do not write UTF-8 JSON just write the name.
+     */
+    default void name(String name, byte[] encodedName) {
+        name(name);
+    }
+
+    void nullValue();
+
+    void value(String value);
+
+    void value(Number value);
+
+    void value(boolean value);
+
+    void value(long value);
+
+    void value(double value);
+
+    /**
+     * Pushes everything written so far through to the underlying output, so that a client receives the start of a
+     * long document while the rest of it is still being rendered. Does nothing by default.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Writes a value whose type is only known at runtime, such as the output of a serializer or a nested
+     * {@link Map}/{@link Iterable} produced by a custom function.
+     */
+    default void value(Object value) {
+        if (value == null) {
+            nullValue();
+        } else if (value instanceof String) {
+            value((String) value);
+        } else if (value instanceof Number) {
+            value((Number) value);
+        } else if (value instanceof Boolean) {
+            value(((Boolean) value).booleanValue());
+        } else if (value instanceof Character) {
+            value(value.toString());
+        } else if (value instanceof Enum) {
+            value(((Enum<?>) value).name());
+        } else if (value instanceof Map) {
+            beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                name(String.valueOf(entry.getKey()));
+                value(entry.getValue());
+            }
+            endObject();
+        } else if (value instanceof Iterable) {
+            beginArray();
+            for (Object element : (Iterable<?>) value) {
+                value(element);
+            }
+            endArray();
+        } else if (value instanceof Object[]) {
+            beginArray();
+            for (Object element : (Object[]) value) {
+                value(element);
+            }
+            endArray();
+        } else {
+            throw new IllegalArgumentException("Cannot write a value of type " + value.getClass().getName() + " as JSON");
+        }
+    }
+}
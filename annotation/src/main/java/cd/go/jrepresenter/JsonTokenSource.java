@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pull parser that generated mappers read from field by field, without materializing the whole document.
+ * Every method that consumes a token throws a {@link JsonParseException} if the next token is of a different type.
+ */
+public interface JsonTokenSource {
+
+    JsonToken peek();
+
+    void beginObject();
+
+    void endObject();
+
+    void beginArray();
+
+    void endArray();
+
+    boolean hasNext();
+
+    String nextName();
+
+    String nextString();
+
+    boolean nextBoolean();
+
+    double nextDouble();
+
+    long nextLong();
+
+    void nextNull();
+
+    void skipValue();
+
+    /**
+     * Reads the next value into the same shape Gson produces when parsing into a {@link Map}: objects become
+     * {@link LinkedHashMap}s, arrays become {@link ArrayList}s and all numbers become {@link Double}s.
+     */
+    default Object readValue() {
+        switch (peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> object = new LinkedHashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    object.put(name, readValue());
+                }
+                endObject();
+                return object;
+            case BEGIN_ARRAY:
+                List<Object> array = new ArrayList<>();
+                beginArray();
+                while (hasNext()) {
+                    array.add(readValue());
+                }
+                endArray();
+                return array;
+            case STRING:
+                return nextString();
+            case NUMBER:
+                return nextDouble();
+            case BOOLEAN:
+                return nextBoolean();
+            case NULL:
+                nextNull();
+                return null;
+            default:
+                throw new JsonParseException("Expected a value but was " + peek());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.*;
+
+/**
+ * A read-only {@link Map} view of a model that renders each attribute the first time it is read, and then
+ * remembers it. {@link #get(Object)} and {@link #containsKey(Object)} render a single attribute, while
+ * {@link #size()}, iteration, {@code equals} and {@code hashCode} render all of them.
+ * <p>
+ * Views are not thread-safe. They read the model when an attribute is first accessed, not when the view is
+ * created.
+ */
+public class JsonView<T> extends AbstractMap<String, Object> {
+    /**
+     * Returned by a {@link Renderer} for attributes that are not rendered, for e.g. because of a {@code skipRender}.
+     */
+    public static final Object ABSENT = new Object();
+    private static final Object NOT_RENDERED = new Object();
+
+    @FunctionalInterface
+    public interface Renderer<T> {
+        Object render(int index, T value, RequestContext requestContext);
+    }
+
+    private final SharedKeyMap.Keys keys;
+    private final Renderer<T> renderer;
+    private final T value;
+    private final RequestContext requestContext;
+    private final Object[] values;
+    private Set<Entry<String, Object>> entrySet;
+
+    public JsonView(SharedKeyMap.Keys keys, Renderer<T> renderer, T value, RequestContext requestContext) {
+        this.keys = keys;
+        this.renderer = renderer;
+        this.value = value;
+        this.requestContext = requestContext;
+        this.values = new Object[keys.size()];
+        Arrays.fill(values, NOT_RENDERED);
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = keys.indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        Object rendered = valueAt(index);
+        return rendered == ABSENT ? null : rendered;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int index = keys.indexOf(key);
+        return index >= 0 && valueAt(index) != ABSENT;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (valueAt(i) != ABSENT) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return JsonView.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private Object valueAt(int index) {
+        Object rendered = values[index];
+        if (rendered == NOT_RENDERED) {
+            rendered = renderer.render(index, value, requestContext);
+            values[index] = rendered;
+        }
+        return rendered;
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int next = advance(0);
+
+        private int advance(int from) {
+            while (from < values.length && valueAt(from) == ABSENT) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Object> entry = new SimpleImmutableEntry<>(keys.name(next), values[next]);
+            next = advance(next + 1);
+            return entry;
+        }
+    }
+}
@@ -16,10 +16,14 @@
 
 package cd.go.jrepresenter;
 
+import java.util.Collections;
+import java.util.Map;
+
 public class Link {
 
     private String name;
     private String href;
+    private Map<String, Object> json;
 
     public Link(String name, String href) {
         this.name = name;
@@ -33,4 +37,14 @@ public class Link {
     public String getHref() {
         return href;
     }
+
+    /**
+     * @return the {@code {"href": ...}} object this link renders as, created once per link.
+     */
+    public Map<String, Object> toJSON() {
+        if (json == null) {
+            json = Collections.singletonMap("href", href);
+        }
+        return json;
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A link path such as {@code "/go/api/pipelines/%s/history/%s"}, split once into its literal text and placeholders so
+ * that {@link RequestContext#build(String, LinkTemplate, Object...)} can expand it without parsing it again. Compile
+ * templates into constants; a compiled template is immutable and can be shared between threads.
+ * <p>
+ * Only {@code %s} and {@code %d} placeholders, which both render {@link String#valueOf(Object)} of their argument,
+ * and the {@code %%} escape are supported.
+ */
+public final class LinkTemplate {
+    private static final int ESTIMATED_ARGUMENT_LENGTH = 16;
+
+    private final String template;
+    private final String[] literals;
+    private final int literalsLength;
+
+    private LinkTemplate(String template, String[] literals) {
+        this.template = template;
+        this.literals = literals;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+
+    public static LinkTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (i + 1 == template.length()) {
+                throw new IllegalArgumentException("Incomplete placeholder at the end of link template " + template);
+            }
+            char conversion = template.charAt(++i);
+            if (conversion == '%') {
+                literal.append('%');
+            } else if (conversion == 's' || conversion == 'd') {
+                literals.add(literal.toString());
+                literal.setLength(0);
+            } else {
+                throw new IllegalArgumentException("Unsupported placeholder %" + conversion + " in link template " + template);
+            }
+        }
+        literals.add(literal.toString());
+        return new LinkTemplate(template, literals.toArray(new String[0]));
+    }
+
+    public int getPlaceholderCount() {
+        return literals.length - 1;
+    }
+
+    String expand(String prefix, Object... args) {
+        if (args.length != getPlaceholderCount()) {
+            throw new IllegalArgumentException("Link template " + template + " expects " + getPlaceholderCount() + " arguments, but got " + args.length);
+        }
+        StringBuilder result = new StringBuilder(prefix.length() + literalsLength + args.length * ESTIMATED_ARGUMENT_LENGTH);
+        result.append(prefix).append(literals[0]);
+        for (int i = 0; i < args.length; i++) {
+            result.append(args[i]).append(literals[i + 1]);
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
@@ -22,15 +22,73 @@ import java.util.List;
 import java.util.Map;
 
 public class LinksMapper {
+    private static final byte[] LINKS_NAME = Utf8JsonSink.encodeName("_links");
+    private static final byte[] HREF_NAME = Utf8JsonSink.encodeName("href");
+
     public static <T> Map<String, Object> toJSON(LinksProvider<T> linksProvider, T model, RequestContext requestContext) {
-        List<Link> links = linksProvider.getLinks(model, requestContext);
-        if (links.isEmpty()) {
+        Map<String, Object> linksMap = linksToJSON(linksProvider, model, requestContext);
+        if (linksMap == null) {
             return Collections.emptyMap();
         } else {
-            Map<String, Object> linksMap = new LinkedHashMap<>();
-            links.forEach(link -> linksMap.put(link.getName(), Collections.singletonMap("href", link.getHref())));
             return Collections.singletonMap("_links", linksMap);
         }
 
     }
+
+    /**
+     * Puts the {@code _links} attribute into an object that is being rendered, unless there are no links.
+     */
+    public static <T> void putLinks(Map<String, Object> json, LinksProvider<T> linksProvider, T model, RequestContext requestContext) {
+        Map<String, Object> linksMap = linksToJSON(linksProvider, model, requestContext);
+        if (linksMap != null) {
+            json.put("_links", linksMap);
+        }
+    }
+
+    /**
+     * Renders just the value of the {@code _links} attribute, or {@code null} if there are no links.
+     */
+    public static <T> Map<String, Object> linksToJSON(LinksProvider<T> linksProvider, T model, RequestContext requestContext) {
+        List<Link> links = linksProvider.getLinks(model, requestContext);
+        if (links.isEmpty()) {
+            return null;
+        }
+        if (LinksView.hasUniqueNames(links)) {
+            return new LinksView(links);
+        }
+        Map<String, Object> linksMap = new LinkedHashMap<>();
+        for (Link link : links) {
+            linksMap.put(link.getName(), link.toJSON());
+        }
+        return linksMap;
+    }
+
+    public static <T> void toJSON(LinksProvider<T> linksProvider, T model, RequestContext requestContext, JsonSink jsonSink) {
+        writeLinks(linksProvider.getLinks(model, requestContext), jsonSink);
+    }
+
+    /**
+     * Writes the links of a subclass in place of the links of its parent representer, or the links of the parent if
+     * the subclass has none, which is what putting both into the rendered map one after the other ends up with.
+     */
+    public static <T, S extends T> void toJSON(LinksProvider<T> linksProvider, LinksProvider<S> subClassLinksProvider, S model, RequestContext requestContext, JsonSink jsonSink) {
+        List<Link> links = subClassLinksProvider.getLinks(model, requestContext);
+        writeLinks(links.isEmpty() ? linksProvider.getLinks(model, requestContext) : links, jsonSink);
+    }
+
+    private static void writeLinks(List<Link> links, JsonSink jsonSink) {
+        if (links.isEmpty()) {
+            return;
+        }
+        jsonSink.name("_links", LINKS_NAME);
+        jsonSink.beginObject();
+        for (Link link : links) {
+            jsonSink.name(link.getName());
+            jsonSink.beginObject();
+            jsonSink.name("href", HREF_NAME);
+            jsonSink.value(link.getHref());
+            jsonSink.endObject();
+        }
+        jsonSink.endObject();
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The {@code _links} object of a model, read straight from the list of links its {@link LinksProvider} returned
+ * instead of being copied into a new map.
+ */
+class LinksView extends AbstractMap<String, Object> {
+    private final List<Link> links;
+
+    LinksView(List<Link> links) {
+        this.links = links;
+    }
+
+    static boolean hasUniqueNames(List<Link> links) {
+        for (int i = 1; i < links.size(); i++) {
+            String name = links.get(i).getName();
+            for (int j = 0; j < i; j++) {
+                if (Objects.equals(links.get(j).getName(), name)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return links.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Link link = find(key);
+        return link == null ? null : link.toJSON();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<Entry<String, Object>>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < links.size();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Link link = links.get(next++);
+                        return new SimpleImmutableEntry<>(link.getName(), link.toJSON());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return links.size();
+            }
+        };
+    }
+
+    private Link find(Object name) {
+        for (Link link : links) {
+            if (Objects.equals(link.getName(), name)) {
+                return link;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,578 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A push parser for UTF-8 JSON that is fed the bytes of a document as they arrive, such as the {@link ByteBuffer}s
+ * read from a non-blocking channel, and keeps its state between them, so a request does not need to be buffered
+ * before it is parsed. Syntax errors are thrown as soon as the offending byte is fed.
+ * <p>
+ * The bytes are tokenized as they are fed, and the tokens are handed to a generated {@code fromJSON(JsonTokenSource)}
+ * once a value is complete. {@link #forDocument()} collects the tokens of one document, read them from
+ * {@link #tokens()} when {@link #feed} returns {@code true}. {@link #forArrayElements} hands over each element of a
+ * top level array as soon as its last byte is fed, and forgets it afterwards, so that only one element is held in
+ * memory at a time.
+ * <p>
+ * The generated mappers pull their tokens, so they cannot be driven while the bytes are still arriving. This means
+ * that {@link #forDocument()} holds every token of the document until it is complete, and needs memory in proportion
+ * to the size of the document, much like buffering the request would. It only saves a thread from blocking on a slow
+ * client. Large requests should be sent as a top level array and parsed with {@link #forArrayElements}.
+ * <p>
+ * Not thread safe, use one instance per request, and do not feed it again after it has thrown.
+ */
+public class NonBlockingJsonParser {
+    // what the parser expects next at each level of nesting
+    private static final int DOCUMENT_START = 0;
+    private static final int DOCUMENT_END = 1;
+    private static final int ARRAY_START = 2;
+    private static final int ARRAY_VALUE = 3;
+    private static final int ARRAY_AFTER_VALUE = 4;
+    private static final int OBJECT_START = 5;
+    private static final int OBJECT_NAME = 6;
+    private static final int OBJECT_COLON = 7;
+    private static final int OBJECT_VALUE = 8;
+    private static final int OBJECT_AFTER_VALUE = 9;
+
+    // what the byte being fed is part of
+    private static final int IN_STRUCTURE = 0;
+    private static final int IN_STRING = 1;
+    private static final int IN_LITERAL = 2;
+
+    private static final int NO_ESCAPE = 0;
+    private static final int AFTER_BACKSLASH = 1;
+    private static final int UNICODE_ESCAPE = 2;
+
+    private final Consumer<JsonTokenSource> elementHandler;
+
+    private int[] stack = new int[16];
+    private int stackSize = 1;
+    private boolean complete;
+
+    private int mode = IN_STRUCTURE;
+    private boolean inName;
+    private final StringBuilder text = new StringBuilder();
+    private int escape = NO_ESCAPE;
+    private int unicodeValue;
+    private int utf8Remaining;
+    private int utf8Minimum;
+    private int codePoint;
+    private long position;
+    private byte[] scratch;
+
+    private final TokenQueue tokens = new TokenQueue();
+
+    private NonBlockingJsonParser(Consumer<JsonTokenSource> elementHandler) {
+        this.elementHandler = elementHandler;
+        this.stack[0] = DOCUMENT_START;
+    }
+
+    /**
+     * Collects the tokens of the whole document, see the memory this needs in the class documentation.
+     */
+    public static NonBlockingJsonParser forDocument() {
+        return new NonBlockingJsonParser(null);
+    }
+
+    /**
+     * @param elementHandler called with the tokens of each element of the top level array as soon as the element is
+     *                       complete, for e.g. {@code tokens -> importer.accept(PipelineMapper.fromJSON(tokens))}. A
+     *                       {@code null} document has no elements.
+     */
+    public static NonBlockingJsonParser forArrayElements(Consumer<JsonTokenSource> elementHandler) {
+        return new NonBlockingJsonParser(elementHandler);
+    }
+
+    /**
+     * Parses all the remaining bytes of the buffer.
+     *
+     * @return whether the document is complete
+     * @throws JsonParseException if the bytes are not valid JSON
+     */
+    public boolean feed(ByteBuffer bytes) {
+        if (bytes.hasArray()) {
+            parse(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.arrayOffset() + bytes.limit());
+            bytes.position(bytes.limit());
+        } else {
+            if (scratch == null) {
+                scratch = new byte[8192];
+            }
+            while (bytes.hasRemaining()) {
+                int length = Math.min(scratch.length, bytes.remaining());
+                bytes.get(scratch, 0, length);
+                parse(scratch, 0, length);
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Signals the end of the input, which completes a document that is a bare number.
+     *
+     * @throws JsonParseException if the document is not complete
+     */
+    public void finish() {
+        if (mode == IN_LITERAL) {
+            endLiteral();
+        }
+        if (!complete || mode != IN_STRUCTURE) {
+            throw syntaxError("Unexpected end of the document");
+        }
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return the tokens of the complete document, for a parser created with {@link #forDocument()}
+     */
+    public JsonTokenSource tokens() {
+        if (elementHandler != null) {
+            throw new IllegalStateException("The elements of the array have already been handed over");
+        }
+        if (!complete) {
+            throw new IllegalStateException("The document is not complete");
+        }
+        return tokens;
+    }
+
+    private void parse(byte[] bytes, int from, int to) {
+        int i = from;
+        while (i < to) {
+            if (mode == IN_STRING && escape == NO_ESCAPE && utf8Remaining == 0) {
+                // copy runs of plain ASCII in one go, non-ASCII bytes are negative
+                int start = i;
+                while (i < to && bytes[i] >= 0x20 && bytes[i] != '"' && bytes[i] != '\\') {
+                    text.append((char) bytes[i]);
+                    i++;
+                }
+                position += i - start;
+                if (i == to) {
+                    return;
+                }
+            }
+            accept(bytes[i++] & 0xff);
+            position++;
+        }
+    }
+
+    private void accept(int b) {
+        switch (mode) {
+            case IN_STRING:
+                acceptInString(b);
+                break;
+            case IN_LITERAL:
+                if (ReaderJsonTokenSource.isLiteralChar(b)) {
+                    text.append((char) b);
+                    break;
+                }
+                endLiteral();
+                acceptInStructure(b);
+                break;
+            default:
+                acceptInStructure(b);
+        }
+    }
+
+    private void acceptInStructure(int b) {
+        if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+            return;
+        }
+        switch (stack[stackSize - 1]) {
+            case OBJECT_START:
+                if (b == '}') {
+                    endContainer(JsonToken.END_OBJECT);
+                    return;
+                }
+                beginName(b);
+                return;
+            case OBJECT_NAME:
+                beginName(b);
+                return;
+            case OBJECT_COLON:
+                if (b != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                stack[stackSize - 1] = OBJECT_VALUE;
+                return;
+            case OBJECT_VALUE:
+                stack[stackSize - 1] = OBJECT_AFTER_VALUE;
+                beginValue(b);
+                return;
+            case OBJECT_AFTER_VALUE:
+                if (b == '}') {
+                    endContainer(JsonToken.END_OBJECT);
+                } else if (b == ',') {
+                    stack[stackSize - 1] = OBJECT_NAME;
+                } else {
+                    throw syntaxError("Expected ',' or '}'");
+                }
+                return;
+            case ARRAY_START:
+                if (b == ']') {
+                    endContainer(JsonToken.END_ARRAY);
+                    return;
+                }
+                stack[stackSize - 1] = ARRAY_AFTER_VALUE;
+                beginValue(b);
+                return;
+            case ARRAY_VALUE:
+                stack[stackSize - 1] = ARRAY_AFTER_VALUE;
+                beginValue(b);
+                return;
+            case ARRAY_AFTER_VALUE:
+                if (b == ']') {
+                    endContainer(JsonToken.END_ARRAY);
+                } else if (b == ',') {
+                    stack[stackSize - 1] = ARRAY_VALUE;
+                } else {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                return;
+            case DOCUMENT_START:
+                stack[stackSize - 1] = DOCUMENT_END;
+                if (elementHandler != null && b != '[' && b != 'n') {
+                    throw syntaxError("Expected an array");
+                }
+                beginValue(b);
+                return;
+            default:
+                throw syntaxError("Expected the end of the document");
+        }
+    }
+
+    private void beginName(int b) {
+        if (b != '"') {
+            throw syntaxError("Expected a name");
+        }
+        mode = IN_STRING;
+        inName = true;
+    }
+
+    private void beginValue(int b) {
+        switch (b) {
+            case '{':
+                push(OBJECT_START);
+                tokens.add(JsonToken.BEGIN_OBJECT, null);
+                break;
+            case '[':
+                if (!isOuterArray()) {
+                    tokens.add(JsonToken.BEGIN_ARRAY, null);
+                }
+                push(ARRAY_START);
+                break;
+            case '"':
+                mode = IN_STRING;
+                inName = false;
+                break;
+            default:
+                if (!ReaderJsonTokenSource.isLiteralChar(b)) {
+                    throw syntaxError("Unexpected character '" + (char) b + "'");
+                }
+                mode = IN_LITERAL;
+                text.append((char) b);
+        }
+    }
+
+    private void endContainer(JsonToken token) {
+        stackSize--;
+        if (!isOuterArray()) {
+            tokens.add(token, null);
+        }
+        endValue();
+    }
+
+    private void endLiteral() {
+        String literal = takeText();
+        mode = IN_STRUCTURE;
+        switch (literal) {
+            case "true":
+            case "false":
+                tokens.add(JsonToken.BOOLEAN, literal);
+                break;
+            case "null":
+                if (!isOuterArray()) {
+                    tokens.add(JsonToken.NULL, null);
+                }
+                break;
+            default:
+                if (!ReaderJsonTokenSource.isValidNumber(literal)) {
+                    throw syntaxError("Malformed value '" + literal + "'");
+                }
+                tokens.add(JsonToken.NUMBER, literal);
+        }
+        endValue();
+    }
+
+    private void endString() {
+        mode = IN_STRUCTURE;
+        if (inName) {
+            tokens.add(JsonToken.NAME, takeText());
+            stack[stackSize - 1] = OBJECT_COLON;
+        } else {
+            tokens.add(JsonToken.STRING, takeText());
+            endValue();
+        }
+    }
+
+    private void endValue() {
+        if (stackSize == 1) {
+            complete = true;
+        } else if (elementHandler != null && stackSize == 2) {
+            tokens.head = 0;
+            elementHandler.accept(tokens);
+            tokens.clear();
+        }
+    }
+
+    // the array whose elements are handed over one by one is not part of the tokens of any element
+    private boolean isOuterArray() {
+        return elementHandler != null && stackSize == 1;
+    }
+
+    private void acceptInString(int b) {
+        if (utf8Remaining > 0) {
+            if ((b & 0xc0) != 0x80) {
+                throw syntaxError("Malformed UTF-8");
+            }
+            codePoint = codePoint << 6 | b & 0x3f;
+            if (--utf8Remaining == 0) {
+                if (codePoint < utf8Minimum || codePoint > Character.MAX_CODE_POINT || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+                    throw syntaxError("Malformed UTF-8");
+                }
+                text.appendCodePoint(codePoint);
+            }
+        } else if (escape != NO_ESCAPE) {
+            acceptInEscape(b);
+        } else if (b == '"') {
+            endString();
+        } else if (b == '\\') {
+            escape = AFTER_BACKSLASH;
+        } else if (b < 0x20) {
+            throw syntaxError("Unescaped control character in string");
+        } else if (b < 0x80) {
+            text.append((char) b);
+        } else if (b >= 0xc2 && b <= 0xdf) {
+            beginCodePoint(b & 0x1f, 1, 0x80);
+        } else if (b >= 0xe0 && b <= 0xef) {
+            beginCodePoint(b & 0x0f, 2, 0x800);
+        } else if (b >= 0xf0 && b <= 0xf4) {
+            beginCodePoint(b & 0x07, 3, 0x10000);
+        } else {
+            throw syntaxError("Malformed UTF-8");
+        }
+    }
+
+    private void beginCodePoint(int bits, int continuationBytes, int minimum) {
+        codePoint = bits;
+        utf8Remaining = continuationBytes;
+        utf8Minimum = minimum;
+    }
+
+    private void acceptInEscape(int b) {
+        if (escape == AFTER_BACKSLASH) {
+            escape = NO_ESCAPE;
+            switch (b) {
+                case '"':
+                case '\\':
+                case '/':
+                    text.append((char) b);
+                    return;
+                case 'b':
+                    text.append('\b');
+                    return;
+                case 'f':
+                    text.append('\f');
+                    return;
+                case 'n':
+                    text.append('\n');
+                    return;
+                case 'r':
+                    text.append('\r');
+                    return;
+                case 't':
+                    text.append('\t');
+                    return;
+                case 'u':
+                    escape = UNICODE_ESCAPE;
+                    unicodeValue = 0;
+                    return;
+                default:
+                    throw syntaxError("Invalid escape sequence");
+            }
+        }
+        int digit = Character.digit(b, 16);
+        if (digit < 0) {
+            throw syntaxError("Malformed unicode escape");
+        }
+        unicodeValue = unicodeValue << 4 | digit;
+        if (++escape == UNICODE_ESCAPE + 4) {
+            text.append((char) unicodeValue);
+            escape = NO_ESCAPE;
+        }
+    }
+
+    private String takeText() {
+        String value = text.toString();
+        text.setLength(0);
+        return value;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private JsonParseException syntaxError(String message) {
+        return new JsonParseException(message + " at byte " + position);
+    }
+
+    /**
+     * The tokens of the document, or of the array element, that have been parsed so far. They have already been
+     * checked against the grammar, so reading them only checks that they are of the expected type.
+     */
+    private static class TokenQueue implements JsonTokenSource {
+        private JsonToken[] types = new JsonToken[64];
+        private String[] texts = new String[64];
+        private int size;
+        private int head;
+
+        void add(JsonToken type, String text) {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, size * 2);
+                texts = Arrays.copyOf(texts, size * 2);
+            }
+            types[size] = type;
+            texts[size] = text;
+            size++;
+        }
+
+        void clear() {
+            Arrays.fill(texts, 0, size, null);
+            size = 0;
+            head = 0;
+        }
+
+        @Override
+        public JsonToken peek() {
+            return head < size ? types[head] : JsonToken.END_DOCUMENT;
+        }
+
+        @Override
+        public void beginObject() {
+            expect(JsonToken.BEGIN_OBJECT);
+        }
+
+        @Override
+        public void endObject() {
+            expect(JsonToken.END_OBJECT);
+        }
+
+        @Override
+        public void beginArray() {
+            expect(JsonToken.BEGIN_ARRAY);
+        }
+
+        @Override
+        public void endArray() {
+            expect(JsonToken.END_ARRAY);
+        }
+
+        @Override
+        public boolean hasNext() {
+            JsonToken token = peek();
+            return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+        }
+
+        @Override
+        public String nextName() {
+            return expect(JsonToken.NAME);
+        }
+
+        @Override
+        public String nextString() {
+            JsonToken token = peek();
+            if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+                throw unexpected(JsonToken.STRING);
+            }
+            return texts[head++];
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return expect(JsonToken.BOOLEAN).equals("true");
+        }
+
+        @Override
+        public double nextDouble() {
+            return Double.parseDouble(expect(JsonToken.NUMBER));
+        }
+
+        @Override
+        public long nextLong() {
+            String number = expect(JsonToken.NUMBER);
+            try {
+                return ReaderJsonTokenSource.parseLong(number);
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw new JsonParseException("Expected a long but was " + number);
+            }
+        }
+
+        @Override
+        public void nextNull() {
+            expect(JsonToken.NULL);
+        }
+
+        @Override
+        public void skipValue() {
+            int depth = 0;
+            do {
+                switch (peek()) {
+                    case BEGIN_OBJECT:
+                    case BEGIN_ARRAY:
+                        depth++;
+                        break;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        depth--;
+                        break;
+                    case END_DOCUMENT:
+                        throw new JsonParseException("Expected a value but reached the end of the document");
+                    default:
+                }
+                head++;
+            } while (depth > 0);
+        }
+
+        private String expect(JsonToken expected) {
+            if (peek() != expected) {
+                throw unexpected(expected);
+            }
+            return texts[head++];
+        }
+
+        private JsonParseException unexpected(JsonToken expected) {
+            return new JsonParseException("Expected " + expected + " but was " + peek());
+        }
+    }
+}
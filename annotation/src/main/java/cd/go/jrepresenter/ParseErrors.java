@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects every error found while parsing a request with {@code fromJSON(json, errors)}, which records the error
+ * and carries on with the next property, instead of stopping at the first one like {@code fromJSON(json)} does.
+ * <p>
+ * Each error is recorded with the path to the property it was found at, for e.g. {@code stages[1].jobs[0].name}.
+ * Keeping track of the path while parsing does not allocate, the path is only turned into a string for the properties
+ * that have an error. Not thread safe, use one instance per request.
+ */
+public class ParseErrors {
+    private String[] names = new String[8];
+    private int[] indexes = new int[8];
+    private int depth;
+    private List<ParseError> errors;
+
+    /**
+     * Enters the nested object with the given property name.
+     */
+    public void push(String name) {
+        ensureCapacity();
+        names[depth] = name;
+        depth++;
+    }
+
+    /**
+     * Enters the element at the given index of an array.
+     */
+    public void push(int index) {
+        ensureCapacity();
+        names[depth] = null;
+        indexes[depth] = index;
+        depth++;
+    }
+
+    public void pop() {
+        depth--;
+    }
+
+    /**
+     * Records an error in the given property of the current object.
+     */
+    public void add(String propertyName, JsonParseException cause) {
+        record(path(propertyName), cause);
+    }
+
+    /**
+     * Records an error in the current object as a whole.
+     */
+    public void add(JsonParseException cause) {
+        record(path(null), cause);
+    }
+
+    public boolean isEmpty() {
+        return errors == null;
+    }
+
+    public List<ParseError> getErrors() {
+        return errors == null ? Collections.emptyList() : Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @throws JsonParseException listing every error, with each of them added to it as a suppressed exception, if
+     *                            there were any errors
+     */
+    public void throwIfAny() {
+        if (errors == null) {
+            return;
+        }
+        JsonParseException exception = new JsonParseException(toString());
+        errors.forEach(error -> exception.addSuppressed(error.getCause()));
+        throw exception;
+    }
+
+    private void record(String path, JsonParseException cause) {
+        if (errors == null) {
+            errors = new ArrayList<>();
+        }
+        errors.add(new ParseError(path, cause));
+    }
+
+    private String path(String propertyName) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            if (names[i] == null) {
+                builder.append('[').append(indexes[i]).append(']');
+            } else {
+                builder.append(builder.length() == 0 ? "" : ".").append(names[i]);
+            }
+        }
+        if (propertyName != null) {
+            builder.append(builder.length() == 0 ? "" : ".").append(propertyName);
+        }
+        return builder.toString();
+    }
+
+    private void ensureCapacity() {
+        if (depth == names.length) {
+            names = Arrays.copyOf(names, depth * 2);
+            indexes = Arrays.copyOf(indexes, depth * 2);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (errors == null) {
+            return "No errors";
+        }
+        StringBuilder builder = new StringBuilder().append(errors.size()).append(errors.size() == 1 ? " error" : " errors");
+        errors.forEach(error -> builder.append("\n  ").append(error));
+        return builder.toString();
+    }
+
+    public static class ParseError {
+        private final String path;
+        private final JsonParseException cause;
+
+        ParseError(String path, JsonParseException cause) {
+            this.path = path;
+            this.cause = cause;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getMessage() {
+            return cause.getMessage();
+        }
+
+        public JsonParseException getCause() {
+            return cause;
+        }
+
+        @Override
+        public String toString() {
+            return path + ": " + getMessage();
+        }
+    }
+}
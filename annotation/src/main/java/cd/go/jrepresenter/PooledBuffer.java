@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer borrowed from a {@link BufferPool}, that a response is rendered into before it is written
+ * out. Closing it returns it to the pool, so it must not be used after it is closed, and neither must anything
+ * returned by {@link #toByteBuffer()}.
+ */
+public class PooledBuffer extends OutputStream {
+    private final BufferPool pool;
+    byte[] bytes;
+    int count;
+    private boolean released;
+
+    PooledBuffer(BufferPool pool, int initialCapacity) {
+        this.pool = pool;
+        this.bytes = new byte[initialCapacity];
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(1);
+        bytes[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, bytes, count, len);
+        count += len;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return bytes.length;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, count);
+    }
+
+    /**
+     * @return a read-only view of the contents, without copying them, for writing to a channel
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, count).asReadOnlyBuffer();
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, count);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, count, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the buffer to its pool. Closing it more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (!released) {
+            released = true;
+            pool.release(this);
+        }
+    }
+
+    void borrow() {
+        released = false;
+        count = 0;
+    }
+
+    void ensureCapacity(int length) {
+        if (count + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + length));
+        }
+    }
+}
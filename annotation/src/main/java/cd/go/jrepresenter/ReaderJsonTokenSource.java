@@ -0,0 +1,480 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * A strict {@link JsonTokenSource} that tokenizes JSON text from a {@link Reader}, reading it in fixed size chunks.
+ */
+public class ReaderJsonTokenSource implements JsonTokenSource {
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[1024];
+    private int pos;
+    private int limit;
+    private long bufferOffset;
+
+    private int[] stack = new int[16];
+    private int stackSize = 1;
+
+    private JsonToken peeked;
+    private String peekedText;
+    private boolean peekedBoolean;
+
+    public ReaderJsonTokenSource(Reader in) {
+        this.in = in;
+        this.stack[0] = EMPTY_DOCUMENT;
+    }
+
+    public ReaderJsonTokenSource(String json) {
+        this(new StringReader(json));
+    }
+
+    @Override
+    public JsonToken peek() {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    @Override
+    public void beginObject() {
+        expect(JsonToken.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    @Override
+    public void endObject() {
+        expect(JsonToken.END_OBJECT);
+        stackSize--;
+    }
+
+    @Override
+    public void beginArray() {
+        expect(JsonToken.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    @Override
+    public void endArray() {
+        expect(JsonToken.END_ARRAY);
+        stackSize--;
+    }
+
+    @Override
+    public boolean hasNext() {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() {
+        expect(JsonToken.NAME);
+        return peekedText;
+    }
+
+    @Override
+    public String nextString() {
+        JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+            throw unexpected(JsonToken.STRING);
+        }
+        peeked = null;
+        return peekedText;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        expect(JsonToken.BOOLEAN);
+        return peekedBoolean;
+    }
+
+    @Override
+    public double nextDouble() {
+        expect(JsonToken.NUMBER);
+        return Double.parseDouble(peekedText);
+    }
+
+    @Override
+    public long nextLong() {
+        expect(JsonToken.NUMBER);
+        try {
+            return parseLong(peekedText);
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new JsonParseException("Expected a long but was " + peekedText + location());
+        }
+    }
+
+    @Override
+    public void nextNull() {
+        expect(JsonToken.NULL);
+    }
+
+    @Override
+    public void skipValue() {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_DOCUMENT:
+                    throw new JsonParseException("Expected a value but reached the end of the document" + location());
+                default:
+                    peeked = null;
+            }
+        } while (depth > 0);
+    }
+
+    private void expect(JsonToken expected) {
+        if (peek() != expected) {
+            throw unexpected(expected);
+        }
+        peeked = null;
+    }
+
+    private JsonParseException unexpected(JsonToken expected) {
+        return new JsonParseException("Expected " + expected + " but was " + peeked + location());
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private JsonToken doPeek() {
+        int scope = stack[stackSize - 1];
+        int c;
+        switch (scope) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return JsonToken.END_ARRAY;
+                }
+                unread(c);
+                return readValueToken();
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return JsonToken.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                return readValueToken();
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return JsonToken.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a name");
+                }
+                stack[stackSize - 1] = DANGLING_NAME;
+                peekedText = readString();
+                return JsonToken.NAME;
+            case DANGLING_NAME:
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                return readValueToken();
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                return readValueToken();
+            default:
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("Expected the end of the document");
+                }
+                return JsonToken.END_DOCUMENT;
+        }
+    }
+
+    private JsonToken readValueToken() {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                return JsonToken.BEGIN_OBJECT;
+            case '[':
+                return JsonToken.BEGIN_ARRAY;
+            case '"':
+                peekedText = readString();
+                return JsonToken.STRING;
+            case 't':
+                readLiteral("true");
+                peekedBoolean = true;
+                return JsonToken.BOOLEAN;
+            case 'f':
+                readLiteral("false");
+                peekedBoolean = false;
+                return JsonToken.BOOLEAN;
+            case 'n':
+                readLiteral("null");
+                return JsonToken.NULL;
+            case -1:
+                throw syntaxError("Unexpected end of the document");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    peekedText = readNumber();
+                    return JsonToken.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void readLiteral(String literal) {
+        for (int i = 1; i < literal.length(); i++) {
+            if (nextChar() != literal.charAt(i)) {
+                throw syntaxError("Expected '" + literal + "'");
+            }
+        }
+        int c = nextChar();
+        if (isLiteralChar(c)) {
+            throw syntaxError("Expected '" + literal + "'");
+        }
+        unread(c);
+    }
+
+    private String readNumber() {
+        StringBuilder number = new StringBuilder();
+        int c;
+        while (isLiteralChar(c = nextChar())) {
+            number.append((char) c);
+        }
+        unread(c);
+        String text = number.toString();
+        if (!isValidNumber(text)) {
+            throw syntaxError("Malformed number '" + text + "'");
+        }
+        return text;
+    }
+
+    private String readString() {
+        StringBuilder builder = null;
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == '"') {
+                    if (builder == null) {
+                        return new String(buffer, start, pos - start - 1);
+                    }
+                    builder.append(buffer, start, pos - start - 1);
+                    return builder.toString();
+                }
+                if (c == '\\') {
+                    if (builder == null) {
+                        builder = new StringBuilder(Math.max(16, (pos - start) * 2));
+                    }
+                    builder.append(buffer, start, pos - start - 1);
+                    builder.append(readEscapeCharacter());
+                    start = pos;
+                } else if (c < 0x20) {
+                    throw syntaxError("Unescaped control character in string");
+                }
+            }
+            if (builder == null) {
+                builder = new StringBuilder(Math.max(16, (pos - start) * 2));
+            }
+            builder.append(buffer, start, pos - start);
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscapeCharacter() {
+        int c = nextChar();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextChar(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Malformed unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    private int nextNonWhitespace() {
+        int c;
+        do {
+            c = nextChar();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private int nextChar() {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    private void unread(int c) {
+        if (c != -1) {
+            pos--;
+        }
+    }
+
+    private boolean fill() {
+        bufferOffset += pos;
+        pos = 0;
+        limit = 0;
+        try {
+            int read;
+            do {
+                read = in.read(buffer, 0, buffer.length);
+            } while (read == 0);
+            if (read < 0) {
+                return false;
+            }
+            limit = read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static boolean isLiteralChar(int c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '+' || c == '.';
+    }
+
+    /**
+     * @throws ArithmeticException if the number has a fractional part, or does not fit in a long
+     */
+    static long parseLong(String number) {
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            // a number written with a fraction or an exponent can still be a long, for e.g. 1.0 or 1e3. Going through
+            // a double would round, and turn anything from 2^63 up to the first double above it into Long.MAX_VALUE
+            return new BigDecimal(number).longValueExact();
+        }
+    }
+
+    static boolean isValidNumber(String text) {
+        int i = 0;
+        int length = text.length();
+        if (i < length && text.charAt(i) == '-') {
+            i++;
+        }
+        if (i == length) {
+            return false;
+        }
+        if (text.charAt(i) == '0') {
+            i++;
+        } else {
+            int start = i;
+            i = skipDigits(text, i);
+            if (i == start) {
+                return false;
+            }
+        }
+        if (i < length && text.charAt(i) == '.') {
+            int start = ++i;
+            i = skipDigits(text, i);
+            if (i == start) {
+                return false;
+            }
+        }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                i++;
+            }
+            int start = i;
+            i = skipDigits(text, i);
+            if (i == start) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static int skipDigits(String text, int i) {
+        while (i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private JsonParseException syntaxError(String message) {
+        return new JsonParseException(message + location());
+    }
+
+    private String location() {
+        return " at character " + (bufferOffset + pos);
+    }
+}
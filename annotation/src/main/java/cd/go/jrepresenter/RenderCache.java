@@ -0,0 +1,251 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of rendered representations for representers declared with {@code @Represents(cacheKey = ...)}.
+ * <p>
+ * Entries are keyed by the representer, the cache key of the object, and the base URL and expansion policy of the
+ * request, since both change what is rendered. The cache is split into segments, each evicting its least recently
+ * used entries once it holds more than its share of {@code maxSize}, so that concurrent requests rarely wait on the
+ * same lock. Rendering happens outside of the lock; two threads missing on the same key may both render it.
+ * <p>
+ * Cached representations are shared between requests, so they are made unmodifiable, along with the maps and lists
+ * nested in them.
+ */
+public final class RenderCache {
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+    private static final int SEGMENT_COUNT = 16;
+
+    private static final Class<?> FROZEN_MAP = Collections.unmodifiableMap(new LinkedHashMap<>()).getClass();
+    private static final Class<?> FROZEN_RANDOM_ACCESS_LIST = Collections.unmodifiableList(new ArrayList<>()).getClass();
+    private static final Class<?> FROZEN_LIST = Collections.unmodifiableList(new LinkedList<>()).getClass();
+
+    private static final RenderCache SHARED = new RenderCache(Integer.getInteger("jrepresenter.renderCache.maxSize", DEFAULT_MAX_SIZE));
+
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RenderCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative, but was " + maxSize);
+        }
+        int segmentCount = Math.max(1, Math.min(SEGMENT_COUNT, maxSize));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // spread the remainder over the first segments, so that the segments add up to maxSize
+            segments[i] = new Segment(maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0), evictions);
+        }
+    }
+
+    /**
+     * The cache used by generated mappers. Its size is set by the {@code jrepresenter.renderCache.maxSize} system
+     * property, and defaults to {@value #DEFAULT_MAX_SIZE} entries.
+     */
+    public static RenderCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return the cached representation, or the one returned by {@code renderer} after caching it
+     */
+    public Map<String, Object> get(Class<?> representerClass, Object cacheKey, RequestContext requestContext, Supplier<Map<String, Object>> renderer) {
+        if (cacheKey == null) {
+            return renderer.get();
+        }
+        Key key = new Key(representerClass, cacheKey, requestContext.getBaseUrl(), requestContext.getExpansionPolicy());
+        Segment segment = segments[(key.hashCode() & Integer.MAX_VALUE) % segments.length];
+
+        Map<String, Object> rendered;
+        synchronized (segment) {
+            rendered = segment.get(key);
+        }
+        if (rendered != null) {
+            hits.increment();
+            return rendered;
+        }
+
+        misses.increment();
+        rendered = renderer.get();
+        if (rendered == null) {
+            return null;
+        }
+        rendered = freeze(rendered);
+        synchronized (segment) {
+            segment.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> freeze(Map<String, Object> rendered) {
+        return (Map<String, Object>) freeze((Object) rendered);
+    }
+
+    // the rendered maps and lists belong to the cache, so nested ones are replaced in place where they can be; those
+    // nested in an entry cached by another representer are frozen already
+    @SuppressWarnings("unchecked")
+    private static Object freeze(Object value) {
+        if (value instanceof Map) {
+            if (value.getClass() == FROZEN_MAP) {
+                return value;
+            }
+            Map<Object, Object> map = (Map<Object, Object>) value;
+            try {
+                for (Map.Entry<Object, Object> entry : map.entrySet()) {
+                    Object frozen = freeze(entry.getValue());
+                    if (frozen != entry.getValue()) {
+                        entry.setValue(frozen);
+                    }
+                }
+            } catch (UnsupportedOperationException e) {
+                Map<Object, Object> copy = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+                map.forEach((name, nested) -> copy.put(name, freeze(nested)));
+                map = copy;
+            }
+            return Collections.unmodifiableMap(map);
+        }
+        if (value instanceof List) {
+            if (value.getClass() == FROZEN_RANDOM_ACCESS_LIST || value.getClass() == FROZEN_LIST) {
+                return value;
+            }
+            List<Object> list = (List<Object>) value;
+            try {
+                for (ListIterator<Object> iterator = list.listIterator(); iterator.hasNext(); ) {
+                    Object element = iterator.next();
+                    Object frozen = freeze(element);
+                    if (frozen != element) {
+                        iterator.set(frozen);
+                    }
+                }
+            } catch (UnsupportedOperationException e) {
+                List<Object> copy = new ArrayList<>(list.size());
+                list.forEach(element -> copy.add(freeze(element)));
+                list = copy;
+            }
+            return Collections.unmodifiableList(list);
+        }
+        return value;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RenderCache{" +
+                "size=" + size() +
+                ", hits=" + hitCount() +
+                ", misses=" + missCount() +
+                ", evictions=" + evictionCount() +
+                '}';
+    }
+
+    private static class Segment extends LinkedHashMap<Key, Map<String, Object>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+        private final LongAdder evictions;
+
+        Segment(int maxSize, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Map<String, Object>> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class Key {
+        private final Class<?> representerClass;
+        private final Object cacheKey;
+        private final String baseUrl;
+        private final ExpansionPolicy expansionPolicy;
+        private final int hashCode;
+
+        Key(Class<?> representerClass, Object cacheKey, String baseUrl, ExpansionPolicy expansionPolicy) {
+            this.representerClass = representerClass;
+            this.cacheKey = cacheKey;
+            this.baseUrl = baseUrl;
+            this.expansionPolicy = expansionPolicy;
+            this.hashCode = Objects.hash(representerClass, cacheKey, baseUrl, expansionPolicy);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return representerClass == key.representerClass &&
+                    cacheKey.equals(key.cacheKey) &&
+                    baseUrl.equals(key.baseUrl) &&
+                    Objects.equals(expansionPolicy, key.expansionPolicy);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
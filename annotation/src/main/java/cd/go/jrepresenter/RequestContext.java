@@ -24,18 +24,73 @@ public class RequestContext {
     private final String host;
     private final int port;
     private final String protocol;
+    private final String baseUrl;
+    private final ExpansionPolicy expansionPolicy;
 
     public RequestContext(String protocol, String host, int port) {
         this.host = host;
         this.port = protocol.equalsIgnoreCase("https") && port == 443 || protocol.equals("http") && port == 80 ? -1 : port;
         this.protocol = protocol;
-    }
-
-    public Link build(String name, String template, Object... args) {
         try {
-            return new Link(name, new URL(protocol, host, port, String.format(template, args)).toExternalForm());
+            this.baseUrl = new URL(protocol, host, this.port, "").toExternalForm();
         } catch (MalformedURLException e) {
             throw new RuntimeException(e);
         }
+        this.expansionPolicy = ExpansionPolicy.ALL;
+    }
+
+    protected RequestContext(RequestContext requestContext, ExpansionPolicy expansionPolicy) {
+        this.host = requestContext.host;
+        this.port = requestContext.port;
+        this.protocol = requestContext.protocol;
+        this.baseUrl = requestContext.baseUrl;
+        this.expansionPolicy = expansionPolicy;
+    }
+
+    /**
+     * @return a copy of this context that expands embedded relations as per {@code expansionPolicy}
+     */
+    public RequestContext withExpansionPolicy(ExpansionPolicy expansionPolicy) {
+        return copyWith(expansionPolicy);
+    }
+
+    /**
+     * Copies this context for {@link #withExpansionPolicy(ExpansionPolicy)} and {@link #expand(String)}. A subclass
+     * overrides this to return an instance of its own class, built with {@link #RequestContext(RequestContext, ExpansionPolicy)},
+     * so that its state is not lost while rendering expanded relations.
+     */
+    protected RequestContext copyWith(ExpansionPolicy expansionPolicy) {
+        return new RequestContext(this, expansionPolicy);
+    }
+
+    /**
+     * @return the protocol, host and port that links are built on, e.g. {@code https://go.example.com:8154}
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public ExpansionPolicy getExpansionPolicy() {
+        return expansionPolicy;
+    }
+
+    public boolean expands(String relation) {
+        return expansionPolicy.expands(relation);
+    }
+
+    /**
+     * @return the context to render the expanded embedded relation {@code relation} with
+     */
+    public RequestContext expand(String relation) {
+        ExpansionPolicy nested = expansionPolicy.nested(relation);
+        return nested == expansionPolicy ? this : withExpansionPolicy(nested);
+    }
+
+    public Link build(String name, String template, Object... args) {
+        return new Link(name, baseUrl + String.format(template, args));
+    }
+
+    public Link build(String name, LinkTemplate template, Object... args) {
+        return new Link(name, template.expand(baseUrl, args));
     }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.*;
+
+/**
+ * A {@link Map} for rendered JSON objects whose keys are mostly known up front. All maps rendered by a representer
+ * share one immutable {@link Keys} table and each map only holds an {@code Object[]} of values, in key table order.
+ * Keys outside the table (for e.g. properties of a subclass) are kept in an overflow map, after the table keys.
+ * <p>
+ * Removing a key and putting it back keeps its position in the key table, unlike {@link LinkedHashMap}.
+ */
+public class SharedKeyMap extends AbstractMap<String, Object> {
+    private static final Object ABSENT = new Object();
+
+    private final Keys keys;
+    private final Object[] values;
+    private int tableSize;
+    private Map<String, Object> overflow;
+    private Set<Entry<String, Object>> entrySet;
+
+    public SharedKeyMap(Keys keys) {
+        this.keys = keys;
+        this.values = new Object[keys.names.length];
+        Arrays.fill(values, ABSENT);
+    }
+
+    public static Keys keys(String... names) {
+        return new Keys(names);
+    }
+
+    @Override
+    public int size() {
+        return tableSize + (overflow == null ? 0 : overflow.size());
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int index = keys.indexOf(key);
+        if (index >= 0) {
+            return values[index] != ABSENT;
+        }
+        return overflow != null && overflow.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = keys.indexOf(key);
+        if (index >= 0) {
+            Object value = values[index];
+            return value == ABSENT ? null : value;
+        }
+        return overflow == null ? null : overflow.get(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = keys.indexOf(key);
+        if (index >= 0) {
+            Object previous = values[index];
+            values[index] = value;
+            if (previous == ABSENT) {
+                tableSize++;
+                return null;
+            }
+            return previous;
+        }
+        if (overflow == null) {
+            overflow = new LinkedHashMap<>();
+        }
+        return overflow.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int index = keys.indexOf(key);
+        if (index >= 0) {
+            return removeAt(index);
+        }
+        return overflow == null ? null : overflow.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, ABSENT);
+        tableSize = 0;
+        overflow = null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return SharedKeyMap.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    SharedKeyMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private Object removeAt(int index) {
+        Object previous = values[index];
+        if (previous == ABSENT) {
+            return null;
+        }
+        values[index] = ABSENT;
+        tableSize--;
+        return previous;
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int next = advance(0);
+        private int current = -1;
+        private Iterator<Entry<String, Object>> overflowIterator;
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == ABSENT) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < values.length) {
+                return true;
+            }
+            if (overflowIterator == null && overflow != null) {
+                overflowIterator = overflow.entrySet().iterator();
+            }
+            return overflowIterator != null && overflowIterator.hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (next < values.length) {
+                current = next;
+                next = advance(next + 1);
+                return new TableEntry(current);
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = -1;
+            return overflowIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (current >= 0) {
+                if (values[current] == ABSENT) {
+                    throw new IllegalStateException();
+                }
+                removeAt(current);
+            } else if (overflowIterator != null) {
+                overflowIterator.remove();
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private class TableEntry implements Entry<String, Object> {
+        private final int index;
+
+        private TableEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return keys.names[index];
+        }
+
+        @Override
+        public Object getValue() {
+            Object value = values[index];
+            return value == ABSENT ? null : value;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object previous = values[index];
+            values[index] = value;
+            if (previous == ABSENT) {
+                tableSize++;
+                return null;
+            }
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> that = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), that.getKey()) && Objects.equals(getValue(), that.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * An immutable, ordered table of keys shared by all the maps a representer renders.
+     */
+    public static final class Keys {
+        private final String[] names;
+        private final Map<String, Integer> indexes;
+
+        private Keys(String[] names) {
+            this.names = names.clone();
+            Map<String, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < this.names.length; i++) {
+                if (indexes.put(this.names[i], i) != null) {
+                    throw new IllegalArgumentException("Duplicate key " + this.names[i]);
+                }
+            }
+            this.indexes = indexes;
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        public String name(int index) {
+            return names[index];
+        }
+
+        public int indexOf(Object key) {
+            Integer index = indexes.get(key);
+            return index == null ? -1 : index;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import java.util.Arrays;
+
+/**
+ * A {@link JsonSink} that writes the same compact JSON as {@link AppendableJsonSink}, encoded as UTF-8, straight into
+ * a {@link PooledBuffer}, without going through a {@link StringBuilder} and encoding the text afterwards.
+ */
+public class Utf8JsonSink implements JsonSink {
+    private static final byte[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    // the longest long, Long.MIN_VALUE, has 19 digits and a sign
+    private static final int MAX_LONG_LENGTH = 20;
+
+    private final PooledBuffer out;
+    private boolean[] hasMembers = new boolean[16];
+    private int depth;
+    private boolean afterName;
+
+    public Utf8JsonSink(PooledBuffer out) {
+        this.out = out;
+    }
+
+    /**
+     * @return the bytes that {@link #name(String)} writes for {@code name}, i.e. the quoted and escaped name followed
+     * by a colon, for passing to {@link #name(String, byte[])}
+     */
+    public static byte[] encodeName(String name) {
+        // never closed, so it needs no pool
+        PooledBuffer buffer = new PooledBuffer(null, name.length() + 3);
+        new Utf8JsonSink(buffer).name(name);
+        return buffer.toByteArray();
+    }
+
+    @Override
+    public void beginObject() {
+        beforeValue();
+        push();
+        write('{');
+    }
+
+    @Override
+    public void endObject() {
+        depth--;
+        write('}');
+    }
+
+    @Override
+    public void beginArray() {
+        beforeValue();
+        push();
+        write('[');
+    }
+
+    @Override
+    public void endArray() {
+        depth--;
+        write(']');
+    }
+
+    @Override
+    public void name(String name) {
+        separate();
+        writeString(name);
+        write(':');
+        afterName = true;
+    }
+
+    @Override
+    public void name(String name, byte[] encodedName) {
+        separate();
+        write(encodedName);
+        afterName = true;
+    }
+
+    @Override
+    public void nullValue() {
+        beforeValue();
+        write(NULL);
+    }
+
+    @Override
+    public void value(String value) {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        beforeValue();
+        writeString(value);
+    }
+
+    @Override
+    public void value(Number value) {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            value(value.doubleValue());
+            return;
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            value(value.longValue());
+            return;
+        }
+        beforeValue();
+        writeAscii(value.toString());
+    }
+
+    @Override
+    public void value(boolean value) {
+        beforeValue();
+        write(value ? TRUE : FALSE);
+    }
+
+    @Override
+    public void value(long value) {
+        beforeValue();
+        writeLong(value);
+    }
+
+    @Override
+    public void value(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON does not allow the numeric value " + value);
+        }
+        beforeValue();
+        writeAscii(Double.toString(value));
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+        } else {
+            separate();
+        }
+    }
+
+    private void separate() {
+        if (depth > 0) {
+            if (hasMembers[depth]) {
+                write(',');
+            }
+            hasMembers[depth] = true;
+        }
+    }
+
+    private void push() {
+        depth++;
+        if (depth == hasMembers.length) {
+            hasMembers = Arrays.copyOf(hasMembers, depth * 2);
+        }
+        hasMembers[depth] = false;
+    }
+
+    private void writeString(String value) {
+        write('"');
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            // each char takes at most 6 bytes, as a unicode escape, so reserve room for a chunk of them at a time
+            int chunkEnd = Math.min(length, i + 1024);
+            out.ensureCapacity((chunkEnd - i) * 6);
+            byte[] bytes = out.bytes;
+            int count = out.count;
+            for (; i < chunkEnd; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    if (c >= 0x20 && c != '"' && c != '\\') {
+                        bytes[count++] = (byte) c;
+                        continue;
+                    }
+                    bytes[count++] = '\\';
+                    switch (c) {
+                        case '"':
+                        case '\\':
+                            bytes[count++] = (byte) c;
+                            break;
+                        case '\n':
+                            bytes[count++] = 'n';
+                            break;
+                        case '\r':
+                            bytes[count++] = 'r';
+                            break;
+                        case '\t':
+                            bytes[count++] = 't';
+                            break;
+                        case '\b':
+                            bytes[count++] = 'b';
+                            break;
+                        case '\f':
+                            bytes[count++] = 'f';
+                            break;
+                        default:
+                            count = writeUnicodeEscape(bytes, count, c);
+                    }
+                } else if (c < 0x800) {
+                    bytes[count++] = (byte) (0xc0 | c >> 6);
+                    bytes[count++] = (byte) (0x80 | c & 0x3f);
+                } else if (c == '\u2028' || c == '\u2029') {
+                    bytes[count++] = '\\';
+                    count = writeUnicodeEscape(bytes, count, c);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[count++] = (byte) (0xf0 | codePoint >> 18);
+                    bytes[count++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                    bytes[count++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                    bytes[count++] = (byte) (0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    // an unpaired surrogate cannot be encoded, String.getBytes() replaces it the same way
+                    bytes[count++] = '?';
+                } else {
+                    bytes[count++] = (byte) (0xe0 | c >> 12);
+                    bytes[count++] = (byte) (0x80 | c >> 6 & 0x3f);
+                    bytes[count++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+            out.count = count;
+        }
+        write('"');
+    }
+
+    private static int writeUnicodeEscape(byte[] bytes, int count, char c) {
+        bytes[count++] = 'u';
+        bytes[count++] = HEX_DIGITS[(c >> 12) & 0xf];
+        bytes[count++] = HEX_DIGITS[(c >> 8) & 0xf];
+        bytes[count++] = HEX_DIGITS[(c >> 4) & 0xf];
+        bytes[count++] = HEX_DIGITS[c & 0xf];
+        return count;
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        out.ensureCapacity(MAX_LONG_LENGTH);
+        byte[] bytes = out.bytes;
+        if (value < 0) {
+            bytes[out.count++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = out.count + digits;
+        for (int i = end - 1; i >= out.count; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        out.count = end;
+    }
+
+    private void writeAscii(String text) {
+        int length = text.length();
+        out.ensureCapacity(length);
+        byte[] bytes = out.bytes;
+        int count = out.count;
+        for (int i = 0; i < length; i++) {
+            bytes[count++] = (byte) text.charAt(i);
+        }
+        out.count = count;
+    }
+
+    private void write(byte[] text) {
+        out.write(text, 0, text.length);
+    }
+
+    private void write(char c) {
+        out.write(c);
+    }
+}
@@ -47,4 +47,10 @@ public @interface Property {
 
     Class<? extends Function> skipRender() default FalseFunction.class;
 
+    /**
+     * Enum properties without a serializer and deserializer are rendered by the name of the constant, and parsed
+     * with a {@link cd.go.jrepresenter.EnumCodec}. Set this to accept names in any case when parsing.
+     */
+    boolean ignoreCase() default false;
+
 }
@@ -26,6 +26,9 @@ import java.util.function.Function;
 
 @Target(ElementType.TYPE)
 public @interface Represents {
+    int DEFAULT_PARALLEL_THRESHOLD = 1000;
+    int DEFAULT_FLUSH_INTERVAL = 100;
+
     Class<?> value();
 
     Class<? extends LinksProvider> linksProvider() default EmptyLinksProvider.class;
@@ -35,4 +38,25 @@ public @interface Represents {
     boolean skipDeserialize() default false;
 
     Class<? extends Function> deserializer() default NullFunction.class;
+
+    /**
+     * The smallest list that {@code toJSON(List, RequestContext, Executor)} will split across the executor. Smaller
+     * lists are rendered on the calling thread.
+     */
+    int parallelThreshold() default DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * The number of elements after which {@code writeArray(Iterator, RequestContext, JsonSink)} flushes the sink, so
+     * that the client receives a long array as it is rendered. The first element is always flushed. Zero or less
+     * flushes nothing else until the array is complete.
+     */
+    int flushInterval() default DEFAULT_FLUSH_INTERVAL;
+
+    /**
+     * A function from the model to a key identifying both the object and its version, for models that do not change
+     * once written. When set, {@code toJSON} serves rendered objects from {@link cd.go.jrepresenter.RenderCache}
+     * instead of rendering them again. Objects for which the function returns {@code null} are not cached. The maps
+     * returned for cached objects are shared, and are unmodifiable all the way down, including nested maps and lists.
+     */
+    Class<? extends Function<?, ?>> cacheKey() default NullFunction.class;
 }
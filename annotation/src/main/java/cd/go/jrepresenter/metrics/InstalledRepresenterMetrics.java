@@ -0,0 +1,29 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.metrics;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+class InstalledRepresenterMetrics {
+    static final RepresenterMetrics INSTANCE = load();
+
+    private static RepresenterMetrics load() {
+        Iterator<RepresenterMetrics> implementations = ServiceLoader.load(RepresenterMetrics.class, RepresenterMetrics.class.getClassLoader()).iterator();
+        return implementations.hasNext() ? implementations.next() : NoOpRepresenterMetrics.INSTANCE;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps running totals per representer in {@link LongAdder}s, which stripe their cells across threads, so that
+ * concurrent requests rendering the same representer do not contend on a single counter.
+ */
+public class LongAdderRepresenterMetrics implements RepresenterMetrics {
+    private final Map<Class<?>, Counters> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Counters recorder(Class<?> representerClass) {
+        return counters.computeIfAbsent(representerClass, key -> new Counters());
+    }
+
+    public Map<Class<?>, Counters> counters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    public void reset() {
+        counters.values().forEach(Counters::reset);
+    }
+
+    public static class Counters implements Recorder {
+        private final LongAdder serializeCalls = new LongAdder();
+        private final LongAdder serializeElements = new LongAdder();
+        private final LongAdder serializeNanos = new LongAdder();
+        private final LongAdder deserializeCalls = new LongAdder();
+        private final LongAdder deserializeElements = new LongAdder();
+        private final LongAdder deserializeNanos = new LongAdder();
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void recordSerialize(int elementCount, long elapsedNanos) {
+            serializeCalls.increment();
+            serializeElements.add(elementCount);
+            serializeNanos.add(elapsedNanos);
+        }
+
+        @Override
+        public void recordDeserialize(int elementCount, long elapsedNanos) {
+            deserializeCalls.increment();
+            deserializeElements.add(elementCount);
+            deserializeNanos.add(elapsedNanos);
+        }
+
+        public long getSerializeCalls() {
+            return serializeCalls.sum();
+        }
+
+        public long getSerializeElements() {
+            return serializeElements.sum();
+        }
+
+        public long getSerializeNanos() {
+            return serializeNanos.sum();
+        }
+
+        public long getDeserializeCalls() {
+            return deserializeCalls.sum();
+        }
+
+        public long getDeserializeElements() {
+            return deserializeElements.sum();
+        }
+
+        public long getDeserializeNanos() {
+            return deserializeNanos.sum();
+        }
+
+        private void reset() {
+            serializeCalls.reset();
+            serializeElements.reset();
+            serializeNanos.reset();
+            deserializeCalls.reset();
+            deserializeElements.reset();
+            deserializeNanos.reset();
+        }
+
+        @Override
+        public String toString() {
+            return "Counters{" +
+                    "serializeCalls=" + getSerializeCalls() +
+                    ", serializeElements=" + getSerializeElements() +
+                    ", serializeNanos=" + getSerializeNanos() +
+                    ", deserializeCalls=" + getDeserializeCalls() +
+                    ", deserializeElements=" + getDeserializeElements() +
+                    ", deserializeNanos=" + getDeserializeNanos() +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.metrics;
+
+/**
+ * Receives call counts, element counts and elapsed time from mappers generated with {@code -AjrepresenterMetrics=true}.
+ * <p>
+ * The implementation is found through {@link java.util.ServiceLoader} the first time a mapper class is initialized, by
+ * listing its class name in {@code META-INF/services/cd.go.jrepresenter.metrics.RepresenterMetrics}. When none is
+ * registered, {@link NoOpRepresenterMetrics} is used, and since generated mappers read {@link Recorder#isEnabled()}
+ * into a {@code static final} field the measuring code is dropped by the JIT.
+ */
+public interface RepresenterMetrics {
+
+    /**
+     * Called once per generated mapper class, when it is initialized.
+     *
+     * @param representerClass the representer the mapper was generated from
+     */
+    Recorder recorder(Class<?> representerClass);
+
+    static Recorder recorderFor(Class<?> representerClass) {
+        return installed().recorder(representerClass);
+    }
+
+    static RepresenterMetrics installed() {
+        return InstalledRepresenterMetrics.INSTANCE;
+    }
+
+    /**
+     * Records the calls to a single mapper. Implementations are called concurrently from request threads.
+     */
+    interface Recorder {
+
+        boolean isEnabled();
+
+        void recordSerialize(int elementCount, long elapsedNanos);
+
+        void recordDeserialize(int elementCount, long elapsedNanos);
+    }
+}
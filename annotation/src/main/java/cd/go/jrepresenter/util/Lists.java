@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+public class Lists {
+
+    public static <T, R> List<R> map(List<? extends T> list, Function<? super T, ? extends R> function) {
+        if (list == null) {
+            return null;
+        }
+        List<R> result = new ArrayList<>(list.size());
+        for (T item : list) {
+            result.add(function.apply(item));
+        }
+        return result;
+    }
+
+    /**
+     * Like {@link #map(List, Function)}, but splits the list into contiguous chunks that are mapped on the given
+     * executor, and the result keeps the order of the input list.
+     * <p>
+     * The calling thread maps chunks too, and claims any chunk that no task has started yet instead of waiting for it.
+     * It only ever waits for chunks that are already being mapped, so calling this from a thread of the same executor,
+     * e.g. to render a nested collection, cannot deadlock even if every other thread of the executor is busy.
+     * <p>
+     * Like {@link #map(List, Function)}, this returns a new, modifiable list.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R> List<R> mapInParallel(List<? extends T> list, Function<? super T, ? extends R> function, Executor executor) {
+        if (list == null) {
+            return null;
+        }
+        int size = list.size();
+        int chunks = Math.min(size, parallelism(executor) * 4);
+        if (chunks <= 1) {
+            return map(list, function);
+        }
+
+        ParallelMapping<T, R> mapping = new ParallelMapping<>(list, function, chunks);
+        try {
+            for (int task = 1; task < chunks; task++) {
+                executor.execute(mapping::mapChunks);
+            }
+        } catch (RejectedExecutionException e) {
+            // the chunks that were not handed out are mapped by the calling thread below
+        }
+        mapping.mapChunks();
+        return new ArrayList<>((List<R>) Arrays.asList(mapping.await()));
+    }
+
+    private static class ParallelMapping<T, R> {
+        private final List<? extends T> list;
+        private final Function<? super T, ? extends R> function;
+        private final int chunks;
+        private final Object[] result;
+        private final AtomicInteger nextChunk = new AtomicInteger();
+        private final CountDownLatch unfinishedChunks;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ParallelMapping(List<? extends T> list, Function<? super T, ? extends R> function, int chunks) {
+            // the chunks index into the list, which takes linear time for a linked list
+            this.list = list instanceof RandomAccess ? list : new ArrayList<>(list);
+            this.function = function;
+            this.chunks = chunks;
+            this.result = new Object[list.size()];
+            this.unfinishedChunks = new CountDownLatch(chunks);
+        }
+
+        void mapChunks() {
+            int chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                try {
+                    // after a failure the remaining chunks are only counted down, the result is discarded anyway
+                    if (failure.get() == null) {
+                        mapInto(list, function, result, chunkStart(chunk, chunks, list.size()), chunkStart(chunk + 1, chunks, list.size()));
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    unfinishedChunks.countDown();
+                }
+            }
+        }
+
+        // every chunk has been claimed by the time this is called, so it only waits for chunks that are running
+        Object[] await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    unfinishedChunks.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            Throwable e = failure.get();
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            if (e != null) {
+                throw new CompletionException(e);
+            }
+            return result;
+        }
+    }
+
+    private static <T, R> void mapInto(List<? extends T> list, Function<? super T, ? extends R> function, Object[] result, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = function.apply(list.get(i));
+        }
+    }
+
+    private static int chunkStart(int chunk, int chunks, int size) {
+        return (int) ((long) size * chunk / chunks);
+    }
+
+    private static int parallelism(Executor executor) {
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
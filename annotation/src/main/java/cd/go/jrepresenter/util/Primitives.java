@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.util;
+
+import cd.go.jrepresenter.JsonParseException;
+import cd.go.jrepresenter.JsonToken;
+import cd.go.jrepresenter.JsonTokenSource;
+
+import static cd.go.jrepresenter.JsonParseException.badJsonType;
+import static cd.go.jrepresenter.JsonParseException.outOfRange;
+
+/**
+ * Coerces parsed JSON values into the primitive type of a property. Generated mappers call these for primitive and
+ * boxed primitive properties, because a parsed document has every number as a {@link Double} (or whatever
+ * {@link Number} the parser chose), and a token stream has numbers that are not boxed at all.
+ * <p>
+ * Integral types accept any number with an integral value that is in range, e.g. {@code 3.0} for an {@code int}.
+ */
+public class Primitives {
+
+    public static long toLong(String propertyName, Object value) {
+        return toIntegral(propertyName, value, long.class, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public static int toInt(String propertyName, Object value) {
+        return (int) toIntegral(propertyName, value, int.class, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public static short toShort(String propertyName, Object value) {
+        return (short) toIntegral(propertyName, value, short.class, Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+
+    public static byte toByte(String propertyName, Object value) {
+        return (byte) toIntegral(propertyName, value, byte.class, Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+    public static double toDouble(String propertyName, Object value) {
+        if (!(value instanceof Number)) {
+            throw badJsonType(propertyName, double.class, value);
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    public static float toFloat(String propertyName, Object value) {
+        if (!(value instanceof Number)) {
+            throw badJsonType(propertyName, float.class, value);
+        }
+        return toFloat(propertyName, ((Number) value).doubleValue());
+    }
+
+    public static boolean toBoolean(String propertyName, Object value) {
+        if (!(value instanceof Boolean)) {
+            throw badJsonType(propertyName, boolean.class, value);
+        }
+        return (Boolean) value;
+    }
+
+    public static char toChar(String propertyName, Object value) {
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+        if (!(value instanceof String)) {
+            throw badJsonType(propertyName, char.class, value);
+        }
+        return toChar(propertyName, (String) value);
+    }
+
+    public static long readLong(String propertyName, JsonTokenSource source) {
+        return readIntegral(propertyName, source, long.class, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public static int readInt(String propertyName, JsonTokenSource source) {
+        return (int) readIntegral(propertyName, source, int.class, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public static short readShort(String propertyName, JsonTokenSource source) {
+        return (short) readIntegral(propertyName, source, short.class, Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+
+    public static byte readByte(String propertyName, JsonTokenSource source) {
+        return (byte) readIntegral(propertyName, source, byte.class, Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+    public static double readDouble(String propertyName, JsonTokenSource source) {
+        expect(propertyName, source, JsonToken.NUMBER, double.class);
+        return source.nextDouble();
+    }
+
+    public static float readFloat(String propertyName, JsonTokenSource source) {
+        expect(propertyName, source, JsonToken.NUMBER, float.class);
+        return toFloat(propertyName, source.nextDouble());
+    }
+
+    public static boolean readBoolean(String propertyName, JsonTokenSource source) {
+        expect(propertyName, source, JsonToken.BOOLEAN, boolean.class);
+        return source.nextBoolean();
+    }
+
+    public static char readChar(String propertyName, JsonTokenSource source) {
+        expect(propertyName, source, JsonToken.STRING, char.class);
+        return toChar(propertyName, source.nextString());
+    }
+
+    private static long toIntegral(String propertyName, Object value, Class<?> expected, long min, long max) {
+        long result;
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            result = ((Number) value).longValue();
+        } else if (value instanceof Number) {
+            double asDouble = ((Number) value).doubleValue();
+            result = (long) asDouble;
+            // (long) saturates, and 2^63 is the closest double to Long.MAX_VALUE
+            if (result != asDouble || asDouble >= 0x1p63) {
+                throw asDouble == Math.rint(asDouble) ? outOfRange(propertyName, expected, value) : badJsonType(propertyName, expected, value);
+            }
+        } else {
+            throw badJsonType(propertyName, expected, value);
+        }
+        if (result < min || result > max) {
+            throw outOfRange(propertyName, expected, value);
+        }
+        return result;
+    }
+
+    private static long readIntegral(String propertyName, JsonTokenSource source, Class<?> expected, long min, long max) {
+        expect(propertyName, source, JsonToken.NUMBER, expected);
+        long result;
+        try {
+            result = source.nextLong();
+        } catch (JsonParseException e) {
+            throw JsonParseException.lazilyFormatted(e, "Could not property attribute `%s': %s", propertyName, e.getMessage());
+        }
+        if (result < min || result > max) {
+            throw outOfRange(propertyName, expected, result);
+        }
+        return result;
+    }
+
+    private static float toFloat(String propertyName, double value) {
+        if (Math.abs(value) > Float.MAX_VALUE && !Double.isInfinite(value)) {
+            throw outOfRange(propertyName, float.class, value);
+        }
+        return (float) value;
+    }
+
+    private static char toChar(String propertyName, String value) {
+        if (value.length() != 1) {
+            throw JsonParseException.lazilyFormatted("Could not property attribute `%s': Expected a single character, but was `%s'.", propertyName, value);
+        }
+        return value.charAt(0);
+    }
+
+    private static void expect(String propertyName, JsonTokenSource source, JsonToken token, Class<?> expected) {
+        if (source.peek() != token) {
+            throw badJsonType(propertyName, expected, source.readValue());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.util;
+
+/**
+ * Finds which of a representer's subclasses a model belongs to, in the order the subclasses were declared. The answer
+ * is computed once per runtime class and cached, so rendering costs the same whichever subclass a model is.
+ */
+public final class SubClassIndex extends ClassValue<Integer> {
+    private static final Integer NOT_FOUND = -1;
+
+    private final Class<?>[] subClasses;
+
+    public SubClassIndex(Class<?>... subClasses) {
+        this.subClasses = subClasses.clone();
+    }
+
+    /**
+     * @return the position of the first declared subclass that {@code value} is an instance of, or -1 if it is
+     * {@code null} or none of them match.
+     */
+    public int indexOf(Object value) {
+        if (value == null) {
+            return NOT_FOUND;
+        }
+        return get(value.getClass());
+    }
+
+    @Override
+    protected Integer computeValue(Class<?> type) {
+        for (int i = 0; i < subClasses.length; i++) {
+            if (subClasses[i].isAssignableFrom(type)) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+}
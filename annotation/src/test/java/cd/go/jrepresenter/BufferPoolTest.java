@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BufferPoolTest {
+
+    @Test
+    public void shouldReuseTheBufferOnceItIsReturned() {
+        BufferPool pool = new BufferPool(16, 64);
+
+        PooledBuffer first = pool.borrow();
+        first.write(new byte[]{'a', 'b'}, 0, 2);
+        first.close();
+        PooledBuffer second = pool.borrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.size()).isZero();
+        assertThat(pool.getMisses()).isEqualTo(1);
+        assertThat(pool.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldAllocateAnotherBufferWhileOneIsBorrowed() {
+        BufferPool pool = new BufferPool(16, 64);
+
+        try (PooledBuffer first = pool.borrow(); PooledBuffer second = pool.borrow()) {
+            assertThat(second).isNotSameAs(first);
+        }
+
+        assertThat(pool.getMisses()).isEqualTo(2);
+        assertThat(pool.getHits()).isZero();
+    }
+
+    @Test
+    public void shouldReuseAnEmptyBufferAfterRenderingIntoItThrew() {
+        BufferPool pool = new BufferPool(16, 64);
+        AtomicReference<PooledBuffer> borrowed = new AtomicReference<>();
+
+        assertThatThrownBy(() -> {
+            try (PooledBuffer buffer = pool.borrow()) {
+                borrowed.set(buffer);
+                Utf8JsonSink sink = new Utf8JsonSink(buffer);
+                sink.beginObject();
+                sink.name("half");
+                sink.value(Double.NaN);
+            }
+        }).isInstanceOf(IllegalArgumentException.class);
+
+        try (PooledBuffer buffer = pool.borrow()) {
+            assertThat(buffer).isSameAs(borrowed.get());
+            assertThat(buffer.size()).isZero();
+            new Utf8JsonSink(buffer).value("whole");
+            assertThat(buffer.toString()).isEqualTo("\"whole\"");
+        }
+        assertThat(pool.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldDropBuffersThatGrewBeyondTheMaximumRetainedCapacity() {
+        BufferPool pool = new BufferPool(16, 64);
+
+        PooledBuffer large = pool.borrow();
+        large.write(new byte[100], 0, 100);
+        large.close();
+        PooledBuffer next = pool.borrow();
+
+        assertThat(large.capacity()).isGreaterThan(64);
+        assertThat(next).isNotSameAs(large);
+        assertThat(next.capacity()).isEqualTo(16);
+        assertThat(pool.getOversizeDiscards()).isEqualTo(1);
+        assertThat(pool.getMisses()).isEqualTo(2);
+
+        pool.resetCounters();
+        assertThat(pool.getOversizeDiscards()).isZero();
+        assertThat(pool.getMisses()).isZero();
+    }
+
+    @Test
+    public void shouldIgnoreClosingABufferMoreThanOnce() {
+        BufferPool pool = new BufferPool(16, 64);
+
+        PooledBuffer buffer = pool.borrow();
+        buffer.close();
+        buffer.close();
+
+        assertThat(pool.borrow()).isSameAs(buffer);
+        assertThat(pool.borrow()).isNotSameAs(buffer);
+        assertThat(pool.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldKeepABufferReturnedOnAnotherThreadOnThatThread() throws InterruptedException {
+        BufferPool pool = new BufferPool(16, 64);
+        PooledBuffer buffer = pool.borrow();
+        AtomicReference<PooledBuffer> borrowedOnOtherThread = new AtomicReference<>();
+
+        Thread other = new Thread(() -> {
+            buffer.close();
+            borrowedOnOtherThread.set(pool.borrow());
+        });
+        other.start();
+        other.join();
+
+        assertThat(borrowedOnOtherThread.get()).isSameAs(buffer);
+        assertThat(pool.borrow()).isNotSameAs(buffer);
+    }
+
+    @Test
+    public void shouldExposeTheContentsWithoutCopyingThem() throws IOException {
+        try (PooledBuffer buffer = new BufferPool(4, 64).borrow()) {
+            buffer.write('{');
+            buffer.write(new byte[]{'x', '"', ':', '1', '}'}, 1, 4);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            buffer.writeTo(out);
+            ByteBuffer view = buffer.toByteBuffer();
+
+            assertThat(buffer.toString()).isEqualTo("{\":1}");
+            assertThat(out.toByteArray()).isEqualTo(buffer.toByteArray());
+            assertThat(view.isReadOnly()).isTrue();
+            assertThat(view.remaining()).isEqualTo(5);
+
+            buffer.reset();
+            assertThat(buffer.size()).isZero();
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidCapacities() {
+        assertThatThrownBy(() -> new BufferPool(0, 64)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BufferPool(64, 16)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CborSinkTest {
+
+    @Test
+    public void shouldWriteIntegersInTheShortestForm() {
+        assertThat(hex(sink -> sink.value(0))).isEqualTo("00");
+        assertThat(hex(sink -> sink.value(23))).isEqualTo("17");
+        assertThat(hex(sink -> sink.value(24))).isEqualTo("1818");
+        assertThat(hex(sink -> sink.value(1000))).isEqualTo("1903e8");
+        assertThat(hex(sink -> sink.value(1000000))).isEqualTo("1a000f4240");
+        assertThat(hex(sink -> sink.value(1000000000000L))).isEqualTo("1b000000e8d4a51000");
+        assertThat(hex(sink -> sink.value(-1))).isEqualTo("20");
+        assertThat(hex(sink -> sink.value(-1000))).isEqualTo("3903e7");
+        assertThat(hex(sink -> sink.value(Long.MIN_VALUE))).isEqualTo("3b7fffffffffffffff");
+    }
+
+    @Test
+    public void shouldWriteDoublesAsIntegersOnlyIfThatKeepsTheirValue() {
+        assertThat(hex(sink -> sink.value(100.0))).isEqualTo("1864");
+        assertThat(hex(sink -> sink.value(1.5))).isEqualTo("fa3fc00000");
+        assertThat(hex(sink -> sink.value(1.1))).isEqualTo("fb3ff199999999999a");
+        assertThat(hex(sink -> sink.value(-0.0))).isEqualTo("fa80000000");
+        assertThat(hex(sink -> sink.value(0x1p63))).isEqualTo("fa5f000000");
+        assertThat(hex(sink -> sink.value(-0x1p63))).isEqualTo("3b7fffffffffffffff");
+        assertThat(hex(sink -> sink.value((Number) (-0.0f)))).isEqualTo("fa80000000");
+        assertThatThrownBy(() -> hex(sink -> sink.value(Double.NaN))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldWriteBigIntegersThatDoNotFitInALongAsBignums() {
+        assertThat(hex(sink -> sink.value(BigInteger.valueOf(Long.MAX_VALUE)))).isEqualTo("1b7fffffffffffffff");
+        assertThat(hex(sink -> sink.value(BigInteger.ONE.shiftLeft(63)))).isEqualTo("c2488000000000000000");
+        assertThat(hex(sink -> sink.value(BigInteger.ONE.shiftLeft(64)))).isEqualTo("c249010000000000000000");
+        assertThat(hex(sink -> sink.value(BigInteger.ONE.shiftLeft(64).negate().subtract(BigInteger.ONE)))).isEqualTo("c349010000000000000000");
+    }
+
+    @Test
+    public void shouldWriteBigDecimalsAsDecimalFractions() {
+        assertThat(hex(sink -> sink.value(new BigDecimal("273.15")))).isEqualTo("c48221196ab3");
+        assertThat(hex(sink -> sink.value(new BigDecimal("-0.00")))).isEqualTo("c4822100");
+        assertThat(hex(sink -> sink.value(new BigDecimal("1E+3")))).isEqualTo("c4820301");
+    }
+
+    @Test
+    public void shouldReadNumbersBackExactly() {
+        for (String number : Arrays.asList("0", "-1", "9223372036854775807", "-9223372036854775808", "9223372036854775808",
+                "18446744073709551615", "18446744073709551616", "-18446744073709551617", "123456789012345678901234567890",
+                "273.15", "0.1", "-0.00", "1E+30", "12345678901234567890.123", "1.7976931348623157E+309")) {
+            Number value = number.contains(".") || number.contains("E") ? new BigDecimal(number) : new BigInteger(number);
+
+            CborTokenSource source = new CborTokenSource(cbor(sink -> sink.value(value)));
+
+            assertThat(source.peek()).isEqualTo(JsonToken.NUMBER);
+            assertThat(new BigDecimal(source.nextString())).isEqualByComparingTo(new BigDecimal(number));
+        }
+    }
+
+    @Test
+    public void shouldReadNumbersThatFitInALongAsLongs() {
+        assertThat(new CborTokenSource(cbor(sink -> sink.value(new BigDecimal("42.000")))).nextLong()).isEqualTo(42);
+        assertThat(new CborTokenSource(cbor(sink -> sink.value(BigInteger.valueOf(Long.MIN_VALUE)))).nextLong()).isEqualTo(Long.MIN_VALUE);
+        assertThat(new CborTokenSource(cbor(sink -> sink.value(-2.0))).nextLong()).isEqualTo(-2);
+    }
+
+    @Test
+    public void shouldNotReadNumbersThatDoNotFitInALongAsLongs() {
+        assertThatThrownBy(() -> new CborTokenSource(cbor(sink -> sink.value(BigInteger.ONE.shiftLeft(63)))).nextLong())
+                .isInstanceOf(JsonParseException.class).hasMessageContaining("9223372036854775808");
+        assertThatThrownBy(() -> new CborTokenSource(cbor(sink -> sink.value(0x1p63))).nextLong()).isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> new CborTokenSource(cbor(sink -> sink.value(new BigDecimal("0.5")))).nextLong()).isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> new CborTokenSource(bytes("1bffffffffffffffff")).nextLong()).isInstanceOf(JsonParseException.class);
+    }
+
+    @Test
+    public void shouldKeepNegativeZero() {
+        double value = new CborTokenSource(cbor(sink -> sink.value(-0.0))).nextDouble();
+
+        assertThat(Double.doubleToRawLongBits(value)).isEqualTo(Double.doubleToRawLongBits(-0.0));
+        assertThat(Double.doubleToRawLongBits(new CborTokenSource(bytes("f98000")).nextDouble())).isEqualTo(Double.doubleToRawLongBits(-0.0));
+    }
+
+    @Test
+    public void shouldReadTheExamplesOfTheRfc() {
+        assertThat(new CborTokenSource(bytes("1bffffffffffffffff")).nextString()).isEqualTo("18446744073709551615");
+        assertThat(new CborTokenSource(bytes("3bffffffffffffffff")).nextString()).isEqualTo("-18446744073709551616");
+        assertThat(new CborTokenSource(bytes("c249010000000000000000")).nextString()).isEqualTo("18446744073709551616");
+        assertThat(new CborTokenSource(bytes("c349010000000000000000")).nextString()).isEqualTo("-18446744073709551617");
+        assertThat(new CborTokenSource(bytes("f93c00")).nextDouble()).isEqualTo(1.0);
+        assertThat(new CborTokenSource(bytes("f97bff")).nextDouble()).isEqualTo(65504.0);
+        assertThat(new CborTokenSource(bytes("f90001")).nextDouble()).isEqualTo(5.960464477539063e-8);
+        assertThat(new CborTokenSource(bytes("fb7e37e43c8800759c")).nextDouble()).isEqualTo(1.0e+300);
+        // an epoch-based date time: the tag is ignored
+        assertThat(new CborTokenSource(bytes("c11a514b67b0")).nextLong()).isEqualTo(1363896240);
+        // indefinite length text and byte string chunks
+        assertThat(new CborTokenSource(bytes("7f657374726561646d696e67ff")).nextString()).isEqualTo("streaming");
+        assertThat(new CborTokenSource(bytes("c25f4201024101ff")).nextString()).isEqualTo("66049");
+    }
+
+    @Test
+    public void shouldWriteOtherNumbersByTheirDecimalValue() {
+        assertThat(new CborTokenSource(cbor(sink -> sink.value(new AtomicLong(Long.MAX_VALUE)))).nextLong()).isEqualTo(Long.MAX_VALUE);
+        assertThatThrownBy(() -> hex(sink -> sink.value(new Number() {
+            @Override
+            public int intValue() {
+                return 0;
+            }
+
+            @Override
+            public long longValue() {
+                return 0;
+            }
+
+            @Override
+            public float floatValue() {
+                return 0;
+            }
+
+            @Override
+            public double doubleValue() {
+                return 0;
+            }
+
+            @Override
+            public String toString() {
+                return "zero";
+            }
+        }))).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("`zero'");
+    }
+
+    @Test
+    public void shouldRoundTripDocuments() {
+        String text = "caf\u00e9 \u20ac \ud83d\ude00 " + String.join("", Collections.nCopies(5000, "x"));
+        byte[] cbor = cbor(sink -> {
+            sink.beginObject();
+            sink.name("name");
+            sink.value(text);
+            sink.name("lone");
+            sink.value("\ud83d");
+            sink.name("stages");
+            sink.beginArray();
+            sink.value(true);
+            sink.nullValue();
+            sink.value(new BigDecimal("0.1"));
+            sink.endArray();
+            sink.endObject();
+        });
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("name", text);
+        expected.put("lone", "?");
+        expected.put("stages", Arrays.asList(true, null, 0.1));
+        assertThat(new CborTokenSource(cbor).readValue()).isEqualTo(expected);
+    }
+
+    @Test
+    public void shouldRejectMalformedDocuments() {
+        assertThatThrownBy(() -> new CborTokenSource(bytes("c2617a")).peek()).isInstanceOf(JsonParseException.class).hasMessageContaining("byte string in a bignum");
+        assertThatThrownBy(() -> new CborTokenSource(bytes("c48301020")).peek()).isInstanceOf(JsonParseException.class).hasMessageContaining("decimal fraction");
+        assertThatThrownBy(() -> new CborTokenSource(bytes("c4826161 02".replace(" ", ""))).peek()).isInstanceOf(JsonParseException.class).hasMessageContaining("integer in a decimal fraction");
+        assertThatThrownBy(() -> new CborTokenSource(bytes("c2490100")).peek()).isInstanceOf(JsonParseException.class).hasMessageContaining("end of the document");
+        assertThatThrownBy(() -> new CborTokenSource(bytes("4100")).peek()).isInstanceOf(JsonParseException.class).hasMessageContaining("Byte strings");
+        assertThatThrownBy(() -> {
+            CborTokenSource source = new CborTokenSource(bytes("0000"));
+            source.skipValue();
+            source.peek();
+        }).isInstanceOf(JsonParseException.class).hasMessageContaining("end of the document at byte 1");
+    }
+
+    private static byte[] cbor(Consumer<CborSink> writer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CborSink sink = new CborSink(out);
+        writer.accept(sink);
+        sink.flush();
+        return out.toByteArray();
+    }
+
+    private static String hex(Consumer<CborSink> writer) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : cbor(writer)) {
+            hex.append(String.format("%02x", b & 0xff));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] bytes(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+}
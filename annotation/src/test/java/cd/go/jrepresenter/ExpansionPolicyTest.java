@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ExpansionPolicyTest {
+
+    @Test
+    public void shouldExpandEveryRelationUpToADepth() {
+        ExpansionPolicy policy = ExpansionPolicy.depth(2);
+
+        assertThat(policy.expands("pipelines")).isTrue();
+        assertThat(policy.nested("pipelines").expands("stages")).isTrue();
+        assertThat(policy.nested("pipelines").nested("stages").expands("jobs")).isFalse();
+        assertThat(ExpansionPolicy.depth(0)).isSameAs(ExpansionPolicy.NONE);
+        assertThat(ExpansionPolicy.ALL.nested("pipelines")).isSameAs(ExpansionPolicy.ALL);
+    }
+
+    @Test
+    public void shouldOnlyExpandTheGivenRelationPaths() {
+        ExpansionPolicy policy = ExpansionPolicy.relations("pipelines.stages", "pipelines.materials", " user ");
+
+        assertThat(policy.expands("pipelines")).isTrue();
+        assertThat(policy.expands("user")).isTrue();
+        assertThat(policy.expands("environments")).isFalse();
+        assertThat(policy.nested("pipelines").expands("stages")).isTrue();
+        assertThat(policy.nested("pipelines").expands("materials")).isTrue();
+        assertThat(policy.nested("pipelines").nested("stages").expands("jobs")).isFalse();
+        assertThat(policy.nested("user").expands("roles")).isFalse();
+        assertThat(policy.nested("environments")).isSameAs(ExpansionPolicy.NONE);
+    }
+
+    @Test
+    public void shouldLimitTheDepthOfRelationPaths() {
+        ExpansionPolicy policy = ExpansionPolicy.relations("pipelines.stages.jobs").limitDepth(2);
+
+        assertThat(policy.expands("pipelines")).isTrue();
+        assertThat(policy.nested("pipelines").expands("stages")).isTrue();
+        assertThat(policy.nested("pipelines").nested("stages").expands("jobs")).isFalse();
+        assertThat(ExpansionPolicy.ALL.limitDepth(1).nested("pipelines").expands("stages")).isFalse();
+        assertThat(ExpansionPolicy.depth(1).limitDepth(3).nested("pipelines").expands("stages")).isFalse();
+    }
+
+    @Test
+    public void shouldBeEqualToPoliciesThatExpandTheSameRelations() {
+        assertThat(ExpansionPolicy.relations("pipelines.stages", "user")).isEqualTo(ExpansionPolicy.relations("user", "pipelines", "pipelines.stages"));
+        assertThat(ExpansionPolicy.relations("pipelines.stages", "user").hashCode()).isEqualTo(ExpansionPolicy.relations("user", "pipelines.stages").hashCode());
+        assertThat(ExpansionPolicy.depth(3)).isEqualTo(ExpansionPolicy.depth(3));
+        assertThat(ExpansionPolicy.depth(3).hashCode()).isEqualTo(ExpansionPolicy.depth(3).hashCode());
+        assertThat(ExpansionPolicy.relations("pipelines.stages").limitDepth(1)).isEqualTo(ExpansionPolicy.relations("pipelines").limitDepth(1));
+
+        assertThat(ExpansionPolicy.relations("pipelines.stages")).isNotEqualTo(ExpansionPolicy.relations("pipelines"));
+        assertThat(ExpansionPolicy.relations("pipelines")).isNotEqualTo(ExpansionPolicy.relations("pipelines").limitDepth(1));
+        assertThat(ExpansionPolicy.depth(2)).isNotEqualTo(ExpansionPolicy.depth(3)).isNotEqualTo(ExpansionPolicy.ALL);
+    }
+
+    @Test
+    public void shouldRejectInvalidPathsAndDepths() {
+        assertThatThrownBy(() -> ExpansionPolicy.relations("pipelines..stages")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("pipelines..stages");
+        assertThatThrownBy(() -> ExpansionPolicy.depth(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ExpansionPolicy.ALL.limitDepth(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldHandRequestContextsThePolicyOfTheExpandedRelation() {
+        RequestContext requestContext = new TestRequestContext().withExpansionPolicy(ExpansionPolicy.relations("pipelines.stages"));
+
+        assertThat(requestContext.expands("pipelines")).isTrue();
+        assertThat(requestContext.expand("pipelines").expands("stages")).isTrue();
+        assertThat(requestContext.expand("pipelines").expand("stages").expands("jobs")).isFalse();
+        assertThat(new TestRequestContext().expand("pipelines").getExpansionPolicy()).isSameAs(ExpansionPolicy.ALL);
+    }
+}
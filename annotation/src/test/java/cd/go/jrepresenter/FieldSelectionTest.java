@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FieldSelectionTest {
+
+    @Test
+    public void shouldSelectAllPropertiesWhenNoneAreListed() {
+        assertThat(FieldSelection.parse(null)).isSameAs(FieldSelection.ALL);
+        assertThat(FieldSelection.parse(" ")).isSameAs(FieldSelection.ALL);
+        assertThat(FieldSelection.ALL.isAll()).isTrue();
+        assertThat(FieldSelection.ALL.includes("name")).isTrue();
+        assertThat(FieldSelection.ALL.nested("stages")).isSameAs(FieldSelection.ALL);
+    }
+
+    @Test
+    public void shouldOnlySelectTheListedProperties() {
+        FieldSelection selection = FieldSelection.parse(" name , _links ");
+
+        assertThat(selection.isAll()).isFalse();
+        assertThat(selection.includes("name")).isTrue();
+        assertThat(selection.includes("_links")).isTrue();
+        assertThat(selection.includes("stages")).isFalse();
+        assertThat(selection.nested("name")).isSameAs(FieldSelection.ALL);
+    }
+
+    @Test
+    public void shouldSelectAllButTheExcludedProperties() {
+        FieldSelection selection = FieldSelection.parse("-_links,-stages");
+
+        assertThat(selection.includes("name")).isTrue();
+        assertThat(selection.includes("_links")).isFalse();
+        assertThat(selection.includes("stages")).isFalse();
+    }
+
+    @Test
+    public void shouldNeverSelectAnExcludedProperty() {
+        FieldSelection selection = FieldSelection.parse("name,-name,stages");
+
+        assertThat(selection.includes("name")).isFalse();
+        assertThat(selection.includes("stages")).isTrue();
+    }
+
+    @Test
+    public void shouldSelectThePropertiesOfNestedRepresenters() {
+        FieldSelection selection = FieldSelection.parse("name,stages(name,jobs(-resources)),materials");
+
+        assertThat(selection.includes("stages")).isTrue();
+        assertThat(selection.nested("materials")).isSameAs(FieldSelection.ALL);
+
+        FieldSelection stages = selection.nested("stages");
+        assertThat(stages.includes("name")).isTrue();
+        assertThat(stages.includes("state")).isFalse();
+
+        FieldSelection jobs = stages.nested("jobs");
+        assertThat(jobs.includes("name")).isTrue();
+        assertThat(jobs.includes("resources")).isFalse();
+        assertThat(jobs.toString()).isEqualTo("-resources");
+    }
+
+    @Test
+    public void shouldKeepTheNestedSelectionOfAPropertyThatIsListedAgain() {
+        assertThat(FieldSelection.parse("stages(name),stages").nested("stages").toString()).isEqualTo("name");
+        assertThat(FieldSelection.parse("stages,stages(name)").nested("stages").toString()).isEqualTo("name");
+    }
+
+    @Test
+    public void shouldPrintASelectionThatParsesToTheSameSelection() {
+        assertThat(FieldSelection.parse("stages( jobs ( name ) )").toString()).isEqualTo("stages(jobs(name))");
+        assertThat(FieldSelection.parse("-_links").toString()).isEqualTo("-_links");
+    }
+
+    @Test
+    public void shouldRejectMalformedSelections() {
+        assertThatThrownBy(() -> FieldSelection.parse("name,"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expected a property name at position 5 of field selection `name,'");
+        assertThatThrownBy(() -> FieldSelection.parse("stages(name"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expected `)' at position 11 of field selection `stages(name'");
+        assertThatThrownBy(() -> FieldSelection.parse("stages()"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Expected a property name");
+        assertThatThrownBy(() -> FieldSelection.parse("name)"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Unexpected `)'");
+        assertThatThrownBy(() -> FieldSelection.parse("-stages(name)"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Unexpected `('");
+    }
+
+    @Test
+    public void shouldRejectSelectionsThatAreNestedTooDeeply() {
+        assertThat(FieldSelection.parse(nested(FieldSelection.MAX_NESTING)).isAll()).isFalse();
+
+        assertThatThrownBy(() -> FieldSelection.parse(nested(100_000)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Nested more than " + FieldSelection.MAX_NESTING + " levels deep");
+    }
+
+    private static String nested(int levels) {
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < levels; i++) {
+            expression.append("a(");
+        }
+        expression.append('a');
+        for (int i = 0; i < levels; i++) {
+            expression.append(')');
+        }
+        return expression.toString();
+    }
+}
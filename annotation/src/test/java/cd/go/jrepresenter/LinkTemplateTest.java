@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LinkTemplateTest {
+
+    @Test
+    public void shouldExpandPlaceholdersLikeStringFormat() {
+        LinkTemplate template = LinkTemplate.compile("/go/api/pipelines/%s/history/%d");
+
+        assertThat(template.getPlaceholderCount()).isEqualTo(2);
+        assertThat(template.expand("http://test.host", "up42", 7)).isEqualTo("http://test.host" + String.format("/go/api/pipelines/%s/history/%d", "up42", 7));
+    }
+
+    @Test
+    public void shouldExpandTemplatesWithoutPlaceholdersAndWithPlaceholdersAtEitherEnd() {
+        assertThat(LinkTemplate.compile("/go/api/pipelines").expand("", new Object[0])).isEqualTo("/go/api/pipelines");
+        assertThat(LinkTemplate.compile("%s/stages/%s").expand("", "up42", "dev")).isEqualTo("up42/stages/dev");
+        assertThat(LinkTemplate.compile("%s%s").expand("", "a", null)).isEqualTo("anull");
+    }
+
+    @Test
+    public void shouldUnescapePercentSigns() {
+        assertThat(LinkTemplate.compile("/search?q=100%%&page=%d").expand("", 2)).isEqualTo("/search?q=100%&page=2");
+    }
+
+    @Test
+    public void shouldRejectUnsupportedAndIncompletePlaceholders() {
+        assertThatThrownBy(() -> LinkTemplate.compile("/pipelines/%x")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("%x");
+        assertThatThrownBy(() -> LinkTemplate.compile("/pipelines/%")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Incomplete");
+    }
+
+    @Test
+    public void shouldRejectTheWrongNumberOfArguments() {
+        LinkTemplate template = LinkTemplate.compile("/pipelines/%s");
+
+        assertThatThrownBy(() -> template.expand("", "a", "b")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("expects 1 arguments, but got 2");
+    }
+
+    @Test
+    public void shouldBuildLinksOnTheBaseUrlOfTheRequest() {
+        RequestContext requestContext = new RequestContext("https", "go.example.com", 8154);
+
+        Link link = requestContext.build("self", LinkTemplate.compile("/go/api/pipelines/%s"), "up42");
+
+        assertThat(link.getHref()).isEqualTo("https://go.example.com:8154/go/api/pipelines/up42");
+        assertThat(link.getHref()).isEqualTo(requestContext.build("self", "/go/api/pipelines/%s", "up42").getHref());
+        assertThat(new RequestContext("https", "go.example.com", 443).getBaseUrl()).isEqualTo("https://go.example.com");
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LinksMapperTest {
+    private final RequestContext requestContext = new TestRequestContext();
+
+    @Test
+    public void shouldPutLinksIntoTheRenderedObject() {
+        Map<String, Object> json = new HashMap<>();
+
+        LinksMapper.putLinks(json, (model, context) -> Arrays.asList(context.build("self", "/pipelines/%s", model), context.build("doc", "/doc")), "up42", requestContext);
+
+        assertThat(json).containsOnlyKeys("_links");
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("self", Collections.singletonMap("href", "http://test.host/pipelines/up42"));
+        expected.put("doc", Collections.singletonMap("href", "http://test.host/doc"));
+        assertThat(json.get("_links")).isEqualTo(expected);
+    }
+
+    @Test
+    public void shouldNotPutLinksWhenThereAreNone() {
+        Map<String, Object> json = new HashMap<>();
+
+        LinksMapper.putLinks(json, (model, context) -> Collections.emptyList(), "up42", requestContext);
+
+        assertThat(json).isEmpty();
+    }
+
+    @Test
+    public void shouldKeepTheLastOfLinksWithTheSameName() {
+        Map<String, Object> links = LinksMapper.linksToJSON((model, context) -> Arrays.asList(new Link("self", "/a"), new Link("self", "/b")), "up42", requestContext);
+
+        assertThat(links).containsOnlyKeys("self");
+        assertThat(links.get("self")).isEqualTo(Collections.singletonMap("href", "/b"));
+    }
+
+    @Test
+    public void shouldRenderLinksIntoASink() {
+        StringWriter out = new StringWriter();
+        AppendableJsonSink jsonSink = new AppendableJsonSink(out);
+
+        jsonSink.beginObject();
+        LinksMapper.toJSON((model, context) -> Arrays.asList(new Link("self", "/a"), new Link("doc", "/b")), "up42", requestContext, jsonSink);
+        jsonSink.endObject();
+
+        assertThat(out.toString()).isEqualTo("{\"_links\":{\"self\":{\"href\":\"/a\"},\"doc\":{\"href\":\"/b\"}}}");
+    }
+}
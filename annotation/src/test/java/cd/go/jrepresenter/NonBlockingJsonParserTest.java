@@ -0,0 +1,246 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NonBlockingJsonParserTest {
+    private static final String DOCUMENT = "{\"name\": \"a\\\"b\\\\c\\/\\n\\u00e9\\ud83d\\ude00\", \"raw\": \"\u00e9\u20ac\ud83d\ude00\u2028\", " +
+            "\"numbers\": [0, -0, -12.5e+3, 1E-2, 9223372036854775808], \"flags\": [true, false, null], \"empty\": [{}, []]}";
+
+    @Test
+    public void shouldParseTheSameTokensAsReaderJsonTokenSource() {
+        NonBlockingJsonParser parser = NonBlockingJsonParser.forDocument();
+
+        assertThat(parser.feed(utf8(DOCUMENT))).isTrue();
+        parser.finish();
+
+        assertThat(drain(parser.tokens())).isEqualTo(drain(new ReaderJsonTokenSource(DOCUMENT)));
+    }
+
+    @Test
+    public void shouldParseADocumentThatIsSplitAtAnyByte() {
+        byte[] bytes = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+        List<String> expected = drain(new ReaderJsonTokenSource(DOCUMENT));
+
+        for (int split = 0; split <= bytes.length; split++) {
+            NonBlockingJsonParser parser = NonBlockingJsonParser.forDocument();
+            assertThat(parser.feed(ByteBuffer.wrap(bytes, 0, split))).as("split at %d", split).isEqualTo(split == bytes.length);
+            assertThat(parser.feed(ByteBuffer.wrap(bytes, split, bytes.length - split))).isTrue();
+
+            assertThat(drain(parser.tokens())).as("split at %d", split).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void shouldParseADocumentThatIsFedOneByteAtATime() {
+        byte[] bytes = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+        NonBlockingJsonParser parser = NonBlockingJsonParser.forDocument();
+
+        for (byte b : bytes) {
+            ByteBuffer direct = ByteBuffer.allocateDirect(1).put(b);
+            direct.flip();
+            parser.feed(direct);
+        }
+
+        assertThat(parser.isComplete()).isTrue();
+        assertThat(drain(parser.tokens())).isEqualTo(drain(new ReaderJsonTokenSource(DOCUMENT)));
+    }
+
+    @Test
+    public void shouldCompleteADocumentThatIsABareNumberWhenFinished() {
+        NonBlockingJsonParser parser = NonBlockingJsonParser.forDocument();
+
+        assertThat(parser.feed(utf8("-0"))).isFalse();
+        parser.finish();
+
+        assertThat(parser.isComplete()).isTrue();
+        assertThat(parser.tokens().nextDouble()).isEqualTo(-0.0);
+    }
+
+    @Test
+    public void shouldReadNumbersExactly() {
+        assertThat(parse("[1e3, -0.0, 9223372036854775807, 1.50]")).satisfies(tokens -> {
+            tokens.beginArray();
+            assertThat(tokens.nextLong()).isEqualTo(1000);
+            assertThat(tokens.nextLong()).isEqualTo(0);
+            assertThat(tokens.nextLong()).isEqualTo(Long.MAX_VALUE);
+            assertThat(tokens.nextString()).isEqualTo("1.50");
+            tokens.endArray();
+        });
+
+        for (String number : new String[]{"1.5", "9223372036854775808", "-9223372036854775809", "1e-2"}) {
+            assertThatThrownBy(() -> parse(number).nextLong())
+                    .isInstanceOf(JsonParseException.class)
+                    .hasMessage("Expected a long but was " + number);
+        }
+    }
+
+    @Test
+    public void shouldRejectMalformedUtf8() {
+        byte[][] malformed = {
+                {'"', (byte) 0xc0, (byte) 0x80, '"'},
+                {'"', (byte) 0xe0, (byte) 0x80, (byte) 0x80, '"'},
+                {'"', (byte) 0xed, (byte) 0xa0, (byte) 0x80, '"'},
+                {'"', (byte) 0xf4, (byte) 0x90, (byte) 0x80, (byte) 0x80, '"'},
+                {'"', (byte) 0xc3, 'a', '"'},
+                {'"', (byte) 0x80, '"'},
+        };
+        for (byte[] bytes : malformed) {
+            assertThatThrownBy(() -> NonBlockingJsonParser.forDocument().feed(ByteBuffer.wrap(bytes)))
+                    .isInstanceOf(JsonParseException.class)
+                    .hasMessageStartingWith("Malformed UTF-8");
+        }
+    }
+
+    @Test
+    public void shouldRejectMalformedDocumentsAsSoonAsTheOffendingByteIsFed() {
+        NonBlockingJsonParser parser = NonBlockingJsonParser.forDocument();
+        parser.feed(utf8("[\"a\" "));
+
+        assertThatThrownBy(() -> parser.feed(utf8("\"b\"]")))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Expected ',' or ']' at byte 5");
+
+        assertThatThrownBy(() -> NonBlockingJsonParser.forDocument().feed(utf8("{1: 2}")))
+                .hasMessageStartingWith("Expected a name");
+        assertThatThrownBy(() -> NonBlockingJsonParser.forDocument().feed(utf8("{\"a\" 1}")))
+                .hasMessageStartingWith("Expected ':'");
+        assertThatThrownBy(() -> NonBlockingJsonParser.forDocument().feed(utf8("\"a\tb\"")))
+                .hasMessageStartingWith("Unescaped control character in string");
+        assertThatThrownBy(() -> NonBlockingJsonParser.forDocument().feed(utf8("\"\\x\"")))
+                .hasMessageStartingWith("Invalid escape sequence");
+        assertThatThrownBy(() -> NonBlockingJsonParser.forDocument().feed(utf8("\"\\u00g0\"")))
+                .hasMessageStartingWith("Malformed unicode escape");
+        assertThatThrownBy(() -> NonBlockingJsonParser.forDocument().feed(utf8("[01]")))
+                .hasMessageStartingWith("Malformed value '01'");
+        assertThatThrownBy(() -> NonBlockingJsonParser.forDocument().feed(utf8("[tru]")))
+                .hasMessageStartingWith("Malformed value 'tru'");
+        assertThatThrownBy(() -> NonBlockingJsonParser.forDocument().feed(utf8("{} {}")))
+                .hasMessageStartingWith("Expected the end of the document");
+    }
+
+    @Test
+    public void shouldNotFinishAnIncompleteDocument() {
+        NonBlockingJsonParser parser = NonBlockingJsonParser.forDocument();
+        parser.feed(utf8("{\"name\": \"up"));
+
+        assertThat(parser.isComplete()).isFalse();
+        assertThatThrownBy(parser::tokens).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(parser::finish)
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageStartingWith("Unexpected end of the document");
+    }
+
+    @Test
+    public void shouldHandOverEachElementOfATopLevelArrayAsSoonAsItIsComplete() {
+        List<List<String>> elements = new ArrayList<>();
+        NonBlockingJsonParser parser = NonBlockingJsonParser.forArrayElements(tokens -> elements.add(drain(tokens)));
+
+        parser.feed(utf8("[{\"name\": \"a\"}, [1, 2], nu"));
+        assertThat(elements).containsExactly(
+                drain(new ReaderJsonTokenSource("{\"name\": \"a\"}")),
+                drain(new ReaderJsonTokenSource("[1, 2]")));
+
+        assertThat(parser.feed(utf8("ll, \"b\", 3]"))).isTrue();
+        parser.finish();
+        assertThat(elements).hasSize(5);
+        assertThat(elements.get(2)).containsExactly("NULL");
+        assertThat(elements.get(3)).containsExactly("STRING b");
+        assertThat(elements.get(4)).containsExactly("NUMBER 3");
+        assertThatThrownBy(parser::tokens).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void shouldHandOverNoElementsOfANullDocument() {
+        List<JsonTokenSource> elements = new ArrayList<>();
+        NonBlockingJsonParser parser = NonBlockingJsonParser.forArrayElements(elements::add);
+
+        assertThat(parser.feed(utf8("null"))).isFalse();
+        parser.finish();
+
+        assertThat(parser.isComplete()).isTrue();
+        assertThat(elements).isEmpty();
+    }
+
+    @Test
+    public void shouldOnlyHandOverTheElementsOfAnArray() {
+        assertThatThrownBy(() -> NonBlockingJsonParser.forArrayElements(tokens -> {
+        }).feed(utf8("{}")))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageStartingWith("Expected an array");
+    }
+
+    private static JsonTokenSource parse(String json) {
+        NonBlockingJsonParser parser = NonBlockingJsonParser.forDocument();
+        parser.feed(utf8(json));
+        parser.finish();
+        return parser.tokens();
+    }
+
+    private static ByteBuffer utf8(String json) {
+        return ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // every token with its text, consuming them with the method that reads each type
+    private static List<String> drain(JsonTokenSource source) {
+        List<String> tokens = new ArrayList<>();
+        while (true) {
+            JsonToken token = source.peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    source.beginObject();
+                    tokens.add(token.name());
+                    break;
+                case END_OBJECT:
+                    source.endObject();
+                    tokens.add(token.name());
+                    break;
+                case BEGIN_ARRAY:
+                    source.beginArray();
+                    tokens.add(token.name());
+                    break;
+                case END_ARRAY:
+                    source.endArray();
+                    tokens.add(token.name());
+                    break;
+                case NAME:
+                    tokens.add(token + " " + source.nextName());
+                    break;
+                case BOOLEAN:
+                    tokens.add(token + " " + source.nextBoolean());
+                    break;
+                case NULL:
+                    source.nextNull();
+                    tokens.add(token.name());
+                    break;
+                case END_DOCUMENT:
+                    return tokens;
+                default:
+                    tokens.add(token + " " + source.nextString());
+            }
+        }
+    }
+}
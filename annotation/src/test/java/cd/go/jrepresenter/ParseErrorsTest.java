@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParseErrorsTest {
+
+    @Test
+    public void shouldRecordEachErrorWithThePathToItsProperty() {
+        ParseErrors errors = new ParseErrors();
+        JsonParseException badName = new JsonParseException("bad name");
+        JsonParseException badAge = new JsonParseException("bad age");
+
+        errors.push("pipelines");
+        errors.push(1);
+        errors.push("stages");
+        errors.push(0);
+        errors.add("name", badName);
+        errors.pop();
+        errors.pop();
+        errors.pop();
+        errors.pop();
+        errors.add("age", badAge);
+
+        assertThat(errors.isEmpty()).isFalse();
+        assertThat(errors.getErrors()).extracting(ParseErrors.ParseError::getPath).containsExactly("pipelines[1].stages[0].name", "age");
+        assertThat(errors.getErrors()).extracting(ParseErrors.ParseError::getCause).containsExactly(badName, badAge);
+        assertThat(errors.toString()).isEqualTo("2 errors\n  pipelines[1].stages[0].name: bad name\n  age: bad age");
+    }
+
+    @Test
+    public void shouldRecordAnErrorInTheCurrentObjectAsAWhole() {
+        ParseErrors errors = new ParseErrors();
+
+        errors.push(3);
+        errors.add(new JsonParseException("not an object"));
+        errors.pop();
+        errors.add(new JsonParseException("not an array"));
+
+        assertThat(errors.getErrors()).extracting(ParseErrors.ParseError::getPath).containsExactly("[3]", "");
+    }
+
+    @Test
+    public void shouldKeepTrackOfPathsDeeperThanTheInitialCapacity() {
+        ParseErrors errors = new ParseErrors();
+        StringBuilder expectedPath = new StringBuilder("a");
+        errors.push("a");
+        for (int i = 0; i < 20; i++) {
+            errors.push(i);
+            expectedPath.append('[').append(i).append(']');
+        }
+
+        errors.add("b", new JsonParseException("too deep"));
+
+        assertThat(errors.getErrors().get(0).getPath()).isEqualTo(expectedPath.append(".b").toString());
+    }
+
+    @Test
+    public void shouldThrowASummaryOfTheErrorsWithEachOfThemSuppressed() {
+        ParseErrors errors = new ParseErrors();
+        JsonParseException first = new JsonParseException("first");
+        JsonParseException second = new JsonParseException("second");
+        errors.add("a", first);
+        errors.add("b", second);
+
+        assertThatThrownBy(errors::throwIfAny)
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("2 errors\n  a: first\n  b: second")
+                .satisfies(e -> assertThat(e.getSuppressed()).containsExactly(first, second));
+    }
+
+    @Test
+    public void shouldNotThrowWithoutErrors() {
+        ParseErrors errors = new ParseErrors();
+
+        errors.throwIfAny();
+
+        assertThat(errors.isEmpty()).isTrue();
+        assertThat(errors.getErrors()).isEmpty();
+        assertThat(errors.toString()).isEqualTo("No errors");
+    }
+
+    @Test
+    public void shouldNotAllowTheErrorsToBeModified() {
+        ParseErrors errors = new ParseErrors();
+        errors.add("a", new JsonParseException("first"));
+
+        assertThatThrownBy(() -> errors.getErrors().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
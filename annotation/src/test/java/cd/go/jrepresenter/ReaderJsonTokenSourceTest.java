@@ -0,0 +1,231 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ReaderJsonTokenSourceTest {
+
+    @Test
+    public void shouldReadTheTokensOfADocument() {
+        JsonTokenSource source = new ReaderJsonTokenSource(" {\"name\": \"up42\", \"counter\": 7, \"locked\": false, \"label\": null, \"stages\": [{}, []]} ");
+
+        source.beginObject();
+        assertThat(source.nextName()).isEqualTo("name");
+        assertThat(source.nextString()).isEqualTo("up42");
+        assertThat(source.nextName()).isEqualTo("counter");
+        assertThat(source.nextLong()).isEqualTo(7);
+        assertThat(source.nextName()).isEqualTo("locked");
+        assertThat(source.nextBoolean()).isFalse();
+        assertThat(source.nextName()).isEqualTo("label");
+        assertThat(source.peek()).isEqualTo(JsonToken.NULL);
+        source.nextNull();
+        assertThat(source.nextName()).isEqualTo("stages");
+        source.beginArray();
+        source.beginObject();
+        assertThat(source.hasNext()).isFalse();
+        source.endObject();
+        source.beginArray();
+        source.endArray();
+        assertThat(source.hasNext()).isFalse();
+        source.endArray();
+        source.endObject();
+        assertThat(source.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+    }
+
+    @Test
+    public void shouldReadStringsWithEscapesAndSurrogatePairs() {
+        String json = "[\"a\\\"b\\\\c\\/d\\b\\f\\n\\r\\t\", \"\\u00e9\\u20AC\", \"\\ud83d\\ude00\", \"\u00e9\u20ac\ud83d\ude00\u2028\"]";
+
+        assertThat(readStrings(new ReaderJsonTokenSource(json))).containsExactly(
+                "a\"b\\c/d\b\f\n\r\t", "\u00e9\u20ac", "\ud83d\ude00", "\u00e9\u20ac\ud83d\ude00\u2028");
+    }
+
+    @Test
+    public void shouldReadTokensThatAreSplitAcrossReads() {
+        String json = "{\"na\\u006de\": \"a\\\"b\\ud83d\\ude00\ud83d\ude00\", \"numbers\": [-12.5e+3, true, null]}";
+
+        JsonTokenSource source = new ReaderJsonTokenSource(new OneCharAtATimeReader(json));
+
+        source.beginObject();
+        assertThat(source.nextName()).isEqualTo("name");
+        assertThat(source.nextString()).isEqualTo("a\"b\ud83d\ude00\ud83d\ude00");
+        assertThat(source.nextName()).isEqualTo("numbers");
+        source.beginArray();
+        assertThat(source.nextDouble()).isEqualTo(-12500.0);
+        assertThat(source.nextBoolean()).isTrue();
+        source.nextNull();
+        source.endArray();
+        source.endObject();
+        assertThat(source.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+    }
+
+    @Test
+    public void shouldReadStringsLongerThanTheBufferWithEscapesAtItsEdges() {
+        StringBuilder expected = new StringBuilder();
+        StringBuilder json = new StringBuilder("\"");
+        for (int i = 0; i < 3000; i++) {
+            expected.append(i % 7 == 0 ? '"' : 'x');
+            json.append(i % 7 == 0 ? "\\\"" : "x");
+        }
+        json.append('"');
+
+        for (int offset = 0; offset < 8; offset++) {
+            String padding = new String(new char[offset]).replace('\0', ' ');
+            assertThat(new ReaderJsonTokenSource(padding + json).nextString()).isEqualTo(expected.toString());
+        }
+    }
+
+    @Test
+    public void shouldReadNumbers() {
+        assertThat(new ReaderJsonTokenSource("1.5e3").nextDouble()).isEqualTo(1500.0);
+        assertThat(new ReaderJsonTokenSource("1E-2").nextDouble()).isEqualTo(0.01);
+        assertThat(new ReaderJsonTokenSource("-0").nextDouble()).isEqualTo(-0.0);
+        assertThat(new ReaderJsonTokenSource("-0.0").nextDouble()).isEqualTo(-0.0);
+        assertThat(new ReaderJsonTokenSource("1.50").nextString()).isEqualTo("1.50");
+    }
+
+    @Test
+    public void shouldReadLongsThatAreWrittenWithAFractionOrAnExponent() {
+        assertThat(new ReaderJsonTokenSource("-0").nextLong()).isEqualTo(0);
+        assertThat(new ReaderJsonTokenSource("-0.0").nextLong()).isEqualTo(0);
+        assertThat(new ReaderJsonTokenSource("1e3").nextLong()).isEqualTo(1000);
+        assertThat(new ReaderJsonTokenSource("2.0").nextLong()).isEqualTo(2);
+        assertThat(new ReaderJsonTokenSource("9223372036854775807").nextLong()).isEqualTo(Long.MAX_VALUE);
+        assertThat(new ReaderJsonTokenSource("-9223372036854775808").nextLong()).isEqualTo(Long.MIN_VALUE);
+        assertThat(new ReaderJsonTokenSource("9007199254740993.0").nextLong()).isEqualTo(9007199254740993L);
+    }
+
+    @Test
+    public void shouldNotReadNumbersThatAreNotLongsAsLongs() {
+        for (String number : new String[]{"1.5", "9223372036854775808", "-9223372036854775809", "1e19", "1e-2", "1e99999999999"}) {
+            assertThatThrownBy(() -> new ReaderJsonTokenSource(number).nextLong())
+                    .isInstanceOf(JsonParseException.class)
+                    .hasMessageStartingWith("Expected a long but was " + number);
+        }
+    }
+
+    @Test
+    public void shouldRejectMalformedNumbersAndLiterals() {
+        for (String json : new String[]{"01", "1.", ".5", "-", "1e", "1e+", "+1", "1.5.5", "tru", "nulls", "True"}) {
+            assertThatThrownBy(() -> new ReaderJsonTokenSource(json).peek())
+                    .as(json)
+                    .isInstanceOf(JsonParseException.class);
+        }
+    }
+
+    @Test
+    public void shouldRejectMalformedDocumentsWithTheirLocation() {
+        assertThatThrownBy(() -> readStrings(new ReaderJsonTokenSource("[\"a\" \"b\"]")))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Expected ',' or ']' at character 6");
+        assertThatThrownBy(() -> new ReaderJsonTokenSource("\"a\tb\"").nextString())
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageStartingWith("Unescaped control character in string");
+        assertThatThrownBy(() -> new ReaderJsonTokenSource("\"\\x\"").nextString())
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageStartingWith("Invalid escape sequence");
+        assertThatThrownBy(() -> new ReaderJsonTokenSource("\"\\u00g0\"").nextString())
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageStartingWith("Malformed unicode escape");
+        assertThatThrownBy(() -> new ReaderJsonTokenSource("\"abc").nextString())
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageStartingWith("Unterminated string");
+        assertThatThrownBy(() -> firstName(new ReaderJsonTokenSource("{1: 2}")))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageStartingWith("Expected a name");
+        assertThatThrownBy(() -> firstValue(new ReaderJsonTokenSource("{\"a\" 1}")))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageStartingWith("Expected ':'");
+        assertThatThrownBy(() -> {
+            JsonTokenSource source = new ReaderJsonTokenSource("{} {}");
+            source.skipValue();
+            source.peek();
+        })
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageStartingWith("Expected the end of the document");
+    }
+
+    @Test
+    public void shouldRejectATokenOfAnotherType() {
+        JsonTokenSource source = new ReaderJsonTokenSource("[true]");
+        source.beginArray();
+
+        assertThatThrownBy(source::nextString)
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageStartingWith("Expected STRING but was BOOLEAN");
+    }
+
+    @Test
+    public void shouldSkipNestedValues() {
+        JsonTokenSource source = new ReaderJsonTokenSource("{\"skipped\": {\"a\": [1, {\"b\": [true, null]}], \"c\": \"d\"}, \"kept\": 1}");
+
+        source.beginObject();
+        assertThat(source.nextName()).isEqualTo("skipped");
+        source.skipValue();
+        assertThat(source.nextName()).isEqualTo("kept");
+        assertThat(source.nextLong()).isEqualTo(1);
+        source.endObject();
+        assertThat(source.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+    }
+
+    private static String firstName(JsonTokenSource source) {
+        source.beginObject();
+        return source.nextName();
+    }
+
+    private static JsonToken firstValue(JsonTokenSource source) {
+        firstName(source);
+        return source.peek();
+    }
+
+    private static List<String> readStrings(JsonTokenSource source) {
+        List<String> strings = new ArrayList<>();
+        source.beginArray();
+        while (source.hasNext()) {
+            strings.add(source.nextString());
+        }
+        source.endArray();
+        return strings;
+    }
+
+    private static class OneCharAtATimeReader extends Reader {
+        private final Reader delegate;
+
+        OneCharAtATimeReader(String text) {
+            this.delegate = new StringReader(text);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return delegate.read(buffer, offset, Math.min(length, 1));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
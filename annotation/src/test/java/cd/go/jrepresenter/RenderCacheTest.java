@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RenderCacheTest {
+    private final RequestContext requestContext = new TestRequestContext();
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    public void shouldRenderOnceAndServeLaterRequestsFromTheCache() {
+        RenderCache cache = new RenderCache(100);
+
+        Map<String, Object> first = cache.get(String.class, "up42", requestContext, renderer("up42"));
+        Map<String, Object> second = cache.get(String.class, "up42", new TestRequestContext(), renderer("up42"));
+
+        assertThat(second).isSameAs(first).isEqualTo(Collections.singletonMap("name", "up42"));
+        assertThat(renders.get()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldHitTheSameEntryForEqualExpansionPoliciesBuiltPerRequest() {
+        RenderCache cache = new RenderCache(100);
+
+        cache.get(String.class, "up42", requestContext.withExpansionPolicy(ExpansionPolicy.relations("pipelines.stages", "user")), renderer("up42"));
+        cache.get(String.class, "up42", requestContext.withExpansionPolicy(ExpansionPolicy.relations("user", "pipelines.stages")), renderer("up42"));
+        cache.get(String.class, "up42", requestContext.withExpansionPolicy(ExpansionPolicy.depth(3)), renderer("up42"));
+        cache.get(String.class, "up42", requestContext.withExpansionPolicy(ExpansionPolicy.depth(3)), renderer("up42"));
+
+        assertThat(renders.get()).isEqualTo(2);
+        assertThat(cache.hitCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldKeepSeparateEntriesForEverythingThatChangesTheRepresentation() {
+        RenderCache cache = new RenderCache(100);
+
+        cache.get(String.class, "up42", requestContext, renderer("up42"));
+        cache.get(Integer.class, "up42", requestContext, renderer("up42"));
+        cache.get(String.class, "down42", requestContext, renderer("down42"));
+        cache.get(String.class, "up42", new RequestContext("https", "go.example.com", 443), renderer("up42"));
+        cache.get(String.class, "up42", requestContext.withExpansionPolicy(ExpansionPolicy.NONE), renderer("up42"));
+        cache.get(String.class, "up42", requestContext.withExpansionPolicy(ExpansionPolicy.relations("user").limitDepth(1)), renderer("up42"));
+        cache.get(String.class, "up42", requestContext.withExpansionPolicy(ExpansionPolicy.relations("user.roles")), renderer("up42"));
+
+        assertThat(renders.get()).isEqualTo(7);
+        assertThat(cache.hitCount()).isZero();
+    }
+
+    @Test
+    public void shouldEvictTheLeastRecentlyUsedEntriesOfASegment() {
+        RenderCache cache = new RenderCache(1);
+
+        cache.get(String.class, "a", requestContext, renderer("a"));
+        cache.get(String.class, "b", requestContext, renderer("b"));
+        cache.get(String.class, "a", requestContext, renderer("a"));
+
+        assertThat(renders.get()).isEqualTo(3);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.evictionCount()).isEqualTo(2);
+        assertThat(cache.missCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldNeverHoldMoreThanItsMaximumSize() {
+        RenderCache cache = new RenderCache(40);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.get(String.class, i, requestContext, renderer("pipeline" + i));
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(40);
+        assertThat(cache.evictionCount()).isEqualTo(1000 - cache.size());
+    }
+
+    @Test
+    public void shouldNotCacheWithoutACacheKeyOrARepresentation() {
+        RenderCache cache = new RenderCache(100);
+
+        cache.get(String.class, null, requestContext, renderer("up42"));
+        cache.get(String.class, null, requestContext, renderer("up42"));
+        assertThat(cache.get(String.class, "up42", requestContext, () -> null)).isNull();
+
+        assertThat(renders.get()).isEqualTo(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldHandOutRepresentationsWhoseNestedMapsAndListsCannotBeModified() {
+        RenderCache cache = new RenderCache(100);
+        Map<String, Object> stage = new SharedKeyMap(SharedKeyMap.keys("name"));
+        stage.put("name", "build");
+        Map<String, Object> pipeline = new LinkedHashMap<>();
+        pipeline.put("name", "up42");
+        pipeline.put("stages", new ArrayList<>(Collections.singletonList(stage)));
+        pipeline.put("labels", Collections.singletonList(new ArrayList<>(Collections.singletonList("1"))));
+
+        Map<String, Object> rendered = cache.get(String.class, "up42", requestContext, () -> pipeline);
+
+        List<Object> stages = (List<Object>) rendered.get("stages");
+        assertThatThrownBy(() -> stages.add(stage)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ((Map<String, Object>) stages.get(0)).put("name", "test")).isInstanceOf(UnsupportedOperationException.class);
+        List<List<Object>> labels = (List<List<Object>>) rendered.get("labels");
+        assertThatThrownBy(() -> labels.get(0).add("2")).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(rendered.toString()).isEqualTo("{name=up42, stages=[{name=build}], labels=[[1]]}");
+    }
+
+    @Test
+    public void shouldHandOutRepresentationsThatCannotBeModified() {
+        RenderCache cache = new RenderCache(100);
+
+        Map<String, Object> rendered = cache.get(String.class, "up42", requestContext, renderer("up42"));
+
+        assertThatThrownBy(() -> rendered.put("name", "down42")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void shouldClearEntriesButKeepCounting() {
+        RenderCache cache = new RenderCache(100);
+        cache.get(String.class, "up42", requestContext, renderer("up42"));
+
+        cache.clear();
+        cache.get(String.class, "up42", requestContext, renderer("up42"));
+
+        assertThat(renders.get()).isEqualTo(2);
+        assertThat(cache.missCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    private Supplier<Map<String, Object>> renderer(String name) {
+        return () -> {
+            renders.incrementAndGet();
+            return Collections.singletonMap("name", name);
+        };
+    }
+}
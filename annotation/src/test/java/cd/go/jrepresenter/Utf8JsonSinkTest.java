@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class Utf8JsonSinkTest {
+    private static final String[] STRINGS = {
+            "", "plain", "quote \" backslash \\ slash /", "\b\f\n\r\t\u0000\u001f\u007f",
+            "é߿ࠀ€￿", "line   paragraph   separators",
+            "pair 😀", "lone \ud83d high", "lone \ude00 low", "reversed \ude00\ud83d", "ends with \ud83d"
+    };
+
+    @Test
+    public void shouldWriteTheSameBytesAsAppendableJsonSink() {
+        assertSameAsAppendableJsonSink(sink -> {
+            sink.beginObject();
+            for (int i = 0; i < STRINGS.length; i++) {
+                sink.name(STRINGS[i]);
+                sink.value(STRINGS[i]);
+            }
+            sink.name("numbers");
+            sink.beginArray();
+            for (long value : new long[]{0, 7, -7, 10, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+                sink.value(value);
+            }
+            for (double value : new double[]{0.0, -0.0, 1.5, 1e21, 1e-7, Double.MAX_VALUE, Double.MIN_VALUE}) {
+                sink.value(value);
+            }
+            for (Number value : new Number[]{1, (short) -2, (byte) 3, 4.5f, 6.5d, new BigDecimal("1.50"), BigInteger.ONE.shiftLeft(70), new AtomicLong(8), null}) {
+                sink.value(value);
+            }
+            sink.endArray();
+            sink.name("nested");
+            sink.beginArray();
+            sink.beginObject();
+            sink.endObject();
+            sink.beginArray();
+            sink.endArray();
+            sink.value(true);
+            sink.value(false);
+            sink.nullValue();
+            sink.value((String) null);
+            sink.endArray();
+            sink.endObject();
+        });
+    }
+
+    @Test
+    public void shouldWriteStringsLongerThanAChunkWithPairsAcrossItsEdges() {
+        for (int offset = 1020; offset < 1028; offset++) {
+            StringBuilder value = new StringBuilder();
+            for (int i = 0; i < offset; i++) {
+                value.append(i % 3 == 0 ? '€' : '\n');
+            }
+            value.append("😀😀 ");
+            String text = value.toString();
+
+            assertSameAsAppendableJsonSink(sink -> sink.value(text));
+        }
+    }
+
+    @Test
+    public void shouldWriteEncodedNamesLikeName() {
+        PooledBuffer buffer = new BufferPool(16, 16).borrow();
+        Utf8JsonSink sink = new Utf8JsonSink(buffer);
+
+        sink.beginObject();
+        sink.name("first", Utf8JsonSink.encodeName("first"));
+        sink.value(1);
+        sink.name("café \"😀\"", Utf8JsonSink.encodeName("café \"😀\""));
+        sink.value(2);
+        sink.endObject();
+
+        assertThat(buffer.toString()).isEqualTo("{\"first\":1,\"café \\\"😀\\\"\":2}");
+    }
+
+    @Test
+    public void shouldNotWriteNumbersThatJsonDoesNotAllow() {
+        Utf8JsonSink sink = new Utf8JsonSink(new BufferPool(16, 16).borrow());
+
+        assertThatThrownBy(() -> sink.value(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sink.value(Double.POSITIVE_INFINITY)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sink.value((Number) Float.NEGATIVE_INFINITY)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertSameAsAppendableJsonSink(Consumer<JsonSink> render) {
+        StringBuilder text = new StringBuilder();
+        render.accept(new AppendableJsonSink(text));
+
+        try (PooledBuffer buffer = new BufferPool(16, 16).borrow()) {
+            render.accept(new Utf8JsonSink(buffer));
+
+            assertThat(buffer.toByteArray()).isEqualTo(text.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
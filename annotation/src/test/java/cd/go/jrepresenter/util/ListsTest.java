@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ListsTest {
+
+    @Test
+    public void shouldMapInParallelKeepingTheOrderOfTheList() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Integer> list = numbers(1000);
+
+            assertThat(Lists.mapInParallel(list, i -> i * 2, executor)).isEqualTo(Lists.map(list, i -> i * 2));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shouldNotDeadlockWhenCalledFromAThreadOfTheSameExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            List<Integer> list = numbers(1000);
+
+            Future<List<Integer>> result = executor.submit(() -> Lists.mapInParallel(list, i -> i + 1, executor));
+
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(Lists.map(list, i -> i + 1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldMapOnTheCallingThreadWhenTheExecutorRejectsTasks() {
+        List<Integer> list = numbers(100);
+
+        assertThat(Lists.mapInParallel(list, String::valueOf, task -> {
+            throw new RejectedExecutionException();
+        })).isEqualTo(Lists.map(list, String::valueOf));
+    }
+
+    @Test
+    public void shouldRethrowTheFailureOfAnyChunk() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Integer> list = numbers(1000);
+
+            assertThatThrownBy(() -> Lists.mapInParallel(list, i -> {
+                if (i == 999) {
+                    throw new IllegalStateException("boom");
+                }
+                return i;
+            }, executor)).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReturnAModifiableList() {
+        List<Integer> result = Lists.mapInParallel(numbers(100), i -> i, task -> {
+            throw new RejectedExecutionException();
+        });
+
+        result.add(100);
+
+        assertThat(result).hasSize(101).endsWith(100);
+    }
+
+    @Test
+    public void shouldMapALinkedListInParallelKeepingTheOrderOfTheList() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Integer> list = new LinkedList<>(numbers(1000));
+
+            assertThat(Lists.mapInParallel(list, i -> i * 2, executor)).isEqualTo(Lists.map(list, i -> i * 2));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReturnNullForNull() {
+        assertThat(Lists.mapInParallel(null, i -> i, Runnable::run)).isNull();
+    }
+
+    private static List<Integer> numbers(int count) {
+        return IntStream.range(0, count).boxed().collect(Collectors.toCollection(ArrayList::new));
+    }
+}
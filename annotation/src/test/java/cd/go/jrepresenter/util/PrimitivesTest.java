@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.util;
+
+import cd.go.jrepresenter.JsonParseException;
+import cd.go.jrepresenter.ReaderJsonTokenSource;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class PrimitivesTest {
+
+    @Test
+    public void shouldNameThePropertyAndKeepTheCauseWhenALongCannotBeRead() {
+        Throwable thrown = catchThrowable(() -> Primitives.readLong("counter", new ReaderJsonTokenSource("1.5")));
+
+        assertThat(thrown).isInstanceOf(JsonParseException.class)
+                .hasMessage("Could not property attribute `counter': Expected a long but was 1.5 at character 3")
+                .hasCauseInstanceOf(JsonParseException.class);
+        assertThat(thrown.getStackTrace()).isEmpty();
+    }
+
+    @Test
+    public void shouldReadAnIntInRange() {
+        assertThat(Primitives.readInt("counter", new ReaderJsonTokenSource("42"))).isEqualTo(42);
+    }
+}
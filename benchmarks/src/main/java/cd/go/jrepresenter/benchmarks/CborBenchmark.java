@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.benchmarks;
+
+import cd.go.jrepresenter.AppendableJsonSink;
+import cd.go.jrepresenter.CborSink;
+import cd.go.jrepresenter.CborTokenSource;
+import cd.go.jrepresenter.ReaderJsonTokenSource;
+import cd.go.jrepresenter.RequestContext;
+import cd.go.jrepresenter.TestRequestContext;
+import cd.go.jrepresenter.examples.Pipeline;
+import gen.cd.go.jrepresenter.examples.representers.PipelineMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares CBOR with JSON text for the same lists of pipelines, both rendered through a sink and parsed through a
+ * token source, so that the only difference is the encoding. JSON text is measured as UTF-8 bytes, which is what goes
+ * over the wire. The size of both payloads is printed once per trial.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CborBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private final RequestContext requestContext = new TestRequestContext();
+
+    private List<Pipeline> pipelines;
+    private byte[] pipelinesText;
+    private byte[] pipelinesCbor;
+
+    @Setup
+    public void setup() {
+        pipelines = ExampleData.pipelines(size);
+        List<?> pipelinesJson = ExampleData.pipelinesJson(size);
+        pipelinesText = ExampleData.toText(pipelinesJson).getBytes(StandardCharsets.UTF_8);
+        pipelinesCbor = ExampleData.toCbor(pipelinesJson);
+        System.out.printf("%n%d pipelines: %d bytes of JSON, %d bytes of CBOR%n", size, pipelinesText.length, pipelinesCbor.length);
+    }
+
+    @Benchmark
+    public byte[] toJSONTextViaSink() {
+        StringBuilder text = new StringBuilder();
+        PipelineMapper.toJSON(pipelines, requestContext, new AppendableJsonSink(text));
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] toCborViaSink() {
+        ByteArrayOutputStream cbor = new ByteArrayOutputStream();
+        PipelineMapper.toJSON(pipelines, requestContext, new CborSink(cbor));
+        return cbor.toByteArray();
+    }
+
+    @Benchmark
+    public List<Pipeline> fromJSONTextViaTokenSource() {
+        return PipelineMapper.fromJSONArray(new ReaderJsonTokenSource(new String(pipelinesText, StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public List<Pipeline> fromCborViaTokenSource() {
+        return PipelineMapper.fromJSONArray(new CborTokenSource(pipelinesCbor));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.benchmarks;
+
+import cd.go.jrepresenter.AppendableJsonSink;
+import cd.go.jrepresenter.CborSink;
+import cd.go.jrepresenter.examples.Pipeline;
+import cd.go.jrepresenter.examples.PipelineGroup;
+import cd.go.jrepresenter.examples.Stage;
+import cd.go.jrepresenter.examples.StageState;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the models and the JSON documents that the benchmarks render and parse. Input documents are built in the
+ * shape the representers parse, which is not always the shape they render (e.g. {@code created_at} is parsed as
+ * epoch millis but rendered using {@link Timestamp#toString()}).
+ */
+class ExampleData {
+    private static final int STAGES_PER_PIPELINE = 3;
+    private static final StageState[] STATES = StageState.values();
+
+    static PipelineGroup pipelineGroup(int pipelineCount) {
+        return new PipelineGroup("group", "admins", pipelines(pipelineCount));
+    }
+
+    static List<Pipeline> pipelines(int count) {
+        List<Pipeline> pipelines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Stage> stages = new ArrayList<>(STAGES_PER_PIPELINE);
+            for (int j = 0; j < STAGES_PER_PIPELINE; j++) {
+                stages.add(new Stage("stage-" + j, new Timestamp(1500000000000L + i * 1000L + j), STATES[(i + j) % STATES.length]));
+            }
+            pipelines.add(new Pipeline("pipeline-" + i, stages));
+        }
+        return pipelines;
+    }
+
+    static Map<String, Object> pipelineGroupJson(int pipelineCount) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("name", "group");
+        json.put("pipelines", pipelinesJson(pipelineCount));
+        return json;
+    }
+
+    static List<Map> pipelinesJson(int count) {
+        List<Map> pipelines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Map> stages = new ArrayList<>(STAGES_PER_PIPELINE);
+            for (int j = 0; j < STAGES_PER_PIPELINE; j++) {
+                Map<String, Object> stage = new LinkedHashMap<>();
+                stage.put("name", "stage-" + j);
+                stage.put("created_at", Long.toString(1500000000000L + i * 1000L + j));
+                stage.put("state", STATES[(i + j) % STATES.length].name());
+                stages.add(stage);
+            }
+            Map<String, Object> pipeline = new LinkedHashMap<>();
+            pipeline.put("name", "pipeline-" + i);
+            pipeline.put("stages", stages);
+            pipelines.add(pipeline);
+        }
+        return pipelines;
+    }
+
+    static String toText(Object json) {
+        StringBuilder text = new StringBuilder();
+        new AppendableJsonSink(text).value(json);
+        return text.toString();
+    }
+
+    static byte[] toCbor(Object json) {
+        ByteArrayOutputStream cbor = new ByteArrayOutputStream();
+        new CborSink(cbor).value(json);
+        return cbor.toByteArray();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.benchmarks;
+
+import cd.go.jrepresenter.AppendableJsonSink;
+import cd.go.jrepresenter.BufferPool;
+import cd.go.jrepresenter.PooledBuffer;
+import cd.go.jrepresenter.ReaderJsonTokenSource;
+import cd.go.jrepresenter.RequestContext;
+import cd.go.jrepresenter.TestRequestContext;
+import cd.go.jrepresenter.Utf8JsonSink;
+import cd.go.jrepresenter.examples.Pipeline;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import gen.cd.go.jrepresenter.examples.representers.PipelineMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders and parses lists of pipelines (each with a few stages and a self link) of increasing size, to show how
+ * the mappers scale from a small page of results to a bulk export.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ListBenchmark {
+    private static final Type LIST_OF_MAPS = new TypeToken<List<Map>>() {
+    }.getType();
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private final Gson gson = new Gson();
+    private final RequestContext requestContext = new TestRequestContext();
+
+    private List<Pipeline> pipelines;
+    private List<Map> pipelinesJson;
+    private String pipelinesText;
+
+    @Setup
+    public void setup() {
+        pipelines = ExampleData.pipelines(size);
+        pipelinesJson = ExampleData.pipelinesJson(size);
+        pipelinesText = ExampleData.toText(pipelinesJson);
+    }
+
+    @Benchmark
+    public List toJSONMap() {
+        return PipelineMapper.toJSON(pipelines, requestContext);
+    }
+
+    @Benchmark
+    public List toJSONMapInParallel() {
+        return PipelineMapper.toJSON(pipelines, requestContext, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public String toJSONTextViaGson() {
+        return gson.toJson(PipelineMapper.toJSON(pipelines, requestContext));
+    }
+
+    @Benchmark
+    public String toJSONTextViaSink() {
+        StringBuilder text = new StringBuilder();
+        PipelineMapper.toJSON(pipelines, requestContext, new AppendableJsonSink(text));
+        return text.toString();
+    }
+
+    @Benchmark
+    public byte[] toJSONBytesViaSink() {
+        StringBuilder text = new StringBuilder();
+        PipelineMapper.toJSON(pipelines, requestContext, new AppendableJsonSink(text));
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int toJSONBytesViaPooledBuffer() {
+        try (PooledBuffer buffer = BufferPool.getDefault().borrow()) {
+            PipelineMapper.toJSON(pipelines, requestContext, new Utf8JsonSink(buffer));
+            return buffer.size();
+        }
+    }
+
+    @Benchmark
+    public List<Pipeline> fromJSONMap() {
+        return PipelineMapper.fromJSON(pipelinesJson);
+    }
+
+    @Benchmark
+    public List<Pipeline> fromJSONTextViaGson() {
+        List<Map> json = gson.fromJson(pipelinesText, LIST_OF_MAPS);
+        return PipelineMapper.fromJSON(json);
+    }
+
+    @Benchmark
+    public List<Pipeline> fromJSONTextViaTokenSource() {
+        return PipelineMapper.fromJSONArray(new ReaderJsonTokenSource(pipelinesText));
+    }
+}
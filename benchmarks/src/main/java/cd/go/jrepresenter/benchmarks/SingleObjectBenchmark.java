@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.benchmarks;
+
+import cd.go.jrepresenter.AppendableJsonSink;
+import cd.go.jrepresenter.ReaderJsonTokenSource;
+import cd.go.jrepresenter.RequestContext;
+import cd.go.jrepresenter.TestRequestContext;
+import cd.go.jrepresenter.examples.PipelineGroup;
+import com.google.gson.Gson;
+import gen.cd.go.jrepresenter.examples.representers.PipelineGroupMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders and parses a single pipeline group with a handful of pipelines, which is the typical size of an API
+ * response. The {@code Map} variants measure the mapper alone, the {@code Text} variants include producing or
+ * consuming the JSON text.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SingleObjectBenchmark {
+    private static final int PIPELINES_IN_GROUP = 5;
+
+    private final Gson gson = new Gson();
+    private final RequestContext requestContext = new TestRequestContext();
+
+    private PipelineGroup pipelineGroup;
+    private Map pipelineGroupJson;
+    private String pipelineGroupText;
+
+    @Setup
+    public void setup() {
+        pipelineGroup = ExampleData.pipelineGroup(PIPELINES_IN_GROUP);
+        pipelineGroupJson = ExampleData.pipelineGroupJson(PIPELINES_IN_GROUP);
+        pipelineGroupText = ExampleData.toText(pipelineGroupJson);
+    }
+
+    @Benchmark
+    public Map toJSONMap() {
+        return PipelineGroupMapper.toJSON(pipelineGroup, requestContext);
+    }
+
+    @Benchmark
+    public String toJSONTextViaGson() {
+        return gson.toJson(PipelineGroupMapper.toJSON(pipelineGroup, requestContext));
+    }
+
+    @Benchmark
+    public String toJSONTextViaSink() {
+        StringBuilder text = new StringBuilder();
+        PipelineGroupMapper.toJSON(pipelineGroup, requestContext, new AppendableJsonSink(text));
+        return text.toString();
+    }
+
+    @Benchmark
+    public PipelineGroup fromJSONMap() {
+        return PipelineGroupMapper.fromJSON(pipelineGroupJson);
+    }
+
+    @Benchmark
+    public PipelineGroup fromJSONTextViaGson() {
+        return PipelineGroupMapper.fromJSON(gson.fromJson(pipelineGroupText, Map.class));
+    }
+
+    @Benchmark
+    public PipelineGroup fromJSONTextViaTokenSource() {
+        return PipelineGroupMapper.fromJSON(new ReaderJsonTokenSource(pipelineGroupText));
+    }
+}
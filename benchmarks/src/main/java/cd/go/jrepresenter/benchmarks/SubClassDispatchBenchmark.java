@@ -0,0 +1,573 @@
+/*
+ * Copyright 2017 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cd.go.jrepresenter.benchmarks;
+
+import cd.go.jrepresenter.util.SubClassIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@code instanceof} and {@code equals()} chains that mappers used to generate for
+ * {@code @RepresentsSubClasses} against the {@link SubClassIndex} lookup and string {@code switch} they generate now,
+ * over 40 synthetic subclasses. Each invocation dispatches one model (or discriminator) of every subclass, so the
+ * later subclasses pay their full share of the chain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubClassDispatchBenchmark {
+    static abstract class Material {
+    }
+
+    static final class Material00 extends Material {
+    }
+
+    static final class Material01 extends Material {
+    }
+
+    static final class Material02 extends Material {
+    }
+
+    static final class Material03 extends Material {
+    }
+
+    static final class Material04 extends Material {
+    }
+
+    static final class Material05 extends Material {
+    }
+
+    static final class Material06 extends Material {
+    }
+
+    static final class Material07 extends Material {
+    }
+
+    static final class Material08 extends Material {
+    }
+
+    static final class Material09 extends Material {
+    }
+
+    static final class Material10 extends Material {
+    }
+
+    static final class Material11 extends Material {
+    }
+
+    static final class Material12 extends Material {
+    }
+
+    static final class Material13 extends Material {
+    }
+
+    static final class Material14 extends Material {
+    }
+
+    static final class Material15 extends Material {
+    }
+
+    static final class Material16 extends Material {
+    }
+
+    static final class Material17 extends Material {
+    }
+
+    static final class Material18 extends Material {
+    }
+
+    static final class Material19 extends Material {
+    }
+
+    static final class Material20 extends Material {
+    }
+
+    static final class Material21 extends Material {
+    }
+
+    static final class Material22 extends Material {
+    }
+
+    static final class Material23 extends Material {
+    }
+
+    static final class Material24 extends Material {
+    }
+
+    static final class Material25 extends Material {
+    }
+
+    static final class Material26 extends Material {
+    }
+
+    static final class Material27 extends Material {
+    }
+
+    static final class Material28 extends Material {
+    }
+
+    static final class Material29 extends Material {
+    }
+
+    static final class Material30 extends Material {
+    }
+
+    static final class Material31 extends Material {
+    }
+
+    static final class Material32 extends Material {
+    }
+
+    static final class Material33 extends Material {
+    }
+
+    static final class Material34 extends Material {
+    }
+
+    static final class Material35 extends Material {
+    }
+
+    static final class Material36 extends Material {
+    }
+
+    static final class Material37 extends Material {
+    }
+
+    static final class Material38 extends Material {
+    }
+
+    static final class Material39 extends Material {
+    }
+
+    private static final SubClassIndex SUB_CLASS_INDEX = new SubClassIndex(
+            Material00.class,
+            Material01.class,
+            Material02.class,
+            Material03.class,
+            Material04.class,
+            Material05.class,
+            Material06.class,
+            Material07.class,
+            Material08.class,
+            Material09.class,
+            Material10.class,
+            Material11.class,
+            Material12.class,
+            Material13.class,
+            Material14.class,
+            Material15.class,
+            Material16.class,
+            Material17.class,
+            Material18.class,
+            Material19.class,
+            Material20.class,
+            Material21.class,
+            Material22.class,
+            Material23.class,
+            Material24.class,
+            Material25.class,
+            Material26.class,
+            Material27.class,
+            Material28.class,
+            Material29.class,
+            Material30.class,
+            Material31.class,
+            Material32.class,
+            Material33.class,
+            Material34.class,
+            Material35.class,
+            Material36.class,
+            Material37.class,
+            Material38.class,
+            Material39.class);
+
+    private final Material[] materials = {
+            new Material00(),
+            new Material01(),
+            new Material02(),
+            new Material03(),
+            new Material04(),
+            new Material05(),
+            new Material06(),
+            new Material07(),
+            new Material08(),
+            new Material09(),
+            new Material10(),
+            new Material11(),
+            new Material12(),
+            new Material13(),
+            new Material14(),
+            new Material15(),
+            new Material16(),
+            new Material17(),
+            new Material18(),
+            new Material19(),
+            new Material20(),
+            new Material21(),
+            new Material22(),
+            new Material23(),
+            new Material24(),
+            new Material25(),
+            new Material26(),
+            new Material27(),
+            new Material28(),
+            new Material29(),
+            new Material30(),
+            new Material31(),
+            new Material32(),
+            new Material33(),
+            new Material34(),
+            new Material35(),
+            new Material36(),
+            new Material37(),
+            new Material38(),
+            new Material39()
+    };
+
+    private final String[] types = {
+            "material00",
+            "material01",
+            "material02",
+            "material03",
+            "material04",
+            "material05",
+            "material06",
+            "material07",
+            "material08",
+            "material09",
+            "material10",
+            "material11",
+            "material12",
+            "material13",
+            "material14",
+            "material15",
+            "material16",
+            "material17",
+            "material18",
+            "material19",
+            "material20",
+            "material21",
+            "material22",
+            "material23",
+            "material24",
+            "material25",
+            "material26",
+            "material27",
+            "material28",
+            "material29",
+            "material30",
+            "material31",
+            "material32",
+            "material33",
+            "material34",
+            "material35",
+            "material36",
+            "material37",
+            "material38",
+            "material39"
+    };
+
+    @Benchmark
+    public void renderWithInstanceofChain(Blackhole blackhole) {
+        for (Material material : materials) {
+            blackhole.consume(instanceofChain(material));
+        }
+    }
+
+    @Benchmark
+    public void renderWithSubClassIndex(Blackhole blackhole) {
+        for (Material material : materials) {
+            blackhole.consume(SUB_CLASS_INDEX.indexOf(material));
+        }
+    }
+
+    @Benchmark
+    public void parseWithEqualsChain(Blackhole blackhole) {
+        for (String type : types) {
+            blackhole.consume(equalsChain(type));
+        }
+    }
+
+    @Benchmark
+    public void parseWithStringSwitch(Blackhole blackhole) {
+        for (String type : types) {
+            blackhole.consume(stringSwitch(type));
+        }
+    }
+
+    private static int instanceofChain(Material material) {
+        if (material instanceof Material00) {
+            return 0;
+        } else if (material instanceof Material01) {
+            return 1;
+        } else if (material instanceof Material02) {
+            return 2;
+        } else if (material instanceof Material03) {
+            return 3;
+        } else if (material instanceof Material04) {
+            return 4;
+        } else if (material instanceof Material05) {
+            return 5;
+        } else if (material instanceof Material06) {
+            return 6;
+        } else if (material instanceof Material07) {
+            return 7;
+        } else if (material instanceof Material08) {
+            return 8;
+        } else if (material instanceof Material09) {
+            return 9;
+        } else if (material instanceof Material10) {
+            return 10;
+        } else if (material instanceof Material11) {
+            return 11;
+        } else if (material instanceof Material12) {
+            return 12;
+        } else if (material instanceof Material13) {
+            return 13;
+        } else if (material instanceof Material14) {
+            return 14;
+        } else if (material instanceof Material15) {
+            return 15;
+        } else if (material instanceof Material16) {
+            return 16;
+        } else if (material instanceof Material17) {
+            return 17;
+        } else if (material instanceof Material18) {
+            return 18;
+        } else if (material instanceof Material19) {
+            return 19;
+        } else if (material instanceof Material20) {
+            return 20;
+        } else if (material instanceof Material21) {
+            return 21;
+        } else if (material instanceof Material22) {
+            return 22;
+        } else if (material instanceof Material23) {
+            return 23;
+        } else if (material instanceof Material24) {
+            return 24;
+        } else if (material instanceof Material25) {
+            return 25;
+        } else if (material instanceof Material26) {
+            return 26;
+        } else if (material instanceof Material27) {
+            return 27;
+        } else if (material instanceof Material28) {
+            return 28;
+        } else if (material instanceof Material29) {
+            return 29;
+        } else if (material instanceof Material30) {
+            return 30;
+        } else if (material instanceof Material31) {
+            return 31;
+        } else if (material instanceof Material32) {
+            return 32;
+        } else if (material instanceof Material33) {
+            return 33;
+        } else if (material instanceof Material34) {
+            return 34;
+        } else if (material instanceof Material35) {
+            return 35;
+        } else if (material instanceof Material36) {
+            return 36;
+        } else if (material instanceof Material37) {
+            return 37;
+        } else if (material instanceof Material38) {
+            return 38;
+        } else if (material instanceof Material39) {
+            return 39;
+        }
+        return -1;
+    }
+
+    private static int equalsChain(String type) {
+        if ("material00".equals(type)) {
+            return 0;
+        } else if ("material01".equals(type)) {
+            return 1;
+        } else if ("material02".equals(type)) {
+            return 2;
+        } else if ("material03".equals(type)) {
+            return 3;
+        } else if ("material04".equals(type)) {
+            return 4;
+        } else if ("material05".equals(type)) {
+            return 5;
+        } else if ("material06".equals(type)) {
+            return 6;
+        } else if ("material07".equals(type)) {
+            return 7;
+        } else if ("material08".equals(type)) {
+            return 8;
+        } else if ("material09".equals(type)) {
+            return 9;
+        } else if ("material10".equals(type)) {
+            return 10;
+        } else if ("material11".equals(type)) {
+            return 11;
+        } else if ("material12".equals(type)) {
+            return 12;
+        } else if ("material13".equals(type)) {
+            return 13;
+        } else if ("material14".equals(type)) {
+            return 14;
+        } else if ("material15".equals(type)) {
+            return 15;
+        } else if ("material16".equals(type)) {
+            return 16;
+        } else if ("material17".equals(type)) {
+            return 17;
+        } else if ("material18".equals(type)) {
+            return 18;
+        } else if ("material19".equals(type)) {
+            return 19;
+        } else if ("material20".equals(type)) {
+            return 20;
+        } else if ("material21".equals(type)) {
+            return 21;
+        } else if ("material22".equals(type)) {
+            return 22;
+        } else if ("material23".equals(type)) {
+            return 23;
+        } else if ("material24".equals(type)) {
+            return 24;
+        } else if ("material25".equals(type)) {
+            return 25;
+        } else if ("material26".equals(type)) {
+            return 26;
+        } else if ("material27".equals(type)) {
+            return 27;
+        } else if ("material28".equals(type)) {
+            return 28;
+        } else if ("material29".equals(type)) {
+            return 29;
+        } else if ("material30".equals(type)) {
+            return 30;
+        } else if ("material31".equals(type)) {
+            return 31;
+        } else if ("material32".equals(type)) {
+            return 32;
+        } else if ("material33".equals(type)) {
+            return 33;
+        } else if ("material34".equals(type)) {
+            return 34;
+        } else if ("material35".equals(type)) {
+            return 35;
+        } else if ("material36".equals(type)) {
+            return 36;
+        } else if ("material37".equals(type)) {
+            return 37;
+        } else if ("material38".equals(type)) {
+            return 38;
+        } else if ("material39".equals(type)) {
+            return 39;
+        }
+        return -1;
+    }
+
+    private static int stringSwitch(String type) {
+        switch (type) {
+            case "material00":
+                return 0;
+            case "material01":
+                return 1;
+            case "material02":
+                return 2;
+            case "material03":
+                return 3;
+            case "material04":
+                return 4;
+            case "material05":
+                return 5;
+            case "material06":
+                return 6;
+            case "material07":
+                return 7;
+            case "material08":
+                return 8;
+            case "material09":
+                return 9;
+            case "material10":
+                return 10;
+            case "material11":
+                return 11;
+            case "material12":
+                return 12;
+            case "material13":
+                return 13;
+            case "material14":
+                return 14;
+            case "material15":
+                return 15;
+            case "material16":
+                return 16;
+            case "material17":
+                return 17;
+            case "material18":
+                return 18;
+            case "material19":
+                return 19;
+            case "material20":
+                return 20;
+            case "material21":
+                return 21;
+            case "material22":
+                return 22;
+            case "material23":
+                return 23;
+            case "material24":
+                return 24;
+            case "material25":
+                return 25;
+            case "material26":
+                return 26;
+            case "material27":
+                return 27;
+            case "material28":
+                return 28;
+            case "material29":
+                return 29;
+            case "material30":
+                return 30;
+            case "material31":
+                return 31;
+            case "material32":
+                return 32;
+            case "material33":
+                return 33;
+            case "material34":
+                return 34;
+            case "material35":
+                return 35;
+            case "material36":
+                return 36;
+            case "material37":
+                return 37;
+            case "material38":
+                return 38;
+            case "material39":
+                return 39;
+            default:
+                return -1;
+        }
+    }
+}
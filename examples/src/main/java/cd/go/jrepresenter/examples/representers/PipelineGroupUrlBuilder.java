@@ -19,16 +19,18 @@ package cd.go.jrepresenter.examples.representers;
 import cd.go.jrepresenter.RequestContext;
 import cd.go.jrepresenter.examples.PipelineGroup;
 import cd.go.jrepresenter.Link;
+import cd.go.jrepresenter.LinkTemplate;
 import cd.go.jrepresenter.LinksProvider;
 
 import java.util.Collections;
 import java.util.List;
 
 public class PipelineGroupUrlBuilder implements LinksProvider<PipelineGroup> {
+    private static final LinkTemplate SELF = LinkTemplate.compile("/go/pipeline-groups");
 
     @Override
     public List<Link> getLinks(PipelineGroup model, RequestContext requestContext) {
-        Link self = new Link("self", "http://example.com/go/pipeline-groups");
+        Link self = requestContext.build("self", SELF);
         return Collections.singletonList(self);
     }
 }
@@ -18,6 +18,7 @@ package cd.go.jrepresenter.examples.representers;
 
 import cd.go.jrepresenter.examples.Pipeline;
 import cd.go.jrepresenter.Link;
+import cd.go.jrepresenter.LinkTemplate;
 import cd.go.jrepresenter.LinksProvider;
 import cd.go.jrepresenter.RequestContext;
 
@@ -25,10 +26,11 @@ import java.util.Collections;
 import java.util.List;
 
 public class PipelineUrlBuilder implements LinksProvider<Pipeline> {
+    private static final LinkTemplate SELF = LinkTemplate.compile("/go/%s");
 
     @Override
     public List<Link> getLinks(Pipeline pipeline, RequestContext requestContext) {
-        Link self = new Link("self", "http://example.com/go/" + pipeline.getName().toString());
+        Link self = requestContext.build("self", SELF, pipeline.getName());
         return Collections.singletonList(self);
     }
 }
@@ -35,7 +35,7 @@ public interface StagesRepresenter {
     @Property(modelAttributeName = "createdTime", modelAttributeType = Timestamp.class, serializer = TimestampSerializer.class, deserializer = TimestampDeserializer.class)
     public String createdAt();
 
-    @Property(modelAttributeType = StageState.class, serializer = StateSerializer.class, deserializer = StateDeserializer.class)
+    @Property(modelAttributeType = StageState.class)
     public String state();
 
     class TimestampSerializer implements Function<Timestamp, String> {
@@ -51,18 +51,4 @@ public interface StagesRepresenter {
             return new Timestamp(Long.parseLong(s));
         }
     }
-
-    class StateSerializer implements Function<StageState, String> {
-        @Override
-        public String apply(StageState stageState) {
-            return stageState.name();
-        }
-    }
-
-    class StateDeserializer implements Function<String, StageState> {
-        @Override
-        public StageState apply(String s) {
-            return StageState.valueOf(s);
-        }
-    }
 }